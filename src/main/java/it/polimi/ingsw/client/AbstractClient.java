@@ -194,4 +194,10 @@ public abstract class AbstractClient {
      * @throws NetworkException if error occurs during network communication
      */
     public abstract void endTurn() throws NetworkException;
+
+    /**
+     * Abstract method to ask the whole game model, when the local one is out of date
+     * @throws NetworkException if error occurs during network communication
+     */
+    public abstract void requestResync() throws NetworkException;
 }
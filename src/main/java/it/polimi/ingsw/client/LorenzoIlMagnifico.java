@@ -49,6 +49,11 @@ import java.util.Map;
 
     private List<String> moveMessages;
 
+    /**
+     * Flag that indicates if the whole game has been asked and not received yet
+     */
+    private boolean resyncRequested;
+
     /**
      * Class constructor. A new user interface is created.
      * @param ui index of the preferred interface.
@@ -416,10 +421,38 @@ import java.util.Map;
      */
     @Override
     public void notifyModelUpdate(ClientUpdatePacket clientUpdatePacket) {
-        this.game = clientUpdatePacket.getGame();
+        GameDelta delta = clientUpdatePacket.getDelta();
+        if(delta == null){
+            this.game = clientUpdatePacket.getGame();
+            this.resyncRequested = false;
+        }
+        else if(game != null && delta.getVersion() <= game.getVersion())
+            return;
+        else if(game == null || !delta.appliesTo(game.getVersion())){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Update for version " + delta.getBaseVersion() + " rejected, asking the whole game.");
+            requestResync();
+            return;
+        }
+        else
+            delta.applyTo(game);
         this.moveMessages = clientUpdatePacket.getMessages();
     }
 
+    /**
+     * Method to ask the whole game model once, until it is received
+     */
+    private void requestResync() {
+        if(resyncRequested)
+            return;
+        resyncRequested = true;
+        try {
+            client.requestResync();
+        } catch (NetworkException e){
+            resyncRequested = false;
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot send resync request.");
+        }
+    }
+
     /**
      * Method to manage the support to the church
      * @param flag
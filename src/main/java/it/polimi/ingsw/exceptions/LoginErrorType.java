@@ -12,7 +12,8 @@ public enum LoginErrorType {
     USER_ALREADY_EXISTS("User already registered."),
     USER_ALREADY_LOGGEDIN("User already logged in."),
     USER_WRONG_PASSWORD("Password is wrong."),
-    USER_NOT_EXISTS("Password is wrong.");
+    USER_NOT_EXISTS("Password is wrong."),
+    SERVER_BUSY("Server is busy, try again later.");
 
     /**
      * Enumeration message.
@@ -0,0 +1,121 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Choices of a bot. It answers every question of the model at once with a simple rule, and records the answers
+ * with the keys read by {@link InformationChoicesHandler}, so the room replays the same choices on its game.
+ */
+/*package-local*/ class BotChoices implements InformationCallback {
+
+    /**
+     * Council privileges, from the preferred one.
+     */
+    private static final int[] PRIVILEGES = {2, 0, 1, 3, 4};
+
+    /**
+     * Choice of {@link DevelopmentCard#payCost} to pay with military points.
+     */
+    private static final int MILITARY_COST = 2;
+
+    /**
+     * Choice of {@link DevelopmentCard#payCost} to pay with resources.
+     */
+    private static final int RESOURCES_COST = 1;
+
+    /**
+     * Player that is choosing.
+     */
+    private Player player;
+
+    /**
+     * Discount of the personal board to choose, -1 for the first one.
+     */
+    private int discountIndex = -1;
+
+    /**
+     * Answers given, per key.
+     */
+    private Map<String, Object> decisions = new HashMap<>();
+
+    /**
+     * Start the choices of a move, forgetting the answers of the previous one.
+     * @param player that is performing the move.
+     * @param discountIndex of the personal board to choose, -1 for the first one.
+     * @return this object.
+     */
+    /*package-local*/ BotChoices reset(Player player, int discountIndex){
+        this.player = player;
+        this.discountIndex = discountIndex;
+        this.decisions = new HashMap<>();
+        return this;
+    }
+
+    /**
+     * Get the answers given since the last reset, to send them to the room.
+     * @return the choices of the player.
+     */
+    /*package-local*/ Map<String, Object> getDecisions(){
+        return this.decisions;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Privilege> chooseCouncilPrivilege(String reason, CouncilPrivilege councilPrivilege) {
+        List<Privilege> privileges = new ArrayList<>();
+        for(int i = 0; i < councilPrivilege.getNumberOfCouncilPrivileges() && i < PRIVILEGES.length; i++)
+            privileges.add(councilPrivilege.getPrivileges()[PRIVILEGES[i]]);
+        ArrayList<Privilege> recorded = (ArrayList<Privilege>) decisions.get(reason);
+        if(recorded == null)
+            decisions.put(reason, new ArrayList<>(privileges));
+        else
+            recorded.addAll(privileges);
+        return privileges;
+    }
+
+    @Override
+    public int chooseDoubleCost(PointsAndResources pointsAndResources, int militaryPointsGiven, int militaryPointsNeeded) {
+        int choice = player.getPersonalBoard().getValuables().get(PointType.MILITARY) >= militaryPointsNeeded ? MILITARY_COST : RESOURCES_COST;
+        decisions.put("double-cost", choice);
+        return choice;
+    }
+
+    @Override
+    public int chooseExchangeEffect(String card, PointsAndResources[] valuableToPay, PointsAndResources[] valuableEarned) {
+        int choice = 0;
+        for(int i = valuableToPay.length - 1; i >= 0; i--)
+            if(player.getPersonalBoard().getValuables().checkDecrease(valuableToPay[i]))
+                choice = i;
+        decisions.put(card, choice);
+        return choice;
+    }
+
+    @Override
+    public int choosePickUpDiscounts(String reason, List<PointsAndResources> discounts) {
+        int choice = discountIndex >= 0 && discountIndex < discounts.size() ? discountIndex : 0;
+        decisions.put(reason, choice);
+        return choice;
+    }
+
+    @Override
+    public DevelopmentCard chooseNewCard(String reason, DevelopmentCardColor[] developmentCardColors, int diceValue, PointsAndResources discount) {
+        return null;
+    }
+
+    @Override
+    public LeaderCard copyAnotherLeaderCard(String reason) {
+        return null;
+    }
+
+    @Override
+    public FamilyMemberColor choiceLeaderDice(String reason) {
+        decisions.put(reason, FamilyMemberColor.NEUTRAL);
+        return FamilyMemberColor.NEUTRAL;
+    }
+
+}
@@ -0,0 +1,211 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.exceptions.GameException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.SerializedPacket;
+import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Player played by the server, that fills the rooms where not enough players are waiting.
+ * It plays through the same methods of the room as the connections of the players: every message it receives
+ * runs a task on the pool of the bots, and its placements are chosen by a {@link MonteCarloSearch} on a copy of
+ * the game. A bot activates its leader cards as soon as it can, and always supports the church when it can.
+ */
+public class BotPlayer extends ServerPlayer {
+
+    /**
+     * Prefix of the usernames of the bots. Users cannot sign in or log in with it.
+     */
+    public static final String USERNAME_PREFIX = "@bot-";
+
+    /**
+     * Time budget of the search of a placement, in milliseconds.
+     */
+    private static final long MOVE_TIME_BUDGET = 2000;
+
+    /**
+     * Number of the last bot created, for the usernames.
+     */
+    private static final AtomicInteger BOTS = new AtomicInteger();
+
+    /**
+     * Time budget of the search of a placement, in milliseconds.
+     */
+    private final transient long moveTimeBudget;
+
+    /**
+     * Choices of the bot, recorded to send them to the room.
+     */
+    private final transient BotChoices choices = new BotChoices();
+
+    /**
+     * Class constructor of a bot with a new username.
+     */
+    public BotPlayer(){
+        this(USERNAME_PREFIX + BOTS.incrementAndGet(), MOVE_TIME_BUDGET);
+    }
+
+    /**
+     * Class constructor.
+     * @param username of the bot.
+     * @param moveTimeBudget time budget of the search of a placement, in milliseconds.
+     */
+    /*package-local*/ BotPlayer(String username, long moveTimeBudget){
+        setUsername(username);
+        this.moveTimeBudget = moveTimeBudget;
+    }
+
+    /**
+     * Check if a username is reserved to the bots.
+     * @param username to check.
+     * @return true if users cannot take it.
+     */
+    public static boolean isReserved(String username){
+        return username != null && username.startsWith(USERNAME_PREFIX);
+    }
+
+    @Override
+    public void sendPersonalTile(ArrayList<PersonalBoardTile> personalBoardTiles) {
+        MonteCarloSearch.execute(() -> {
+            getPersonalBoard().setPersonalBoardTile(personalBoardTiles.get(0));
+            getRoom().onPersonalTilesChosen();
+        });
+    }
+
+    @Override
+    public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) {
+        MonteCarloSearch.execute(() -> {
+            getPersonalBoard().setLeaderCard(leaderCards.get(0));
+            getRoom().onLeaderCardChosen();
+        });
+    }
+
+    @Override
+    public void notifyTurnStarted(String username, long seconds) {
+        if(!username.equals(getUsername()))
+            return;
+        Room room = getRoom();
+        PlayerTurn turn = room == null ? null : room.currentMove(this);
+        if(turn != null)
+            MonteCarloSearch.execute(() -> playTurn(room, turn));
+    }
+
+    @Override
+    public void supportForTheChurch(boolean flag) {
+        MonteCarloSearch.execute(() -> {
+            if(flag)
+                getRoom().onSupportToTheChurchChoice(this, false);
+            else
+                getRoom().endTurn(this);
+        });
+    }
+
+    @Override
+    public void sendGameInfo(Game game) { }
+
+    @Override
+    public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) { }
+
+    @Override
+    public void notifyEndGame(ServerPlayer[] ranking) { }
+
+    /**
+     * Play the move of the bot and end its turn. The search pool is shared by all the bots, so the task may run
+     * late: it does nothing if the turn already ended, and the search only takes a part of the time left.
+     * @param room of the bot.
+     * @param turn the bot was notified of.
+     */
+    private void playTurn(Room room, PlayerTurn turn){
+        if(!room.isCurrentTurn(turn))
+            return;
+        long budget = Math.min(moveTimeBudget, turn.remaining() / 4);
+        try {
+            Game game = (Game) room.encodeGame().decode();
+            Player player = game.getPlayer(getUsername());
+            activateLeaderCards(room, game, player);
+            SerializedPacket position = SerializedPacket.encode(game);
+            LegalMoves moves = new LegalMoveGenerator().generate(game, player, new LegalMoves());
+            MonteCarloSearch.Result result = MonteCarloSearch.search(position, room.getTurnOrder(), getUsername(), budget);
+            if(!room.isCurrentTurn(turn))
+                return;
+            for(int move : result.ranking())
+                if(placeFamilyMember(room, game, player, moves, move))
+                    break;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            Printer.printDebugMessage(BotPlayer.class.getSimpleName(), getUsername() + " cannot play its move.", e);
+        } finally {
+            room.endTurn(turn);
+        }
+    }
+
+    /**
+     * Activate the leader cards of the bot that meet their requisites, on the copy and then on the room.
+     * @param room of the bot.
+     * @param game copy of the game of the room.
+     * @param player the bot in the copy.
+     */
+    private void activateLeaderCards(Room room, Game game, Player player){
+        for(int i = 0; i < player.getPersonalBoard().getLeaderCards().size(); i++){
+            LeaderCard leaderCard = player.getPersonalBoard().getLeaderCards().get(i);
+            if(player.getPersonalBoard().isLeaderEffectActive(leaderCard.getLeaderCardName()))
+                continue;
+            try {
+                game.activateLeaderCard(player, i, 0, choices.reset(player, -1));
+            } catch (GameException | RuntimeException e) {
+                continue;
+            }
+            room.activateLeader(this, i, 0, choices.getDecisions());
+        }
+    }
+
+    /**
+     * Place a family member with a generated move, on the copy and then on the room.
+     * @param room of the bot.
+     * @param game copy of the game of the room.
+     * @param player the bot in the copy.
+     * @param moves generated on the copy.
+     * @param index of the move.
+     * @return true if the move is legal with the choices of the bot.
+     */
+    private boolean placeFamilyMember(Room room, Game game, Player player, LegalMoves moves, int index){
+        try {
+            moves.perform(index, game, player, choices.reset(player, moves.getDiscountIndex(index)));
+        } catch (GameException | RuntimeException e) {
+            return false;
+        }
+        FamilyMemberColor color = moves.getFamilyMemberColor(index);
+        int servants = moves.getServants(index);
+        Map<String, Object> decisions = choices.getDecisions();
+        switch (moves.getTarget(index)){
+            case TOWER:
+                room.setFamilyMemberInTower(this, color, servants, moves.getSpace(index), moves.getCell(index), decisions);
+                break;
+            case COUNCIL_PALACE:
+                room.setFamilyMemberInCouncil(this, color, servants, decisions);
+                break;
+            case MARKET:
+                room.setFamilyMemberInMarket(this, color, servants, moves.getSpace(index), decisions);
+                break;
+            case HARVEST_SIMPLE:
+                room.setFamilyMemberInHarvestSimple(this, color, servants, decisions);
+                break;
+            case PRODUCTION_SIMPLE:
+                room.setFamilyMemberInProductionSimple(this, color, servants, decisions);
+                break;
+            case HARVEST_EXTENDED:
+                room.setFamilyMemberInHarvestExtended(this, color, servants, decisions);
+                break;
+            default:
+                room.setFamilyMemberInProductionExtended(this, color, servants, decisions);
+                break;
+        }
+        return true;
+    }
+
+}
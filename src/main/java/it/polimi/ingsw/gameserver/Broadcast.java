@@ -0,0 +1,111 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.protocol.SerializedPacket;
+import it.polimi.ingsw.utility.Metrics;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A message sent by the room to many players. Every distinct packet is serialized once and the same bytes
+ * are written to all the players that need it. When the broadcast is completed its encode time and bytes
+ * are recorded in {@link Metrics}.
+ */
+/*package-local*/ class Broadcast {
+
+    /**
+     * Metric with the time spent serializing a broadcast, in microseconds.
+     */
+    /*package-local*/ static final String ENCODE_TIME = "broadcast.encode.micros";
+
+    /**
+     * Metric with the bytes serialized for a broadcast.
+     */
+    /*package-local*/ static final String ENCODED_BYTES = "broadcast.encoded.bytes";
+
+    /**
+     * Metric with the bytes sent to all the players for a broadcast.
+     */
+    /*package-local*/ static final String SENT_BYTES = "broadcast.sent.bytes";
+
+    /**
+     * Metric with the number of packets sent to players.
+     */
+    /*package-local*/ static final String DELIVERIES = "broadcast.deliveries";
+
+    /**
+     * Serialized packets per key.
+     */
+    private final Map<Object, SerializedPacket> packets;
+
+    /**
+     * Time spent serializing, in nanoseconds.
+     */
+    private long encodeNanos;
+
+    /**
+     * Bytes serialized.
+     */
+    private long encodedBytes;
+
+    /**
+     * Bytes sent.
+     */
+    private long sentBytes;
+
+    /**
+     * Packets sent.
+     */
+    private int deliveries;
+
+    /**
+     * Class constructor.
+     */
+    /*package-local*/ Broadcast(){
+        this.packets = new HashMap<>();
+    }
+
+    /**
+     * Get the packet for a key, serializing the content the first time the key is requested.
+     * @param key that identifies the content, players with the same key receive the same bytes.
+     * @param content to serialize.
+     * @return serialized packet.
+     * @throws IOException if the content cannot be serialized.
+     */
+    /*package-local*/ SerializedPacket packet(Object key, Supplier<? extends Serializable> content) throws IOException{
+        SerializedPacket packet = packets.get(key);
+        if(packet == null){
+            long start = System.nanoTime();
+            packet = SerializedPacket.encode(content.get());
+            encodeNanos += System.nanoTime() - start;
+            encodedBytes += packet.size();
+            packets.put(key, packet);
+        }
+        return packet;
+    }
+
+    /**
+     * Account a packet sent to a player.
+     * @param packet sent.
+     */
+    /*package-local*/ void sent(SerializedPacket packet){
+        sentBytes += packet.size();
+        deliveries++;
+    }
+
+    /**
+     * Record the metrics of the broadcast.
+     */
+    /*package-local*/ void complete(){
+        if(packets.isEmpty())
+            return;
+        Metrics.record(ENCODE_TIME, encodeNanos / 1000);
+        Metrics.record(ENCODED_BYTES, encodedBytes);
+        Metrics.record(SENT_BYTES, sentBytes);
+        Metrics.add(DELIVERIES, deliveries);
+    }
+
+}
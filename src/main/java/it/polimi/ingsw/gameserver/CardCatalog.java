@@ -0,0 +1,122 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.DevelopmentCard;
+import it.polimi.ingsw.model.ExcommunicationCard;
+import it.polimi.ingsw.model.LeaderCard;
+
+import java.util.*;
+
+/**
+ * Cards of the game, loaded once from the configuration files and shared by all rooms.
+ * Cards never change during a game: what a game changes, like the active leader cards of a player, is kept on
+ * the personal boards. So rooms share the same card instances without copying them, and a card can be looked up
+ * by its identifier, like the card of a logged event.
+ */
+public final class CardCatalog {
+
+    /**
+     * Development cards, in file order.
+     */
+    private final List<DevelopmentCard> developmentCards;
+
+    /**
+     * Development cards per identifier.
+     */
+    private final Map<Integer, DevelopmentCard> developmentCardsByID;
+
+    /**
+     * Leader cards, in file order.
+     */
+    private final List<LeaderCard> leaderCards;
+
+    /**
+     * Leader cards per name.
+     */
+    private final Map<String, LeaderCard> leaderCardsByName;
+
+    /**
+     * Excommunication cards, in file order.
+     */
+    private final List<ExcommunicationCard> excommunicationCards;
+
+    /**
+     * Excommunication cards per identifier.
+     */
+    private final Map<Integer, ExcommunicationCard> excommunicationCardsByID;
+
+    /**
+     * Class constructor.
+     * @param developmentCards parsed.
+     * @param leaderCards parsed.
+     * @param excommunicationCards parsed.
+     */
+    /*package-local*/ CardCatalog(List<DevelopmentCard> developmentCards, List<LeaderCard> leaderCards, List<ExcommunicationCard> excommunicationCards){
+        this.developmentCards = Collections.unmodifiableList(new ArrayList<>(developmentCards));
+        this.leaderCards = Collections.unmodifiableList(new ArrayList<>(leaderCards));
+        this.excommunicationCards = Collections.unmodifiableList(new ArrayList<>(excommunicationCards));
+        Map<Integer, DevelopmentCard> developmentIndex = new HashMap<>();
+        for(DevelopmentCard card : developmentCards)
+            developmentIndex.put(card.getId(), card);
+        Map<String, LeaderCard> leaderIndex = new HashMap<>();
+        for(LeaderCard card : leaderCards)
+            leaderIndex.put(card.getLeaderCardName(), card);
+        Map<Integer, ExcommunicationCard> excommunicationIndex = new HashMap<>();
+        for(ExcommunicationCard card : excommunicationCards)
+            excommunicationIndex.put(card.getCardID(), card);
+        this.developmentCardsByID = Collections.unmodifiableMap(developmentIndex);
+        this.leaderCardsByName = Collections.unmodifiableMap(leaderIndex);
+        this.excommunicationCardsByID = Collections.unmodifiableMap(excommunicationIndex);
+    }
+
+    /**
+     * Get all development cards.
+     * @return unmodifiable list of the cards.
+     */
+    public List<DevelopmentCard> getDevelopmentCards(){
+        return this.developmentCards;
+    }
+
+    /**
+     * Get all leader cards.
+     * @return unmodifiable list of the cards.
+     */
+    public List<LeaderCard> getLeaderCards(){
+        return this.leaderCards;
+    }
+
+    /**
+     * Get all excommunication cards.
+     * @return unmodifiable list of the cards.
+     */
+    public List<ExcommunicationCard> getExcommunicationCards(){
+        return this.excommunicationCards;
+    }
+
+    /**
+     * Get a development card.
+     * @param id of the card.
+     * @return the card, null if there is no card with this identifier.
+     */
+    public DevelopmentCard getDevelopmentCard(int id){
+        return this.developmentCardsByID.get(id);
+    }
+
+    /**
+     * Get a leader card.
+     * @param name of the card.
+     * @return the card, null if there is no card with this name.
+     */
+    public LeaderCard getLeaderCard(String name){
+        return this.leaderCardsByName.get(name);
+    }
+
+    /**
+     * Get an excommunication card.
+     * @param id of the card.
+     * @return the card, null if there is no card with this identifier.
+     */
+    public ExcommunicationCard getExcommunicationCard(int id){
+        return this.excommunicationCardsByID.get(id);
+    }
+
+}
@@ -0,0 +1,279 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Directory with the last checkpoint of each running room, one file per room.
+ * Rooms encode their checkpoints on their own thread, a single writer thread compresses and saves them in order:
+ * each file is written aside and then renamed over the previous one, so a crash leaves either checkpoint whole.
+ * The checkpoint of a room is deleted when its game ends.
+ * The store knows the log sequence of each checkpoint on disk, so {@link #trim(EventLog)} deletes the segments
+ * of the event log that no checkpoint needs for recovery.
+ */
+public class CheckpointStore implements Closeable {
+
+    /**
+     * Metric with the time a room spent encoding its checkpoint.
+     */
+    public static final String ENCODE_TIME = "checkpoint.encode.micros";
+
+    /**
+     * Metric with the time spent saving a checkpoint.
+     */
+    public static final String WRITE_TIME = "checkpoint.write.micros";
+
+    /**
+     * Metric with the compressed bytes of the checkpoints saved.
+     */
+    public static final String SIZE = "checkpoint.bytes";
+
+    /**
+     * Metric with the number of checkpoints that could not be saved.
+     */
+    public static final String LOST = "checkpoint.lost";
+
+    /**
+     * Prefix of the checkpoint files.
+     */
+    private static final String PREFIX = "room-";
+
+    /**
+     * Suffix of the checkpoint files.
+     */
+    private static final String SUFFIX = ".checkpoint";
+
+    /**
+     * Suffix of the files being written.
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Bytes of the compression buffers.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Seconds to wait for the pending checkpoints on close.
+     */
+    private static final int CLOSE_TIMEOUT = 10;
+
+    /**
+     * Directory of the checkpoints.
+     */
+    private final Path directory;
+
+    /**
+     * Thread that writes the checkpoints.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * Log sequence of the checkpoint of each room on disk. Only the writer thread changes it after the constructor.
+     */
+    private final Map<Integer, Long> sequences;
+
+    /**
+     * Last sequence of the event log at the previous trim. Checkpoints encoded since then may still be on their way
+     * to the writer, so the log is never trimmed after it. Only used by the writer thread.
+     */
+    private long trimmedSequence;
+
+    /**
+     * Class constructor.
+     * @param directory of the checkpoints, created if missing.
+     * @throws IOException if the directory cannot be created.
+     */
+    public CheckpointStore(Path directory) throws IOException{
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.sequences = new ConcurrentHashMap<>();
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "room-checkpoints");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Save the checkpoint of a room, replacing the previous one.
+     * @param roomID identifier of the room.
+     * @param sequence of the last event included in the checkpoint.
+     * @param checkpoint encoded by {@link RoomCheckpoint#encode(RoomCheckpoint)}.
+     */
+    /*package-local*/ void save(int roomID, long sequence, byte[] checkpoint){
+        submit(roomID, () -> {
+            long start = System.nanoTime();
+            Path temporary = directory.resolve(PREFIX + roomID + TEMPORARY_SUFFIX);
+            try(OutputStream output = new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE)){
+                output.write(checkpoint);
+            }
+            Files.move(temporary, path(roomID), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            sequences.put(roomID, sequence);
+            Metrics.histogram(WRITE_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            Metrics.histogram(SIZE).record(Files.size(path(roomID)));
+        });
+    }
+
+    /**
+     * Delete the checkpoint of a room, after the checkpoints already queued.
+     * @param roomID identifier of the room.
+     */
+    /*package-local*/ void delete(int roomID){
+        submit(roomID, () -> {
+            Files.deleteIfExists(path(roomID));
+            sequences.remove(roomID);
+        });
+    }
+
+    /**
+     * Delete, after the checkpoints already queued, the segments of the event log that no checkpoint on disk needs:
+     * recovery replays each room from the event after its checkpoint.
+     * @param log of the game events.
+     */
+    public void trim(EventLog log){
+        try {
+            writer.execute(() -> {
+                long keep = trimmedSequence;
+                for(long sequence : sequences.values())
+                    keep = Math.min(keep, sequence);
+                trimmedSequence = log.getLastSequence();
+                try {
+                    log.deleteBefore(keep + 1);
+                } catch (IOException e){
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot trim the event log.", e);
+                }
+            });
+        } catch (RejectedExecutionException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot trim the event log, the store is closed.");
+        }
+    }
+
+    /**
+     * Read the checkpoints of all the rooms. Files that cannot be read, for example written by another
+     * version of the server, are skipped. Checkpoints are decoded in parallel.
+     * @return the checkpoints.
+     * @throws IOException if the directory cannot be listed.
+     */
+    /*package-local*/ List<RoomCheckpoint> load() throws IOException{
+        List<Path> paths = new ArrayList<>();
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)){
+            for(Path path : stream)
+                paths.add(path);
+        }
+        List<RoomCheckpoint> checkpoints = paths.parallelStream().map(this::read).filter(Objects::nonNull).collect(Collectors.toList());
+        for(RoomCheckpoint checkpoint : checkpoints)
+            sequences.put(checkpoint.getRoomID(), checkpoint.getSequence());
+        return checkpoints;
+    }
+
+    /**
+     * Wait until the checkpoints queued so far are saved.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    /*package-local*/ void flush() throws InterruptedException{
+        try {
+            writer.submit(() -> { }).get();
+        } catch (ExecutionException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Save the pending checkpoints and stop the writer.
+     */
+    @Override
+    public void close(){
+        writer.shutdown();
+        try {
+            if(!writer.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS))
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Checkpoints still pending on close.");
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read a checkpoint file.
+     * @param path of the file.
+     * @return the checkpoint, or null if it cannot be read.
+     */
+    private RoomCheckpoint read(Path path){
+        try(InputStream input = new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE)){
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for(int read = input.read(buffer); read >= 0; read = input.read(buffer))
+                bytes.write(buffer, 0, read);
+            return RoomCheckpoint.decode(bytes.toByteArray());
+        } catch (IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot read " + path.getFileName() + ".", e);
+            return null;
+        }
+    }
+
+    /**
+     * Queue a write of the checkpoints.
+     * @param roomID identifier of the room.
+     * @param write to run.
+     */
+    private void submit(int roomID, Write write){
+        try {
+            writer.execute(() -> {
+                try {
+                    write.run();
+                } catch (IOException e){
+                    Metrics.increment(LOST);
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot write the checkpoint of room #" + roomID + ".", e);
+                }
+            });
+        } catch (RejectedExecutionException e){
+            Metrics.increment(LOST);
+        }
+    }
+
+    /**
+     * Get the file of the checkpoint of a room.
+     * @param roomID identifier of the room.
+     * @return path of the file.
+     */
+    private Path path(int roomID){
+        return directory.resolve(PREFIX + roomID + SUFFIX);
+    }
+
+    /**
+     * Write of the checkpoints.
+     */
+    @FunctionalInterface
+    private interface Write {
+
+        /**
+         * Run the write.
+         * @throws IOException if the file cannot be written.
+         */
+        void run() throws IOException;
+    }
+
+}
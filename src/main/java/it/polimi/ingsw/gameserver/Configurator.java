@@ -2,6 +2,9 @@ package it.polimi.ingsw.gameserver;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import it.polimi.ingsw.exceptions.ConfigurationException;
@@ -14,6 +17,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class is a singleton. It loads all configurations from the files.
@@ -35,24 +39,30 @@ public class Configurator {
     private static Configuration configuration;
 
     /**
-     * Development cards deck.
+     * Cards shared by all rooms.
      */
-    private static ArrayList<DevelopmentCard> developmentCards;
+    private static CardCatalog catalog;
 
     /**
-     * Leader cards deck.
+     * Gson object reference.
      */
-    private static ArrayList<LeaderCard> leaderCards;
+    private static Gson gson = new Gson();
 
     /**
-     * Excommunication cards deck
+     * Read the resources and points maps of the files into the array of {@link PointsAndResources}.
+     * Missing types are zero.
      */
-    private static ArrayList<ExcommunicationCard> excommunicationCards;
-
-    /**
-     * Gson object reference.
-     */
-    private static Gson gson = new Gson();
+    private static final JsonDeserializer<PointsAndResources> VALUABLES_DESERIALIZER = (json, type, context) -> {
+        PointsAndResources valuables = new PointsAndResources();
+        JsonObject object = json.getAsJsonObject();
+        if(object.has("resources"))
+            for(Map.Entry<String, JsonElement> entry : object.getAsJsonObject("resources").entrySet())
+                valuables.increase(ResourceType.valueOf(entry.getKey()), entry.getValue().getAsInt());
+        if(object.has("points"))
+            for(Map.Entry<String, JsonElement> entry : object.getAsJsonObject("points").entrySet())
+                valuables.increase(PointType.valueOf(entry.getKey()), entry.getValue().getAsInt());
+        return valuables;
+    };
 
     /**
      * Effect factory reference.
@@ -76,19 +86,18 @@ public class Configurator {
         try {
             loadRuntimeTypeAdapterFactory();
             parseConfiguration();
-            parseDevelopmentCard();
-            parseLeaderCard();
-            parseExcommunicationCard();
+            catalog = new CardCatalog(parseDevelopmentCard(), parseLeaderCard(), parseExcommunicationCard());
         } catch(FileNotFoundException e){
             throw new ConfigurationException(e);
         }
     }
 
     /**
-     * This method is called from server to instantiate the singleton.
+     * This method is called from server to instantiate the singleton. The files are loaded only the first time.
      */
-    public static void loadConfigurations() throws ConfigurationException{
-        new Configurator();
+    public static synchronized void loadConfigurations() throws ConfigurationException{
+        if(catalog == null)
+            new Configurator();
     }
 
     /**
@@ -138,7 +147,8 @@ public class Configurator {
      * Main parsing method. This method calls all needed method to parseConfiguration the file.
      */
     private static void parseConfiguration() throws FileNotFoundException {
-        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(effectFactory);
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(effectFactory)
+                .registerTypeAdapter(PointsAndResources.class, VALUABLES_DESERIALIZER);
         gson = builder.create();
         JsonReader reader = new JsonReader(new FileReader(C_FILEPATH));
         configuration = gson.fromJson(reader, Configuration.class);
@@ -149,25 +159,28 @@ public class Configurator {
      * @return array of cards.
      * @throws FileNotFoundException if file is not found.
      */
-    private static void parseDevelopmentCard() throws FileNotFoundException{
-        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(effectFactory);
+    private static List<DevelopmentCard> parseDevelopmentCard() throws FileNotFoundException{
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(effectFactory)
+                .registerTypeAdapter(PointsAndResources.class, VALUABLES_DESERIALIZER);
         gson = builder.create();
         JsonReader reader = new JsonReader(new FileReader(DC_FILEPATH));
-        developmentCards = gson.fromJson(reader, new TypeToken<List<DevelopmentCard>>(){}.getType());
+        return gson.fromJson(reader, new TypeToken<List<DevelopmentCard>>(){}.getType());
     }
 
-    private static void parseLeaderCard() throws FileNotFoundException{
-        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(leaderEffectFactory);
+    private static List<LeaderCard> parseLeaderCard() throws FileNotFoundException{
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(leaderEffectFactory)
+                .registerTypeAdapter(PointsAndResources.class, VALUABLES_DESERIALIZER);
         gson = builder.create();
         JsonReader reader = new JsonReader(new FileReader(LC_FILEPATH));
-        leaderCards = gson.fromJson(reader, new TypeToken<List<LeaderCard>>(){}.getType());
+        return gson.fromJson(reader, new TypeToken<List<LeaderCard>>(){}.getType());
     }
 
-    private static void parseExcommunicationCard() throws FileNotFoundException{
-        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(excommunicationEffectFactory);
+    private static List<ExcommunicationCard> parseExcommunicationCard() throws FileNotFoundException{
+        GsonBuilder builder = new GsonBuilder().registerTypeAdapterFactory(excommunicationEffectFactory)
+                .registerTypeAdapter(PointsAndResources.class, VALUABLES_DESERIALIZER);
         gson = builder.create();
         JsonReader reader = new JsonReader(new FileReader(EX_FILEPATH));
-        excommunicationCards = gson.fromJson(reader, new TypeToken<List<ExcommunicationCard>>(){}.getType());
+        return gson.fromJson(reader, new TypeToken<List<ExcommunicationCard>>(){}.getType());
     }
 
     /**
@@ -178,32 +191,40 @@ public class Configurator {
         return configuration;
     }
 
+    /**
+     * Return the cards shared by all rooms.
+     * @return the catalog of the cards.
+     */
+    public static CardCatalog getCatalog(){
+        return catalog;
+    }
+
     /**
      * Return all leader cards.
-     * @return array list of leader cards.
+     * @return unmodifiable list of leader cards.
      */
-    public static ArrayList<LeaderCard> getLeaderCards(){
-        return leaderCards;
+    public static List<LeaderCard> getLeaderCards(){
+        return catalog.getLeaderCards();
     }
 
     /**
      * Gets all development cards
-     * @return all development cards
+     * @return all development cards, unmodifiable
      */
-    /*package-local*/ static ArrayList<DevelopmentCard> getDevelopmentCards(){
-        return developmentCards;
+    /*package-local*/ static List<DevelopmentCard> getDevelopmentCards(){
+        return catalog.getDevelopmentCards();
     }
 
     /**
      * Gets all excommunication cards
-     * @return all excommunication cards
+     * @return all excommunication cards, unmodifiable
      */
-    /*package-local*/ static ArrayList<ExcommunicationCard> getExcommunicationCards(){
-        return excommunicationCards;
+    /*package-local*/ static List<ExcommunicationCard> getExcommunicationCards(){
+        return catalog.getExcommunicationCards();
     }
 
-    /*package-local*/ static GameManager buildAndGetGame(ArrayList<ServerPlayer> roomPlayers, Configuration configuration){
-        return new GameManager(roomPlayers, configuration, developmentCards, leaderCards, excommunicationCards);
+    /*package-local*/ static GameManager buildAndGetGame(ArrayList<ServerPlayer> roomPlayers, Configuration configuration, long seed){
+        return new GameManager(roomPlayers, configuration, catalog.getDevelopmentCards(), catalog.getLeaderCards(), catalog.getExcommunicationCards(), seed);
     }
 
-}
\ No newline at end of file
+}
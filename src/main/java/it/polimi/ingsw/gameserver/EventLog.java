@@ -0,0 +1,680 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the game events of the server, in memory-mapped segment files of fixed size.
+ * Appending a record only copies its bytes into the mapped segment, under a lock held for the copy.
+ * A flusher thread forces the written segments to disk in batches (group commit): when enough bytes
+ * are pending or when the flush interval expires, whichever comes first. Who needs a record on disk
+ * waits for it with {@link #awaitDurable(long, long)}, the game never does.
+ *
+ * Each record is laid out as: body length (int), CRC32 of the body (int), then the body: sequence (long),
+ * time in milliseconds (long), room (int), type (byte) and the payload. A zero length marks the end of a segment.
+ * Segments are named after the sequence of their first record. Old segments are deleted with
+ * {@link #deleteBefore(long)} once no checkpoint needs their records.
+ */
+public class EventLog implements Closeable {
+
+    /**
+     * Metric with the time spent appending a record.
+     */
+    public static final String APPEND_TIME = "eventlog.append.micros";
+
+    /**
+     * Metric with the time spent forcing segments to disk.
+     */
+    public static final String FLUSH_TIME = "eventlog.flush.micros";
+
+    /**
+     * Metric with the number of records made durable by a single flush.
+     */
+    public static final String FLUSH_BATCH = "eventlog.flush.records";
+
+    /**
+     * Metric with the number of segments deleted.
+     */
+    public static final String DELETED_SEGMENTS = "eventlog.segments.deleted";
+
+    /**
+     * Default size of a segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Default milliseconds between two flushes.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 10;
+
+    /**
+     * Default number of pending bytes that triggers a flush before the interval expires.
+     */
+    public static final int DEFAULT_FLUSH_BYTES = 64 * 1024;
+
+    /**
+     * Bytes of the length and the checksum of a record.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Bytes of the fixed fields of a record body: sequence, time, room and type.
+     */
+    private static final int BODY_FIXED_SIZE = 21;
+
+    /**
+     * Prefix of the segment files.
+     */
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    /**
+     * Suffix of the segment files.
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Directory of the segments.
+     */
+    private final Path directory;
+
+    /**
+     * Size of each segment.
+     */
+    private final int segmentSize;
+
+    /**
+     * Milliseconds between two flushes.
+     */
+    private final long flushInterval;
+
+    /**
+     * Pending bytes that trigger a flush.
+     */
+    private final int flushBytes;
+
+    /**
+     * Lock of appends and of the state shared with the flusher.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * Lock used to wait for durability.
+     */
+    private final Object durableLock = new Object();
+
+    /**
+     * Segment being written.
+     */
+    private MappedByteBuffer segment;
+
+    /**
+     * Channel of the segment being written.
+     */
+    private FileChannel channel;
+
+    /**
+     * Full segments not forced to disk yet, in the order they were written.
+     */
+    private List<MappedByteBuffer> rotatedSegments = new ArrayList<>();
+
+    /**
+     * Channels of the full segments, at the same index as their segment, closed once it is forced to disk.
+     */
+    private List<FileChannel> rotatedChannels = new ArrayList<>();
+
+    /**
+     * Sequence of the next record.
+     */
+    private long nextSequence;
+
+    /**
+     * Bytes appended since the last flush.
+     */
+    private long pendingBytes;
+
+    /**
+     * Sequence of the last record forced to disk.
+     */
+    private volatile long durableSequence;
+
+    /**
+     * Flag that indicates if the log has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Thread that forces segments to disk.
+     */
+    private final Thread flusher;
+
+    /**
+     * Encoding buffer of each appending thread.
+     */
+    private final ThreadLocal<Record> records = ThreadLocal.withInitial(Record::new);
+
+    /**
+     * Class constructor. Appends after the records already in the directory.
+     * @param directory of the segments, created if missing.
+     * @param segmentSize bytes of each segment.
+     * @param flushInterval milliseconds between two flushes.
+     * @param flushBytes pending bytes that trigger a flush.
+     * @throws IOException if the segments cannot be opened.
+     */
+    public EventLog(Path directory, int segmentSize, long flushInterval, int flushBytes) throws IOException{
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushInterval = flushInterval;
+        this.flushBytes = flushBytes;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        if(segments.isEmpty()){
+            nextSequence = 1;
+            openSegment(nextSequence);
+        }
+        else
+            reopenSegment(segments.get(segments.size() - 1));
+        durableSequence = nextSequence - 1;
+        flusher = new Thread(this::flushLoop, "event-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Start a record. The payload is written on the returned record, then {@link Record#append()} adds it to the log.
+     * The record belongs to the calling thread and must be appended before starting another one.
+     * @param roomID room of the event.
+     * @param type of the event.
+     * @return the record to fill.
+     */
+    public Record record(int roomID, byte type){
+        return records.get().start(roomID, type);
+    }
+
+    /**
+     * Get the sequence of the last record forced to disk.
+     * @return durable sequence, 0 if none.
+     */
+    public long getDurableSequence(){
+        return this.durableSequence;
+    }
+
+    /**
+     * Get the sequence of the last record appended.
+     * @return last sequence, 0 if none.
+     */
+    public long getLastSequence(){
+        synchronized (appendLock){
+            return nextSequence - 1;
+        }
+    }
+
+    /**
+     * Wait until a record is forced to disk.
+     * @param sequence of the record.
+     * @param timeout in milliseconds.
+     * @return true if the record is durable.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean awaitDurable(long sequence, long timeout) throws InterruptedException{
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (durableLock){
+            while(durableSequence < sequence){
+                long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if(left <= 0)
+                    return durableSequence >= sequence;
+                durableLock.wait(left);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Force all the records to disk and close the segments.
+     */
+    @Override
+    public void close(){
+        synchronized (appendLock){
+            if(closed)
+                return;
+            closed = true;
+            appendLock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot close the event log.", e);
+        }
+        synchronized (durableLock){
+            durableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Delete the segments whose records all come before a sequence. The segment being written and the segments
+     * with records not forced to disk yet are never deleted.
+     * @param sequence first sequence to keep.
+     * @return number of segments deleted.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    public int deleteBefore(long sequence) throws IOException{
+        long keep = Math.min(sequence, durableSequence + 1);
+        List<Path> segments = segments(directory);
+        int deleted = 0;
+        for(int i = 0; i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= keep; i++){
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+        }
+        Metrics.add(DELETED_SEGMENTS, deleted);
+        return deleted;
+    }
+
+    /**
+     * Read all the records of a log, in order. Reading stops at the first incomplete or corrupted record.
+     * @param directory of the segments.
+     * @param reader called for each record.
+     * @return sequence of the last record read, 0 if none.
+     * @throws IOException if the segments cannot be read.
+     */
+    public static long read(Path directory, RecordReader reader) throws IOException{
+        return read(directory, 1, reader);
+    }
+
+    /**
+     * Read the records of a log from a sequence, in order. Segments that end before the sequence are skipped,
+     * so the reader may still receive a few older records of the first segment read.
+     * Reading stops at the first incomplete or corrupted record.
+     * @param directory of the segments.
+     * @param fromSequence first sequence needed.
+     * @param reader called for each record.
+     * @return sequence of the last record read, 0 if none.
+     * @throws IOException if the segments cannot be read.
+     */
+    public static long read(Path directory, long fromSequence, RecordReader reader) throws IOException{
+        long last = 0;
+        List<Path> segments = segments(directory);
+        for(int i = 0; i < segments.size(); i++){
+            if(i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence)
+                continue;
+            Path path = segments.get(i);
+            try(FileChannel segment = FileChannel.open(path, StandardOpenOption.READ)){
+                ByteBuffer buffer = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+                long end = scan(buffer, reader);
+                if(end > 0)
+                    last = end;
+                if(corrupted(buffer))
+                    return last;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Copy an encoded record into the current segment, rotating it when full.
+     * @param bytes of the record, from position to limit.
+     * @return sequence of the record.
+     */
+    private long append(ByteBuffer bytes){
+        long start = System.nanoTime();
+        long sequence;
+        synchronized (appendLock){
+            if(closed)
+                throw new IllegalStateException("Event log closed.");
+            if(bytes.remaining() + HEADER_SIZE > segmentSize)
+                throw new IllegalArgumentException("Event of " + bytes.remaining() + " bytes is larger than a segment.");
+            if(segment.remaining() < bytes.remaining() + HEADER_SIZE)
+                rotate();
+            sequence = nextSequence++;
+            bytes.putLong(HEADER_SIZE, sequence);
+            CRC32 crc = new CRC32();
+            ByteBuffer body = bytes.duplicate();
+            body.position(HEADER_SIZE);
+            crc.update(body);
+            bytes.putInt(4, (int) crc.getValue());
+            pendingBytes += bytes.remaining();
+            segment.put(bytes);
+            if(pendingBytes >= flushBytes)
+                appendLock.notifyAll();
+        }
+        Metrics.histogram(APPEND_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return sequence;
+    }
+
+    /**
+     * Close the current segment and open the next one. Must hold the append lock.
+     */
+    private void rotate(){
+        rotatedSegments.add(segment);
+        rotatedChannels.add(channel);
+        try {
+            openSegment(nextSequence);
+        } catch (IOException e){
+            throw new IllegalStateException("Cannot open a new segment of the event log.", e);
+        }
+    }
+
+    /**
+     * Create and map a new segment.
+     * @param firstSequence sequence of its first record.
+     * @throws IOException if the segment cannot be created.
+     */
+    private void openSegment(long firstSequence) throws IOException{
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    /**
+     * Map the last segment of an existing log and move after its last valid record.
+     * @param path of the segment.
+     * @throws IOException if the segment cannot be opened.
+     */
+    private void reopenSegment(Path path) throws IOException{
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        nextSequence = firstSequence(path);
+        ByteBuffer buffer = segment.duplicate();
+        long last = scan(buffer, null);
+        if(last != 0)
+            nextSequence = last + 1;
+        segment.position(buffer.position());
+        if(corrupted(buffer))
+            for(int i = buffer.position(); i < segment.limit(); i++)
+                segment.put(i, (byte) 0);
+    }
+
+    /**
+     * Read the records of a segment.
+     * @param buffer of the segment, left at the end of the last valid record.
+     * @param reader called for each record, or null.
+     * @return sequence of the last valid record, 0 if none.
+     */
+    private static long scan(ByteBuffer buffer, RecordReader reader){
+        long last = 0;
+        CRC32 crc = new CRC32();
+        while(buffer.remaining() >= HEADER_SIZE){
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if(length == 0)
+                break;
+            if(length < BODY_FIXED_SIZE || length > buffer.remaining() - HEADER_SIZE)
+                return last;
+            ByteBuffer body = buffer.duplicate();
+            body.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if((int) crc.getValue() != buffer.getInt(start + 4))
+                return last;
+            last = body.getLong();
+            long time = body.getLong();
+            int roomID = body.getInt();
+            byte type = body.get();
+            if(reader != null)
+                reader.read(last, time, roomID, type, body.slice());
+            buffer.position(start + HEADER_SIZE + length);
+        }
+        return last;
+    }
+
+    /**
+     * Check if a scanned segment goes on after its last valid record, with an incomplete or corrupted one.
+     * @param buffer of the segment, at the end of the last valid record.
+     * @return true if the segment is corrupted.
+     */
+    private static boolean corrupted(ByteBuffer buffer){
+        return buffer.remaining() >= HEADER_SIZE && buffer.getInt(buffer.position()) != 0;
+    }
+
+    /**
+     * Get the sequence of the first record of a segment, from its name.
+     * @param path of the segment.
+     * @return first sequence.
+     */
+    private static long firstSequence(Path path){
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Get the segments of a log, in order.
+     * @param directory of the segments.
+     * @return paths of the segments.
+     * @throws IOException if the directory cannot be listed.
+     */
+    private static List<Path> segments(Path directory) throws IOException{
+        List<Path> segments = new ArrayList<>();
+        if(!Files.isDirectory(directory))
+            return segments;
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)){
+            for(Path path : stream)
+                segments.add(path);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Loop of the flusher: force the pending records at every interval, or earlier when enough bytes are pending.
+     */
+    private void flushLoop(){
+        while(!closed){
+            synchronized (appendLock){
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushInterval);
+                try {
+                    while(!closed && pendingBytes < flushBytes){
+                        long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                        if(left <= 0)
+                            break;
+                        appendLock.wait(left);
+                    }
+                } catch (InterruptedException e){
+                    return;
+                }
+            }
+            if(!closed)
+                flush();
+        }
+    }
+
+    /**
+     * Force to disk the records appended so far.
+     */
+    private void flush(){
+        MappedByteBuffer current;
+        List<MappedByteBuffer> full;
+        List<FileChannel> fullChannels;
+        long sequence;
+        synchronized (appendLock){
+            if(pendingBytes == 0)
+                return;
+            current = segment;
+            full = rotatedSegments;
+            fullChannels = rotatedChannels;
+            rotatedSegments = new ArrayList<>();
+            rotatedChannels = new ArrayList<>();
+            sequence = nextSequence - 1;
+            pendingBytes = 0;
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < full.size(); i++){
+            full.get(i).force();
+            try {
+                fullChannels.get(i).close();
+            } catch (IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot close a segment of the event log.", e);
+            }
+        }
+        current.force();
+        Metrics.histogram(FLUSH_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        Metrics.histogram(FLUSH_BATCH).record(sequence - durableSequence);
+        synchronized (durableLock){
+            durableSequence = sequence;
+            durableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Callback of {@link #read(Path, RecordReader)}.
+     */
+    @FunctionalInterface
+    public interface RecordReader {
+
+        /**
+         * Read a record.
+         * @param sequence of the record.
+         * @param time of the record, in milliseconds since the epoch.
+         * @param roomID room of the event.
+         * @param type of the event.
+         * @param payload of the event, read with {@link #getString(ByteBuffer)} and {@link #getBytes(ByteBuffer)}.
+         */
+        void read(long sequence, long time, int roomID, byte type, ByteBuffer payload);
+
+        /**
+         * Read a string written with {@link Record#putString(String)}.
+         * @param payload to read from.
+         * @return the string.
+         * @throws BufferUnderflowException if the payload ends before the string.
+         */
+        static String getString(ByteBuffer payload){
+            byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+            payload.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read a byte array written with {@link Record#putBytes(byte[])}.
+         * @param payload to read from.
+         * @return the bytes.
+         */
+        static byte[] getBytes(ByteBuffer payload){
+            byte[] bytes = new byte[payload.getInt()];
+            payload.get(bytes);
+            return bytes;
+        }
+    }
+
+    /**
+     * Record being encoded by a thread. Its buffer is reused by the next records of the same thread.
+     */
+    public class Record {
+
+        /**
+         * Encoding buffer.
+         */
+        private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        /**
+         * Start a new record.
+         * @param roomID room of the event.
+         * @param type of the event.
+         * @return this record.
+         */
+        private Record start(int roomID, byte type){
+            buffer.clear();
+            buffer.position(HEADER_SIZE + 8);
+            buffer.putLong(System.currentTimeMillis());
+            buffer.putInt(roomID);
+            buffer.put(type);
+            return this;
+        }
+
+        /**
+         * Write a byte.
+         * @param value to write.
+         * @return this record.
+         */
+        public Record put(byte value){
+            ensure(1).put(value);
+            return this;
+        }
+
+        /**
+         * Write an int.
+         * @param value to write.
+         * @return this record.
+         */
+        public Record putInt(int value){
+            ensure(4).putInt(value);
+            return this;
+        }
+
+        /**
+         * Write a long.
+         * @param value to write.
+         * @return this record.
+         */
+        public Record putLong(long value){
+            ensure(8).putLong(value);
+            return this;
+        }
+
+        /**
+         * Write a string, up to 65535 bytes in UTF-8.
+         * @param value to write.
+         * @return this record.
+         */
+        public Record putString(String value){
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(2 + bytes.length).putShort((short) bytes.length).put(bytes);
+            return this;
+        }
+
+        /**
+         * Write a byte array.
+         * @param value to write.
+         * @return this record.
+         */
+        public Record putBytes(byte[] value){
+            ensure(4 + value.length).putInt(value.length).put(value);
+            return this;
+        }
+
+        /**
+         * Append the record to the log.
+         * @return sequence of the record.
+         */
+        public long append(){
+            buffer.putInt(0, buffer.position() - HEADER_SIZE);
+            buffer.flip();
+            return EventLog.this.append(buffer);
+        }
+
+        /**
+         * Make room in the buffer.
+         * @param bytes to write.
+         * @return the buffer.
+         */
+        private ByteBuffer ensure(int bytes){
+            if(buffer.remaining() < bytes){
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            return buffer;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package it.polimi.ingsw.gameserver;
+
+/**
+ * Types of the records of the {@link EventLog}. Codes are written in the log, so they must never change.
+ */
+public enum GameEventType {
+
+    /**
+     * Game set up, with the seed of the game and the players in join order: the seed gives the start order.
+     */
+    GAME_STARTED((byte) 1),
+
+    /**
+     * New order of the players at the start of a turn.
+     */
+    TURN_ORDER((byte) 2),
+
+    /**
+     * Order of a deck after shuffling.
+     */
+    DECK_SHUFFLED((byte) 3),
+
+    /**
+     * Values of the dices at the start of a turn.
+     */
+    DICE_THROWN((byte) 4),
+
+    /**
+     * Accepted actions of the players, one per action space.
+     */
+    TOWER((byte) 5),
+    COUNCIL((byte) 6),
+    MARKET((byte) 7),
+    HARVEST_SIMPLE((byte) 8),
+    PRODUCTION_SIMPLE((byte) 9),
+    HARVEST_EXTENDED((byte) 10),
+    PRODUCTION_EXTENDED((byte) 11),
+
+    /**
+     * Leader card activated.
+     */
+    LEADER_ACTIVATED((byte) 12),
+
+    /**
+     * Leader card discarded.
+     */
+    LEADER_DISCARDED((byte) 13),
+
+    /**
+     * Choice of a player about the support to the church.
+     */
+    CHURCH_SUPPORT((byte) 14),
+
+    /**
+     * Final ranking.
+     */
+    GAME_ENDED((byte) 15),
+
+    /**
+     * End of the move or of the church support choice of a player, by the player or by the deadline.
+     */
+    TURN_ENDED((byte) 16);
+
+    /**
+     * Code written in the log.
+     */
+    private final byte code;
+
+    /**
+     * Enumeration constructor.
+     * @param code written in the log.
+     */
+    GameEventType(byte code){
+        this.code = code;
+    }
+
+    /**
+     * Get the code written in the log.
+     * @return code.
+     */
+    public byte getCode(){
+        return this.code;
+    }
+
+    /**
+     * Get the type of a code read from the log.
+     * @param code read.
+     * @return the type, or null if the code is unknown.
+     */
+    public static GameEventType fromCode(byte code){
+        for(GameEventType type : values())
+            if(type.code == code)
+                return type;
+        return null;
+    }
+
+}
@@ -3,10 +3,12 @@ package it.polimi.ingsw.gameserver;
 import it.polimi.ingsw.model.*;
 import it.polimi.ingsw.server.ServerPlayer;
 import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.utility.SeededRandom;
 
+import java.io.Serializable;
 import java.util.*;
 
-/*package-local*/ class GameManager{
+/*package-local*/ class GameManager implements Serializable{
 
     private static final int CARD_PER_DECK = 8;
 
@@ -38,7 +40,7 @@ import java.util.*;
     /**
      * Leader cards deck.
      */
-    private ArrayList<LeaderCard> leaderCards;
+    private List<LeaderCard> leaderCards;
 
     /**
      * Excommunication cards
@@ -75,17 +77,34 @@ import java.util.*;
      */
     private int[] victoryPointsBonusForFaith;
 
+    /**
+     * Random generator of the game: player order, decks and dices.
+     */
+    private SeededRandom random;
+
+    /**
+     * Class constructor, with a new seed.
+     * @param players of the room.
+     * @param configuration of the game.
+     * @param developmentCards deck.
+     */
+    /*package-local*/ GameManager(ArrayList<ServerPlayer> players, Configuration configuration, List<DevelopmentCard> developmentCards, List<LeaderCard> leaderCards, List<ExcommunicationCard> excommunicationCards){
+        this(players, configuration, developmentCards, leaderCards, excommunicationCards, SeededRandom.newSeed());
+    }
+
     /**
      * Class constructor.
      * @param players of the room.
      * @param configuration of the game.
      * @param developmentCards deck.
+     * @param seed of the random generator of the game.
      */
-    /*package-local*/ GameManager(ArrayList<ServerPlayer> players, Configuration configuration, ArrayList<DevelopmentCard> developmentCards, ArrayList<LeaderCard> leaderCards, ArrayList<ExcommunicationCard> excommunicationCards){
+    /*package-local*/ GameManager(ArrayList<ServerPlayer> players, Configuration configuration, List<DevelopmentCard> developmentCards, List<LeaderCard> leaderCards, List<ExcommunicationCard> excommunicationCards, long seed){
+        this.random = new SeededRandom(seed);
         this.players = players;
         this.configuration = configuration;
         this.leaderCards = leaderCards;
-        this.excommunicationCards = excommunicationCards;
+        this.excommunicationCards = new ArrayList<>(excommunicationCards);
         this.informationChoicesHandler = new InformationChoicesHandler();
         this.game = new Game(configuration.getMainBoard(), this.players);
         setupFinalPoints();
@@ -97,6 +116,32 @@ import java.util.*;
         return this.leaderCards;
     }
 
+    /**
+     * Get the random generator of the game.
+     * @return the generator.
+     */
+    /*package-local*/ SeededRandom getRandom(){
+        return this.random;
+    }
+
+    /**
+     * Get a development cards deck, in the order the cards will be drawn.
+     * @param color of the deck.
+     * @return the deck.
+     */
+    /*package-local*/ List<DevelopmentCard> getDevelopmentDeck(DevelopmentCardColor color){
+        switch (color){
+            case GREEN:
+                return this.greenDeck;
+            case BLUE:
+                return this.blueDeck;
+            case YELLOW:
+                return this.yellowDeck;
+            default:
+                return this.purpleDeck;
+        }
+    }
+
     /**
      * Method to setup the arrays with final points amount for green cards, blue cards and faith
      */
@@ -110,7 +155,7 @@ import java.util.*;
      * Setup and mix development card decks by color
      * @param deck
      */
-    private void setupDecks(ArrayList<DevelopmentCard> deck){
+    private void setupDecks(List<DevelopmentCard> deck){
         this.yellowDeck = new ArrayList<>();
         this.greenDeck = new ArrayList<>();
         this.blueDeck = new ArrayList<>();
@@ -120,19 +165,15 @@ import java.util.*;
             switch (card.getColor()){
                 case YELLOW:
                     this.yellowDeck.add(card);
-                    Collections.shuffle(this.yellowDeck);
                     break;
                 case GREEN:
                     this.greenDeck.add(card);
-                    Collections.shuffle(this.greenDeck);
                     break;
                 case BLUE:
                     this.blueDeck.add(card);
-                    Collections.shuffle(this.blueDeck);
                     break;
                 case PURPLE:
                     this.purpleDeck.add(card);
-                    Collections.shuffle(this.purpleDeck);
                     break;
             }
         }
@@ -148,9 +189,9 @@ import java.util.*;
      */
     private void orderDevelopmentCards(ArrayList<DevelopmentCard> list) {
         Collections.sort(list, Comparator.comparingInt(DevelopmentCard::getId));
-        Collections.shuffle(list.subList(0, 8));
-        Collections.shuffle(list.subList(8, 16));
-        Collections.shuffle(list.subList(16, 24));
+        random.shuffle(list.subList(0, 8));
+        random.shuffle(list.subList(8, 16));
+        random.shuffle(list.subList(16, 24));
     }
 
     /**
@@ -229,15 +270,11 @@ import java.util.*;
      * Method to setup the excommunication cards for the period
      */
     private void chooseExcommunicationCards() {
-        Collections.shuffle(this.excommunicationCards);
+        random.shuffle(this.excommunicationCards);
         ExcommunicationCard[] excommunicationCardsDeck = new ExcommunicationCard[3];
-        int period = 1;
         for (ExcommunicationCard card : this.excommunicationCards){
-            if (card.getPeriod() == period){
-                excommunicationCardsDeck[period - 1] = new ExcommunicationCard();
-                excommunicationCardsDeck[period - 1] = card;
-                period++;
-            }
+            if (excommunicationCardsDeck[card.getPeriod() - 1] == null)
+                excommunicationCardsDeck[card.getPeriod() - 1] = card;
         }
         this.game.getMainBoard().getVatican().setExcommunicationCards(excommunicationCardsDeck);
     }
@@ -269,7 +306,7 @@ import java.util.*;
      * This method sorts players randomly. This is the game order.
      */
     private void randomPlayerSorting(){
-        Collections.shuffle(this.players);
+        random.shuffle(this.players);
     }
 
     /**
@@ -303,13 +340,13 @@ import java.util.*;
      */
     private PersonalBoard createNewPersonalBoard(){
         PersonalBoard personalBoard = new PersonalBoard();
-        personalBoard.getValuables().increase(ResourceType.WOOD, this.configuration.getPersonalBoard().getValuables().getResources().get(ResourceType.WOOD));
-        personalBoard.getValuables().increase(ResourceType.STONE, this.configuration.getPersonalBoard().getValuables().getResources().get(ResourceType.STONE));
-        personalBoard.getValuables().increase(ResourceType.SERVANT, this.configuration.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT));
-        personalBoard.getValuables().increase(ResourceType.COIN, this.configuration.getPersonalBoard().getValuables().getResources().get(ResourceType.COIN));
-        personalBoard.getValuables().increase(PointType.VICTORY, this.configuration.getPersonalBoard().getValuables().getPoints().get(PointType.VICTORY));
-        personalBoard.getValuables().increase(PointType.MILITARY, this.configuration.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY));
-        personalBoard.getValuables().increase(PointType.FAITH, this.configuration.getPersonalBoard().getValuables().getPoints().get(PointType.FAITH));
+        personalBoard.getValuables().increase(ResourceType.WOOD, this.configuration.getPersonalBoard().getValuables().get(ResourceType.WOOD));
+        personalBoard.getValuables().increase(ResourceType.STONE, this.configuration.getPersonalBoard().getValuables().get(ResourceType.STONE));
+        personalBoard.getValuables().increase(ResourceType.SERVANT, this.configuration.getPersonalBoard().getValuables().get(ResourceType.SERVANT));
+        personalBoard.getValuables().increase(ResourceType.COIN, this.configuration.getPersonalBoard().getValuables().get(ResourceType.COIN));
+        personalBoard.getValuables().increase(PointType.VICTORY, this.configuration.getPersonalBoard().getValuables().get(PointType.VICTORY));
+        personalBoard.getValuables().increase(PointType.MILITARY, this.configuration.getPersonalBoard().getValuables().get(PointType.MILITARY));
+        personalBoard.getValuables().increase(PointType.FAITH, this.configuration.getPersonalBoard().getValuables().get(PointType.FAITH));
         personalBoard.setGreenCardsMilitaryPointsRequirements(this.configuration.getPersonalBoard().getGreenCardsMilitaryPointsRequirements());
         FamilyMember familyMember = new FamilyMember();
         personalBoard.setFamilyMember(familyMember);
@@ -320,7 +357,17 @@ import java.util.*;
      * Throw dices and set value in each personal board.
      */
     private void throwDices(){
-        this.game.getDices().setValues();
+        this.game.getDices().setValues(random);
+        for(Player player : this.players)
+            player.getPersonalBoard().getFamilyMember().setMembers(this.game.getDices().getValues());
+    }
+
+    /**
+     * Set the dices to values thrown before and set them in each personal board.
+     * @param values of the dices.
+     */
+    /*package-local*/ void setDices(Map<FamilyMemberColor, Integer> values){
+        this.game.getDices().getValues().putAll(values);
         for(Player player : this.players)
             player.getPersonalBoard().getFamilyMember().setMembers(this.game.getDices().getValues());
     }
@@ -348,15 +395,24 @@ import java.util.*;
      * @return
      */
     /*package-private*/ boolean finalControlsForPeriod(int period, ServerPlayer player){
-        int faithPointsRequired = this.game.getMainBoard().getVatican().getExcommunicationCheckPoint(period);
-
-        if (player.getPersonalBoard().getValuables().getPoints().get(PointType.FAITH) <= faithPointsRequired) {
+        if (!canSupportTheChurch(period, player)) {
             excommunicationForPlayer(player, period);
             return false;
         }
         return true;
     }
 
+    /**
+     * This method checks if a player has enough faith points to support the church, without excommunicating him
+     * @param period the current period
+     * @param player the current player
+     * @return true if the player can choose to support the church
+     */
+    /*package-private*/ boolean canSupportTheChurch(int period, ServerPlayer player){
+        int faithPointsRequired = this.game.getMainBoard().getVatican().getExcommunicationCheckPoint(period);
+        return player.getPersonalBoard().getValuables().get(PointType.FAITH) > faithPointsRequired;
+    }
+
     /**
      * This method manages the support to the church
      * @param player the current player
@@ -364,10 +420,11 @@ import java.util.*;
      */
     /*package-private*/ void applySupportChoice(ServerPlayer player, boolean flag){
         if(!flag){
-            player.getPersonalBoard().getValuables().increase(PointType.VICTORY, this.victoryPointsBonusForFaith[player.getPersonalBoard().getValuables().getPoints().get(PointType.FAITH)-1]);
-            if(player.getPersonalBoard().getLeaderCardWithName("Sisto IV") != null && player.getPersonalBoard().getLeaderCardWithName("Sisto IV").getLeaderEffectActive())
-                player.getPersonalBoard().getLeaderCardWithName("Sisto IV").getEffect().runEffect(player, this.informationChoicesHandler);
-            player.getPersonalBoard().getValuables().decrease(PointType.FAITH, player.getPersonalBoard().getValuables().getPoints().get(PointType.FAITH));
+            player.getPersonalBoard().getValuables().increase(PointType.VICTORY, this.victoryPointsBonusForFaith[player.getPersonalBoard().getValuables().get(PointType.FAITH)-1]);
+            LeaderCard sistoIV = player.getPersonalBoard().getLeaderCardWithAbility(LeaderAbility.SISTO_IV);
+            if(sistoIV != null)
+                sistoIV.getEffect().runEffect(player, this.informationChoicesHandler);
+            player.getPersonalBoard().getValuables().decrease(PointType.FAITH, player.getPersonalBoard().getValuables().get(PointType.FAITH));
         } else {
             excommunicationForPlayer(player, this.game.getAge());
         }
@@ -393,7 +450,7 @@ import java.util.*;
 
         for (ServerPlayer player : this.players){
 
-            militaryPointsRanking.put(player, player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY));
+            militaryPointsRanking.put(player, player.getPersonalBoard().getValuables().get(PointType.MILITARY));
 
             loseVictoryPoints(player);
 
@@ -419,10 +476,10 @@ import java.util.*;
      * @param player the current player
      */
     private void loseVictoryPoints(Player player){
-        int finalVictoryIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalPointsIndexMalus().get(PointType.VICTORY);
+        int finalVictoryIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalPointsIndexMalus(PointType.VICTORY);
         if (finalVictoryIndexMalus > 0){
 
-            int gameVictoryPoints = player.getPersonalBoard().getValuables().getPoints().get(PointType.VICTORY);
+            int gameVictoryPoints = player.getPersonalBoard().getValuables().get(PointType.VICTORY);
 
             int victoryPointsToLose = gameVictoryPoints/finalVictoryIndexMalus;
 
@@ -435,7 +492,7 @@ import java.util.*;
      * @param player the current player
      */
     private void greenCardsFinalPoints(Player player){
-        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints().get(DevelopmentCardColor.GREEN)){
+        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints(DevelopmentCardColor.GREEN)){
             int numberOfGreenCards = player.getPersonalBoard().getCards(DevelopmentCardColor.GREEN).size();
             if (numberOfGreenCards > 0){
                 int finalPointsBonus = this.victoryPointsForGreenCards[numberOfGreenCards - 1];
@@ -449,7 +506,7 @@ import java.util.*;
      * @param player the current player
      */
     private void blueCardsFinalPoints(Player player){
-        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints().get(DevelopmentCardColor.BLUE)){
+        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints(DevelopmentCardColor.BLUE)){
             int numberOfBlueCards = player.getPersonalBoard().getCards(DevelopmentCardColor.BLUE).size();
             if (numberOfBlueCards > 0){
                 int finalPointsBonus = this.victoryPointsForBlueCards[numberOfBlueCards - 1];
@@ -463,7 +520,7 @@ import java.util.*;
      * @param player the current player
      */
     private void purpleCardsFinalPoints(Player player){
-        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints().get(DevelopmentCardColor.PURPLE)){
+        if (player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardGetFinalPoints(DevelopmentCardColor.PURPLE)){
             for (DevelopmentCard card : player.getPersonalBoard().getCards(DevelopmentCardColor.PURPLE)){
                 card.getPermanentEffect().runEffect(player, informationChoicesHandler);
             }
@@ -489,7 +546,7 @@ import java.util.*;
      */
     private void loseVictoryPointsFromResources(Player player){
         for (Map.Entry<ResourceType, Integer> entry: player.getPersonalBoard().getValuables().getResources().entrySet()) {
-            int finalResourcesIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalResourcesIndexMalus().get(entry.getKey());
+            int finalResourcesIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalResourcesIndexMalus(entry.getKey());
             if (finalResourcesIndexMalus > 0){
                 int victoryPointsToLose = entry.getValue()/finalResourcesIndexMalus;
                 player.getPersonalBoard().getValuables().decrease(PointType.VICTORY, victoryPointsToLose);
@@ -502,9 +559,9 @@ import java.util.*;
      * @param player the current player
      */
     private void loseVictoryPointsFromMilitaryPoints(Player player){
-        int finalMilitaryPointsIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalPointsIndexMalus().get(PointType.MILITARY);
+        int finalMilitaryPointsIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalPointsIndexMalus(PointType.MILITARY);
         if (finalMilitaryPointsIndexMalus > 0){
-            int victoryPointsToLose = player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY)/finalMilitaryPointsIndexMalus;
+            int victoryPointsToLose = player.getPersonalBoard().getValuables().get(PointType.MILITARY)/finalMilitaryPointsIndexMalus;
             player.getPersonalBoard().getValuables().decrease(PointType.VICTORY, victoryPointsToLose);
         }
     }
@@ -522,7 +579,7 @@ import java.util.*;
         }
 
         for (Map.Entry<ResourceType, Integer> entry : totalCardResourcesCost.entrySet()){
-            int finalResourcesDevCardIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalResourcesDevCardIndexMalus().get(entry.getKey());
+            int finalResourcesDevCardIndexMalus = player.getPersonalBoard().getExcommunicationValues().getFinalResourcesDevCardIndexMalus(entry.getKey());
             if (finalResourcesDevCardIndexMalus > 0){
                 player.getPersonalBoard().getValuables().decrease(PointType.VICTORY, entry.getValue()/finalResourcesDevCardIndexMalus);
             }
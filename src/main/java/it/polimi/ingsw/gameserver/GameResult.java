@@ -0,0 +1,78 @@
+package it.polimi.ingsw.gameserver;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Final result of a game, kept after the room has been freed.
+ * It only holds usernames and points, never the players or the game model.
+ */
+public final class GameResult {
+
+    /**
+     * Identifier of the room.
+     */
+    private final int roomID;
+
+    /**
+     * Time at which the game ended, in milliseconds since the epoch.
+     */
+    private final long finishedAt;
+
+    /**
+     * Usernames from the winner to the last player.
+     */
+    private final List<String> ranking;
+
+    /**
+     * Victory points of the players, in ranking order.
+     */
+    private final List<Integer> victoryPoints;
+
+    /**
+     * Class constructor.
+     * @param roomID identifier of the room.
+     * @param finishedAt time at which the game ended.
+     * @param ranking usernames from the winner to the last player.
+     * @param victoryPoints of the players, in ranking order.
+     */
+    /*package-local*/ GameResult(int roomID, long finishedAt, List<String> ranking, List<Integer> victoryPoints){
+        this.roomID = roomID;
+        this.finishedAt = finishedAt;
+        this.ranking = Collections.unmodifiableList(ranking);
+        this.victoryPoints = Collections.unmodifiableList(victoryPoints);
+    }
+
+    /**
+     * Get the identifier of the room.
+     * @return room id.
+     */
+    public int getRoomID(){
+        return this.roomID;
+    }
+
+    /**
+     * Get the time at which the game ended.
+     * @return milliseconds since the epoch.
+     */
+    public long getFinishedAt(){
+        return this.finishedAt;
+    }
+
+    /**
+     * Get the usernames from the winner to the last player.
+     * @return ranking.
+     */
+    public List<String> getRanking(){
+        return this.ranking;
+    }
+
+    /**
+     * Get the victory points of the players, in ranking order.
+     * @return victory points.
+     */
+    public List<Integer> getVictoryPoints(){
+        return this.victoryPoints;
+    }
+
+}
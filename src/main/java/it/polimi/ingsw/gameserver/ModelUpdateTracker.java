@@ -0,0 +1,249 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.Game;
+import it.polimi.ingsw.model.GameDelta;
+import it.polimi.ingsw.model.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class tracks the changes of a game model to send deltas instead of the whole model.
+ * Every commit compares the serialized parts of the model with the previous ones and remembers the version
+ * at which each part last changed. Parts are serialized one after the other on the same reused stream, and
+ * their bytes are copied only when they changed. A player that knows version v receives the parts changed after v.
+ * Players never synchronized, like new or rejoined players, must receive the whole model.
+ * The room commits and builds deltas holding the game mutex; players are synchronized by the writers
+ * of their outbound queues when an update is actually sent.
+ */
+/*package-local*/ class ModelUpdateTracker {
+
+    /**
+     * Current version of the model.
+     */
+    private long version;
+
+    /**
+     * Parts of the main board per key.
+     */
+    private final Map<String, Part> mainBoardParts;
+
+    /**
+     * Parts of the personal boards per username and key.
+     */
+    private final Map<String, Map<String, Part>> personalBoardParts;
+
+    /**
+     * Version known by each player.
+     */
+    private final Map<String, Long> playerVersions;
+
+    /**
+     * Bytes of the part being compared.
+     */
+    private final PartBuffer buffer;
+
+    /**
+     * Stream that serializes the parts in the buffer.
+     */
+    private final ObjectOutputStream output;
+
+    /**
+     * Class constructor.
+     */
+    /*package-local*/ ModelUpdateTracker(){
+        this.mainBoardParts = new HashMap<>();
+        this.personalBoardParts = new HashMap<>();
+        this.playerVersions = new ConcurrentHashMap<>();
+        this.buffer = new PartBuffer();
+        try {
+            this.output = new ObjectOutputStream(buffer);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the current version of the model.
+     * @return version.
+     */
+    /*package-local*/ long getVersion(){
+        return this.version;
+    }
+
+    /**
+     * Forget the tracked parts and players, when the game is over.
+     */
+    /*package-local*/ void clear(){
+        mainBoardParts.clear();
+        personalBoardParts.clear();
+        playerVersions.clear();
+    }
+
+    /**
+     * Compare the model with the last commit. If something changed the version is increased.
+     * @param game model.
+     * @return version of the model.
+     */
+    /*package-local*/ long commit(Game game){
+        long next = version + 1;
+        boolean changed = update(mainBoardParts, GameDelta.mainBoardParts(game), next);
+        for(Player player : game.getPlayersMap().values()){
+            Map<String, Part> parts = personalBoardParts.computeIfAbsent(player.getUsername(), username -> new HashMap<>());
+            changed |= update(parts, GameDelta.personalBoardParts(player.getPersonalBoard()), next);
+        }
+        if(changed){
+            version = next;
+            game.setVersion(version);
+        }
+        return version;
+    }
+
+    /**
+     * Mark a player as synchronized with a version, when the whole model or a delta is sent.
+     * Updates never move a player back to an older version.
+     * @param username of the player.
+     * @param sentVersion version of the model sent.
+     */
+    /*package-local*/ void synchronize(String username, long sentVersion){
+        playerVersions.merge(username, sentVersion, Math::max);
+    }
+
+    /**
+     * Forget the version known by a player, so that he receives the whole model with the next update.
+     * @param username of the player.
+     */
+    /*package-local*/ void forget(String username){
+        playerVersions.remove(username);
+    }
+
+    /**
+     * Get the version known by a player.
+     * @param username of the player.
+     * @return known version, or null if the player must receive the whole model.
+     */
+    /*package-local*/ Long getKnownVersion(String username){
+        return playerVersions.get(username);
+    }
+
+    /**
+     * Build the delta between a known version and the current one.
+     * Players that know the same version receive the same delta.
+     * @param known version.
+     * @param game model.
+     * @return delta to send.
+     */
+    /*package-local*/ GameDelta deltaSince(long known, Game game){
+        GameDelta delta = new GameDelta(known, version);
+        for(Map.Entry<String, Part> part : mainBoardParts.entrySet())
+            if(part.getValue().changedAt > known)
+                delta.putMainBoardPart(part.getKey(), part.getValue().value);
+        for(Map.Entry<String, Map<String, Part>> parts : personalBoardParts.entrySet()){
+            if(parts.getValue().get(GameDelta.BONUSES).changedAt > known)
+                delta.putPersonalBoard(parts.getKey(), game.getPlayer(parts.getKey()).getPersonalBoard());
+            else
+                for(Map.Entry<String, Part> part : parts.getValue().entrySet())
+                    if(part.getValue().changedAt > known)
+                        delta.putPersonalBoardPart(parts.getKey(), part.getKey(), part.getValue().value);
+        }
+        return delta;
+    }
+
+    /**
+     * Update tracked parts with the current ones.
+     * @param tracked parts.
+     * @param current parts.
+     * @param next version assigned to changed parts.
+     * @return true if at least one part changed.
+     */
+    private boolean update(Map<String, Part> tracked, Map<String, Serializable> current, long next){
+        boolean changed = false;
+        for(Map.Entry<String, Serializable> entry : current.entrySet()){
+            serialize(entry.getValue());
+            Part part = tracked.get(entry.getKey());
+            if(part == null || !buffer.contentEquals(part.bytes)){
+                tracked.put(entry.getKey(), new Part(entry.getValue(), buffer.toByteArray(), next));
+                changed = true;
+            }
+            else if(part.value != entry.getValue())
+                tracked.put(entry.getKey(), new Part(entry.getValue(), part.bytes, part.changedAt));
+        }
+        return changed;
+    }
+
+    /**
+     * Serialize a part in the buffer to compare it with the previous commit. The stream is reset before every
+     * part, so the bytes of a part do not depend on the parts written before it.
+     * @param value of the part.
+     */
+    private void serialize(Serializable value){
+        buffer.reset();
+        try{
+            output.reset();
+            output.writeObject(value);
+            output.flush();
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Buffer that compares its bytes with an array without copying them.
+     */
+    private static class PartBuffer extends ByteArrayOutputStream {
+
+        /**
+         * Compare the bytes written with an array.
+         * @param bytes to compare.
+         * @return true if the bytes are the same.
+         */
+        private boolean contentEquals(byte[] bytes){
+            if(bytes.length != count)
+                return false;
+            for(int i = 0; i < count; i++)
+                if(buf[i] != bytes[i])
+                    return false;
+            return true;
+        }
+    }
+
+    /**
+     * Tracked part of the model.
+     */
+    private static class Part {
+
+        /**
+         * Value of the part.
+         */
+        private final Serializable value;
+
+        /**
+         * Serialized value.
+         */
+        private final byte[] bytes;
+
+        /**
+         * Version at which the part changed last time.
+         */
+        private final long changedAt;
+
+        /**
+         * Class constructor.
+         * @param value of the part.
+         * @param bytes serialized value.
+         * @param changedAt version.
+         */
+        private Part(Serializable value, byte[] bytes, long changedAt){
+            this.value = value;
+            this.bytes = bytes;
+            this.changedAt = changedAt;
+        }
+    }
+
+}
@@ -0,0 +1,376 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.exceptions.GameException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.SerializedPacket;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monte Carlo tree search of the placement of a bot, parallel at the root.
+ * Every thread decodes its own copy of the game and runs rollouts until the time budget ends: it picks a placement
+ * of the bot with UCB1, plays the rest of the turn with random placements of all the players, scores the copy and
+ * puts it back with the undo log. The statistics of the threads are summed, and the most visited placement wins.
+ * All the searches of the server run on one pool of low priority threads, so bots never take the threads of rooms.
+ */
+/*package-local*/ final class MonteCarloSearch {
+
+    /**
+     * Threads of the searches of all the bots of the server.
+     */
+    /*package-local*/ static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+
+    /**
+     * Pool of the searches and of the other tasks of the bots.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(THREADS, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("bot-" + thread.getPoolIndex());
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }, null, false);
+
+    /**
+     * Exploration constant of UCB1.
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Score difference that gives a reward of about 0.73 to the bot.
+     */
+    private static final double SCORE_SCALE = 5;
+
+    /**
+     * Utility class.
+     */
+    private MonteCarloSearch(){ }
+
+    /**
+     * Run a task of a bot on the pool of the bots.
+     * @param task to run.
+     */
+    /*package-local*/ static void execute(Runnable task){
+        POOL.execute(task);
+    }
+
+    /**
+     * Search the placement of a player.
+     * @param position encoded game.
+     * @param turnOrder usernames in the order of the turn.
+     * @param username of the player that is moving.
+     * @param budget time of the search in milliseconds.
+     * @return the statistics of the placements of the player, in the order of the {@link LegalMoveGenerator}.
+     */
+    /*package-local*/ static Result search(SerializedPacket position, String[] turnOrder, String username, long budget){
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        return POOL.invoke(new Search(position, turnOrder, username, deadline));
+    }
+
+    /**
+     * Statistics of the placements of the root.
+     */
+    /*package-local*/ static final class Result {
+
+        /**
+         * Rollouts of each placement.
+         */
+        private final int[] visits;
+
+        /**
+         * Sum of the rewards of each placement.
+         */
+        private final double[] rewards;
+
+        /**
+         * Class constructor.
+         * @param moves number of placements.
+         */
+        private Result(int moves){
+            this.visits = new int[moves];
+            this.rewards = new double[moves];
+        }
+
+        /**
+         * Add the statistics of another thread.
+         * @param other statistics of the same placements.
+         */
+        private void add(Result other){
+            if(other.visits.length != visits.length)
+                return;
+            for(int i = 0; i < visits.length; i++){
+                visits[i] += other.visits[i];
+                rewards[i] += other.rewards[i];
+            }
+        }
+
+        /**
+         * Get the number of rollouts.
+         * @return rollouts of all the placements.
+         */
+        /*package-local*/ int getRollouts(){
+            int rollouts = 0;
+            for(int visit : visits)
+                rollouts += visit;
+            return rollouts;
+        }
+
+        /**
+         * Get the placements from the best one: the most visited, then the best on average.
+         * @return indexes of the placements.
+         */
+        /*package-local*/ int[] ranking(){
+            Integer[] order = new Integer[visits.length];
+            for(int i = 0; i < order.length; i++)
+                order[i] = i;
+            Arrays.sort(order, (first, second) -> visits[first] != visits[second] ?
+                    Integer.compare(visits[second], visits[first]) : Double.compare(mean(second), mean(first)));
+            int[] ranking = new int[order.length];
+            for(int i = 0; i < order.length; i++)
+                ranking[i] = order[i];
+            return ranking;
+        }
+
+        /**
+         * Get the average reward of a placement.
+         * @param move index of the placement.
+         * @return the average reward, 0 if it has no rollouts.
+         */
+        private double mean(int move){
+            return visits[move] == 0 ? 0 : rewards[move] / visits[move];
+        }
+    }
+
+    /**
+     * Search split among the threads of the pool.
+     */
+    private static final class Search extends RecursiveTask<Result> {
+
+        /**
+         * Encoded game.
+         */
+        private final SerializedPacket position;
+
+        /**
+         * Usernames in the order of the turn.
+         */
+        private final String[] turnOrder;
+
+        /**
+         * Username of the player that is moving.
+         */
+        private final String username;
+
+        /**
+         * End of the search, as returned by System.nanoTime().
+         */
+        private final long deadline;
+
+        /**
+         * Class constructor.
+         * @param position encoded game.
+         * @param turnOrder usernames in the order of the turn.
+         * @param username of the player that is moving.
+         * @param deadline of the search.
+         */
+        private Search(SerializedPacket position, String[] turnOrder, String username, long deadline){
+            this.position = position;
+            this.turnOrder = turnOrder;
+            this.username = username;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Result compute(){
+            Rollouts[] workers = new Rollouts[THREADS];
+            for(int i = 0; i < workers.length; i++)
+                workers[i] = new Rollouts(position, turnOrder, username, deadline);
+            for(int i = 1; i < workers.length; i++)
+                workers[i].fork();
+            Result result = workers[0].compute();
+            for(int i = 1; i < workers.length; i++)
+                result.add(workers[i].join());
+            return result;
+        }
+    }
+
+    /**
+     * Rollouts of one thread, on its own copy of the game.
+     */
+    private static final class Rollouts extends RecursiveTask<Result> {
+
+        /**
+         * Encoded game.
+         */
+        private final SerializedPacket position;
+
+        /**
+         * Usernames in the order of the turn.
+         */
+        private final String[] turnOrder;
+
+        /**
+         * Username of the player that is moving.
+         */
+        private final String username;
+
+        /**
+         * End of the search, as returned by System.nanoTime().
+         */
+        private final long deadline;
+
+        /**
+         * Generator of the placements of the copy.
+         */
+        private final LegalMoveGenerator generator = new LegalMoveGenerator();
+
+        /**
+         * Placements of the player playing in the rollout.
+         */
+        private final LegalMoves moves = new LegalMoves();
+
+        /**
+         * Choices of the players in the rollouts.
+         */
+        private final BotChoices choices = new BotChoices();
+
+        /**
+         * Random placements of the rollouts.
+         */
+        private final SplittableRandom random = new SplittableRandom();
+
+        /**
+         * Class constructor.
+         * @param position encoded game.
+         * @param turnOrder usernames in the order of the turn.
+         * @param username of the player that is moving.
+         * @param deadline of the rollouts.
+         */
+        private Rollouts(SerializedPacket position, String[] turnOrder, String username, long deadline){
+            this.position = position;
+            this.turnOrder = turnOrder;
+            this.username = username;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Result compute(){
+            Game game;
+            try {
+                game = (Game) position.decode();
+            } catch (IOException | ClassNotFoundException e) {
+                Printer.printDebugMessage(MonteCarloSearch.class.getSimpleName(), "Cannot decode the game of a search.", e);
+                return new Result(0);
+            }
+            Player[] players = new Player[turnOrder.length];
+            int first = 0;
+            for(int i = 0; i < players.length; i++){
+                players[i] = game.getPlayer(turnOrder[i]);
+                if(turnOrder[i].equals(username))
+                    first = i;
+            }
+            Player player = players[first];
+            LegalMoves root = generator.generate(game, player, new LegalMoves());
+            Result result = new Result(root.size());
+            UndoLog undoLog = game.getUndoLog();
+            int rollouts = 0;
+            while(root.size() > 0 && System.nanoTime() < deadline){
+                int move = select(result, rollouts);
+                double reward = 0;
+                int savepoint = undoLog.begin();
+                try {
+                    root.perform(move, game, player, choices.reset(player, root.getDiscountIndex(move)));
+                    playout(game, players, first);
+                    reward = reward(players, first);
+                } catch (GameException | RuntimeException e) {
+                    // The placement is not playable with the choices of the bot.
+                } finally {
+                    undoLog.rollback(savepoint);
+                }
+                result.visits[move]++;
+                result.rewards[move] += reward;
+                rollouts++;
+            }
+            return result;
+        }
+
+        /**
+         * Pick the placement of the next rollout with UCB1, trying each one once first.
+         */
+        private static int select(Result result, int rollouts){
+            int best = 0;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(int i = 0; i < result.visits.length; i++){
+                if(result.visits[i] == 0)
+                    return i;
+                double value = result.rewards[i] / result.visits[i] + EXPLORATION * Math.sqrt(Math.log(rollouts) / result.visits[i]);
+                if(value > bestValue){
+                    best = i;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Play random placements of the players, from the one after the bot, until no one can place a family member.
+         */
+        private void playout(Game game, Player[] players, int first){
+            boolean placed = true;
+            while(placed){
+                placed = false;
+                for(int i = 1; i <= players.length; i++){
+                    Player player = players[(first + i) % players.length];
+                    generator.generate(game, player, moves);
+                    if(moves.isEmpty())
+                        continue;
+                    int move = random.nextInt(moves.size());
+                    try {
+                        moves.perform(move, game, player, choices.reset(player, moves.getDiscountIndex(move)));
+                        placed = true;
+                    } catch (GameException | RuntimeException e) {
+                        // The game rolled the placement back, the player passes.
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get the reward of the bot: its score against the best score of the others, between 0 and 1.
+         */
+        private static double reward(Player[] players, int bot){
+            double best = Double.NEGATIVE_INFINITY;
+            for(int i = 0; i < players.length; i++)
+                if(i != bot)
+                    best = Math.max(best, score(players[i]));
+            if(best == Double.NEGATIVE_INFINITY)
+                return 1;
+            return 1 / (1 + Math.exp((best - score(players[bot])) / SCORE_SCALE));
+        }
+    }
+
+    /**
+     * Get the score of a player: victory points, and an estimate of the points that cards, resources and other
+     * points give at the end of the game.
+     * @param player to score.
+     * @return the score.
+     */
+    /*package-local*/ static double score(Player player){
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        PointsAndResources valuables = personalBoard.getValuables();
+        double score = valuables.get(PointType.VICTORY)
+                + 0.5 * (valuables.get(PointType.MILITARY) + valuables.get(PointType.FAITH))
+                + 0.2 * (valuables.get(ResourceType.COIN) + valuables.get(ResourceType.WOOD)
+                        + valuables.get(ResourceType.STONE) + valuables.get(ResourceType.SERVANT));
+        for(DevelopmentCardColor color : DevelopmentCardColor.values())
+            score += 1.5 * personalBoard.getCards(color).size();
+        return score;
+    }
+
+}
@@ -0,0 +1,48 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.ClientUpdatePacket;
+import it.polimi.ingsw.model.Game;
+import it.polimi.ingsw.model.LeaderCard;
+import it.polimi.ingsw.model.PersonalBoardTile;
+import it.polimi.ingsw.server.ServerPlayer;
+
+import java.util.ArrayList;
+
+/**
+ * Player of a recovered room that has not reconnected yet. It keeps the username, the color and the personal
+ * board of the player, and drops every message. When the player rejoins the room, the new session takes its place.
+ */
+/*package-local*/ class OfflinePlayer extends ServerPlayer {
+
+    /**
+     * Class constructor.
+     * @param player to replace.
+     */
+    /*package-local*/ OfflinePlayer(ServerPlayer player){
+        setUsername(player.getUsername());
+        setColor(player.getColor());
+        setPersonalBoard(player.getPersonalBoard());
+    }
+
+    @Override
+    public void sendGameInfo(Game game) { }
+
+    @Override
+    public void sendPersonalTile(ArrayList<PersonalBoardTile> personalBoardTiles) { }
+
+    @Override
+    public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) { }
+
+    @Override
+    public void notifyTurnStarted(String username, long seconds) { }
+
+    @Override
+    public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) { }
+
+    @Override
+    public void supportForTheChurch(boolean flag) { }
+
+    @Override
+    public void notifyEndGame(ServerPlayer[] ranking) { }
+
+}
@@ -1,10 +1,9 @@
 package it.polimi.ingsw.gameserver;
 
 import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.DeadlineScheduler;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class manages the player's turn
@@ -17,14 +16,14 @@ import java.util.concurrent.CountDownLatch;
     private ServerPlayer currentPlayer;
 
     /**
-     * Timer for the player's move
+     * Deadline of the player's move, on the server-wide scheduler
      */
-    private Timer timer;
+    private volatile DeadlineScheduler.Deadline deadline;
 
-
-    private CountDownLatch countDownLatch;
-
-    private static final Object object = new Object();
+    /**
+     * Flag that indicates if the turn ended, by the player or by the deadline
+     */
+    private final AtomicBoolean ended;
 
     /**
      * Class constructor
@@ -32,62 +31,49 @@ import java.util.concurrent.CountDownLatch;
      */
     /*package-local*/ PlayerTurn(ServerPlayer currentPlayer){
         this.currentPlayer = currentPlayer;
-        timer = new Timer();
+        this.ended = new AtomicBoolean(false);
     }
 
     /**
-     * This method starts the timer
-     * @param moveWaitingTime
+     * This method starts the timer, it never waits
+     * @param moveWaitingTime max time for the move in milliseconds
+     * @param onExpired task to run if the deadline expires before the turn is stopped
      */
-    /*package-local*/ void startTimer(long moveWaitingTime){
-        int time = (int)(moveWaitingTime/1000);
-        countDownLatch = new CountDownLatch(time);
-        timer.scheduleAtFixedRate(new TimeCountDown(), 1000, 1000);
-        try {
-            countDownLatch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    /*package-local*/ void startTimer(long moveWaitingTime, Runnable onExpired){
+        deadline = DeadlineScheduler.schedule(moveWaitingTime, () -> {
+            if(ended.compareAndSet(false, true))
+                onExpired.run();
+        });
     }
 
     /**
      * This method stops the timer
+     * @return true if the turn has been ended by this call, false if it had already ended
      */
-    /*package-local*/ void stopTimer(){
-        synchronized (object){
-            resetTimer();
-            while (countDownLatch.getCount() > 0)
-                countDownLatch.countDown();
-        }
+    /*package-local*/ boolean stopTimer(){
+        if(!ended.compareAndSet(false, true))
+            return false;
+        DeadlineScheduler.Deadline current = deadline;
+        if(current != null)
+            current.cancel();
+        return true;
     }
 
     /**
-     * This method returns the current player that is playing his turn
-     * @return
+     * Get the milliseconds left before the deadline of the turn.
+     * @return remaining time, 0 if expired, Long.MAX_VALUE if the timer has not started.
      */
-    /*package-local*/ ServerPlayer currentPlayer(){
-        return this.currentPlayer;
+    /*package-local*/ long remaining(){
+        DeadlineScheduler.Deadline current = deadline;
+        return current == null ? Long.MAX_VALUE : current.remaining();
     }
 
     /**
-     * This method resets the timer
+     * This method returns the current player that is playing his turn
+     * @return
      */
-    /*package-local*/ private void resetTimer(){
-        timer.cancel();
-        timer.purge();
+    /*package-local*/ ServerPlayer currentPlayer(){
+        return this.currentPlayer;
     }
 
-
-    private class TimeCountDown extends TimerTask{
-        @Override
-        public void run() {
-            synchronized (object){
-                if(countDownLatch.getCount() > 0){
-                    if(countDownLatch.getCount() == 1)
-                        resetTimer();
-                    countDownLatch.countDown();
-                }
-            }
-        }
-    }
 }
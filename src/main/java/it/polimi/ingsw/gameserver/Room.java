@@ -1,15 +1,25 @@
 package it.polimi.ingsw.gameserver;
 
 import it.polimi.ingsw.exceptions.GameException;
-import it.polimi.ingsw.exceptions.NetworkException;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.SerializedPacket;
 import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.utility.DeadlineScheduler;
+import it.polimi.ingsw.utility.Metrics;
 import it.polimi.ingsw.utility.Printer;
+import it.polimi.ingsw.utility.SeededRandom;
+import it.polimi.ingsw.utility.SerialExecutor;
 import it.polimi.ingsw.exceptions.RoomException;
+import it.polimi.ingsw.server.OutboundQueue;
 import it.polimi.ingsw.server.ServerPlayer;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * This class represent a game room.
@@ -31,9 +41,35 @@ public class Room {
     private int roomID;
 
     /**
-     * Mutex object to synchronize room access.
+     * Mutex object to synchronize access to this room. Joins in different rooms never contend on it.
      */
-    private static final Object MUTEX = new Object();
+    private final Object roomMutex = new Object();
+
+    /**
+     * Mutex object to serialize game actions and updates of this room.
+     * Actions of players in different rooms never contend on it.
+     */
+    private final Object gameMutex = new Object();
+
+    /**
+     * Threads shared by all rooms to run game events. A room uses a thread only while it handles an event,
+     * never while it waits for players.
+     */
+    private static final ExecutorService EVENT_THREADS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+        Thread thread = new Thread(task, "room-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Events of this room, handled one at a time in arrival order.
+     */
+    private final SerialExecutor events = new SerialExecutor(EVENT_THREADS);
+
+    /**
+     * State machine of the game.
+     */
+    private final GameHandler gameHandler = new GameHandler();
 
     /**
      * Max player allowed in the room.
@@ -41,9 +77,14 @@ public class Room {
     private final int maxPlayerNumber;
 
     /**
-     * Timer used to run a task after a specified amount of time.
+     * Seed of the game, chosen when the room is created. The seed and the moves of the players reproduce the game.
      */
-    private Timer startGameTimer;
+    private final long seed;
+
+    /**
+     * Deadline at which the game starts, on the server-wide scheduler.
+     */
+    private DeadlineScheduler.Deadline startGameDeadline;
 
     /**
      * Configurator.
@@ -77,20 +118,62 @@ public class Room {
     private ArrayList<ServerPlayer> players;
 
     /**
-     * Countdown latch used as semaphore.
+     * Turn handle object.
      */
-    private CountDownLatch countDownLatch;
+    private PlayerTurn playerTurn;
 
     /**
-     * Turn handle object.
+     * Usernames of the players whose connection went down and who have not rejoined yet.
+     * Their moves are played by the server as soon as they start, instead of waiting for the deadline.
      */
-    private PlayerTurn playerTurn;
+    private final Set<String> disconnectedPlayers = new HashSet<>();
 
     /**
      * Client update packet object.
      */
     private ClientUpdatePacket clientUpdatePacket;
 
+    /**
+     * Changes of the game model sent to players.
+     */
+    private final ModelUpdateTracker modelUpdates = new ModelUpdateTracker();
+
+    /**
+     * Step of the life of the room.
+     */
+    private volatile Lifecycle lifecycle = Lifecycle.OPEN;
+
+    /**
+     * Final result, set when the game ends.
+     */
+    private GameResult result;
+
+    /**
+     * Listener notified when the game ends.
+     */
+    private volatile Consumer<Room> finishListener;
+
+    /**
+     * Events of the room written to the event log of the server.
+     */
+    private RoomEvents eventLog = RoomEvents.DISABLED;
+
+    /**
+     * Store of the checkpoints of the room, null if disabled.
+     */
+    private CheckpointStore checkpoints;
+
+    /**
+     * Flag that indicates if the room is recovered and its logged events are being replayed.
+     * Nothing is sent to players and no deadline starts until the room is resumed.
+     */
+    private boolean replaying;
+
+    /**
+     * Sequence of the last event included in the state of a recovered room.
+     */
+    private long restoredSequence;
+
     /**
      * Class constructor.
      * Set max number of player in the room.
@@ -99,6 +182,19 @@ public class Room {
      * Set room configuration.
      */
     public Room(int id, ServerPlayer serverPlayer, int number, Configuration configuration){
+        this(id, serverPlayer, number, configuration, SeededRandom.newSeed());
+    }
+
+    /**
+     * Class constructor of a room whose game has a given seed.
+     * @param id of the room.
+     * @param serverPlayer creating the room.
+     * @param number max number of players.
+     * @param configuration of the game.
+     * @param seed of the game.
+     */
+    /*package-local*/ Room(int id, ServerPlayer serverPlayer, int number, Configuration configuration, long seed){
+        this.seed = seed;
         this.players = new ArrayList<>();
         this.roomOpen = true;
         this.maxPlayerNumber = number;
@@ -107,6 +203,31 @@ public class Room {
         this.roomID = id;
     }
 
+    /**
+     * Class constructor of a room recovered from a checkpoint. The room replays the events logged after the
+     * checkpoint and starts again when it is resumed.
+     * @param checkpoint of the room.
+     */
+    /*package-local*/ Room(RoomCheckpoint checkpoint){
+        this.roomID = checkpoint.getRoomID();
+        this.maxPlayerNumber = checkpoint.getMaxPlayerNumber();
+        this.seed = checkpoint.getGameManager().getRandom().getSeed();
+        this.roomOpen = false;
+        configureGame(checkpoint.getConfiguration());
+        this.gameManager = checkpoint.getGameManager();
+        this.players = checkpoint.getPlayers();
+        this.clientUpdatePacket = new ClientUpdatePacket(gameManager.getGameModel());
+        this.lifecycle = Lifecycle.RUNNING;
+        this.replaying = true;
+        this.restoredSequence = checkpoint.getSequence();
+        gameHandler.state = checkpoint.getState();
+        gameHandler.age = checkpoint.getAge();
+        gameHandler.turn = checkpoint.getTurn();
+        gameHandler.move = checkpoint.getMove();
+        gameHandler.playerIndex = checkpoint.getPlayerIndex();
+        playerTurn = new PlayerTurn(players.get(gameHandler.playerIndex));
+    }
+
     /**
      * Get room id.
      * @return room id.
@@ -115,6 +236,14 @@ public class Room {
         return this.roomID;
     }
 
+    /**
+     * Get the seed of the game.
+     * @return the seed.
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+
     /**
      * Get the configuration from the server and configure the room.
      * @param configuration bundle.
@@ -126,22 +255,36 @@ public class Room {
     }
 
     /**
-     * Method to start the timer. At the end of set time, a task is executed.
+     * Method to start the timer. At the end of set time, the room is closed and the game is started.
      * @param time before run the task.
      */
     private void startTimer(long time){
-        startGameTimer = new Timer();
-        startGameTimer.schedule(new GameHandler(), time);
+        startGameDeadline = DeadlineScheduler.schedule(time, () -> {
+            synchronized (roomMutex){
+                roomOpen = false;
+            }
+            fire(gameHandler::start);
+        });
+    }
+
+    /**
+     * Queue an event of the game. Events run one at a time on the shared threads, holding the game mutex.
+     * @param event to handle.
+     */
+    private void fire(Runnable event){
+        events.execute(() -> {
+            synchronized (gameMutex){
+                event.run();
+            }
+        });
     }
 
     /**
      * Method to reset start game timer.
+     * @return true if the game has not been started by the timer.
      */
-    private void resetTimer(){
-        if(startGameTimer != null) {
-            startGameTimer.cancel();
-            startGameTimer.purge();
-        }
+    private boolean resetTimer(){
+        return startGameDeadline == null || startGameDeadline.cancel();
     }
 
     /**
@@ -149,13 +292,16 @@ public class Room {
      * @param serverPlayer is rejoining game.
      */
     public void rejoinRoom(ServerPlayer serverPlayer){
-        synchronized (MUTEX) {
-            for (int i = 0; i < players.size(); i++) {
-                if (players.get(i).getUsername().equals(serverPlayer.getUsername())) {
-                    serverPlayer.setPersonalBoard(players.get(i).getPersonalBoard());
-                    serverPlayer.setColor(players.get(i).getColor());
-                    players.set(i, serverPlayer);
+        synchronized (roomMutex) {
+            synchronized (gameMutex) {
+                for (int i = 0; i < players.size(); i++) {
+                    if (players.get(i).getUsername().equals(serverPlayer.getUsername())) {
+                        serverPlayer.setPersonalBoard(players.get(i).getPersonalBoard());
+                        serverPlayer.setColor(players.get(i).getColor());
+                        players.set(i, serverPlayer);
+                    }
                 }
+                disconnectedPlayers.remove(serverPlayer.getUsername());
             }
             Printer.printDebugMessage(serverPlayer.getUsername() + " has rejoined the previous room.");
         }
@@ -172,23 +318,27 @@ public class Room {
      */
     public void setFamilyMemberInTower(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                        int towerIndex, int cellIndex, Map<String, Object> playerChoices){
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            gameManager.setInformationChoicesHandler(playerChoices);
-            try {
-                Game game = gameManager.getGameModel();
-                game.pickupDevelopmentCardFromTower(player, familyMemberColor, servants, towerIndex, cellIndex, gameManager.getInformationChoicesHandler());
-                if(gameManager.getInformationChoicesHandler().getDecisions("choose-new-card") != null){
-                    DevelopmentCard developmentCard = (DevelopmentCard)gameManager.getInformationChoicesHandler().getDecisions("choose-new-card");
-                    for(Tower tower : game.getMainBoard().getTowers())
-                        for(TowerCell cell : tower.getTowerCells())
-                            if(cell.getDevelopmentCard().getName().equalsIgnoreCase(developmentCard.getName()))
-                                cell.setPlayerNicknameInTheCell(player.getUsername());
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    Game game = gameManager.getGameModel();
+                    game.pickupDevelopmentCardFromTower(player, familyMemberColor, servants, towerIndex, cellIndex, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.TOWER, player, familyMemberColor, servants, towerIndex, cellIndex, choices);
+                    if(gameManager.getInformationChoicesHandler().getDecisions("choose-new-card") != null){
+                        DevelopmentCard developmentCard = (DevelopmentCard)gameManager.getInformationChoicesHandler().getDecisions("choose-new-card");
+                        for(Tower tower : game.getMainBoard().getTowers())
+                            for(TowerCell cell : tower.getTowerCells())
+                                if(cell.getDevelopmentCard().getName().equalsIgnoreCase(developmentCard.getName()))
+                                    cell.setPlayerNicknameInTheCell(player.getUsername());
+                    }
+                    String message = player.getUsername() + " set a family member in " + game.getMainBoard().getTower(towerIndex).getColor().toString().toLowerCase()
+                            + " tower and picked up " + game.getMainBoard().getTower(towerIndex).getTowerCell(cellIndex).getDevelopmentCard().getName() + ".";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set tower in the same way of the client.");
                 }
-                String message = player.getUsername() + " set a family member in " + game.getMainBoard().getTower(towerIndex).getColor().toString().toLowerCase()
-                        + " tower and picked up " + game.getMainBoard().getTower(towerIndex).getTowerCell(cellIndex).getDevelopmentCard().getName() + ".";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set tower in the same way of the client.");
             }
         }
     }
@@ -202,15 +352,19 @@ public class Room {
      */
     public void setFamilyMemberInCouncil(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                          Map<String, Object> playerChoices){
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            gameManager.setInformationChoicesHandler(playerChoices);
-            try {
-                Game game = gameManager.getGameModel();
-                game.placeFamilyMemberInsideCouncilPalace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in council palace and get one of its privileges.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set council palace in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    Game game = gameManager.getGameModel();
+                    game.placeFamilyMemberInsideCouncilPalace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.COUNCIL, player, familyMemberColor, servants, 0, 0, choices);
+                    String message = player.getUsername() + " set a family member in council palace and get one of its privileges.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set council palace in the same way of the client.");
+                }
             }
         }
     }
@@ -225,14 +379,18 @@ public class Room {
      */
     public void setFamilyMemberInMarket(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                         int marketCell, Map<String, Object> playerChoices){
-        gameManager.setInformationChoicesHandler(playerChoices);
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            try {
-                gameManager.getGameModel().placeFamilyMemberInsideMarket(player, familyMemberColor, servants, marketCell, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in market cell #" + marketCell + " and get its benefits";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set market in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().placeFamilyMemberInsideMarket(player, familyMemberColor, servants, marketCell, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.MARKET, player, familyMemberColor, servants, marketCell, 0, choices);
+                    String message = player.getUsername() + " set a family member in market cell #" + marketCell + " and get its benefits";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set market in the same way of the client.");
+                }
             }
         }
     }
@@ -246,14 +404,18 @@ public class Room {
      */
     public void setFamilyMemberInHarvestSimple(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                                Map<String, Object> playerChoices){
-        gameManager.setInformationChoicesHandler(playerChoices);
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            try {
-                gameManager.getGameModel().placeFamilyMemberInsideHarvestSimpleSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in harvest area simple.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set harvest simple area in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().placeFamilyMemberInsideHarvestSimpleSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.HARVEST_SIMPLE, player, familyMemberColor, servants, 0, 0, choices);
+                    String message = player.getUsername() + " set a family member in harvest area simple.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set harvest simple area in the same way of the client.");
+                }
             }
         }
     }
@@ -267,14 +429,18 @@ public class Room {
      */
     public void setFamilyMemberInProductionSimple(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                                   Map<String, Object> playerChoices){
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            gameManager.setInformationChoicesHandler(playerChoices);
-            try {
-                gameManager.getGameModel().placeFamilyMemberInsideProductionSimpleSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in production area simple.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set production simple area in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().placeFamilyMemberInsideProductionSimpleSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.PRODUCTION_SIMPLE, player, familyMemberColor, servants, 0, 0, choices);
+                    String message = player.getUsername() + " set a family member in production area simple.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set production simple area in the same way of the client.");
+                }
             }
         }
     }
@@ -288,14 +454,18 @@ public class Room {
      */
     public void setFamilyMemberInHarvestExtended(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                                  Map<String, Object> playerChoices){
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            gameManager.setInformationChoicesHandler(playerChoices);
-            try {
-                gameManager.getGameModel().placeFamilyMemberInsideHarvestExtendedSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in harvest area extended.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set harvest extended area in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().placeFamilyMemberInsideHarvestExtendedSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.HARVEST_EXTENDED, player, familyMemberColor, servants, 0, 0, choices);
+                    String message = player.getUsername() + " set a family member in harvest area extended.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set harvest extended area in the same way of the client.");
+                }
             }
         }
     }
@@ -309,14 +479,18 @@ public class Room {
      */
     public void setFamilyMemberInProductionExtended(ServerPlayer player, FamilyMemberColor familyMemberColor, int servants,
                                                     Map<String, Object> playerChoices){
-        gameManager.setInformationChoicesHandler(playerChoices);
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            try {
-                gameManager.getGameModel().placeFamilyMemberInsideProductionExtendedSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " set a family member in production area extended.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set production extended area in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().placeFamilyMemberInsideProductionExtendedSpace(player, familyMemberColor, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.familyMemberPlaced(GameEventType.PRODUCTION_EXTENDED, player, familyMemberColor, servants, 0, 0, choices);
+                    String message = player.getUsername() + " set a family member in production area extended.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot set production extended area in the same way of the client.");
+                }
             }
         }
     }
@@ -329,14 +503,18 @@ public class Room {
      * @param playerChoices to communicate to the server the player choice
      */
     public void activateLeader(ServerPlayer player, int leaderCardIndex, int servants, Map<String, Object> playerChoices){
-        gameManager.setInformationChoicesHandler(playerChoices);
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            try {
-                gameManager.getGameModel().activateLeaderCard(player, leaderCardIndex, servants, gameManager.getInformationChoicesHandler());
-                String message = player.getUsername() + " activate a leader card.";
-                clientUpdatePacket.setMessage(message);
-            } catch (GameException e) {
-                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot activate a leader card in the same way of the client.");
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                try {
+                    gameManager.getGameModel().activateLeaderCard(player, leaderCardIndex, servants, gameManager.getInformationChoicesHandler());
+                    eventLog.leaderActivated(player, leaderCardIndex, servants, choices);
+                    String message = player.getUsername() + " activate a leader card.";
+                    clientUpdatePacket.setMessage(message);
+                } catch (GameException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot activate a leader card in the same way of the client.");
+                }
             }
         }
     }
@@ -348,28 +526,33 @@ public class Room {
      * @param playerChoices to communicate to the server the player choice
      */
     public void discardLeader(ServerPlayer player, int leaderCardIndex, Map<String, Object> playerChoices) {
-        if(player.getUsername().equals(playerTurn.currentPlayer().getUsername())) {
-            gameManager.setInformationChoicesHandler(playerChoices);
-            gameManager.getGameModel().discardLeaderCard(player, leaderCardIndex, gameManager.getInformationChoicesHandler());
-            String message = player.getUsername() + " discard a leader card and gets victory points.";
-            clientUpdatePacket.setMessage(message);
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)) {
+                byte[] choices = eventLog.choices(playerChoices);
+                gameManager.setInformationChoicesHandler(playerChoices);
+                gameManager.getGameModel().discardLeaderCard(player, leaderCardIndex, gameManager.getInformationChoicesHandler());
+                eventLog.leaderDiscarded(player, leaderCardIndex, choices);
+                String message = player.getUsername() + " discard a leader card and gets victory points.";
+                clientUpdatePacket.setMessage(message);
+            }
         }
     }
 
     /**
-     * Join a player in the room. Using MUTEX concurrent access is managed.
+     * Join a player in the room. Using the room mutex concurrent access is managed.
      * @param serverPlayer the player who would access the room.
      * @throws RoomException if the room is full or closed.
      */
     public void joinRoom(ServerPlayer serverPlayer) throws RoomException{
-        synchronized (MUTEX){
+        synchronized (roomMutex){
             if(roomOpen){
                 players.add(serverPlayer);
                 if(players.size() == maxPlayerNumber){
                     roomOpen = false;
-                    resetTimer();
-                    startTimer(IMMEDIATE_START_TIME);
-                    Printer.printDebugMessage("Room #" + this.roomID + " starts in " + IMMEDIATE_START_TIME + " seconds.");
+                    if(resetTimer()) {
+                        startTimer(IMMEDIATE_START_TIME);
+                        Printer.printDebugMessage("Room #" + this.roomID + " starts in " + IMMEDIATE_START_TIME + " seconds.");
+                    }
                 }
                 else if(players.size() == MIN_PLAYER_TO_START) {
                     startTimer(maxWaitingTimeBeforeStart);
@@ -382,269 +565,719 @@ public class Room {
     }
 
     /**
-     * This method is used to check if the player has already joined the room
-     * @param serverPlayer the player who would access the room.
-     * @return
+     * Check if the room accepts new players.
+     * @return true if the room is open.
      */
-    public boolean userAlreadyJoined(ServerPlayer serverPlayer){
-        for(ServerPlayer player : players)
-            if(player.getUsername().equals(serverPlayer.getUsername()))
-                return true;
-        return false;
+    public boolean isOpen(){
+        synchronized (roomMutex){
+            return roomOpen;
+        }
     }
 
-
-    public void onPersonalTilesChosen(){
-        countDownLatch.countDown();
+    /**
+     * Get the step of the life of the room.
+     * @return lifecycle step.
+     */
+    public Lifecycle getLifecycle(){
+        return this.lifecycle;
     }
 
-    public void onLeaderCardChosen() {
-        countDownLatch.countDown();
+    /**
+     * Set the listener notified when the game ends.
+     * @param finishListener to notify.
+     */
+    public void setFinishListener(Consumer<Room> finishListener){
+        this.finishListener = finishListener;
     }
 
-    public void onSupportToTheChurchChoice(ServerPlayer player, boolean flag){
-        if(playerTurn.currentPlayer().getUsername().equals(player.getUsername())){
-            gameManager.applySupportChoice(player, flag);
-            playerTurn.stopTimer();
+    /**
+     * Set the log where the events of the game are written. Must be called before the game starts.
+     * @param log of the server, null to disable it.
+     */
+    public void setEventLog(EventLog log){
+        synchronized (gameMutex){
+            this.eventLog = log == null ? RoomEvents.DISABLED : new RoomEvents(log, roomID);
         }
-
     }
 
     /**
-     * This method stops the timer and sets the end of the turn for a player
-     * @param player the player that is performing the turn
+     * Set the store where the room saves a checkpoint at the start of every turn. Must be called before the game starts.
+     * @param checkpoints of the server, null to disable them.
      */
-    public void endTurn(ServerPlayer player) {
-        if(playerTurn.currentPlayer().getUsername().equals(player.getUsername()))
-            playerTurn.stopTimer();
+    public void setCheckpoints(CheckpointStore checkpoints){
+        synchronized (gameMutex){
+            this.checkpoints = checkpoints;
+        }
     }
 
     /**
-     * This method restores the player's state
-     * @param player the current player
+     * Replay an event logged after the checkpoint of a recovered room, as the room handled it before the crash.
+     * Events the room already includes and events that do not change the game are ignored.
+     * @param sequence of the event.
+     * @param code of the event type.
+     * @param payload of the event.
+     * @return true if the event has been applied.
+     * @throws IOException if the choices of an action cannot be decoded.
      */
-    public void restorePlayerState(ServerPlayer player){
-        Thread updater = new Thread(() -> {
-            try{
-                player.sendGameInfo(gameManager.getGameModel());
-                player.notifyTurnStarted(playerTurn.currentPlayer().getUsername(), maxMoveWaitingTime);
-            } catch (NetworkException e){
-                Printer.printStandardMessage(player.getUsername() + " is offline again.");
-            }
-        });
-        updater.start();
+    /*package-local*/ boolean replay(long sequence, byte code, ByteBuffer payload) throws IOException{
+        synchronized (gameMutex){
+            GameEventType type = GameEventType.fromCode(code);
+            if(!replaying || sequence <= restoredSequence || type == null)
+                return false;
+            if(type == GameEventType.DICE_THROWN)
+                gameManager.setDices(RoomEvents.readDice(payload));
+            else if(!replayPlayerEvent(type, payload))
+                return false;
+            restoredSequence = sequence;
+            return true;
+        }
     }
 
     /**
-     * This class is used to manage the room during the game.
+     * Replay an event of a player. Must hold the game mutex.
+     * @param type of the event.
+     * @param payload of the event.
+     * @return true if the event has been applied.
+     * @throws IOException if the choices of an action cannot be decoded.
      */
-    private class GameHandler extends TimerTask {
-
-        /**
-         * This method is executed when the time is expired. At first, it closes the room.
-         * Then start the game.
-         */
-        @Override
-        public void run(){
-            setupBeforeStartGame();
-            sendGameModel();
-            Printer.printDebugMessage("Game starts in room #" + getRoomID());
-            startGameSession();
+    private boolean replayPlayerEvent(GameEventType type, ByteBuffer payload) throws IOException{
+        String username;
+        switch (type){
+            case TOWER: case COUNCIL: case MARKET: case HARVEST_SIMPLE: case PRODUCTION_SIMPLE: case HARVEST_EXTENDED:
+            case PRODUCTION_EXTENDED: case LEADER_ACTIVATED: case LEADER_DISCARDED: case CHURCH_SUPPORT: case TURN_ENDED:
+                username = EventLog.RecordReader.getString(payload);
+                break;
+            default:
+                return false;
+        }
+        ServerPlayer player = null;
+        for(ServerPlayer p : players)
+            if(p.getUsername().equals(username))
+                player = p;
+        if(player == null || !isCurrentPlayer(player))
+            return false;
+        if(type == GameEventType.TURN_ENDED)
+            gameHandler.onTurnEnded(playerTurn);
+        else if(type == GameEventType.CHURCH_SUPPORT)
+            gameManager.applySupportChoice(player, payload.get() != 0);
+        else if(type == GameEventType.LEADER_ACTIVATED){
+            int leaderCardIndex = payload.getInt();
+            int servants = payload.getInt();
+            activateLeader(player, leaderCardIndex, servants, RoomEvents.readChoices(payload));
+        }
+        else if(type == GameEventType.LEADER_DISCARDED){
+            int leaderCardIndex = payload.getInt();
+            discardLeader(player, leaderCardIndex, RoomEvents.readChoices(payload));
         }
+        else
+            replayFamilyMember(type, player, payload);
+        return true;
+    }
 
+    /**
+     * Replay a family member placed in an action space. Must hold the game mutex.
+     * @param type of action space.
+     * @param player that placed the family member.
+     * @param payload of the event, after the username.
+     * @throws IOException if the choices of the action cannot be decoded.
+     */
+    private void replayFamilyMember(GameEventType type, ServerPlayer player, ByteBuffer payload) throws IOException{
+        FamilyMemberColor color = FamilyMemberColor.values()[payload.get()];
+        int servants = payload.getInt();
+        int first = payload.getInt();
+        int second = payload.getInt();
+        Map<String, Object> choices = RoomEvents.readChoices(payload);
+        switch (type){
+            case TOWER:
+                setFamilyMemberInTower(player, color, servants, first, second, choices);
+                break;
+            case COUNCIL:
+                setFamilyMemberInCouncil(player, color, servants, choices);
+                break;
+            case MARKET:
+                setFamilyMemberInMarket(player, color, servants, first, choices);
+                break;
+            case HARVEST_SIMPLE:
+                setFamilyMemberInHarvestSimple(player, color, servants, choices);
+                break;
+            case PRODUCTION_SIMPLE:
+                setFamilyMemberInProductionSimple(player, color, servants, choices);
+                break;
+            case HARVEST_EXTENDED:
+                setFamilyMemberInHarvestExtended(player, color, servants, choices);
+                break;
+            default:
+                setFamilyMemberInProductionExtended(player, color, servants, choices);
+                break;
+        }
+    }
 
-        /**
-         * Method to handle game turn logic.
-         */
-        private void startGameSession(){
-            clientUpdatePacket = new ClientUpdatePacket(gameManager.getGameModel());
-            for(int age = 1; age <= AGES; age++){
-                for(int turn = 1; turn <= TURNS_PER_AGE; turn++){
-                    turnSetup(age, turn);
-                    for(int move = 1; move <= FamilyMemberColor.values().length; move++) {
-                        gameManager.getGameModel().setMove(move);
-                        for (ServerPlayer player : players) {
-                            playerTurn = new PlayerTurn(player);
-                            notifyTurnStarted(player);
-                            playerTurn.startTimer(maxMoveWaitingTime);
-                            updateAllClients(player);
-                        }
-                    }
-                    checkExcommunication(age, turn);
-                }
+    /**
+     * Start again a recovered room after its events have been replayed: a new checkpoint is saved, and the
+     * current player gets the whole move deadline. Players that have not rejoined yet simply miss their moves.
+     */
+    public void resume(){
+        synchronized (gameMutex){
+            if(!replaying)
+                return;
+            replaying = false;
+            if(lifecycle == Lifecycle.FINISHED){
+                if(checkpoints != null)
+                    checkpoints.delete(roomID);
+                Consumer<Room> listener = finishListener;
+                if(listener != null)
+                    listener.accept(this);
+                return;
             }
-            gameManager.calculateFinalPoints();
-            notifyEndGame();
+            checkpoint();
+            gameHandler.resume();
         }
+    }
 
-        /**
-         * Create final ranking and send to all players the result.
-         */
-        private void notifyEndGame(){
-            ServerPlayer[] winners = players.toArray(new ServerPlayer[players.size()]);
-            for(int i = 0; i < winners.length; i++)
-                for(int j = 0; j < winners.length; j++)
-                    if(winners[i].getPersonalBoard().getValuables().getPoints().get(PointType.VICTORY) <
-                            winners[j].getPersonalBoard().getValuables().getPoints().get(PointType.VICTORY)){
-                        ServerPlayer tmp = winners[i];
-                        winners[i] = winners[j];
-                        winners[j] = tmp;
-                    }
-            for(ServerPlayer serverPlayer : players)
-                try {
-                    serverPlayer.notifyEndGame(winners);
-                } catch (NetworkException e){
-                    Printer.printDebugMessage(this.getClass().getSimpleName(), serverPlayer.getUsername() + " won't receive final ranking.");
-                }
-            Printer.printStandardMessage("Game ended in room #" + roomID);
+    /**
+     * Encode the state of the game. Must be taken between two events of the game.
+     * @return the encoded checkpoint.
+     * @throws IOException if the game cannot be encoded.
+     */
+    /*package-local*/ byte[] snapshot() throws IOException{
+        synchronized (gameMutex){
+            return RoomCheckpoint.encode(new RoomCheckpoint(roomID, maxPlayerNumber, roomConfiguration, gameManager,
+                    players, gameHandler.state, gameHandler.age, gameHandler.turn, gameHandler.move, gameHandler.playerIndex, snapshotSequence()));
         }
+    }
 
-        /**
-         * Notify to all players that turn is changed.
-         * @param player is playing the turn.
-         */
-        private void notifyTurnStarted(ServerPlayer player){
-            for(ServerPlayer p : players)
-                try {
-                    p.notifyTurnStarted(player.getUsername(), maxMoveWaitingTime);
-                } catch (NetworkException e){
-                    Printer.printDebugMessage(this.getClass().getSimpleName(), p.getUsername() + " won't receive turn started notification.");
-                }
+    /**
+     * Get the sequence of the last event included in a snapshot taken now.
+     * @return sequence.
+     */
+    private long snapshotSequence(){
+        synchronized (gameMutex){
+            return replaying ? restoredSequence : Math.max(restoredSequence, eventLog.getLastSequence());
         }
+    }
 
-        /**
-         * Reset personal boards and mainboard following game rules about turn start.
-         * @param age of game.
-         * @param turn of game.
-         */
-        private void turnSetup(int age, int turn){
-            if(!(turn == 1 && age == 1)) {
-                getNewOrder();
-                gameManager.personalBoardsTurnReset(roomConfiguration);
-                gameManager.mainboardTurnReset();
-                gameManager.setupMainBoard(age, turn);
-                gameManager.getGameModel().setAge(age);
-                gameManager.getGameModel().setTurn(turn);
-                updateAllClients();
-            }
+    /**
+     * Encode the game for the search of a bot. Must be taken between two events of the game.
+     * @return the encoded game, that every search thread decodes into its own copy.
+     * @throws IOException if the game cannot be encoded.
+     */
+    /*package-local*/ SerializedPacket encodeGame() throws IOException{
+        synchronized (gameMutex){
+            return SerializedPacket.encode(gameManager.getGameModel());
         }
+    }
 
-        /**
-         * Check if the player has excommunication and eventually let him to choice if get it.
-         * @param age of game.
-         * @param turn of game.
-         */
-        private void checkExcommunication(int age, int turn){
-            if(turn % 2 == 0) {
-                for(ServerPlayer player : players){
-                    try {
-                        playerTurn = new PlayerTurn(player);
-                        player.supportForTheChurch(gameManager.finalControlsForPeriod(age, player));
-                        playerTurn.startTimer(maxMoveWaitingTime);
-                    } catch (NetworkException e){
-                        Printer.printDebugMessage(this.getClass().getSimpleName(), player.getUsername() + " won't receive excommunication choice message..");
-                    }
-                }
-            }
+    /**
+     * Get the usernames of the players in the order of the current turn.
+     * @return usernames.
+     */
+    /*package-local*/ String[] getTurnOrder(){
+        synchronized (gameMutex){
+            String[] usernames = new String[players.size()];
+            for(int i = 0; i < usernames.length; i++)
+                usernames[i] = players.get(i).getUsername();
+            return usernames;
         }
+    }
 
-        /**
-         * Change players order at the end of the turn.
-         */
-        private void getNewOrder(){
-            List<Player> p = new ArrayList<>(gameManager.getGameModel().getMainBoard().getCouncilPalace().getNewOrder());
-            ArrayList<ServerPlayer> newOrder = new ArrayList<>();
-            for(Player player : p){
-                for(ServerPlayer serverPlayer : players){
-                    if(serverPlayer.getUsername().equals(player.getUsername()))
-                        newOrder.add(serverPlayer);
-                }
+    /**
+     * Save a checkpoint of the game, unless checkpoints are disabled or the room is replaying its events.
+     * Only the encoding runs on the thread of the room, the store writes it on its own thread.
+     */
+    private void checkpoint(){
+        if(checkpoints == null || replaying)
+            return;
+        long start = System.nanoTime();
+        try {
+            synchronized (gameMutex){
+                checkpoints.save(roomID, snapshotSequence(), snapshot());
             }
-            for(ServerPlayer serverPlayer : players)
-                if(!newOrder.contains(serverPlayer))
-                    newOrder.add(serverPlayer);
-            players = newOrder;
+            Metrics.histogram(CheckpointStore.ENCODE_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        } catch (IOException e){
+            Metrics.increment(CheckpointStore.LOST);
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot encode the checkpoint of room #" + roomID + ".", e);
         }
+    }
 
-        /**
-         * Setup main board and players before game start.
-         * In the end create a new game instance.
-         */
-        private void setupBeforeStartGame(){
-            synchronized (MUTEX){
-                roomOpen = false;
-            }
-            Printer.printDebugMessage("[Room #" + roomID + "] : Room closed.");
-
-            gameManager = Configurator.buildAndGetGame(players, roomConfiguration);
-            players = gameManager.getStartOrder();
-
-            personalTilesChoice(roomConfiguration.getPersonalBoardTiles());
-            leaderCardsChoice(gameManager.getLeaderCards());
-
-            gameManager.createGameInstance();
-            gameManager.setExcommunicationCards();
+    /**
+     * Get the usernames of the players of the room.
+     * @return usernames.
+     */
+    public List<String> getUsernames(){
+        synchronized (roomMutex){
+            List<String> usernames = new ArrayList<>();
+            for(ServerPlayer player : players)
+                usernames.add(player.getUsername());
+            return usernames;
         }
+    }
 
-        /**
-         * Send to all player personal tiles to choose.
-         * @param personalBoardTileList to choose.
-         */
-        private void personalTilesChoice(ArrayList<PersonalBoardTile> personalBoardTileList){
-            ArrayList<PersonalBoardTile> personalBoardtiles = new ArrayList<>();
-            personalBoardtiles.addAll(personalBoardTileList);
+    /**
+     * Archive a finished room: the game is released and only the result is kept.
+     * @return the result of the game, or null if the game is not finished or already archived.
+     */
+    public GameResult archive(){
+        synchronized (gameMutex){
+            if(lifecycle != Lifecycle.FINISHED)
+                return null;
+            lifecycle = Lifecycle.ARCHIVED;
+            gameManager = null;
+            clientUpdatePacket = null;
+            playerTurn = null;
+            modelUpdates.clear();
+            gameHandler.release();
+            return result;
+        }
+    }
 
-            for(int i = players.size() - 1; i >= 0; i--) {
-                countDownLatch = new CountDownLatch(1);
-                try {
-                    players.get(i).sendPersonalTile(personalBoardtiles);
-                    countDownLatch.await();
-                    for(int j = 0; j < personalBoardtiles.size(); j++)
-                        if (personalBoardtiles.get(j).getPersonalBoardID() == players.get(i).getPersonalBoard().getPersonalBoardTile().getPersonalBoardID())
-                            personalBoardtiles.remove(j);
-                } catch (NetworkException | InterruptedException e) {
-                    Printer.printDebugMessage(this.getClass().getSimpleName(), players.get(i).getUsername() + " won't receive personal board tile. Game start interrupted.");
-                }
+    /**
+     * Evict an archived room: players are released and no longer point to the room.
+     */
+    public void evict(){
+        synchronized (roomMutex){
+            synchronized (gameMutex){
+                lifecycle = Lifecycle.EVICTED;
+                for(ServerPlayer player : players)
+                    if(player.getRoom() == this)
+                        player.setRoom(null);
+                players = new ArrayList<>();
             }
         }
+    }
 
-        /**
-         * Handle leader card choice following game rules.
-         * @param leaderCards chosen.
-         */
-        private void leaderCardsChoice(List<LeaderCard> leaderCards) {
-            countDownLatch = new CountDownLatch(players.size());
-            ArrayList<ServerPlayer> playersOrder = new ArrayList<>();
-            playersOrder.addAll(players);
-            ArrayList<LeaderCard> cards = new ArrayList<>();
-            cards.addAll(leaderCards);
-            Collections.shuffle(cards);
-            cards = new ArrayList<>(cards.subList(0, (players.size() * LEADER_CARD_PER_PLAYER)));
-
-            for(int i = 0; i < LEADER_CARD_PER_PLAYER; i++) {
-                try {
-                    sendLeaderCards(cards, playersOrder);
-                    countDownLatch.await();
-                    removeChosenLeaderCards(cards);
-                } catch (NetworkException | InterruptedException e) {
-                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Leader card sending interrupted!");
-                }
-                playersOrder.add(playersOrder.remove(0));
-                countDownLatch = new CountDownLatch(players.size());
+    /**
+     * Get the max number of players of the room.
+     * @return max number of players.
+     */
+    public int getMaxPlayerNumber(){
+        return this.maxPlayerNumber;
+    }
+
+    /**
+     * Get the number of players that have joined the room.
+     * @return number of players.
+     */
+    public int getPlayersNumber(){
+        synchronized (roomMutex){
+            return players.size();
+        }
+    }
+
+    /**
+     * This method is used to check if the player has already joined the room
+     * @param serverPlayer the player who would access the room.
+     * @return
+     */
+    public boolean userAlreadyJoined(ServerPlayer serverPlayer){
+        synchronized (roomMutex){
+            for(ServerPlayer player : players)
+                if(player.getUsername().equals(serverPlayer.getUsername()))
+                    return true;
+            return false;
+        }
+    }
+
+
+    /**
+     * This method notifies the room that the player choosing has chosen his personal board tile
+     */
+    public void onPersonalTilesChosen(){
+        fire(gameHandler::onPersonalTileChosen);
+    }
+
+    /**
+     * This method notifies the room that a player has chosen a leader card
+     */
+    public void onLeaderCardChosen() {
+        fire(gameHandler::onLeaderCardChosen);
+    }
+
+    /**
+     * This method applies the choice of a player about the support to the church and ends his turn
+     * @param player the player that made the choice
+     * @param flag true if the player supports the church
+     */
+    public void onSupportToTheChurchChoice(ServerPlayer player, boolean flag){
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player)){
+                gameManager.applySupportChoice(player, flag);
+                eventLog.churchSupport(player, flag);
+                stopTurn(playerTurn);
+            }
+        }
+    }
+
+    /**
+     * This method stops the timer and sets the end of the turn for a player
+     * @param player the player that is performing the turn
+     */
+    public void endTurn(ServerPlayer player) {
+        synchronized (gameMutex){
+            if(isCurrentPlayer(player))
+                stopTurn(playerTurn);
+        }
+    }
+
+    /**
+     * Get the move a player is playing now, so that a task running late can tell it from a later one.
+     * @param player to check.
+     * @return the turn of the move, or null if the player is not moving.
+     */
+    /*package-local*/ PlayerTurn currentMove(ServerPlayer player){
+        synchronized (gameMutex){
+            return isCurrentPlayer(player) && gameHandler.state == State.MOVE ? playerTurn : null;
+        }
+    }
+
+    /**
+     * Check if a turn is still the current one.
+     * @param turn to check.
+     * @return false if the turn ended.
+     */
+    /*package-local*/ boolean isCurrentTurn(PlayerTurn turn){
+        synchronized (gameMutex){
+            return playerTurn == turn;
+        }
+    }
+
+    /**
+     * End a turn, unless the game already moved on to another one.
+     * @param turn to end.
+     */
+    /*package-local*/ void endTurn(PlayerTurn turn){
+        synchronized (gameMutex){
+            if(playerTurn == turn)
+                stopTurn(turn);
+        }
+    }
+
+    /**
+     * Check if a player is playing the current turn. Must hold the game mutex.
+     * @param player to check.
+     * @return true if the player is playing.
+     */
+    private boolean isCurrentPlayer(ServerPlayer player){
+        return playerTurn != null && playerTurn.currentPlayer().getUsername().equals(player.getUsername());
+    }
+
+    /**
+     * Stop the timer of a turn and let the game go on, unless the turn already ended.
+     * @param turn to stop.
+     */
+    private void stopTurn(PlayerTurn turn){
+        if(turn.stopTimer())
+            fire(() -> gameHandler.onTurnEnded(turn));
+    }
+
+    /**
+     * This method notifies the room that the connection of a player went down. From now on his moves are played
+     * by the server and his church support choices are skipped, without waiting for the deadline, until he rejoins.
+     * @param player the session of the player that went down
+     */
+    public void disconnectPlayer(ServerPlayer player){
+        synchronized (gameMutex){
+            boolean joined = false;
+            for(ServerPlayer p : players)
+                if(p == player)
+                    joined = true;
+            if(!joined)
+                return;
+            disconnectedPlayers.add(player.getUsername());
+            Printer.printDebugMessage(this.getClass().getSimpleName(), player.getUsername() + " left room #" + roomID + ", his moves are played by the server.");
+            if(isCurrentPlayer(player) && !replaying){
+                PlayerTurn current = playerTurn;
+                fire(() -> gameHandler.playForDisconnected(current));
+            }
+        }
+    }
+
+    /**
+     * Check if the connection of a player is down. Must hold the game mutex.
+     * @param player to check.
+     * @return true if the player has not rejoined the room yet.
+     */
+    private boolean isDisconnected(ServerPlayer player){
+        return disconnectedPlayers.contains(player.getUsername());
+    }
+
+    /**
+     * This method restores the player's state
+     * @param player the current player
+     */
+    public void restorePlayerState(ServerPlayer player){
+        synchronized (gameMutex){
+            if(playerTurn == null)
+                return;
+            try{
+                long version = modelUpdates.commit(gameManager.getGameModel());
+                SerializedPacket game = SerializedPacket.encode(gameManager.getGameModel());
+                player.getOutbound().send(to -> {
+                    modelUpdates.synchronize(to.getUsername(), version);
+                    to.sendGameInfo(game);
+                });
+            } catch (IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot encode game for " + player.getUsername() + ".");
+            }
+            String currentPlayer = playerTurn.currentPlayer().getUsername();
+            player.getOutbound().send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted(currentPlayer, maxMoveWaitingTime));
+        }
+    }
+
+    /**
+     * This method sends the whole game model to a player whose model is out of date, in place of his pending update
+     * @param player that rejected an update
+     */
+    public void resynchronize(ServerPlayer player){
+        synchronized (gameMutex){
+            if(playerTurn == null || replaying)
+                return;
+            try{
+                long version = modelUpdates.commit(gameManager.getGameModel());
+                SerializedPacket packet = SerializedPacket.encode(new ClientUpdatePacket(gameManager.getGameModel()));
+                modelUpdates.forget(player.getUsername());
+                player.getOutbound().send(OutboundQueue.MODEL_UPDATE, to -> {
+                    modelUpdates.synchronize(to.getUsername(), version);
+                    to.sendGameModelUpdate(packet);
+                });
+            } catch (IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot encode game for " + player.getUsername() + ".");
             }
         }
+    }
+
+    /**
+     * Steps of the life of a room.
+     */
+    public enum Lifecycle {
+
+        /**
+         * Waiting for players.
+         */
+        OPEN,
+
+        /**
+         * The game is running.
+         */
+        RUNNING,
+
+        /**
+         * The game ended, players can still see the final ranking.
+         */
+        FINISHED,
+
+        /**
+         * The result has been saved and the game released.
+         */
+        ARCHIVED,
+
+        /**
+         * The room has been removed from the server.
+         */
+        EVICTED
+    }
+
+    /**
+     * Steps of the game. Setup and scoring run as soon as they are reached, the other steps wait for
+     * events of players or timers.
+     */
+    /*package-local*/ enum State {
+
+        /**
+         * Waiting for players before the start.
+         */
+        WAITING,
+
+        /**
+         * Players choose personal board tiles, one at a time in reverse order.
+         */
+        TILE_DRAFT,
+
+        /**
+         * Players choose leader cards from the hands passed around.
+         */
+        LEADER_DRAFT,
+
+        /**
+         * A player is making a move.
+         */
+        MOVE,
+
+        /**
+         * A player is choosing whether to support the church.
+         */
+        VATICAN_REPORT,
+
+        /**
+         * Final points have been sent.
+         */
+        ENDED
+    }
+
+    /**
+     * This class is the state machine of the game. Its methods handle one event each, holding the game mutex,
+     * and never wait: the next step starts when players answer or a move deadline expires.
+     */
+    private class GameHandler {
+
+        /**
+         * Current step of the game.
+         */
+        private State state = State.WAITING;
+
+        /**
+         * Personal board tiles not chosen yet.
+         */
+        private ArrayList<PersonalBoardTile> availableTiles;
+
+        /**
+         * Index of the player choosing a personal board tile.
+         */
+        private int tileChooser;
+
+        /**
+         * Leader cards not chosen yet.
+         */
+        private ArrayList<LeaderCard> draftCards;
+
+        /**
+         * Order of the players receiving leader cards in the current draft round.
+         */
+        private ArrayList<ServerPlayer> draftOrder;
+
+        /**
+         * Current draft round.
+         */
+        private int draftRound;
+
+        /**
+         * Leader card choices still missing in the current draft round.
+         */
+        private int pendingChoices;
+
+        /**
+         * Current age, turn and move.
+         */
+        private int age;
+        private int turn;
+        private int move;
+
+        /**
+         * Index of the player playing the move or choosing the support to the church.
+         */
+        private int playerIndex;
+
+        /**
+         * Family members used by the current player before his move, to tell if he placed one during the move.
+         */
+        private int familyMembersUsed;
+
+        /**
+         * Generator of the moves played for disconnected players.
+         */
+        private final LegalMoveGenerator legalMoveGenerator = new LegalMoveGenerator();
+
+        /**
+         * Moves of the disconnected player, filled by the generator.
+         */
+        private final LegalMoves legalMoves = new LegalMoves();
+
+        /**
+         * Start event. Closes the room, sets up the game and starts the personal tiles draft.
+         */
+        private void start(){
+            if(state != State.WAITING)
+                return;
+            lifecycle = Lifecycle.RUNNING;
+            setupBeforeStartGame();
+        }
+
+        /**
+         * Setup main board and players before game start.
+         */
+        private void setupBeforeStartGame(){
+            Printer.printDebugMessage("[Room #" + roomID + "] : Room closed.");
+
+            eventLog.gameStarted(seed, players);
+            gameManager = Configurator.buildAndGetGame(players, roomConfiguration, seed);
+            players = gameManager.getStartOrder();
+            eventLog.developmentDeck(RoomEvents.Deck.GREEN, gameManager.getDevelopmentDeck(DevelopmentCardColor.GREEN));
+            eventLog.developmentDeck(RoomEvents.Deck.BLUE, gameManager.getDevelopmentDeck(DevelopmentCardColor.BLUE));
+            eventLog.developmentDeck(RoomEvents.Deck.YELLOW, gameManager.getDevelopmentDeck(DevelopmentCardColor.YELLOW));
+            eventLog.developmentDeck(RoomEvents.Deck.PURPLE, gameManager.getDevelopmentDeck(DevelopmentCardColor.PURPLE));
+
+            availableTiles = new ArrayList<>(roomConfiguration.getPersonalBoardTiles());
+            tileChooser = players.size() - 1;
+            state = State.TILE_DRAFT;
+            sendPersonalTiles();
+        }
+
+        /**
+         * Send the available personal tiles to the player choosing.
+         */
+        private void sendPersonalTiles(){
+            ArrayList<PersonalBoardTile> tiles = new ArrayList<>(availableTiles);
+            players.get(tileChooser).getOutbound().send(to -> to.sendPersonalTile(tiles));
+        }
+
+        /**
+         * Personal tile chosen event. Removes the tile and lets the next player choose.
+         */
+        private void onPersonalTileChosen(){
+            if(state != State.TILE_DRAFT)
+                return;
+            PersonalBoardTile chosen = players.get(tileChooser).getPersonalBoard().getPersonalBoardTile();
+            for(int j = 0; j < availableTiles.size(); j++)
+                if (chosen != null && availableTiles.get(j).getPersonalBoardID() == chosen.getPersonalBoardID())
+                    availableTiles.remove(j);
+            tileChooser--;
+            if(tileChooser >= 0)
+                sendPersonalTiles();
+            else
+                leaderCardsChoice(gameManager.getLeaderCards());
+        }
+
+        /**
+         * Start the leader cards draft following game rules.
+         * @param leaderCards to choose.
+         */
+        private void leaderCardsChoice(List<LeaderCard> leaderCards) {
+            draftOrder = new ArrayList<>(players);
+            ArrayList<LeaderCard> cards = new ArrayList<>(leaderCards);
+            gameManager.getRandom().shuffle(cards);
+            draftCards = new ArrayList<>(cards.subList(0, (players.size() * LEADER_CARD_PER_PLAYER)));
+            eventLog.leaderDeck(draftCards);
+            draftRound = 0;
+            state = State.LEADER_DRAFT;
+            sendLeaderCards(draftCards, draftOrder);
+        }
+
+        /**
+         * Leader card chosen event. When all players have chosen, the hands are passed to the next player.
+         */
+        private void onLeaderCardChosen(){
+            if(state != State.LEADER_DRAFT || --pendingChoices > 0)
+                return;
+            removeChosenLeaderCards(draftCards);
+            draftOrder.add(draftOrder.remove(0));
+            draftRound++;
+            if(draftRound < LEADER_CARD_PER_PLAYER)
+                sendLeaderCards(draftCards, draftOrder);
+            else
+                startGameSession();
+        }
 
         /**
          * Send to all player a part of the deck following game rules.
          * @param leaderCards to send.
          * @param serverPlayers that will receive cards.
-         * @throws NetworkException if errors occur during communication.
          */
-        private void sendLeaderCards(List<LeaderCard> leaderCards, List<ServerPlayer> serverPlayers) throws NetworkException{
+        private void sendLeaderCards(List<LeaderCard> leaderCards, List<ServerPlayer> serverPlayers){
             int cardNumberPerPlayer = leaderCards.size() / serverPlayers.size();
             int index = 0;
+            pendingChoices = serverPlayers.size();
             for(ServerPlayer player : serverPlayers){
-                player.sendLeaderCards(new ArrayList<>(leaderCards.subList(index * cardNumberPerPlayer, index * cardNumberPerPlayer + cardNumberPerPlayer)));
+                ArrayList<LeaderCard> cards = new ArrayList<>(leaderCards.subList(index * cardNumberPerPlayer, index * cardNumberPerPlayer + cardNumberPerPlayer));
+                player.getOutbound().send(to -> to.sendLeaderCards(cards));
                 index++;
             }
         }
@@ -663,21 +1296,342 @@ public class Room {
             }
         }
 
+        /**
+         * Create the game, send it to all players and start the first move.
+         */
+        private void startGameSession(){
+            gameManager.createGameInstance();
+            gameManager.setExcommunicationCards();
+            eventLog.excommunicationDeck(gameManager.getGameModel().getMainBoard().getVatican(), AGES);
+            eventLog.diceThrown(gameManager.getGameModel().getDices());
+            sendGameModel();
+            Printer.printDebugMessage("Game starts in room #" + getRoomID());
+            clientUpdatePacket = new ClientUpdatePacket(gameManager.getGameModel());
+            age = 1;
+            turn = 1;
+            startTurn();
+        }
+
+        /**
+         * Setup the board for the current turn and start its first move.
+         */
+        private void startTurn(){
+            turnSetup(age, turn);
+            move = 1;
+            playerIndex = 0;
+            state = State.MOVE;
+            gameManager.getGameModel().setMove(move);
+            checkpoint();
+            startMove();
+        }
+
+        /**
+         * Give the move to the current player and start its deadline.
+         */
+        private void startMove(){
+            gameManager.getGameModel().setMove(move);
+            ServerPlayer player = players.get(playerIndex);
+            playerTurn = new PlayerTurn(player);
+            familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed().size();
+            state = State.MOVE;
+            if(!replaying){
+                notifyTurnStarted(player);
+                startTurnTimerOrPlay(player);
+            }
+        }
+
+        /**
+         * Start the deadline of the current turn, or end the turn at once if its player is disconnected.
+         * @param player of the turn.
+         */
+        private void startTurnTimerOrPlay(ServerPlayer player){
+            if(isDisconnected(player)){
+                PlayerTurn current = playerTurn;
+                fire(() -> playForDisconnected(current));
+            }
+            else
+                startTurnTimer();
+        }
+
+        /**
+         * Play the move of a disconnected player, or skip his church support choice, and end his turn.
+         * @param turn of the disconnected player.
+         */
+        private void playForDisconnected(PlayerTurn turn){
+            if(turn != playerTurn)
+                return;
+            if(state == State.MOVE)
+                autoPlay(turn.currentPlayer());
+            stopTurn(turn);
+        }
+
+        /**
+         * Place a family member of a player that cannot choose, unless he already placed one during this move.
+         * Only moves that ask no choices are played, the cheapest in servants first. They go through the same
+         * methods of the room as the moves of the players, so they are logged and replayed like them.
+         * @param player that is disconnected.
+         */
+        private void autoPlay(ServerPlayer player){
+            if(player.getPersonalBoard().getFamilyMembersUsed().size() != familyMembersUsed)
+                return;
+            LegalMoves moves = legalMoveGenerator.generate(gameManager.getGameModel(), player, legalMoves);
+            for(int servants = 0; servants <= player.getPersonalBoard().getValuables().get(ResourceType.SERVANT); servants++)
+                for(int i = 0; i < moves.size(); i++)
+                    if(moves.getServants(i) == servants && !moves.requiresChoices(i) && placeFamilyMember(player, moves, i))
+                        return;
+        }
+
+        /**
+         * Place a family member with a generated move.
+         * @param player that is performing the move.
+         * @param moves generated.
+         * @param index of the move.
+         * @return true if the family member has been placed.
+         */
+        private boolean placeFamilyMember(ServerPlayer player, LegalMoves moves, int index){
+            FamilyMemberColor color = moves.getFamilyMemberColor(index);
+            int servants = moves.getServants(index);
+            Map<String, Object> choices = new HashMap<>();
+            try {
+                switch (moves.getTarget(index)){
+                    case TOWER:
+                        setFamilyMemberInTower(player, color, servants, moves.getSpace(index), moves.getCell(index), choices);
+                        break;
+                    case COUNCIL_PALACE:
+                        setFamilyMemberInCouncil(player, color, servants, choices);
+                        break;
+                    case MARKET:
+                        setFamilyMemberInMarket(player, color, servants, moves.getSpace(index), choices);
+                        break;
+                    case HARVEST_SIMPLE:
+                        setFamilyMemberInHarvestSimple(player, color, servants, choices);
+                        break;
+                    case PRODUCTION_SIMPLE:
+                        setFamilyMemberInProductionSimple(player, color, servants, choices);
+                        break;
+                    case HARVEST_EXTENDED:
+                        setFamilyMemberInHarvestExtended(player, color, servants, choices);
+                        break;
+                    default:
+                        setFamilyMemberInProductionExtended(player, color, servants, choices);
+                        break;
+                }
+            } catch (RuntimeException e) {
+                // Moves asking choices are filtered out, so this is an error of the game: the game rolled it back.
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot play " + moves.getTarget(index) + " for " + player.getUsername() + ".", e);
+                return false;
+            }
+            return player.getPersonalBoard().getFamilyMembersUsed().size() != familyMembersUsed;
+        }
+
+        /**
+         * Start the deadline of the current turn. When it expires, the turn ends.
+         */
+        private void startTurnTimer(){
+            PlayerTurn current = playerTurn;
+            current.startTimer(maxMoveWaitingTime, () -> fire(() -> onTurnEnded(current)));
+        }
+
+        /**
+         * Turn ended event, by the player or by the deadline.
+         * @param ended turn.
+         */
+        private void onTurnEnded(PlayerTurn ended){
+            if(ended != playerTurn)
+                return;
+            if(state == State.MOVE || state == State.VATICAN_REPORT)
+                eventLog.turnEnded(ended.currentPlayer());
+            if(state == State.MOVE)
+                endMove();
+            else if(state == State.VATICAN_REPORT)
+                endSupportChoice();
+        }
+
+        /**
+         * Send the move to the other players and go on with the next move, the Vatican report or the next turn.
+         */
+        private void endMove(){
+            updateAllClients(playerTurn.currentPlayer());
+            if(++playerIndex < players.size()){
+                startMove();
+                return;
+            }
+            playerIndex = 0;
+            if(++move <= FamilyMemberColor.values().length)
+                startMove();
+            else if(turn % 2 == 0)
+                startVaticanReport();
+            else
+                nextTurn();
+        }
+
+        /**
+         * Check if the players have excommunication and let them choose, one at a time.
+         */
+        private void startVaticanReport(){
+            playerIndex = 0;
+            state = State.VATICAN_REPORT;
+            askSupportForTheChurch();
+        }
+
+        /**
+         * Ask the current player whether to support the church and start its deadline.
+         */
+        private void askSupportForTheChurch(){
+            ServerPlayer player = players.get(playerIndex);
+            playerTurn = new PlayerTurn(player);
+            boolean canSupport = gameManager.finalControlsForPeriod(age, player);
+            if(!replaying){
+                player.getOutbound().send(to -> to.supportForTheChurch(canSupport));
+                startTurnTimerOrPlay(player);
+            }
+        }
+
+        /**
+         * Give the current move or church support choice to its player again, after a recovery.
+         */
+        private void resume(){
+            ServerPlayer player = players.get(playerIndex);
+            if(state == State.MOVE)
+                notifyTurnStarted(player);
+            else if(state == State.VATICAN_REPORT){
+                boolean canSupport = gameManager.canSupportTheChurch(age, player);
+                player.getOutbound().send(to -> to.supportForTheChurch(canSupport));
+            }
+            else
+                return;
+            startTurnTimer();
+        }
+
+        /**
+         * Go on with the next player of the Vatican report or the next turn.
+         */
+        private void endSupportChoice(){
+            if(++playerIndex < players.size())
+                askSupportForTheChurch();
+            else
+                nextTurn();
+        }
+
+        /**
+         * Start the next turn, or score the game after the last one.
+         */
+        private void nextTurn(){
+            if(++turn > TURNS_PER_AGE){
+                turn = 1;
+                age++;
+            }
+            if(age <= AGES)
+                startTurn();
+            else{
+                state = State.ENDED;
+                gameManager.calculateFinalPoints();
+                notifyEndGame();
+            }
+        }
+
+        /**
+         * Create final ranking and send to all players the result.
+         */
+        private void notifyEndGame(){
+            ServerPlayer[] winners = players.toArray(new ServerPlayer[players.size()]);
+            for(int i = 0; i < winners.length; i++)
+                for(int j = 0; j < winners.length; j++)
+                    if(winners[i].getPersonalBoard().getValuables().get(PointType.VICTORY) <
+                            winners[j].getPersonalBoard().getValuables().get(PointType.VICTORY)){
+                        ServerPlayer tmp = winners[i];
+                        winners[i] = winners[j];
+                        winners[j] = tmp;
+                    }
+            List<String> ranking = new ArrayList<>();
+            List<Integer> victoryPoints = new ArrayList<>();
+            for(ServerPlayer winner : winners){
+                ranking.add(winner.getUsername());
+                victoryPoints.add(winner.getPersonalBoard().getValuables().get(PointType.VICTORY));
+            }
+            result = new GameResult(roomID, System.currentTimeMillis(), ranking, victoryPoints);
+            eventLog.gameEnded(result);
+            if(checkpoints != null)
+                checkpoints.delete(roomID);
+            for(ServerPlayer serverPlayer : players)
+                serverPlayer.getOutbound().send(to -> to.notifyEndGame(winners));
+            lifecycle = Lifecycle.FINISHED;
+            Printer.printStandardMessage("Game ended in room #" + roomID);
+            Consumer<Room> listener = finishListener;
+            if(listener != null && !replaying)
+                listener.accept(Room.this);
+        }
+
+        /**
+         * Release the drafts, when the room is archived.
+         */
+        private void release(){
+            availableTiles = null;
+            draftCards = null;
+            draftOrder = null;
+        }
+
+        /**
+         * Notify to all players that turn is changed.
+         * @param player is playing the turn.
+         */
+        private void notifyTurnStarted(ServerPlayer player){
+            for(ServerPlayer p : players)
+                p.getOutbound().send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted(player.getUsername(), maxMoveWaitingTime));
+        }
+
+        /**
+         * Reset personal boards and mainboard following game rules about turn start.
+         * @param age of game.
+         * @param turn of game.
+         */
+        private void turnSetup(int age, int turn){
+            if(!(turn == 1 && age == 1)) {
+                getNewOrder();
+                gameManager.personalBoardsTurnReset(roomConfiguration);
+                gameManager.mainboardTurnReset();
+                eventLog.diceThrown(gameManager.getGameModel().getDices());
+                gameManager.setupMainBoard(age, turn);
+                gameManager.getGameModel().setAge(age);
+                gameManager.getGameModel().setTurn(turn);
+                updateAllClients();
+            }
+        }
+
+        /**
+         * Change players order at the end of the turn.
+         */
+        private void getNewOrder(){
+            List<Player> p = new ArrayList<>(gameManager.getGameModel().getMainBoard().getCouncilPalace().getNewOrder());
+            ArrayList<ServerPlayer> newOrder = new ArrayList<>();
+            for(Player player : p){
+                for(ServerPlayer serverPlayer : players){
+                    if(serverPlayer.getUsername().equals(player.getUsername()))
+                        newOrder.add(serverPlayer);
+                }
+            }
+            for(ServerPlayer serverPlayer : players)
+                if(!newOrder.contains(serverPlayer))
+                    newOrder.add(serverPlayer);
+            players = newOrder;
+            eventLog.turnOrder(players);
+        }
+
         /**
          * Send to all player except player passed as parameter.
          * @param player that won't receive game update.
          */
         private void updateAllClients(Player player){
-            if(player != null && clientUpdatePacket != null){
-                clientUpdatePacket.setGame(gameManager.getGameModel());
-                for(ServerPlayer serverPlayer : players)
-                    if(!serverPlayer.getUsername().equals(player.getUsername()))
-                        try {
-                            serverPlayer.sendGameModelUpdate(clientUpdatePacket);
-                        } catch (NetworkException e){
-                            Printer.printDebugMessage(this.getClass().getSimpleName(), serverPlayer.getUsername() + " won't receive updates this turn.");
-                        }
-                clientUpdatePacket.messageReset();
+            synchronized (gameMutex){
+                if(player != null && clientUpdatePacket != null && !replaying){
+                    modelUpdates.commit(gameManager.getGameModel());
+                    Broadcast broadcast = new Broadcast();
+                    for(ServerPlayer serverPlayer : players)
+                        if(!serverPlayer.getUsername().equals(player.getUsername()))
+                            sendModelUpdate(serverPlayer, broadcast);
+                    broadcast.complete();
+                    clientUpdatePacket.messageReset();
+                }
             }
         }
 
@@ -685,14 +1639,44 @@ public class Room {
          * Send to all player update packet.
          */
         private void updateAllClients(){
-            if(clientUpdatePacket != null){
-                clientUpdatePacket.setGame(gameManager.getGameModel());
-                for(ServerPlayer serverPlayer : players)
-                    try {
-                        serverPlayer.sendGameModelUpdate(clientUpdatePacket);
-                    } catch (NetworkException e){
-                        Printer.printDebugMessage(this.getClass().getSimpleName(), serverPlayer.getUsername() + " won't receive updates this turn.");
-                    }
+            synchronized (gameMutex){
+                if(clientUpdatePacket != null && !replaying){
+                    modelUpdates.commit(gameManager.getGameModel());
+                    Broadcast broadcast = new Broadcast();
+                    for(ServerPlayer serverPlayer : players)
+                        sendModelUpdate(serverPlayer, broadcast);
+                    broadcast.complete();
+                }
+            }
+        }
+
+        /**
+         * Queue for a player the changes since the last update he received. Updates queued before this one may
+         * still be waiting, so the delta may start from an older version than the one the player will know:
+         * the client applies it anyway, see {@link GameDelta#appliesTo(long)}.
+         * A player that never received the game model receives it whole.
+         * Players that know the same version share the same serialized packet.
+         * @param serverPlayer that will receive the update.
+         * @param broadcast the update is part of.
+         */
+        private void sendModelUpdate(ServerPlayer serverPlayer, Broadcast broadcast){
+            Long known = modelUpdates.getKnownVersion(serverPlayer.getUsername());
+            try {
+                SerializedPacket packet = broadcast.packet(known, () -> {
+                    if(known == null)
+                        clientUpdatePacket.setGame(gameManager.getGameModel());
+                    else
+                        clientUpdatePacket.setDelta(modelUpdates.deltaSince(known, gameManager.getGameModel()));
+                    return clientUpdatePacket;
+                });
+                long version = modelUpdates.getVersion();
+                serverPlayer.getOutbound().send(OutboundQueue.MODEL_UPDATE, to -> {
+                    modelUpdates.synchronize(to.getUsername(), version);
+                    to.sendGameModelUpdate(packet);
+                });
+                broadcast.sent(packet);
+            } catch (IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), serverPlayer.getUsername() + " won't receive updates this turn.");
             }
         }
 
@@ -700,14 +1684,24 @@ public class Room {
          * Send game object to all logged in player when room starts.
          */
         private void sendGameModel(){
-            for(ServerPlayer serverPlayer : players) {
-                try {
-                    serverPlayer.sendGameInfo(gameManager.getGameModel());
-                } catch (NetworkException e) {
-                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot send game to " + serverPlayer.getUsername() + ".");
+            synchronized (gameMutex){
+                long version = modelUpdates.commit(gameManager.getGameModel());
+                Broadcast broadcast = new Broadcast();
+                for(ServerPlayer serverPlayer : players) {
+                    try {
+                        SerializedPacket packet = broadcast.packet(null, gameManager::getGameModel);
+                        serverPlayer.getOutbound().send(to -> {
+                            modelUpdates.synchronize(to.getUsername(), version);
+                            to.sendGameInfo(packet);
+                        });
+                        broadcast.sent(packet);
+                    } catch (IOException e) {
+                        Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot send game to " + serverPlayer.getUsername() + ".");
+                    }
                 }
+                broadcast.complete();
             }
         }
 
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.Configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Snapshot of a running room: the game manager with the model and the decks, the order of the players and
+ * the position of the game. It is taken at the start of every turn, and the events of the room logged after
+ * {@link #getSequence()} bring it up to date.
+ * Snapshots are Java serialization, compressed by the {@link CheckpointStore} on its own thread.
+ * Players are written as {@link OfflinePlayer}, so a snapshot never holds connections and a recovered room
+ * waits for its players to rejoin.
+ */
+/*package-local*/ class RoomCheckpoint implements Serializable {
+
+    /**
+     * Room identifier.
+     */
+    private final int roomID;
+
+    /**
+     * Max player allowed in the room.
+     */
+    private final int maxPlayerNumber;
+
+    /**
+     * Configuration of the room.
+     */
+    private final Configuration configuration;
+
+    /**
+     * Game manager, with the model and the decks.
+     */
+    private final GameManager gameManager;
+
+    /**
+     * Players in turn order.
+     */
+    private final ArrayList<ServerPlayer> players;
+
+    /**
+     * Step of the game.
+     */
+    private final Room.State state;
+
+    /**
+     * Current age, turn and move.
+     */
+    private final int age;
+    private final int turn;
+    private final int move;
+
+    /**
+     * Index of the player playing the move or choosing the support to the church.
+     */
+    private final int playerIndex;
+
+    /**
+     * Sequence of the last event of the room included in the snapshot.
+     */
+    private final long sequence;
+
+    /**
+     * Class constructor.
+     * @param roomID room identifier.
+     * @param maxPlayerNumber max player allowed in the room.
+     * @param configuration of the room.
+     * @param gameManager of the room.
+     * @param players in turn order.
+     * @param state step of the game.
+     * @param age current age.
+     * @param turn current turn.
+     * @param move current move.
+     * @param playerIndex index of the current player.
+     * @param sequence of the last event included.
+     */
+    /*package-local*/ RoomCheckpoint(int roomID, int maxPlayerNumber, Configuration configuration, GameManager gameManager,
+                                     ArrayList<ServerPlayer> players, Room.State state, int age, int turn, int move,
+                                     int playerIndex, long sequence){
+        this.roomID = roomID;
+        this.maxPlayerNumber = maxPlayerNumber;
+        this.configuration = configuration;
+        this.gameManager = gameManager;
+        this.players = players;
+        this.state = state;
+        this.age = age;
+        this.turn = turn;
+        this.move = move;
+        this.playerIndex = playerIndex;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Get room id.
+     * @return room id.
+     */
+    /*package-local*/ int getRoomID(){
+        return this.roomID;
+    }
+
+    /**
+     * Get the max number of players of the room.
+     * @return max number of players.
+     */
+    /*package-local*/ int getMaxPlayerNumber(){
+        return this.maxPlayerNumber;
+    }
+
+    /**
+     * Get the configuration of the room.
+     * @return configuration.
+     */
+    /*package-local*/ Configuration getConfiguration(){
+        return this.configuration;
+    }
+
+    /**
+     * Get the game manager.
+     * @return game manager.
+     */
+    /*package-local*/ GameManager getGameManager(){
+        return this.gameManager;
+    }
+
+    /**
+     * Get the players in turn order.
+     * @return players.
+     */
+    /*package-local*/ ArrayList<ServerPlayer> getPlayers(){
+        return this.players;
+    }
+
+    /**
+     * Get the step of the game.
+     * @return step of the game.
+     */
+    /*package-local*/ Room.State getState(){
+        return this.state;
+    }
+
+    /**
+     * Get the current age.
+     * @return age.
+     */
+    /*package-local*/ int getAge(){
+        return this.age;
+    }
+
+    /**
+     * Get the current turn.
+     * @return turn.
+     */
+    /*package-local*/ int getTurn(){
+        return this.turn;
+    }
+
+    /**
+     * Get the current move.
+     * @return move.
+     */
+    /*package-local*/ int getMove(){
+        return this.move;
+    }
+
+    /**
+     * Get the index of the current player.
+     * @return index of the player.
+     */
+    /*package-local*/ int getPlayerIndex(){
+        return this.playerIndex;
+    }
+
+    /**
+     * Get the sequence of the last event included in the snapshot.
+     * @return sequence.
+     */
+    /*package-local*/ long getSequence(){
+        return this.sequence;
+    }
+
+    /**
+     * Encode a snapshot. The objects of the room are copied, so the room can go on as soon as this returns.
+     * @param checkpoint to encode.
+     * @return serialized bytes.
+     * @throws IOException if an object of the room cannot be serialized.
+     */
+    /*package-local*/ static byte[] encode(RoomCheckpoint checkpoint) throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new OfflineOutputStream(bytes)){
+            output.writeObject(checkpoint);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a snapshot.
+     * @param bytes written by {@link #encode(RoomCheckpoint)}.
+     * @return the snapshot.
+     * @throws IOException if the bytes are not a snapshot of this version of the server.
+     */
+    /*package-local*/ static RoomCheckpoint decode(byte[] bytes) throws IOException{
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+            return (RoomCheckpoint) input.readObject();
+        } catch (ClassNotFoundException | ClassCastException e){
+            throw new IOException("Not a room checkpoint.", e);
+        }
+    }
+
+    /**
+     * Object stream that writes every connected player as an {@link OfflinePlayer}, the same one for all the
+     * references to the player.
+     */
+    private static class OfflineOutputStream extends ObjectOutputStream {
+
+        /**
+         * Offline copy of each player written.
+         */
+        private final Map<ServerPlayer, OfflinePlayer> offline = new IdentityHashMap<>();
+
+        /**
+         * Class constructor.
+         * @param output to write to.
+         * @throws IOException if the header cannot be written.
+         */
+        private OfflineOutputStream(OutputStream output) throws IOException{
+            super(output);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object){
+            if(object instanceof ServerPlayer && !(object instanceof OfflinePlayer))
+                return offline.computeIfAbsent((ServerPlayer) object, OfflinePlayer::new);
+            return object;
+        }
+    }
+
+}
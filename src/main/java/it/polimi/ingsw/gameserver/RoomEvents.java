@@ -0,0 +1,335 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events of a room, encoded as compact binary records of the {@link EventLog}.
+ * Players are written as usernames, cards as their identifiers, and the choices of an action as the
+ * serialized map received from the client. Choices are encoded before the action runs, since the action
+ * consumes them. A room without log uses {@link #DISABLED}, which writes nothing.
+ * Failing to write an event never stops the game: the event is counted as lost.
+ * The events after a checkpoint of the room are enough to replay the game up to the last of them.
+ */
+/*package-local*/ class RoomEvents {
+
+    /**
+     * Metric with the number of events that could not be written.
+     */
+    /*package-local*/ static final String LOST = "eventlog.lost";
+
+    /**
+     * Events of rooms without log.
+     */
+    /*package-local*/ static final RoomEvents DISABLED = new RoomEvents(null, 0);
+
+    /**
+     * Decks whose shuffles are logged.
+     */
+    /*package-local*/ enum Deck {
+        GREEN, BLUE, YELLOW, PURPLE, LEADER, EXCOMMUNICATION
+    }
+
+    /**
+     * Log of the server, null if disabled.
+     */
+    private final EventLog log;
+
+    /**
+     * Identifier of the room.
+     */
+    private final int roomID;
+
+    /**
+     * Sequence of the last event of the room, or of the log when the room started writing.
+     */
+    private long lastSequence;
+
+    /**
+     * Class constructor.
+     * @param log of the server.
+     * @param roomID identifier of the room.
+     */
+    /*package-local*/ RoomEvents(EventLog log, int roomID){
+        this.log = log;
+        this.roomID = roomID;
+        this.lastSequence = log == null ? 0 : log.getLastSequence();
+    }
+
+    /**
+     * Get the sequence of the last event of the room. Later events of the room have a greater sequence.
+     * @return last sequence.
+     */
+    /*package-local*/ long getLastSequence(){
+        return this.lastSequence;
+    }
+
+    /**
+     * Encode the choices of an action, before the action consumes them.
+     * @param choices of the player, may be null.
+     * @return the encoded choices, or null if the log is disabled or the choices cannot be encoded.
+     */
+    /*package-local*/ byte[] choices(Map<String, Object> choices){
+        if(log == null)
+            return null;
+        try {
+            return encode(choices);
+        } catch (IOException e){
+            lost(e);
+            return null;
+        }
+    }
+
+    /**
+     * Log the start of the game.
+     * @param seed of the game.
+     * @param players in join order.
+     */
+    /*package-local*/ void gameStarted(long seed, List<? extends Player> players){
+        if(log != null)
+            append(usernames(record(GameEventType.GAME_STARTED).putLong(seed), players));
+    }
+
+    /**
+     * Log the order of the players of a turn.
+     * @param players in turn order.
+     */
+    /*package-local*/ void turnOrder(List<? extends Player> players){
+        if(log != null)
+            append(usernames(record(GameEventType.TURN_ORDER), players));
+    }
+
+    /**
+     * Log the order of a development cards deck.
+     * @param deck shuffled.
+     * @param cards in deck order.
+     */
+    /*package-local*/ void developmentDeck(Deck deck, List<DevelopmentCard> cards){
+        if(log == null)
+            return;
+        EventLog.Record record = record(GameEventType.DECK_SHUFFLED).put((byte) deck.ordinal()).putInt(cards.size());
+        for(DevelopmentCard card : cards)
+            record.putInt(card.getId());
+        append(record);
+    }
+
+    /**
+     * Log the order of the leader cards deck.
+     * @param cards in deck order.
+     */
+    /*package-local*/ void leaderDeck(List<LeaderCard> cards){
+        if(log == null)
+            return;
+        EventLog.Record record = record(GameEventType.DECK_SHUFFLED).put((byte) Deck.LEADER.ordinal()).putInt(cards.size());
+        for(LeaderCard card : cards)
+            record.putString(card.getLeaderCardName());
+        append(record);
+    }
+
+    /**
+     * Log the excommunication cards drawn for the periods.
+     * @param vatican with the cards.
+     * @param periods of the game.
+     */
+    /*package-local*/ void excommunicationDeck(Vatican vatican, int periods){
+        if(log == null)
+            return;
+        EventLog.Record record = record(GameEventType.DECK_SHUFFLED).put((byte) Deck.EXCOMMUNICATION.ordinal()).putInt(periods);
+        for(int i = 0; i < periods; i++){
+            ExcommunicationCard card = vatican.getExcommunicationCard(i);
+            record.putInt(card == null ? -1 : card.getCardID());
+        }
+        append(record);
+    }
+
+    /**
+     * Log the values of the dices.
+     * @param dice thrown.
+     */
+    /*package-local*/ void diceThrown(Dice dice){
+        if(log == null)
+            return;
+        EventLog.Record record = record(GameEventType.DICE_THROWN);
+        for(FamilyMemberColor color : FamilyMemberColor.values()){
+            Integer value = dice.getValues().get(color);
+            record.put((byte) (value == null ? 0 : value));
+        }
+        append(record);
+    }
+
+    /**
+     * Log a family member placed in an action space.
+     * @param type of action space.
+     * @param player that placed the family member.
+     * @param color of the family member.
+     * @param servants used.
+     * @param first index in the action space, like the tower or the market cell, 0 if none.
+     * @param second index in the action space, like the tower cell, 0 if none.
+     * @param choices of the player, encoded by {@link #choices(Map)}.
+     */
+    /*package-local*/ void familyMemberPlaced(GameEventType type, Player player, FamilyMemberColor color, int servants,
+                                             int first, int second, byte[] choices){
+        if(log != null && choices != null)
+            append(record(type).putString(player.getUsername()).put((byte) color.ordinal()).putInt(servants)
+                    .putInt(first).putInt(second).putBytes(choices));
+    }
+
+    /**
+     * Log a leader card activated.
+     * @param player that activated the card.
+     * @param leaderCardIndex index of the card.
+     * @param servants used.
+     * @param choices of the player, encoded by {@link #choices(Map)}.
+     */
+    /*package-local*/ void leaderActivated(Player player, int leaderCardIndex, int servants, byte[] choices){
+        if(log != null && choices != null)
+            append(record(GameEventType.LEADER_ACTIVATED).putString(player.getUsername()).putInt(leaderCardIndex)
+                    .putInt(servants).putBytes(choices));
+    }
+
+    /**
+     * Log a leader card discarded.
+     * @param player that discarded the card.
+     * @param leaderCardIndex index of the card.
+     * @param choices of the player, encoded by {@link #choices(Map)}.
+     */
+    /*package-local*/ void leaderDiscarded(Player player, int leaderCardIndex, byte[] choices){
+        if(log != null && choices != null)
+            append(record(GameEventType.LEADER_DISCARDED).putString(player.getUsername()).putInt(leaderCardIndex)
+                    .putBytes(choices));
+    }
+
+    /**
+     * Log the choice of a player about the support to the church.
+     * @param player that chose.
+     * @param flag true if the player supports the church.
+     */
+    /*package-local*/ void churchSupport(Player player, boolean flag){
+        if(log != null)
+            append(record(GameEventType.CHURCH_SUPPORT).putString(player.getUsername()).put((byte) (flag ? 1 : 0)));
+    }
+
+    /**
+     * Log the end of the move or of the church support choice of a player.
+     * @param player whose turn ended.
+     */
+    /*package-local*/ void turnEnded(Player player){
+        if(log != null)
+            append(record(GameEventType.TURN_ENDED).putString(player.getUsername()));
+    }
+
+    /**
+     * Log the final ranking.
+     * @param result of the game.
+     */
+    /*package-local*/ void gameEnded(GameResult result){
+        if(log == null)
+            return;
+        EventLog.Record record = record(GameEventType.GAME_ENDED).putInt(result.getRanking().size());
+        for(int i = 0; i < result.getRanking().size(); i++)
+            record.putString(result.getRanking().get(i)).putInt(result.getVictoryPoints().get(i));
+        append(record);
+    }
+
+    /**
+     * Start a record of this room.
+     * @param type of the event.
+     * @return the record.
+     */
+    private EventLog.Record record(GameEventType type){
+        return log.record(roomID, type.getCode());
+    }
+
+    /**
+     * Write the usernames of players on a record.
+     * @param record to write on.
+     * @param players to write.
+     * @return the record.
+     */
+    private static EventLog.Record usernames(EventLog.Record record, List<? extends Player> players){
+        record.put((byte) players.size());
+        for(Player player : players)
+            record.putString(player.getUsername());
+        return record;
+    }
+
+    /**
+     * Append a record to the log.
+     * @param record to append.
+     */
+    private void append(EventLog.Record record){
+        try {
+            lastSequence = record.append();
+        } catch (RuntimeException e){
+            lost(e);
+        }
+    }
+
+    /**
+     * Count an event that could not be written.
+     * @param e cause.
+     */
+    private void lost(Exception e){
+        Metrics.increment(LOST);
+        Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot log an event of room #" + roomID + ".", e);
+    }
+
+    /**
+     * Read the values of the dices written by {@link #diceThrown(Dice)}.
+     * @param payload of the event.
+     * @return value of each dice.
+     */
+    /*package-local*/ static Map<FamilyMemberColor, Integer> readDice(ByteBuffer payload){
+        Map<FamilyMemberColor, Integer> values = new EnumMap<>(FamilyMemberColor.class);
+        for(FamilyMemberColor color : FamilyMemberColor.values())
+            values.put(color, (int) payload.get());
+        return values;
+    }
+
+    /**
+     * Read the choices of an action.
+     * @param payload of the event, at the choices.
+     * @return the choices of the player.
+     * @throws IOException if the choices cannot be decoded.
+     */
+    @SuppressWarnings("unchecked")
+    /*package-local*/ static Map<String, Object> readChoices(ByteBuffer payload) throws IOException{
+        byte[] bytes = EventLog.RecordReader.getBytes(payload);
+        if(bytes.length == 0)
+            return new HashMap<>();
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+            return (Map<String, Object>) input.readObject();
+        } catch (ClassNotFoundException e){
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Serialize the choices of a player.
+     * @param choices of the player, may be null.
+     * @return the serialized map, empty if there are no choices.
+     * @throws IOException if a choice cannot be serialized.
+     */
+    private static byte[] encode(Map<String, Object> choices) throws IOException{
+        if(choices == null || choices.isEmpty())
+            return new byte[0];
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new ObjectOutputStream(buffer)){
+            output.writeObject(choices instanceof HashMap ? choices : new HashMap<>(choices));
+        }
+        return buffer.toByteArray();
+    }
+
+}
@@ -0,0 +1,87 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recovery of the rooms that were running when the server stopped.
+ * Each room starts from its last checkpoint and replays its events logged after it, in a single pass over the
+ * log from the oldest checkpoint. Rooms whose game ended meanwhile are dropped with their checkpoints.
+ * Rooms that were still in the personal tiles or leader cards draft have no checkpoint and are not recovered.
+ */
+public final class RoomRecovery {
+
+    /**
+     * Metric with the number of rooms recovered.
+     */
+    public static final String ROOMS = "recovery.rooms";
+
+    /**
+     * Metric with the number of events replayed.
+     */
+    public static final String EVENTS = "recovery.events";
+
+    /**
+     * Metric with the number of rooms whose replay stopped on an event that could not be read.
+     */
+    public static final String FAILED = "recovery.failed";
+
+    /**
+     * Class constructor, the class has only static methods.
+     */
+    private RoomRecovery(){ }
+
+    /**
+     * Recover the rooms. Recovered rooms send nothing to their players until they are resumed with
+     * {@link Room#resume()}, after they have been registered on the server.
+     * @param checkpoints of the rooms.
+     * @param eventLogDirectory directory of the event log.
+     * @return the recovered rooms.
+     * @throws IOException if the checkpoints or the log cannot be read.
+     */
+    public static List<Room> recover(CheckpointStore checkpoints, Path eventLogDirectory) throws IOException{
+        Map<Integer, Room> rooms = new HashMap<>();
+        Map<Integer, Long> restored = new HashMap<>();
+        long firstSequence = Long.MAX_VALUE;
+        for(RoomCheckpoint checkpoint : checkpoints.load()){
+            rooms.put(checkpoint.getRoomID(), new Room(checkpoint));
+            restored.put(checkpoint.getRoomID(), checkpoint.getSequence());
+            firstSequence = Math.min(firstSequence, checkpoint.getSequence() + 1);
+        }
+        if(rooms.isEmpty())
+            return new ArrayList<>();
+        Set<Integer> failed = new HashSet<>();
+        long[] replayed = new long[1];
+        EventLog.read(eventLogDirectory, firstSequence, (sequence, time, roomID, type, payload) -> {
+            Room room = rooms.get(roomID);
+            if(room == null || failed.contains(roomID) || sequence <= restored.get(roomID))
+                return;
+            if(type == GameEventType.GAME_ENDED.getCode()){
+                rooms.remove(roomID);
+                checkpoints.delete(roomID);
+                return;
+            }
+            try {
+                if(room.replay(sequence, type, payload))
+                    replayed[0]++;
+            } catch (IOException | RuntimeException e){
+                failed.add(roomID);
+                Metrics.increment(FAILED);
+                Printer.printDebugMessage(RoomRecovery.class.getSimpleName(), "Cannot replay event #" + sequence + " of room #" + roomID + ".", e);
+            }
+        });
+        Metrics.add(ROOMS, rooms.size());
+        Metrics.add(EVENTS, replayed[0]);
+        return new ArrayList<>(rooms.values());
+    }
+
+}
@@ -87,6 +87,14 @@ public class ActionSpace implements Serializable{
         return this.familyMemberColor;
     }
 
+    /**
+     * Method to get the username of the player that has occupied the action space
+     * @return the username, null if the space is empty
+     */
+    /*package-local*/ String getUsername(){
+        return this.username;
+    }
+
     /**
      * This method checks if the action space is accessible
      * @param player the player that wants to perform the action
@@ -112,9 +120,9 @@ public class ActionSpace implements Serializable{
             }
         }
 
-        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor)
+        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().get(familyMemberColor)
                 + player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(actionSpaceType)
-                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(actionSpaceType);
+                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(actionSpaceType);
         if (familyMemberValueTot < this.actionSpaceEffect.getDiceActionValue()){
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
         }
@@ -125,6 +133,21 @@ public class ActionSpace implements Serializable{
         this.empty = false;
     }
 
+    /**
+     * This method saves the state of the action space in an undo log
+     * @param undoLog of the move
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        boolean wasEmpty = this.empty;
+        String occupant = this.username;
+        FamilyMemberColor color = this.familyMemberColor;
+        undoLog.save(() -> {
+            this.empty = wasEmpty;
+            this.username = occupant;
+            this.familyMemberColor = color;
+        });
+    }
+
     /**
      * This method resets the state of the action space
      */
@@ -92,6 +92,15 @@ public class ActionSpaceExtended implements Serializable{
         return this.effect;
     }
 
+    /**
+     * Get the color of the family member of a player in the action space
+     * @param username of the player
+     * @return the family member color, null if the player is not in the space
+     */
+    /*package-local*/ FamilyMemberColor getFamilyMemberColor(String username){
+        return this.familyMemberMap.get(username);
+    }
+
     /**
      * This method checks if the action space is accessible
      * @param player the player that wants to perform the action
@@ -117,9 +126,9 @@ public class ActionSpaceExtended implements Serializable{
             if (familyMemberColor.equals(color))
                 throw new GameException(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
 
-        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor)
+        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().get(familyMemberColor)
                 + player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(actionSpaceType)
-                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(actionSpaceType);
+                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(actionSpaceType);
 
         if (familyMemberValueTot < (this.effect.getDiceActionValue() + diceValueMalus))
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
@@ -129,6 +138,15 @@ public class ActionSpaceExtended implements Serializable{
         familyMemberMap.put(player.getUsername(), familyMemberColor);
     }
 
+    /**
+     * This method saves the family member of a player in an undo log
+     * @param undoLog of the move
+     * @param player that is performing the action
+     */
+    /*package-local*/ void save(UndoLog undoLog, Player player){
+        undoLog.saveEntry(this.familyMemberMap, player.getUsername());
+    }
+
     /**
      * This method resets the action space state
      */
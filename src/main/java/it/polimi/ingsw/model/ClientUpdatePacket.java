@@ -6,6 +6,7 @@ import java.util.List;
 
 /**
  * This class is used to update the client.
+ * It contains the whole game model or, when the client already knows a previous version, only the changes.
  */
 public class ClientUpdatePacket implements Serializable{
 
@@ -19,6 +20,11 @@ public class ClientUpdatePacket implements Serializable{
      */
     private Game game;
 
+    /**
+     * Changes of the game model since the version known by the client.
+     */
+    private GameDelta delta;
+
     /**
      * Class constructor
      * @param game
@@ -50,6 +56,24 @@ public class ClientUpdatePacket implements Serializable{
      */
     public void setGame(Game game){
         this.game = game;
+        this.delta = null;
+    }
+
+    /**
+     * Get the changes of the game model.
+     * @return changes, null if the packet contains the whole game model.
+     */
+    public GameDelta getDelta(){
+        return this.delta;
+    }
+
+    /**
+     * Set the changes in the packet instead of the whole game model.
+     * @param delta to set.
+     */
+    public void setDelta(GameDelta delta){
+        this.delta = delta;
+        this.game = null;
     }
 
     /**
@@ -71,6 +71,22 @@ public class CouncilPalace implements Serializable{
         return this.nextTurnOrder;
     }
 
+    /**
+     * Set the new order of players for the next turn.
+     * @param nextTurnOrder order of players.
+     */
+    /*package-local*/ void setNewOrder(LinkedList<Player> nextTurnOrder){
+        this.nextTurnOrder = nextTurnOrder;
+    }
+
+    /**
+     * Save the queue in an undo log.
+     * @param undoLog of the move.
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        undoLog.saveSize(this.nextTurnOrder);
+    }
+
     /**
      * Reset fifo.
      */
@@ -100,7 +116,7 @@ public class CouncilPalace implements Serializable{
             if (familyMemberColor.equals(color))
                 throw new GameException(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
 
-        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor) + servants;
+        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().get(familyMemberColor) + servants;
         if (familyMemberValueTot < this.minFamilyMemberDiceValue)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
 
@@ -80,14 +80,14 @@ public class CouncilPrivilege implements Serializable{
             for (Map.Entry<ResourceType, Integer> entry: privilege.getValuables().getResources().entrySet()) {
                 if(entry.getValue() > 0) {
                     player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
                 }
             }
 
             for (Map.Entry<PointType, Integer> entry: privilege.getValuables().getPoints().entrySet()) {
                 if(entry.getValue() > 0) {
                     player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
                 }
             }
         }
@@ -3,7 +3,6 @@ package it.polimi.ingsw.model;
 import it.polimi.ingsw.model.effects.Effect;
 
 import java.io.Serializable;
-import java.util.Map;
 
 /**
  * This class represent the abstraction of the development card.
@@ -156,13 +155,23 @@ public class DevelopmentCard implements Serializable{
      * @param informationCallback interface to manage actions that requires multiple interactions with the user
      */
     public void payCost(Player player, InformationCallback informationCallback){
+        payCost(player, this.cost, informationCallback);
+    }
+
+    /**
+     * This method is used to pay the card with a cost different from the printed one, like a discounted cost
+     * @param player the player that wants to perform the action
+     * @param cost to pay instead of the printed cost
+     * @param informationCallback interface to manage actions that requires multiple interactions with the user
+     */
+    public void payCost(Player player, PointsAndResources cost, InformationCallback informationCallback){
         if (multipleRequisiteSelectionEnabled) {
-            if (checkNullResources()){
+            if (checkNullResources(cost)){
                 player.getPersonalBoard().getValuables().decrease(PointType.MILITARY, militaryPointsToPay);
-            }else if (militaryPointsRequired <= player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY) &&
+            }else if (militaryPointsRequired <= player.getPersonalBoard().getValuables().get(PointType.MILITARY) &&
                     !player.getPersonalBoard().getValuables().checkDecrease(cost)) {
                 player.getPersonalBoard().getValuables().decrease(PointType.MILITARY, militaryPointsToPay);
-            } else if(militaryPointsRequired > player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY) &&
+            } else if(militaryPointsRequired > player.getPersonalBoard().getValuables().get(PointType.MILITARY) &&
                     player.getPersonalBoard().getValuables().checkDecrease(cost)) {
                 player.getPersonalBoard().getValuables().decreaseAll(cost);
             } else {
@@ -179,16 +188,11 @@ public class DevelopmentCard implements Serializable{
 
     /**
      * This method is used to check if there are no resources to pay for the card
+     * @param cost to pay
      * @return true if resources are null, false if there is something greater than 0
      */
-    private boolean checkNullResources(){
-        for(Map.Entry<ResourceType, Integer> entry : cost.getResources().entrySet())
-            if(entry.getValue() > 0)
-                return false;
-        for(Map.Entry<PointType, Integer> entry : cost.getPoints().entrySet())
-            if(entry.getValue() > 0)
-                return false;
-        return true;
+    private static boolean checkNullResources(PointsAndResources cost){
+        return cost.isEmpty();
     }
 
     @Override
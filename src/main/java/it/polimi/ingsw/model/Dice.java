@@ -1,9 +1,10 @@
 package it.polimi.ingsw.model;
 
+import it.polimi.ingsw.utility.SeededRandom;
+
 import java.io.Serializable;
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * This class represent the dices thrown at the beginning of each turn
@@ -26,13 +27,20 @@ public class Dice implements Serializable{
      * Set random value for dices
      */
     public void setValues(){
-        Random randomValue = new Random();
+        setValues(new SeededRandom(SeededRandom.newSeed()));
+    }
+
+    /**
+     * Set random value for dices, drawn from the generator of the game
+     * @param random generator of the game.
+     */
+    public void setValues(SeededRandom random){
         int minValue = 1;
         int maxValue = 6;
 
-        this.values.put(FamilyMemberColor.BLACK, randomValue.nextInt((maxValue - minValue) + 1) + minValue);
-        this.values.put(FamilyMemberColor.ORANGE, randomValue.nextInt((maxValue - minValue) + 1) + minValue);
-        this.values.put(FamilyMemberColor.WHITE, randomValue.nextInt((maxValue - minValue) + 1) + minValue);
+        this.values.put(FamilyMemberColor.BLACK, random.nextInt(minValue, maxValue));
+        this.values.put(FamilyMemberColor.ORANGE, random.nextInt(minValue, maxValue));
+        this.values.put(FamilyMemberColor.WHITE, random.nextInt(minValue, maxValue));
         this.values.put(FamilyMemberColor.NEUTRAL, 0);
     }
 
@@ -0,0 +1,88 @@
+package it.polimi.ingsw.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map of a range of an array of ints, with a value per type of an enum.
+ * The value of a type is at the offset of the range plus the ordinal of the type, and the map always reads the
+ * current values of the array.
+ */
+/*package-local*/ final class EnumIntMap<K extends Enum<K>> extends AbstractMap<K, Integer> {
+
+    /**
+     * Values of all the ranges.
+     */
+    private final int[] values;
+
+    /**
+     * Types of the range, in array order.
+     */
+    private final K[] types;
+
+    /**
+     * Index of the first value of the range.
+     */
+    private final int offset;
+
+    /**
+     * Class constructor.
+     * @param values of all the ranges.
+     * @param types of the range.
+     * @param offset of the range.
+     */
+    /*package-local*/ EnumIntMap(int[] values, K[] types, int offset){
+        this.values = values;
+        this.types = types;
+        this.offset = offset;
+    }
+
+    @Override
+    public Integer get(Object key){
+        return containsKey(key) ? values[offset + ((Enum<?>) key).ordinal()] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return key instanceof Enum && ((Enum<?>) key).getDeclaringClass() == types[0].getDeclaringClass();
+    }
+
+    @Override
+    public int size(){
+        return types.length;
+    }
+
+    @Override
+    public Set<Entry<K, Integer>> entrySet(){
+        return new AbstractSet<Entry<K, Integer>>() {
+            @Override
+            public Iterator<Entry<K, Integer>> iterator(){
+                return new Iterator<Entry<K, Integer>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext(){
+                        return index < types.length;
+                    }
+
+                    @Override
+                    public Entry<K, Integer> next(){
+                        if (!hasNext())
+                            throw new NoSuchElementException();
+                        K type = types[index];
+                        return new SimpleImmutableEntry<>(type, values[offset + index++]);
+                    }
+                };
+            }
+
+            @Override
+            public int size(){
+                return types.length;
+            }
+        };
+    }
+
+}
@@ -5,98 +5,74 @@ import java.util.EnumMap;
 import java.util.Map;
 
 /**
- * This class collects all the malus values reached by the player with excommunications during the game
+ * This class collects all the malus values reached by the player with excommunications during the game.
+ * All the int malus are kept in one array with a fixed layout, a range per malus with a value per type in the order
+ * of the types, and the development card colors without final points in a bitset, so reading a malus never boxes.
+ * The maps returned by the getters are read-only views of the array.
  */
 public class ExcommunicationValues implements Serializable{
 
-    /**
-     * Malus on points
-     */
-    private Map<PointType, Integer> normalPointsMalus = new EnumMap<>(PointType.class);
+    private static final PointType[] POINT_TYPES = PointType.values();
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+    private static final DevelopmentCardColor[] CARD_COLORS = DevelopmentCardColor.values();
 
     /**
-     * Malus on resources
+     * Offsets of the ranges of the malus array
      */
-    private Map<ResourceType, Integer> normalResourcesMalus = new EnumMap<>(ResourceType.class);
+    private static final int NORMAL_POINTS = 0;
+    private static final int NORMAL_RESOURCES = NORMAL_POINTS + POINT_TYPES.length;
+    private static final int HARVEST_PRODUCTION_DICE = NORMAL_RESOURCES + RESOURCE_TYPES.length;
+    private static final int DEVELOPMENT_CARD_DICE = HARVEST_PRODUCTION_DICE + ACTION_TYPES.length;
+    private static final int FINAL_POINTS_INDEX = DEVELOPMENT_CARD_DICE + CARD_COLORS.length;
+    private static final int FINAL_RESOURCES_INDEX = FINAL_POINTS_INDEX + POINT_TYPES.length;
+    private static final int FINAL_RESOURCES_DEV_CARD_INDEX = FINAL_RESOURCES_INDEX + RESOURCE_TYPES.length;
+    private static final int SIZE = FINAL_RESOURCES_DEV_CARD_INDEX + RESOURCE_TYPES.length;
 
     /**
-     * Malus on the harvest production dice
+     * Malus on points and resources, on the harvest production and development card dices, and index malus on
+     * final points, final resources and final resources of development cards
      */
-    private Map<ActionType, Integer> harvestProductionDiceMalus = new EnumMap<>(ActionType.class);
+    private final int[] malus = new int[SIZE];
 
     /**
-     * Malus on the development card dice
+     * Development card colors whose final points are lost, a bit per color
      */
-    private Map<DevelopmentCardColor, Integer> developmentCardDiceMalus = new EnumMap<>(DevelopmentCardColor.class);
+    private int noFinalPointsColors = 0;
 
     /**
      * Market is available for the player
      */
-    private Boolean marketIsAvailable = true;
+    private boolean marketIsAvailable = true;
 
     /**
      * The player has to skip the first turn
      */
-    private Boolean skipFirstTurn = false;
+    private boolean skipFirstTurn = false;
 
     /**
      * The number of slaves necessary to increase the dice value of 1
      */
-    private Integer numberOfSlaves = 1;
-
-    /**
-     * Get the final points for a particular type of development cards
-     */
-    private Map<DevelopmentCardColor, Boolean> developmentCardGetFinalPoints = new EnumMap<>(DevelopmentCardColor.class);
+    private int numberOfSlaves = 1;
 
     /**
-     * Index malus on final points
+     * Views of the malus array, created on first use
      */
-    private Map<PointType, Integer> finalPointsIndexMalus = new EnumMap<>(PointType.class);
-
-    /**
-     * Index malus on final resources
-     */
-    private Map<ResourceType, Integer> finalResourcesIndexMalus = new EnumMap<>(ResourceType.class);
-
-    /**
-     * Index malus on final resources of development card
-     */
-    private Map<ResourceType, Integer> finalResourcesDevCardIndexMalus = new EnumMap<>(ResourceType.class);
-
-
-    /**
-     * Class constructor
-     */
-    public ExcommunicationValues(){
-        for (PointType pointType : PointType.values()){
-            this.normalPointsMalus.put(pointType, 0);
-            this.finalPointsIndexMalus.put(pointType, 0);
-        }
-
-        for (ResourceType resourceType : ResourceType.values()){
-            this.normalResourcesMalus.put(resourceType, 0);
-            this.finalResourcesIndexMalus.put(resourceType, 0);
-            this.finalResourcesDevCardIndexMalus.put(resourceType, 0);
-        }
-
-        for (ActionType actionType : ActionType.values()){
-            this.harvestProductionDiceMalus.put(actionType, 0);
-        }
-
-        for (DevelopmentCardColor cardColor : DevelopmentCardColor.values()){
-            this.developmentCardDiceMalus.put(cardColor, 0);
-            this.developmentCardGetFinalPoints.put(cardColor, true);
-        }
-    }
+    private transient Map<PointType, Integer> normalPointsMalus;
+    private transient Map<ResourceType, Integer> normalResourcesMalus;
+    private transient Map<ActionType, Integer> harvestProductionDiceMalus;
+    private transient Map<DevelopmentCardColor, Integer> developmentCardDiceMalus;
+    private transient Map<PointType, Integer> finalPointsIndexMalus;
+    private transient Map<ResourceType, Integer> finalResourcesIndexMalus;
+    private transient Map<ResourceType, Integer> finalResourcesDevCardIndexMalus;
 
     /**
      * Method to increase the points malus
      * @param pointType
      * @param value
      */
-    public void increaseNormalValuablesMalus(PointType pointType, Integer value){
-        this.normalPointsMalus.put(pointType, this.normalPointsMalus.get(pointType) + value);
+    public void increaseNormalValuablesMalus(PointType pointType, int value){
+        this.malus[NORMAL_POINTS + pointType.ordinal()] += value;
     }
 
     /**
@@ -104,8 +80,8 @@ public class ExcommunicationValues implements Serializable{
      * @param resourceType
      * @param value
      */
-    public void increaseNormalValuablesMalus(ResourceType resourceType, Integer value){
-        this.normalResourcesMalus.put(resourceType, this.normalResourcesMalus.get(resourceType) + value);
+    public void increaseNormalValuablesMalus(ResourceType resourceType, int value){
+        this.malus[NORMAL_RESOURCES + resourceType.ordinal()] += value;
     }
 
     /**
@@ -113,8 +89,8 @@ public class ExcommunicationValues implements Serializable{
      * @param pointType
      * @param value
      */
-    public void increaseFinalValuablesIndexMalus(PointType pointType, Integer value){
-        this.finalPointsIndexMalus.put(pointType, this.finalPointsIndexMalus.get(pointType) + value);
+    public void increaseFinalValuablesIndexMalus(PointType pointType, int value){
+        this.malus[FINAL_POINTS_INDEX + pointType.ordinal()] += value;
     }
 
     /**
@@ -122,8 +98,8 @@ public class ExcommunicationValues implements Serializable{
      * @param resourceType
      * @param value
      */
-    public void increaseFinalValuablesIndexMalus(ResourceType resourceType, Integer value){
-        this.finalResourcesIndexMalus.put(resourceType, this.finalResourcesIndexMalus.get(resourceType) + value);
+    public void increaseFinalValuablesIndexMalus(ResourceType resourceType, int value){
+        this.malus[FINAL_RESOURCES_INDEX + resourceType.ordinal()] += value;
     }
 
     /**
@@ -131,8 +107,8 @@ public class ExcommunicationValues implements Serializable{
      * @param actionType
      * @param value
      */
-    public void setHarvestProductionDiceMalus(ActionType actionType, Integer value){
-        this.harvestProductionDiceMalus.put(actionType, this.harvestProductionDiceMalus.get(actionType) + value);
+    public void setHarvestProductionDiceMalus(ActionType actionType, int value){
+        this.malus[HARVEST_PRODUCTION_DICE + actionType.ordinal()] += value;
     }
 
     /**
@@ -140,8 +116,8 @@ public class ExcommunicationValues implements Serializable{
      * @param cardColor
      * @param value
      */
-    public void setDevelopmentCardDiceMalus(DevelopmentCardColor cardColor, Integer value){
-        this.developmentCardDiceMalus.put(cardColor, this.developmentCardDiceMalus.get(cardColor) + value);
+    public void setDevelopmentCardDiceMalus(DevelopmentCardColor cardColor, int value){
+        this.malus[DEVELOPMENT_CARD_DICE + cardColor.ordinal()] += value;
     }
 
     /**
@@ -149,8 +125,11 @@ public class ExcommunicationValues implements Serializable{
      * @param cardColor
      * @param value
      */
-    public void setDevelopmentCardGetFinalPoints(DevelopmentCardColor cardColor, Boolean value){
-        this.developmentCardGetFinalPoints.replace(cardColor, value);
+    public void setDevelopmentCardGetFinalPoints(DevelopmentCardColor cardColor, boolean value){
+        if(value)
+            this.noFinalPointsColors &= ~(1 << cardColor.ordinal());
+        else
+            this.noFinalPointsColors |= 1 << cardColor.ordinal();
     }
 
     /**
@@ -158,15 +137,15 @@ public class ExcommunicationValues implements Serializable{
      * @param resourceType
      * @param value
      */
-    public void setFinalResourcesDevCardIndexMalus(ResourceType resourceType, Integer value){
-        this.finalResourcesDevCardIndexMalus.put(resourceType, this.finalResourcesDevCardIndexMalus.get(resourceType) + value);
+    public void setFinalResourcesDevCardIndexMalus(ResourceType resourceType, int value){
+        this.malus[FINAL_RESOURCES_DEV_CARD_INDEX + resourceType.ordinal()] += value;
     }
 
     /**
      * Method to set the state of the market
      * @param value
      */
-    public void setMarketIsAvailable(Boolean value){
+    public void setMarketIsAvailable(boolean value){
         this.marketIsAvailable = value;
     }
 
@@ -174,7 +153,7 @@ public class ExcommunicationValues implements Serializable{
      * Method to set the turn management for a particular player
      * @param value
      */
-    public void setSkipFirstTurn(Boolean value){
+    public void setSkipFirstTurn(boolean value){
         this.skipFirstTurn = value;
     }
 
@@ -182,7 +161,7 @@ public class ExcommunicationValues implements Serializable{
      * Method to set the number of slaves the user has to use to increment dice values of 1
      * @param number
      */
-    public void setNumberOfSlaves(Integer number){
+    public void setNumberOfSlaves(int number){
         this.numberOfSlaves = number;
     }
 
@@ -192,38 +171,82 @@ public class ExcommunicationValues implements Serializable{
      * @return
      */
     public Map<PointType, Integer> getNormalPointsMalus(){
+        if(this.normalPointsMalus == null)
+            this.normalPointsMalus = new EnumIntMap<>(this.malus, POINT_TYPES, NORMAL_POINTS);
         return this.normalPointsMalus;
     }
 
+    /**
+     * Method to get the malus on a point
+     * @param pointType
+     * @return
+     */
+    public int getNormalPointsMalus(PointType pointType){
+        return this.malus[NORMAL_POINTS + pointType.ordinal()];
+    }
+
     /**
      * Method to get the resources malus
      * @return
      */
     public Map<ResourceType, Integer> getNormalResourcesMalus(){
+        if(this.normalResourcesMalus == null)
+            this.normalResourcesMalus = new EnumIntMap<>(this.malus, RESOURCE_TYPES, NORMAL_RESOURCES);
         return this.normalResourcesMalus;
     }
 
+    /**
+     * Method to get the malus on a resource
+     * @param resourceType
+     * @return
+     */
+    public int getNormalResourcesMalus(ResourceType resourceType){
+        return this.malus[NORMAL_RESOURCES + resourceType.ordinal()];
+    }
+
     /**
      * Method to get the harvest production dice malus
      * @return
      */
     public Map<ActionType, Integer> getHarvestProductionDiceMalus(){
+        if(this.harvestProductionDiceMalus == null)
+            this.harvestProductionDiceMalus = new EnumIntMap<>(this.malus, ACTION_TYPES, HARVEST_PRODUCTION_DICE);
         return this.harvestProductionDiceMalus;
     }
 
+    /**
+     * Method to get the dice malus of harvest or production
+     * @param actionType
+     * @return
+     */
+    public int getHarvestProductionDiceMalus(ActionType actionType){
+        return this.malus[HARVEST_PRODUCTION_DICE + actionType.ordinal()];
+    }
+
     /**
      * Method to get the development card dice malus
      * @return
      */
     public Map<DevelopmentCardColor, Integer> getDevelopmentCardDiceMalus(){
+        if(this.developmentCardDiceMalus == null)
+            this.developmentCardDiceMalus = new EnumIntMap<>(this.malus, CARD_COLORS, DEVELOPMENT_CARD_DICE);
         return this.developmentCardDiceMalus;
     }
 
+    /**
+     * Method to get the dice malus for a development card color
+     * @param cardColor
+     * @return
+     */
+    public int getDevelopmentCardDiceMalus(DevelopmentCardColor cardColor){
+        return this.malus[DEVELOPMENT_CARD_DICE + cardColor.ordinal()];
+    }
+
     /**
      * Method to check if the market is available
      * @return
      */
-    public Boolean getMarketIsAvailable(){
+    public boolean getMarketIsAvailable(){
         return this.marketIsAvailable;
     }
 
@@ -231,7 +254,7 @@ public class ExcommunicationValues implements Serializable{
      * Method to get the number of slaves the user has to use to increment dice values of 1
      * @return
      */
-    public Integer getNumberOfSlaves(){
+    public int getNumberOfSlaves(){
         return this.numberOfSlaves;
     }
 
@@ -240,7 +263,19 @@ public class ExcommunicationValues implements Serializable{
      * @return
      */
     public Map<DevelopmentCardColor, Boolean> getDevelopmentCardGetFinalPoints(){
-        return this.developmentCardGetFinalPoints;
+        Map<DevelopmentCardColor, Boolean> finalPoints = new EnumMap<>(DevelopmentCardColor.class);
+        for (DevelopmentCardColor cardColor : CARD_COLORS)
+            finalPoints.put(cardColor, getDevelopmentCardGetFinalPoints(cardColor));
+        return finalPoints;
+    }
+
+    /**
+     * Check if the player can get the final points for a particular type of development cards
+     * @param cardColor
+     * @return
+     */
+    public boolean getDevelopmentCardGetFinalPoints(DevelopmentCardColor cardColor){
+        return (this.noFinalPointsColors & 1 << cardColor.ordinal()) == 0;
     }
 
     /**
@@ -248,14 +283,25 @@ public class ExcommunicationValues implements Serializable{
      * @return
      */
     public Map<PointType, Integer> getFinalPointsIndexMalus(){
+        if(this.finalPointsIndexMalus == null)
+            this.finalPointsIndexMalus = new EnumIntMap<>(this.malus, POINT_TYPES, FINAL_POINTS_INDEX);
         return this.finalPointsIndexMalus;
     }
 
+    /**
+     * Method to get the index malus for a final point
+     * @param pointType
+     * @return
+     */
+    public int getFinalPointsIndexMalus(PointType pointType){
+        return this.malus[FINAL_POINTS_INDEX + pointType.ordinal()];
+    }
+
     /**
      * Check if the player has to skip the first turn
      * @return
      */
-    public Boolean getSkipFirstMove(){
+    public boolean getSkipFirstMove(){
         return this.skipFirstTurn;
     }
 
@@ -264,16 +310,38 @@ public class ExcommunicationValues implements Serializable{
      * @return
      */
     public Map<ResourceType, Integer> getFinalResourcesIndexMalus(){
+        if(this.finalResourcesIndexMalus == null)
+            this.finalResourcesIndexMalus = new EnumIntMap<>(this.malus, RESOURCE_TYPES, FINAL_RESOURCES_INDEX);
         return this.finalResourcesIndexMalus;
     }
 
+    /**
+     * Method to get the index malus for a final resource
+     * @param resourceType
+     * @return
+     */
+    public int getFinalResourcesIndexMalus(ResourceType resourceType){
+        return this.malus[FINAL_RESOURCES_INDEX + resourceType.ordinal()];
+    }
+
     /**
      * Method to get the final resources index malus for development cards
      * @return
      */
     public Map<ResourceType, Integer> getFinalResourcesDevCardIndexMalus(){
+        if(this.finalResourcesDevCardIndexMalus == null)
+            this.finalResourcesDevCardIndexMalus = new EnumIntMap<>(this.malus, RESOURCE_TYPES, FINAL_RESOURCES_DEV_CARD_INDEX);
         return this.finalResourcesDevCardIndexMalus;
     }
 
+    /**
+     * Method to get the final index malus of development cards for a resource
+     * @param resourceType
+     * @return
+     */
+    public int getFinalResourcesDevCardIndexMalus(ResourceType resourceType){
+        return this.malus[FINAL_RESOURCES_DEV_CARD_INDEX + resourceType.ordinal()];
+    }
+
 
 }
@@ -1,26 +1,34 @@
 package it.polimi.ingsw.model;
 
 import java.io.Serializable;
-import java.util.EnumMap;
 import java.util.Map;
 
 /**
- * This class manages the state of FamilyMembers
+ * This class manages the state of FamilyMembers.
+ * Values are kept in an array of ints, one per color in the order of the colors, that is reset in place each turn.
  */
 public class FamilyMember implements Serializable{
 
     /**
-     * All the family members
+     * Family member colors, in array order.
      */
-    private Map<FamilyMemberColor, Integer> members;
+    private static final FamilyMemberColor[] COLORS = FamilyMemberColor.values();
+
+    /**
+     * Value of each family member
+     */
+    private final int[] members;
+
+    /**
+     * View of the family members, created on first use.
+     */
+    private transient Map<FamilyMemberColor, Integer> membersView;
 
     /**
      * Class constructor
      */
     public FamilyMember(){
-        this.members = new EnumMap<>(FamilyMemberColor.class);
-        for(FamilyMemberColor familyMemberColor : FamilyMemberColor.values())
-            members.put(familyMemberColor, 0);
+        this.members = new int[COLORS.length];
     }
 
     /**
@@ -28,16 +36,27 @@ public class FamilyMember implements Serializable{
      * @param members
      */
     public void setMembers(Map<FamilyMemberColor, Integer> members){
-        for(Map.Entry pair : members.entrySet())
-            this.members.put((FamilyMemberColor)pair.getKey(), (int)pair.getValue());
+        for(Map.Entry<FamilyMemberColor, Integer> pair : members.entrySet())
+            this.members[pair.getKey().ordinal()] = pair.getValue();
     }
 
     /**
      * Get family members
-     * @return
+     * @return read-only view of the family members
      */
     public Map<FamilyMemberColor, Integer> getMembers(){
-        return this.members;
+        if(this.membersView == null)
+            this.membersView = new EnumIntMap<>(this.members, COLORS, 0);
+        return this.membersView;
+    }
+
+    /**
+     * Get the value of a family member
+     * @param color
+     * @return the value
+     */
+    public int get(FamilyMemberColor color){
+        return this.members[color.ordinal()];
     }
 
     /**
@@ -46,7 +65,7 @@ public class FamilyMember implements Serializable{
      * @param value
      */
     public void setFamilyMemberValue(FamilyMemberColor color, int value){
-        this.members.replace(color, value);
+        this.members[color.ordinal()] = value;
     }
 
     /**
@@ -55,7 +74,7 @@ public class FamilyMember implements Serializable{
      * @param value
      */
     public void increaseFamilyMemberValue(FamilyMemberColor color, int value){
-        this.members.put(color, this.members.get(color) + value);
+        this.members[color.ordinal()] += value;
     }
 
     /**
@@ -64,7 +83,23 @@ public class FamilyMember implements Serializable{
      * @param value
      */
     public void decreaseFamilyMemberValue(FamilyMemberColor color, int value){
-        this.members.put(color, this.members.get(color) - value);
+        this.members[color.ordinal()] -= value;
+    }
+
+    /**
+     * Save the family members in an undo log
+     * @param undoLog of the move
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        undoLog.saveInts(this.members);
+    }
+
+    /**
+     * Set all the family members to zero
+     */
+    public void reset(){
+        for(int i = 0; i < this.members.length; i++)
+            this.members[i] = 0;
     }
 
 }
@@ -52,6 +52,21 @@ public class Game implements Serializable{
      */
     private int move;
 
+    /**
+     * Version of the model known by the clients, increased every time an update is sent.
+     */
+    private long version;
+
+    /**
+     * Undo log of the moves, created on first use.
+     */
+    private transient UndoLog undoLog;
+
+    /**
+     * Validator of the moves, created on first use.
+     */
+    private transient MoveValidator moveValidator;
+
     /**
      * Class constructor
      */
@@ -112,6 +127,43 @@ public class Game implements Serializable{
         this.move = move;
     }
 
+    /**
+     * Get the version of the model.
+     * @return version of the model.
+     */
+    public long getVersion(){
+        return this.version;
+    }
+
+    /**
+     * Set the version of the model.
+     * @param version of the model.
+     */
+    public void setVersion(long version){
+        this.version = version;
+    }
+
+
+    /**
+     * Get the undo log of the moves. Every move runs in a transaction of this log, so a move that fails leaves the
+     * model as it was, and a simulation can roll back moves that succeeded.
+     * @return the undo log.
+     */
+    public UndoLog getUndoLog(){
+        if(this.undoLog == null)
+            this.undoLog = new UndoLog();
+        return this.undoLog;
+    }
+
+    /**
+     * Get the validator of the moves. Every move is checked by it before changing the model.
+     * @return the move validator.
+     */
+    public MoveValidator getMoveValidator(){
+        if(this.moveValidator == null)
+            this.moveValidator = new MoveValidator();
+        return this.moveValidator;
+    }
 
     /**
      * This method build a new main board object.
@@ -154,6 +206,14 @@ public class Game implements Serializable{
         return this.dices;
     }
 
+    /**
+     * Set the dices
+     * @param dices to set.
+     */
+    /*package-local*/ void setDices(Dice dices){
+        this.dices = dices;
+    }
+
     /**
      * Get a specific player.
      * @param username of the player.
@@ -198,24 +258,28 @@ public class Game implements Serializable{
         Tower tower = this.mainBoard.getTower(indexTower);
         TowerCell cell = tower.getTowerCell(indexCell);
 
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        checkMove(getMoveValidator().validateTower(this, player, familyMemberColor, servants, indexTower, indexCell));
+
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
 
         int servantsValue = servants/player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
 
-        LeaderCard leaderCardBrunelleschi = player.getPersonalBoard().getLeaderCardWithName("Filippo Brunelleschi");
+        boolean brunelleschi = player.getPersonalBoard().hasLeaderAbility(LeaderAbility.FILIPPO_BRUNELLESCHI);
 
         if (cell.getPlayerNicknameInTheCell() == null || player.getPersonalBoard().getAlwaysPlaceFamilyMemberInsideActionSpace()){
 
             tower.familyMemberCanBePlaced(player, familyMemberColor);
 
-            updateFamilyMemberValue(player, familyMemberColor, servantsValue);
-
+            int savepoint = beginMove(player);
+            cell.save(undoLog);
             try {
+                updateFamilyMemberValue(player, familyMemberColor, servantsValue);
+
                 cell.familyMemberCanBePlaced(player, familyMemberColor);
 
-                if (!tower.isFree() && (leaderCardBrunelleschi == null || !leaderCardBrunelleschi.getLeaderEffectActive())) {
-                    if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.COIN) >= 3)
+                if (!tower.isFree() && !brunelleschi) {
+                    if(player.getPersonalBoard().getValuables().get(ResourceType.COIN) >= 3)
                         player.getPersonalBoard().getValuables().decrease(ResourceType.COIN, 3);
                     else
                         throw new GameException(GameErrorType.TOWER_COST);
@@ -238,11 +302,9 @@ public class Game implements Serializable{
                 player.getPersonalBoard().setFamilyMembersUsed(familyMemberColor);
 
                 cell.setPlayerNicknameInTheCell(player.getUsername());
-            } catch (GameException e){
-                restoreFamilyMemberValue(player, familyMemberColor, servantsValue);
-
-                if (!tower.isFree() && (leaderCardBrunelleschi == null || !leaderCardBrunelleschi.getLeaderEffectActive()) && !e.getError().equals(GameErrorType.TOWER_COST))
-                    player.getPersonalBoard().getValuables().increase(ResourceType.COIN, 3);
+                undoLog.commit(savepoint);
+            } catch (GameException | RuntimeException e){
+                undoLog.rollback(savepoint);
                 throw e;
             }
         } else {
@@ -257,15 +319,28 @@ public class Game implements Serializable{
      * @param informationCallback interface to manage actions that requires multiple interactions with the user
      */
     private void payValuablesToGetDevelopmentCard(Player player, DevelopmentCard developmentCard, InformationCallback informationCallback){
-        LeaderCard leaderCard = player.getPersonalBoard().getLeaderCardWithName("Pico della Mirandola");
-        int devCardCoinsCost = developmentCard.getCost().getResources().get(ResourceType.COIN);
-        if (leaderCard != null && leaderCard.getLeaderEffectActive()) {
-            if (devCardCoinsCost >= 3)
-                developmentCard.getCost().decrease(ResourceType.COIN, ((LEPicoDellaMirandola)leaderCard.getEffect()).getMoneyDiscount());
-            else
-                developmentCard.getCost().decrease(ResourceType.COIN, devCardCoinsCost);
-        }
-        developmentCard.payCost(player, informationCallback);
+        developmentCard.payCost(player, getDevelopmentCardCost(player, developmentCard), informationCallback);
+    }
+
+    /**
+     * This method returns the cost a player pays for a development card, with the discount of Pico della Mirandola.
+     * Cards are shared by all the games, so the discount is applied on a copy of the cost
+     * @param player the player that is performing the action
+     * @param developmentCard the development card the player want to pay
+     * @return the cost to pay
+     */
+    public static PointsAndResources getDevelopmentCardCost(Player player, DevelopmentCard developmentCard){
+        LeaderCard leaderCard = player.getPersonalBoard().getLeaderCardWithAbility(LeaderAbility.PICO_DELLA_MIRANDOLA);
+        if (leaderCard == null)
+            return developmentCard.getCost();
+        PointsAndResources cost = new PointsAndResources();
+        cost.increaseAll(developmentCard.getCost());
+        int devCardCoinsCost = cost.get(ResourceType.COIN);
+        if (devCardCoinsCost >= 3)
+            cost.decrease(ResourceType.COIN, ((LEPicoDellaMirandola)leaderCard.getEffect()).getMoneyDiscount());
+        else
+            cost.decrease(ResourceType.COIN, devCardCoinsCost);
+        return cost;
     }
 
     /**
@@ -277,6 +352,7 @@ public class Game implements Serializable{
      * @throws GameException
      */
     public void placeFamilyMemberInsideHarvestSimpleSpace(Player player, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
+        checkMove(getMoveValidator().validateHarvestProductionSimple(this, player, ActionType.HARVEST, familyMemberColor, servants));
         performHarvestProductionSimple(player, this.mainBoard.getHarvest(), familyMemberColor, servants, informationCallback);
     }
 
@@ -289,6 +365,7 @@ public class Game implements Serializable{
      * @throws GameException
      */
     public void placeFamilyMemberInsideProductionSimpleSpace(Player player, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
+        checkMove(getMoveValidator().validateHarvestProductionSimple(this, player, ActionType.PRODUCTION, familyMemberColor, servants));
         performHarvestProductionSimple(player, this.mainBoard.getProduction(), familyMemberColor, servants, informationCallback);
     }
 
@@ -302,13 +379,15 @@ public class Game implements Serializable{
      * @throws GameException
      */
     private void performHarvestProductionSimple(Player player, ActionSpace actionSpace, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
         int servantsValue = servants/player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
 
         if (actionSpace.isEmpty() || player.getPersonalBoard().getAlwaysPlaceFamilyMemberInsideActionSpace()){
-            updateFamilyMemberValue(player, familyMemberColor, servantsValue);
+            int savepoint = beginMove(player);
+            actionSpace.save(undoLog);
             try {
+                updateFamilyMemberValue(player, familyMemberColor, servantsValue);
                 this.mainBoard.getProductionExtended().checkAccessibility(player, familyMemberColor);
                 actionSpace.familyMemberCanBePlaced(player, familyMemberColor);
 
@@ -323,8 +402,9 @@ public class Game implements Serializable{
                 }
 
                 actionSpace.setEmpty(false);
-            } catch (GameException e){
-                restoreFamilyMemberValue(player, familyMemberColor, servantsValue);
+                undoLog.commit(savepoint);
+            } catch (GameException | RuntimeException e){
+                undoLog.rollback(savepoint);
                 throw e;
             }
         }else
@@ -340,6 +420,7 @@ public class Game implements Serializable{
      * @throws GameException
      */
     public void placeFamilyMemberInsideHarvestExtendedSpace(Player player, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
+        checkMove(getMoveValidator().validateHarvestProductionExtended(this, player, ActionType.HARVEST, familyMemberColor, servants));
         performHarvestProductionExtended(player, this.mainBoard.getHarvestExtended(), familyMemberColor, servants, informationCallback);
     }
 
@@ -352,6 +433,7 @@ public class Game implements Serializable{
      * @throws GameException
      */
     public void placeFamilyMemberInsideProductionExtendedSpace(Player player, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
+        checkMove(getMoveValidator().validateHarvestProductionExtended(this, player, ActionType.PRODUCTION, familyMemberColor, servants));
         performHarvestProductionExtended(player, this.mainBoard.getProductionExtended(), familyMemberColor, servants, informationCallback);
     }
 
@@ -365,13 +447,15 @@ public class Game implements Serializable{
      * @throws GameException
      */
     private void performHarvestProductionExtended(Player player, ActionSpaceExtended actionSpaceExtended, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
         int servantsValue = servants/player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
 
         if (actionSpaceExtended.isAccessible() || player.getPersonalBoard().getAlwaysPlaceFamilyMemberInsideActionSpace()){
-            updateFamilyMemberValue(player, familyMemberColor, servantsValue);
+            int savepoint = beginMove(player);
+            actionSpaceExtended.save(undoLog, player);
             try {
+                updateFamilyMemberValue(player, familyMemberColor, servantsValue);
                 this.mainBoard.getProduction().checkAccessibility(player, familyMemberColor);
                 actionSpaceExtended.familyMemberCanBePlaced(player, familyMemberColor, servantsValue);
 
@@ -384,9 +468,9 @@ public class Game implements Serializable{
                 if (actionSpaceExtended.getActionSpaceType().equals(ActionType.PRODUCTION)){
                     performProduction(player, informationCallback);
                 }
-
-            } catch (GameException e){
-                restoreFamilyMemberValue(player, familyMemberColor, servantsValue);
+                undoLog.commit(savepoint);
+            } catch (GameException | RuntimeException e){
+                undoLog.rollback(savepoint);
                 throw e;
             }
         }else
@@ -424,17 +508,22 @@ public class Game implements Serializable{
     public void placeFamilyMemberInsideCouncilPalace(Player player, FamilyMemberColor familyMemberColor, int servants, InformationCallback informationCallback) throws GameException{
         CouncilPalace councilPalace = this.mainBoard.getCouncilPalace();
 
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        checkMove(getMoveValidator().validateCouncilPalace(this, player, familyMemberColor, servants));
+
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
 
         int servantsValue = servants/player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
-        updateFamilyMemberValue(player, familyMemberColor, servantsValue);
+        int savepoint = beginMove(player);
+        councilPalace.save(undoLog);
         try {
+            updateFamilyMemberValue(player, familyMemberColor, servantsValue);
             councilPalace.familyMemberCanBePlaced(player, familyMemberColor, servantsValue);
             councilPalace.fifoAddPlayer(player);
             councilPalace.getImmediateEffect().runEffect(player, informationCallback);
-        }catch (GameException e){
-            restoreFamilyMemberValue(player, familyMemberColor, servantsValue);
+            undoLog.commit(savepoint);
+        }catch (GameException | RuntimeException e){
+            undoLog.rollback(savepoint);
             throw e;
         }
     }
@@ -446,20 +535,25 @@ public class Game implements Serializable{
         Market market = this.mainBoard.getMarket();
         MarketCell cell = market.getMarketCell(indexMarket);
 
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        checkMove(getMoveValidator().validateMarket(this, player, familyMemberColor, servants, indexMarket));
+
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
 
         int servantsValue = servants/player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
 
         if( (cell.isEmpty() || player.getPersonalBoard().getAlwaysPlaceFamilyMemberInsideActionSpace() ) &&
                 player.getPersonalBoard().getExcommunicationValues().getMarketIsAvailable()){
-            updateFamilyMemberValue(player, familyMemberColor, servantsValue);
+            int savepoint = beginMove(player);
+            cell.save(undoLog);
             try {
+                updateFamilyMemberValue(player, familyMemberColor, servantsValue);
                 cell.familyMemberCanBePlaced(player, familyMemberColor, servantsValue);
 
                 cell.getMarketCellImmediateEffect().runEffect(player, informationCallback);
-            }catch (GameException e){
-                restoreFamilyMemberValue(player, familyMemberColor, servantsValue);
+                undoLog.commit(savepoint);
+            }catch (GameException | RuntimeException e){
+                undoLog.rollback(savepoint);
                 throw e;
             }
         }else{
@@ -473,27 +567,34 @@ public class Game implements Serializable{
     public void activateLeaderCard(Player player, int leaderCardAtIndex, int servants, InformationCallback informationCallback) throws GameException {
         LeaderCard leaderCard = player.getPersonalBoard().getLeaderCards().get(leaderCardAtIndex);
 
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) < servants)
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) < servants)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
 
         int servantsValue = servants / player.getPersonalBoard().getExcommunicationValues().getNumberOfSlaves();
 
-        leaderCard.checkRequisites(player);
-
-        if (leaderCard.getEffect() instanceof LESimple ||
-                leaderCard.getEffect() instanceof LEDiceBonus ||
-                leaderCard.getEffect() instanceof LEDiceValueSet ||
-                leaderCard.getEffect() instanceof LENeutralBonus ||
-                leaderCard.getEffect() instanceof LECesareBorgia ||
-                leaderCard.getEffect() instanceof LEFamilyMemberBonus) {
-            leaderCard.getEffect().runEffect(player, informationCallback);
-        } else if (leaderCard.getEffect() instanceof LEHarvestProductionSimple) {
-
-            List<FamilyMemberColor> familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed();
-            FamilyMemberColor familyMemberColor = familyMembersUsed.get(familyMembersUsed.size() - 1);
-            player.getPersonalBoard().getFamilyMember().setFamilyMemberValue(familyMemberColor, servantsValue);
-
-            leaderCard.getEffect().runEffect(player, informationCallback);
+        int savepoint = beginMove(player);
+        try {
+            leaderCard.checkRequisites(player);
+
+            if (leaderCard.getEffect() instanceof LESimple ||
+                    leaderCard.getEffect() instanceof LEDiceBonus ||
+                    leaderCard.getEffect() instanceof LEDiceValueSet ||
+                    leaderCard.getEffect() instanceof LENeutralBonus ||
+                    leaderCard.getEffect() instanceof LECesareBorgia ||
+                    leaderCard.getEffect() instanceof LEFamilyMemberBonus) {
+                leaderCard.getEffect().runEffect(player, informationCallback);
+            } else if (leaderCard.getEffect() instanceof LEHarvestProductionSimple) {
+
+                List<FamilyMemberColor> familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed();
+                FamilyMemberColor familyMemberColor = familyMembersUsed.get(familyMembersUsed.size() - 1);
+                player.getPersonalBoard().getFamilyMember().setFamilyMemberValue(familyMemberColor, servantsValue);
+
+                leaderCard.getEffect().runEffect(player, informationCallback);
+            }
+            undoLog.commit(savepoint);
+        } catch (GameException | RuntimeException e){
+            undoLog.rollback(savepoint);
+            throw e;
         }
     }
 
@@ -504,9 +605,16 @@ public class Game implements Serializable{
      * @param informationCallback interface to manage actions that requires multiple interactions with the user
      */
     public void discardLeaderCard(Player player, int leaderCardAtIndex, InformationCallback informationCallback){
-        player.getPersonalBoard().getLeaderCards().remove(leaderCardAtIndex);
-        CouncilPrivilege councilPrivilege = new CouncilPrivilege(1);
-        councilPrivilege.chooseCouncilPrivilege(player, informationCallback);
+        int savepoint = beginMove(player);
+        try {
+            player.getPersonalBoard().getLeaderCards().remove(leaderCardAtIndex);
+            CouncilPrivilege councilPrivilege = new CouncilPrivilege(1);
+            councilPrivilege.chooseCouncilPrivilege(player, informationCallback);
+            undoLog.commit(savepoint);
+        } catch (RuntimeException e){
+            undoLog.rollback(savepoint);
+            throw e;
+        }
     }
 
 
@@ -517,19 +625,26 @@ public class Game implements Serializable{
      * @param privilege the privilege given to the user
      */
     public void discardLeaderCard(Player player, int leaderCardAtIndex, Privilege privilege){
-        player.getPersonalBoard().getLeaderCards().remove(leaderCardAtIndex);
-        for (Map.Entry<ResourceType, Integer> entry: privilege.getValuables().getResources().entrySet()) {
-            if(entry.getValue() > 0) {
-                player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+        int savepoint = beginMove(player);
+        try {
+            player.getPersonalBoard().getLeaderCards().remove(leaderCardAtIndex);
+            for (Map.Entry<ResourceType, Integer> entry: privilege.getValuables().getResources().entrySet()) {
+                if(entry.getValue() > 0) {
+                    player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
+                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
+                }
             }
-        }
 
-        for (Map.Entry<PointType, Integer> entry: privilege.getValuables().getPoints().entrySet()) {
-            if(entry.getValue() > 0) {
-                player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+            for (Map.Entry<PointType, Integer> entry: privilege.getValuables().getPoints().entrySet()) {
+                if(entry.getValue() > 0) {
+                    player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
+                    player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
+                }
             }
+            undoLog.commit(savepoint);
+        } catch (RuntimeException e){
+            undoLog.rollback(savepoint);
+            throw e;
         }
     }
 
@@ -540,7 +655,7 @@ public class Game implements Serializable{
      * @param servantsValue the number of servants used to perform the action
      */
     private void updateFamilyMemberValue(Player player, FamilyMemberColor familyMemberColor, int servantsValue) throws GameException{
-        if(player.getPersonalBoard().getValuables().getResources().get(ResourceType.SERVANT) >= servantsValue) {
+        if(player.getPersonalBoard().getValuables().get(ResourceType.SERVANT) >= servantsValue) {
             player.getPersonalBoard().getFamilyMember().increaseFamilyMemberValue(familyMemberColor, servantsValue);
             player.getPersonalBoard().getValuables().decrease(ResourceType.SERVANT, servantsValue);
         } else
@@ -548,14 +663,24 @@ public class Game implements Serializable{
     }
 
     /**
-     * Thus method restores the original family member value and gives back the servants to the player
+     * This method refuses a move before it changes the model
+     * @param verdict of the move validator
+     * @throws GameException if the move is not legal
+     */
+    private static void checkMove(MoveVerdict verdict) throws GameException{
+        if(!verdict.isLegal())
+            throw new GameException(verdict.getError());
+    }
+
+    /**
+     * This method begins the transaction of a move and saves the personal board of the player, the only one a move changes
      * @param player the player that is performing the action
-     * @param familyMemberColor the color of the family member used to perform the action
-     * @param servantsValue the number of servants used to perform the action
+     * @return the savepoint to commit or roll back
      */
-    private void restoreFamilyMemberValue(Player player, FamilyMemberColor familyMemberColor, int servantsValue){
-        player.getPersonalBoard().getFamilyMember().decreaseFamilyMemberValue(familyMemberColor, servantsValue);
-        player.getPersonalBoard().getValuables().increase(ResourceType.SERVANT, servantsValue);
+    private int beginMove(Player player){
+        int savepoint = getUndoLog().begin();
+        player.getPersonalBoard().save(this.undoLog);
+        return savepoint;
     }
 
     /**
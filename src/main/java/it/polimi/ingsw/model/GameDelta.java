@@ -0,0 +1,341 @@
+package it.polimi.ingsw.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class contains the parts of the game model changed between two versions.
+ * The game model is split in parts identified by a key: the round, the dices, every tower cell and market cell,
+ * the action spaces, the council order, the vatican and the parts of every personal board.
+ * Applying the delta to a game model at the base version brings it to the new version. Parts are sent whole,
+ * so the delta also applies to a model at a later version, received with updates queued before this one.
+ */
+public class GameDelta implements Serializable{
+
+    /**
+     * Key of the round part (age, turn and move).
+     */
+    public static final String ROUND = "round";
+
+    /**
+     * Key of the dices part.
+     */
+    public static final String DICES = "dices";
+
+    /**
+     * Prefix of the tower cell parts, followed by tower and cell index.
+     */
+    public static final String TOWER_CELL = "tower-";
+
+    /**
+     * Prefix of the market cell parts, followed by cell index.
+     */
+    public static final String MARKET_CELL = "market-";
+
+    /**
+     * Keys of the action space parts.
+     */
+    public static final String HARVEST = "harvest";
+    public static final String PRODUCTION = "production";
+    public static final String HARVEST_EXTENDED = "harvest-extended";
+    public static final String PRODUCTION_EXTENDED = "production-extended";
+
+    /**
+     * Key of the council palace order part.
+     */
+    public static final String COUNCIL_ORDER = "council-order";
+
+    /**
+     * Key of the vatican part.
+     */
+    public static final String VATICAN = "vatican";
+
+    /**
+     * Keys of the personal board parts.
+     */
+    public static final String VALUABLES = "valuables";
+    public static final String FAMILY_MEMBER = "family-member";
+    public static final String FAMILY_MEMBERS_USED = "family-members-used";
+    public static final String CARDS = "cards-";
+    public static final String LEADER_CARDS = "leader-cards";
+    public static final String ACTIVE_LEADER_CARDS = "active-leader-cards";
+    public static final String EXCOMMUNICATION_CARDS = "excommunication-cards";
+    public static final String EXCOMMUNICATION_VALUES = "excommunication-values";
+
+    /**
+     * Key of the bonuses and discounts of a personal board. They change rarely,
+     * so when they change the whole personal board is sent instead of its parts.
+     */
+    public static final String BONUSES = "bonuses";
+
+    /**
+     * Version of the model the delta applies to.
+     */
+    private long baseVersion;
+
+    /**
+     * Version of the model after the delta is applied.
+     */
+    private long version;
+
+    /**
+     * Changed parts of the main board.
+     */
+    private Map<String, Serializable> mainBoardParts;
+
+    /**
+     * Changed parts of the personal boards, per username.
+     */
+    private Map<String, Map<String, Serializable>> personalBoardParts;
+
+    /**
+     * Personal boards sent whole, per username.
+     */
+    private Map<String, PersonalBoard> personalBoards;
+
+    /**
+     * Class constructor.
+     * @param baseVersion version of the model the delta applies to.
+     * @param version of the model after the delta is applied.
+     */
+    public GameDelta(long baseVersion, long version){
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.mainBoardParts = new LinkedHashMap<>();
+        this.personalBoardParts = new LinkedHashMap<>();
+        this.personalBoards = new LinkedHashMap<>();
+    }
+
+    /**
+     * Get the version of the model the delta applies to.
+     * @return base version.
+     */
+    public long getBaseVersion(){
+        return this.baseVersion;
+    }
+
+    /**
+     * Get the version of the model after the delta is applied.
+     * @return version.
+     */
+    public long getVersion(){
+        return this.version;
+    }
+
+    /**
+     * Check if the delta brings a model to a newer version: the model must know at least the base version.
+     * @param modelVersion version of the model.
+     * @return true if the delta can be applied.
+     */
+    public boolean appliesTo(long modelVersion){
+        return baseVersion <= modelVersion && modelVersion < version;
+    }
+
+    /**
+     * Add a changed part of the main board.
+     * @param key of the part.
+     * @param part value.
+     */
+    public void putMainBoardPart(String key, Serializable part){
+        this.mainBoardParts.put(key, part);
+    }
+
+    /**
+     * Add a changed part of a personal board.
+     * @param username of the owner.
+     * @param key of the part.
+     * @param part value.
+     */
+    public void putPersonalBoardPart(String username, String key, Serializable part){
+        this.personalBoardParts.computeIfAbsent(username, k -> new LinkedHashMap<>()).put(key, part);
+    }
+
+    /**
+     * Add a whole personal board.
+     * @param username of the owner.
+     * @param personalBoard to send.
+     */
+    public void putPersonalBoard(String username, PersonalBoard personalBoard){
+        this.personalBoards.put(username, personalBoard);
+    }
+
+    /**
+     * Check if the delta does not contain changes.
+     * @return true if nothing changed.
+     */
+    public boolean isEmpty(){
+        return mainBoardParts.isEmpty() && personalBoardParts.isEmpty() && personalBoards.isEmpty();
+    }
+
+    /**
+     * Apply the delta to a game model.
+     * @param game at the base version or later, see {@link #appliesTo(long)}.
+     */
+    public void applyTo(Game game){
+        for(Map.Entry<String, Serializable> part : mainBoardParts.entrySet())
+            applyMainBoardPart(game, part.getKey(), part.getValue());
+        for(Map.Entry<String, PersonalBoard> personalBoard : personalBoards.entrySet())
+            game.getPlayer(personalBoard.getKey()).setPersonalBoard(personalBoard.getValue());
+        for(Map.Entry<String, Map<String, Serializable>> parts : personalBoardParts.entrySet()){
+            PersonalBoard personalBoard = game.getPlayer(parts.getKey()).getPersonalBoard();
+            for(Map.Entry<String, Serializable> part : parts.getValue().entrySet())
+                applyPersonalBoardPart(personalBoard, part.getKey(), part.getValue());
+        }
+        game.setVersion(version);
+    }
+
+    /**
+     * Split the main board of a game in parts.
+     * @param game to split.
+     * @return parts per key.
+     */
+    public static Map<String, Serializable> mainBoardParts(Game game){
+        Map<String, Serializable> parts = new LinkedHashMap<>();
+        MainBoard mainBoard = game.getMainBoard();
+        parts.put(ROUND, new int[]{game.getAge(), game.getTurn(), game.getMove()});
+        parts.put(DICES, game.getDices());
+        for(int i = 0; i < mainBoard.getTowers().length; i++)
+            for(int j = 0; j < mainBoard.getTower(i).getTowerCells().length; j++)
+                parts.put(TOWER_CELL + i + "-" + j, mainBoard.getTower(i).getTowerCell(j));
+        for(int i = 0; i < mainBoard.getMarket().getMarketCells().length; i++)
+            parts.put(MARKET_CELL + i, mainBoard.getMarket().getMarketCell(i));
+        parts.put(HARVEST, mainBoard.getHarvest());
+        parts.put(PRODUCTION, mainBoard.getProduction());
+        parts.put(HARVEST_EXTENDED, mainBoard.getHarvestExtended());
+        parts.put(PRODUCTION_EXTENDED, mainBoard.getProductionExtended());
+        ArrayList<String> councilOrder = new ArrayList<>();
+        for(Player player : mainBoard.getCouncilPalace().getNewOrder())
+            councilOrder.add(player.getUsername());
+        parts.put(COUNCIL_ORDER, councilOrder);
+        parts.put(VATICAN, mainBoard.getVatican());
+        return parts;
+    }
+
+    /**
+     * Split a personal board in parts.
+     * @param personalBoard to split.
+     * @return parts per key.
+     */
+    public static Map<String, Serializable> personalBoardParts(PersonalBoard personalBoard){
+        Map<String, Serializable> parts = new LinkedHashMap<>();
+        parts.put(VALUABLES, personalBoard.getValuables());
+        parts.put(FAMILY_MEMBER, personalBoard.getFamilyMember());
+        parts.put(FAMILY_MEMBERS_USED, new ArrayList<>(personalBoard.getFamilyMembersUsed()));
+        for(DevelopmentCardColor color : DevelopmentCardColor.values())
+            parts.put(CARDS + color.name(), new ArrayList<>(personalBoard.getCards(color)));
+        parts.put(LEADER_CARDS, new ArrayList<>(personalBoard.getLeaderCards()));
+        parts.put(ACTIVE_LEADER_CARDS, new ArrayList<>(personalBoard.getActiveLeaderCards()));
+        parts.put(EXCOMMUNICATION_CARDS, new ArrayList<>(personalBoard.getExcommunicationCards()));
+        parts.put(EXCOMMUNICATION_VALUES, personalBoard.getExcommunicationValues());
+        ArrayList<Serializable> bonuses = new ArrayList<>();
+        bonuses.add(new HashMap<>(personalBoard.getHarvestProductionDiceValueBonus()));
+        bonuses.add(new HashMap<>(personalBoard.getDevelopmentCardColorDiceValueBonus()));
+        for(DevelopmentCardColor color : DevelopmentCardColor.values())
+            bonuses.add(new ArrayList<>(personalBoard.getCostDiscountForDevelopmentCard(color)));
+        bonuses.add(personalBoard.getGreenCardsMilitaryPointsRequirements());
+        bonuses.add(personalBoard.getAlwaysPlaceFamilyMemberInsideActionSpace());
+        bonuses.add(personalBoard.getPersonalBoardTile());
+        bonuses.add(personalBoard.getCopiedLeaderCard());
+        parts.put(BONUSES, bonuses);
+        return parts;
+    }
+
+    /**
+     * Replace a part of the main board.
+     * @param game to update.
+     * @param key of the part.
+     * @param part new value.
+     */
+    @SuppressWarnings("unchecked")
+    private static void applyMainBoardPart(Game game, String key, Serializable part){
+        MainBoard mainBoard = game.getMainBoard();
+        if(key.startsWith(TOWER_CELL)){
+            String[] index = key.substring(TOWER_CELL.length()).split("-");
+            mainBoard.getTower(Integer.parseInt(index[0])).replaceTowerCell(Integer.parseInt(index[1]), (TowerCell)part);
+            return;
+        }
+        if(key.startsWith(MARKET_CELL)){
+            mainBoard.getMarket().replaceMarketCell(Integer.parseInt(key.substring(MARKET_CELL.length())), (MarketCell)part);
+            return;
+        }
+        switch(key){
+            case ROUND:
+                int[] round = (int[])part;
+                game.setAge(round[0]);
+                game.setTurn(round[1]);
+                game.setMove(round[2]);
+                break;
+            case DICES:
+                game.setDices((Dice)part);
+                break;
+            case HARVEST:
+                mainBoard.setHarvest((ActionSpace)part);
+                break;
+            case PRODUCTION:
+                mainBoard.setProduction((ActionSpace)part);
+                break;
+            case HARVEST_EXTENDED:
+                mainBoard.setHarvestExtended((ActionSpaceExtended)part);
+                break;
+            case PRODUCTION_EXTENDED:
+                mainBoard.setProductionExtended((ActionSpaceExtended)part);
+                break;
+            case COUNCIL_ORDER:
+                LinkedList<Player> order = new LinkedList<>();
+                for(String username : (List<String>)part)
+                    order.add(game.getPlayer(username));
+                mainBoard.getCouncilPalace().setNewOrder(order);
+                break;
+            case VATICAN:
+                mainBoard.setVatican((Vatican)part);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown main board part " + key + ".");
+        }
+    }
+
+    /**
+     * Replace a part of a personal board.
+     * @param personalBoard to update.
+     * @param key of the part.
+     * @param part new value.
+     */
+    @SuppressWarnings("unchecked")
+    private static void applyPersonalBoardPart(PersonalBoard personalBoard, String key, Serializable part){
+        if(key.startsWith(CARDS)){
+            personalBoard.replaceCards(DevelopmentCardColor.valueOf(key.substring(CARDS.length())), (List<DevelopmentCard>)part);
+            return;
+        }
+        switch(key){
+            case VALUABLES:
+                personalBoard.setValuables((PointsAndResources)part);
+                break;
+            case FAMILY_MEMBER:
+                personalBoard.setFamilyMember((FamilyMember)part);
+                break;
+            case FAMILY_MEMBERS_USED:
+                personalBoard.replaceFamilyMembersUsed((List<FamilyMemberColor>)part);
+                break;
+            case LEADER_CARDS:
+                personalBoard.replaceLeaderCards((List<LeaderCard>)part);
+                break;
+            case ACTIVE_LEADER_CARDS:
+                personalBoard.replaceActiveLeaderCards((List<String>)part);
+                break;
+            case EXCOMMUNICATION_CARDS:
+                personalBoard.replaceExcommunicationCards((List<ExcommunicationCard>)part);
+                break;
+            case EXCOMMUNICATION_VALUES:
+                personalBoard.setExcommunicationValues((ExcommunicationValues)part);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown personal board part " + key + ".");
+        }
+    }
+
+}
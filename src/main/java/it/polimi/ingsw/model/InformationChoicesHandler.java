@@ -1,5 +1,6 @@
 package it.polimi.ingsw.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -8,7 +9,7 @@ import java.util.Map;
 /**
  * This class is used to make available on server every player choice.
  */
-public class InformationChoicesHandler implements InformationCallback {
+public class InformationChoicesHandler implements InformationCallback, Serializable {
 
     /**
      * Map containg all user choice.
@@ -0,0 +1,79 @@
+package it.polimi.ingsw.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This enumeration is a leader card ability checked by the rules of the game.
+ * A personal board keeps the abilities of its active leader cards as a bitset, so a rule checks an ability
+ * without looking for the card by name.
+ */
+public enum LeaderAbility {
+    /**
+     * No extra coins when placing in an occupied tower
+     */
+    FILIPPO_BRUNELLESCHI("Filippo Brunelleschi"),
+
+    /**
+     * Coin discount on development cards
+     */
+    PICO_DELLA_MIRANDOLA("Pico della Mirandola"),
+
+    /**
+     * Resources of development card effects are doubled
+     */
+    SANTA_RITA("Santa Rita"),
+
+    /**
+     * Victory points bonus when supporting the church
+     */
+    SISTO_IV("Sisto IV");
+
+    /**
+     * Abilities per leader card name
+     */
+    private static final Map<String, LeaderAbility> BY_NAME = new HashMap<>();
+
+    static {
+        for (LeaderAbility ability : values())
+            BY_NAME.put(ability.leaderCardName, ability);
+    }
+
+    /**
+     * Name of the leader card with the ability
+     */
+    private final String leaderCardName;
+
+    /**
+     * Enumeration constructor
+     * @param leaderCardName name of the leader card with the ability
+     */
+    LeaderAbility(String leaderCardName){
+        this.leaderCardName = leaderCardName;
+    }
+
+    /**
+     * Get the name of the leader card with the ability
+     * @return name of the leader card
+     */
+    public String getLeaderCardName(){
+        return this.leaderCardName;
+    }
+
+    /**
+     * Get the bit of the ability
+     * @return bit mask
+     */
+    /*package-local*/ int mask(){
+        return 1 << ordinal();
+    }
+
+    /**
+     * Get the ability of a leader card
+     * @param leaderCardName name of the leader card
+     * @return the ability, null if the rules do not check the card
+     */
+    public static LeaderAbility of(String leaderCardName){
+        return BY_NAME.get(leaderCardName);
+    }
+}
@@ -9,6 +9,8 @@ import java.util.Map;
 
 /**
  * This class represents a leader card abstraction.
+ * Leader cards are shared by all the games and never change: whether the effect is active is kept on the
+ * personal board of the owner.
  */
 public class LeaderCard implements Serializable{
 
@@ -27,11 +29,6 @@ public class LeaderCard implements Serializable{
      */
     private Boolean permanentAbility;
 
-    /**
-     * Flag to check if the leader effect is active
-     */
-    private Boolean leaderEffectActive;
-
     /**
      * Valuables requested to activate the leader effect
      */
@@ -69,36 +66,22 @@ public class LeaderCard implements Serializable{
     }
 
     /**
-     * Set the state of the leader card to used or not, use this at the end of every turn to reset the value to false
-     */
-    public void setLeaderEffectActive(Boolean updateValue){
-        this.leaderEffectActive = updateValue;
-    }
-
-    /**
-     * Get the state of the leader card to check if it is used or not
-     */
-    public Boolean getLeaderEffectActive(){
-        return this.leaderEffectActive;
-    }
-
-    /**
-     * This method checks if the player has the requisites to activate a leader card
+     * This method checks if the player has the requisites to activate a leader card, then sets its effect as active
      */
     public void checkRequisites(Player player) throws GameException{
-        if (this.leaderEffectActive){
+        if (player.getPersonalBoard().isLeaderEffectActive(this.leaderCardName)){
             throw new GameException(GameErrorType.LEADER_CARD_ALREADY_USED);
         }
 
         if(pointsAndResourcesRequisites != null) {
             for (Map.Entry<ResourceType, Integer> entry : this.pointsAndResourcesRequisites.getResources().entrySet()) {
-                if (player.getPersonalBoard().getValuables().getResources().get(entry.getKey()) < entry.getValue()) {
+                if (player.getPersonalBoard().getValuables().get(entry.getKey()) < entry.getValue()) {
                     throw new GameException(GameErrorType.PLAYER_RESOURCES_ERROR);
                 }
             }
 
             for (Map.Entry<PointType, Integer> entry : this.pointsAndResourcesRequisites.getPoints().entrySet()) {
-                if (player.getPersonalBoard().getValuables().getPoints().get(entry.getKey()) < entry.getValue()) {
+                if (player.getPersonalBoard().getValuables().get(entry.getKey()) < entry.getValue()) {
                     throw new GameException(GameErrorType.PLAYER_POINTS_ERROR);
                 }
             }
@@ -112,13 +95,12 @@ public class LeaderCard implements Serializable{
             }
         }
 
-        this.leaderEffectActive = true;
+        player.getPersonalBoard().setLeaderEffectActive(this.leaderCardName);
     }
 
     @Override
     public String toString(){
         StringBuilder stringBuilder = new StringBuilder(leaderCardName.toUpperCase() + "\n");
-        stringBuilder.append("Active: " + leaderEffectActive + "\n");
         if(pointsAndResourcesRequisites != null)
             stringBuilder.append("Requirements: " + pointsAndResourcesRequisites.toString());
         if(cardColorMapRequisites != null && cardColorMapRequisites.size() > 0){
@@ -0,0 +1,244 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.model.effects.Effect;
+
+import java.util.List;
+
+/**
+ * This class lists the legal placements of the family members of a player, for move hints, auto-play and bots.
+ * The dice values and the choices of the action spaces are kept in tables, built once per turn of a game because
+ * cards change only between turns. For each family member and action space the tables give the fewest servants
+ * that reach the dice value of the space, and the {@link MoveValidator} checks the rest of the move; any other
+ * servant the player spends keeps the move legal.
+ * A generator allocates nothing once its tables are built, so it must not be shared between threads.
+ */
+public final class LegalMoveGenerator {
+
+    /**
+     * Family member colors, in array order.
+     */
+    private static final FamilyMemberColor[] COLORS = FamilyMemberColor.values();
+
+    /**
+     * Validator of the moves.
+     */
+    private final MoveValidator moveValidator = new MoveValidator();
+
+    /**
+     * Game of the tables.
+     */
+    private Game game;
+
+    /**
+     * Age of the tables.
+     */
+    private int age;
+
+    /**
+     * Turn of the tables.
+     */
+    private int turn;
+
+    /**
+     * Dice value of each tower cell, by tower and then by cell.
+     */
+    private int[] towerCellValues;
+
+    /**
+     * Choices asked by each tower cell, by tower and then by cell.
+     */
+    private int[] towerCellChoices;
+
+    /**
+     * Dice value of each market cell.
+     */
+    private int[] marketCellValues;
+
+    /**
+     * Choices asked by each market cell.
+     */
+    private int[] marketCellChoices;
+
+    /**
+     * Dice value of the council palace.
+     */
+    private int councilPalaceValue;
+
+    /**
+     * Choices asked by the council palace.
+     */
+    private int councilPalaceChoices;
+
+    /**
+     * Dice value of each harvest and production space, in the order of the targets.
+     */
+    private final int[] harvestProductionValues = new int[MoveTarget.values().length];
+
+    /**
+     * Dice bonus of the player in each tower.
+     */
+    private int[] towerBonus;
+
+    /**
+     * Choices asked to the player in each tower.
+     */
+    private int[] towerChoices;
+
+    /**
+     * Generate the legal placements of the family members of a player.
+     * @param game to check.
+     * @param player that is performing the move.
+     * @param moves list to fill, cleared first.
+     * @return the list of moves.
+     */
+    public LegalMoves generate(Game game, Player player, LegalMoves moves){
+        moves.clear();
+        if (this.game != game || this.age != game.getAge() || this.turn != game.getTurn())
+            buildTables(game);
+
+        MainBoard mainBoard = game.getMainBoard();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        int slaves = personalBoard.getExcommunicationValues().getNumberOfSlaves();
+        int servants = personalBoard.getValuables().get(ResourceType.SERVANT);
+        int cells = mainBoard.getNumberOfTowerCells();
+        for (int tower = 0; tower < this.towerBonus.length; tower++){
+            DevelopmentCardColor color = mainBoard.getTower(tower).getColor();
+            this.towerBonus[tower] = personalBoard.getDevelopmentCardColorDiceValueBonus().get(color)
+                    - personalBoard.getExcommunicationValues().getDevelopmentCardDiceMalus(color);
+            this.towerChoices[tower] = personalBoard.getCostDiscountForDevelopmentCard(color).size() > 1 ? MoveChoice.DISCOUNT.mask() : 0;
+        }
+        int harvestBonus = personalBoard.getHarvestProductionDiceValueBonus().get(ActionType.HARVEST)
+                - personalBoard.getExcommunicationValues().getHarvestProductionDiceMalus(ActionType.HARVEST);
+        int productionBonus = personalBoard.getHarvestProductionDiceValueBonus().get(ActionType.PRODUCTION)
+                - personalBoard.getExcommunicationValues().getHarvestProductionDiceMalus(ActionType.PRODUCTION);
+        PersonalBoardTile personalBoardTile = personalBoard.getPersonalBoardTile();
+        int harvestChoices = choices(personalBoardTile == null ? null : personalBoardTile.getHarvestEffect(),
+                personalBoard.getCards(DevelopmentCardColor.GREEN));
+        int productionChoices = choices(personalBoardTile == null ? null : personalBoardTile.getProductionEffect(),
+                personalBoard.getCards(DevelopmentCardColor.YELLOW));
+
+        for (FamilyMemberColor familyMemberColor : COLORS){
+            if (personalBoard.familyMemberIsUsed(familyMemberColor))
+                continue;
+            int value = personalBoard.getFamilyMember().get(familyMemberColor);
+
+            for (int index = 0; index < this.towerCellValues.length; index++){
+                int tower = index / cells;
+                int spent = servantsFor(this.towerCellValues[index] - value - this.towerBonus[tower], 1, slaves);
+                if (spent > servants)
+                    continue;
+                MoveVerdict verdict = this.moveValidator.validateTower(game, player, familyMemberColor, spent, tower, index % cells);
+                if (verdict.isLegal())
+                    moves.add(familyMemberColor, spent, MoveTarget.TOWER, tower, index % cells, verdict.getDiscountIndex(),
+                            this.towerCellChoices[index] | this.towerChoices[tower]);
+            }
+
+            int spent = servantsFor(this.councilPalaceValue - value, 2, slaves);
+            if (spent <= servants && this.moveValidator.validateCouncilPalace(game, player, familyMemberColor, spent).isLegal())
+                moves.add(familyMemberColor, spent, MoveTarget.COUNCIL_PALACE, 0, 0, -1, this.councilPalaceChoices);
+
+            for (int cell = 0; cell < this.marketCellValues.length; cell++){
+                spent = servantsFor(this.marketCellValues[cell] - value, 2, slaves);
+                if (spent <= servants && this.moveValidator.validateMarket(game, player, familyMemberColor, spent, cell).isLegal())
+                    moves.add(familyMemberColor, spent, MoveTarget.MARKET, cell, 0, -1, this.marketCellChoices[cell]);
+            }
+
+            addHarvestProduction(game, player, moves, familyMemberColor, MoveTarget.HARVEST_SIMPLE, value + harvestBonus, servants, slaves, harvestChoices);
+            addHarvestProduction(game, player, moves, familyMemberColor, MoveTarget.PRODUCTION_SIMPLE, value + productionBonus, servants, slaves, productionChoices);
+            addHarvestProduction(game, player, moves, familyMemberColor, MoveTarget.HARVEST_EXTENDED, value + harvestBonus, servants, slaves, harvestChoices);
+            addHarvestProduction(game, player, moves, familyMemberColor, MoveTarget.PRODUCTION_EXTENDED, value + productionBonus, servants, slaves, productionChoices);
+        }
+        return moves;
+    }
+
+    /**
+     * Add the placement in a harvest or production space, if it is legal.
+     */
+    private void addHarvestProduction(Game game, Player player, LegalMoves moves, FamilyMemberColor familyMemberColor, MoveTarget target,
+                                      int value, int servants, int slaves, int choices){
+        int spent = servantsFor(this.harvestProductionValues[target.ordinal()] - value, 1, slaves);
+        if (spent > servants)
+            return;
+        if (target.validate(this.moveValidator, game, player, familyMemberColor, spent, 0, 0).isLegal())
+            moves.add(familyMemberColor, spent, target, 0, 0, -1, choices);
+    }
+
+    /**
+     * Get the fewest servants that add a value to a family member.
+     * @param missing value to add.
+     * @param valuePerServant value added by each servant that counts.
+     * @param slaves servants that count as one.
+     * @return the servants to spend.
+     */
+    private static int servantsFor(int missing, int valuePerServant, int slaves){
+        if (missing <= 0)
+            return 0;
+        return (missing + valuePerServant - 1) / valuePerServant * slaves;
+    }
+
+    /**
+     * Get the choices asked by an effect and by the permanent effects of some cards.
+     * @param effect of the personal board tile.
+     * @param cards whose permanent effects run.
+     * @return bitset of the choices.
+     */
+    private static int choices(Effect effect, List<DevelopmentCard> cards){
+        int choices = effect == null ? 0 : effect.getChoices();
+        for (int i = 0; i < cards.size(); i++)
+            if (cards.get(i).getPermanentEffect() != null)
+                choices |= cards.get(i).getPermanentEffect().getChoices();
+        return choices;
+    }
+
+    /**
+     * Build the tables of the action spaces for the current turn of a game.
+     * @param game of the tables.
+     */
+    private void buildTables(Game game){
+        MainBoard mainBoard = game.getMainBoard();
+        int towers = mainBoard.getNumberOfTowers();
+        int cells = mainBoard.getNumberOfTowerCells();
+        if (this.towerCellValues == null || this.towerCellValues.length != towers * cells){
+            this.towerCellValues = new int[towers * cells];
+            this.towerCellChoices = new int[towers * cells];
+            this.towerBonus = new int[towers];
+            this.towerChoices = new int[towers];
+        }
+        for (int tower = 0; tower < towers; tower++)
+            for (int cell = 0; cell < cells; cell++){
+                TowerCell towerCell = mainBoard.getTower(tower).getTowerCell(cell);
+                DevelopmentCard card = towerCell.getDevelopmentCard();
+                int choices = towerCell.getTowerCellImmediateEffect() == null ? 0 : towerCell.getTowerCellImmediateEffect().getChoices();
+                if (card != null && card.getImmediateEffect() != null)
+                    choices |= card.getImmediateEffect().getChoices();
+                if (card != null && card.getMultipleRequisiteSelectionEnabled() && !card.getCost().isEmpty())
+                    choices |= MoveChoice.DOUBLE_COST.mask();
+                this.towerCellValues[tower * cells + cell] = towerCell.getMinFamilyMemberValue();
+                this.towerCellChoices[tower * cells + cell] = choices;
+            }
+
+        MarketCell[] marketCells = mainBoard.getMarket().getMarketCells();
+        if (this.marketCellValues == null || this.marketCellValues.length != marketCells.length){
+            this.marketCellValues = new int[marketCells.length];
+            this.marketCellChoices = new int[marketCells.length];
+        }
+        for (int cell = 0; cell < marketCells.length; cell++){
+            this.marketCellValues[cell] = marketCells[cell].getMinFamilyMemberValue();
+            this.marketCellChoices[cell] = marketCells[cell].getMarketCellImmediateEffect().getChoices();
+        }
+
+        this.councilPalaceValue = mainBoard.getCouncilPalace().getMinFamilyMemberDiceValue();
+        this.councilPalaceChoices = mainBoard.getCouncilPalace().getImmediateEffect().getChoices();
+        this.harvestProductionValues[MoveTarget.HARVEST_SIMPLE.ordinal()] = mainBoard.getHarvest().getActionSpaceEffect().getDiceActionValue();
+        this.harvestProductionValues[MoveTarget.PRODUCTION_SIMPLE.ordinal()] = mainBoard.getProduction().getActionSpaceEffect().getDiceActionValue();
+        this.harvestProductionValues[MoveTarget.HARVEST_EXTENDED.ordinal()] = mainBoard.getHarvestExtended().getEffect().getDiceActionValue()
+                + mainBoard.getHarvestExtended().getDiceValueMalus();
+        this.harvestProductionValues[MoveTarget.PRODUCTION_EXTENDED.ordinal()] = mainBoard.getProductionExtended().getEffect().getDiceActionValue()
+                + mainBoard.getProductionExtended().getDiceValueMalus();
+
+        this.game = game;
+        this.age = game.getAge();
+        this.turn = game.getTurn();
+    }
+
+}
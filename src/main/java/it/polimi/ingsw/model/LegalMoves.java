@@ -0,0 +1,205 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.GameException;
+
+import java.util.Arrays;
+
+/**
+ * This class is a list of the legal moves of a player, filled by a {@link LegalMoveGenerator}.
+ * Moves are kept in arrays of ints, one per field, so a list is filled again without allocating.
+ */
+public final class LegalMoves {
+
+    /**
+     * Family member colors, in array order.
+     */
+    private static final FamilyMemberColor[] COLORS = FamilyMemberColor.values();
+
+    /**
+     * Action spaces, in array order.
+     */
+    private static final MoveTarget[] TARGETS = MoveTarget.values();
+
+    /**
+     * Family member color of each move.
+     */
+    private int[] colors = new int[32];
+
+    /**
+     * Servants spent by each move.
+     */
+    private int[] servants = new int[32];
+
+    /**
+     * Action space of each move.
+     */
+    private int[] targets = new int[32];
+
+    /**
+     * Index of the tower or of the market cell of each move.
+     */
+    private int[] spaces = new int[32];
+
+    /**
+     * Index of the tower cell of each move.
+     */
+    private int[] cells = new int[32];
+
+    /**
+     * Discount of the personal board to choose in each move, -1 if there are no discounts.
+     */
+    private int[] discounts = new int[32];
+
+    /**
+     * Choices asked by each move, as a bitset.
+     */
+    private int[] choices = new int[32];
+
+    /**
+     * Number of moves.
+     */
+    private int size;
+
+    /**
+     * Get the number of moves.
+     * @return the number of moves.
+     */
+    public int size(){
+        return this.size;
+    }
+
+    /**
+     * Check if there are no legal moves.
+     * @return true if the list is empty.
+     */
+    public boolean isEmpty(){
+        return this.size == 0;
+    }
+
+    /**
+     * Get the family member color of a move.
+     * @param index of the move.
+     * @return the color.
+     */
+    public FamilyMemberColor getFamilyMemberColor(int index){
+        return COLORS[this.colors[index]];
+    }
+
+    /**
+     * Get the servants spent by a move: the fewest that make it legal.
+     * @param index of the move.
+     * @return the number of servants.
+     */
+    public int getServants(int index){
+        return this.servants[index];
+    }
+
+    /**
+     * Get the action space of a move.
+     * @param index of the move.
+     * @return the action space.
+     */
+    public MoveTarget getTarget(int index){
+        return TARGETS[this.targets[index]];
+    }
+
+    /**
+     * Get the index of the tower or of the market cell of a move.
+     * @param index of the move.
+     * @return the index of the space, 0 for the other action spaces.
+     */
+    public int getSpace(int index){
+        return this.spaces[index];
+    }
+
+    /**
+     * Get the index of the tower cell of a move.
+     * @param index of the move.
+     * @return the index of the cell, 0 for the other action spaces.
+     */
+    public int getCell(int index){
+        return this.cells[index];
+    }
+
+    /**
+     * Get the discount of the personal board that makes the card of a move affordable.
+     * @param index of the move.
+     * @return the index of the discount, -1 if there are no discounts.
+     */
+    public int getDiscountIndex(int index){
+        return this.discounts[index];
+    }
+
+    /**
+     * Check if a move asks a choice to the player.
+     * @param index of the move.
+     * @param choice to check.
+     * @return true if the move may ask the choice.
+     */
+    public boolean requires(int index, MoveChoice choice){
+        return (this.choices[index] & choice.mask()) != 0;
+    }
+
+    /**
+     * Check if a move asks any choice to the player.
+     * @param index of the move.
+     * @return true if the move may ask a choice.
+     */
+    public boolean requiresChoices(int index){
+        return this.choices[index] != 0;
+    }
+
+    /**
+     * Perform a move.
+     * @param index of the move.
+     * @param game where the move is performed.
+     * @param player the player that is performing the action.
+     * @param informationCallback interface to manage actions that requires multiple interactions with the user.
+     * @throws GameException if the move is not legal anymore.
+     */
+    public void perform(int index, Game game, Player player, InformationCallback informationCallback) throws GameException{
+        getTarget(index).perform(game, player, getFamilyMemberColor(index), this.servants[index], this.spaces[index],
+                this.cells[index], informationCallback);
+    }
+
+    /**
+     * Remove all the moves.
+     */
+    /*package-local*/ void clear(){
+        this.size = 0;
+    }
+
+    /**
+     * Add a move.
+     */
+    /*package-local*/ void add(FamilyMemberColor familyMemberColor, int servants, MoveTarget target, int space, int cell, int discount, int choices){
+        if (this.size == this.colors.length){
+            int capacity = this.size * 2;
+            this.colors = Arrays.copyOf(this.colors, capacity);
+            this.servants = Arrays.copyOf(this.servants, capacity);
+            this.targets = Arrays.copyOf(this.targets, capacity);
+            this.spaces = Arrays.copyOf(this.spaces, capacity);
+            this.cells = Arrays.copyOf(this.cells, capacity);
+            this.discounts = Arrays.copyOf(this.discounts, capacity);
+            this.choices = Arrays.copyOf(this.choices, capacity);
+        }
+        this.colors[this.size] = familyMemberColor.ordinal();
+        this.servants[this.size] = servants;
+        this.targets[this.size] = target.ordinal();
+        this.spaces[this.size] = space;
+        this.cells[this.size] = cell;
+        this.discounts[this.size] = discount;
+        this.choices[this.size] = choices;
+        this.size++;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < this.size; i++)
+            stringBuilder.append(getFamilyMemberColor(i) + " " + getTarget(i) + " " + this.spaces[i] + " " + this.cells[i]
+                    + " servants=" + this.servants[i] + "\n");
+        return stringBuilder.toString();
+    }
+
+}
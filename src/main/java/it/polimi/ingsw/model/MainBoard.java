@@ -115,6 +115,13 @@ public class MainBoard implements Serializable{
         return this.vatican;
     }
 
+    /**
+     * Method to set the Vatican
+     */
+    /*package-local*/ void setVatican(Vatican vatican){
+        this.vatican = vatican;
+    }
+
     /**
      * Method to get the CouncilPalace
      */
@@ -129,6 +136,13 @@ public class MainBoard implements Serializable{
         return this.harvest;
     }
 
+    /**
+     * Method to set the Harvest
+     */
+    /*package-local*/ void setHarvest(ActionSpace harvest){
+        this.harvest = harvest;
+    }
+
     /**
      * Method to get the Production
      */
@@ -136,6 +150,13 @@ public class MainBoard implements Serializable{
         return this.production;
     }
 
+    /**
+     * Method to set the Production
+     */
+    /*package-local*/ void setProduction(ActionSpace production){
+        this.production = production;
+    }
+
     /**
      * Method to get the HarvestExtended
      */
@@ -143,6 +164,13 @@ public class MainBoard implements Serializable{
         return this.harvestExtended;
     }
 
+    /**
+     * Method to set the HarvestExtended
+     */
+    /*package-local*/ void setHarvestExtended(ActionSpaceExtended harvestExtended){
+        this.harvestExtended = harvestExtended;
+    }
+
     /**
      * Method to get the ProductionExtended
      */
@@ -150,6 +178,13 @@ public class MainBoard implements Serializable{
         return this.productionExtended;
     }
 
+    /**
+     * Method to set the ProductionExtended
+     */
+    /*package-local*/ void setProductionExtended(ActionSpaceExtended productionExtended){
+        this.productionExtended = productionExtended;
+    }
+
     /**
      * Method to get the market
      */
@@ -33,6 +33,15 @@ public class Market implements Serializable{
         return this.marketCells[index];
     }
 
+    /**
+     * Replace a specific market cell.
+     * @param index of the cell.
+     * @param marketCell to set.
+     */
+    /*package-local*/ void replaceMarketCell(int index, MarketCell marketCell){
+        this.marketCells[index] = marketCell;
+    }
+
     /**
      * Get all the market cells
      */
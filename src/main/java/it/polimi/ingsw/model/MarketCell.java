@@ -55,6 +55,15 @@ public class MarketCell implements Serializable{
         this.empty = true;
     }
 
+    /**
+     * Save the state of the cell in an undo log
+     * @param undoLog of the move
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        boolean wasEmpty = this.empty;
+        undoLog.save(() -> this.empty = wasEmpty);
+    }
+
     /**
      * Checks if the cell is accessible
      */
@@ -104,7 +113,7 @@ public class MarketCell implements Serializable{
         }
 
         //check that the family member value is greater or equal than the minFamilyMemberDiceValue requested
-        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor) + servants;
+        int familyMemberValueTot = player.getPersonalBoard().getFamilyMember().get(familyMemberColor) + servants;
         if (familyMemberValueTot < this.minFamilyMemberValue){
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
         }
@@ -0,0 +1,40 @@
+package it.polimi.ingsw.model;
+
+/**
+ * This enumeration is a choice that a move asks to the player through the {@link InformationCallback}.
+ * Choices of a move are kept as a bitset of their masks.
+ */
+public enum MoveChoice {
+    /**
+     * Privileges of the council to pick
+     */
+    COUNCIL_PRIVILEGE,
+
+    /**
+     * Cost of a card with an alternative military cost
+     */
+    DOUBLE_COST,
+
+    /**
+     * Discount of the personal board to apply on a card
+     */
+    DISCOUNT,
+
+    /**
+     * New card to pick up from a tower
+     */
+    NEW_CARD,
+
+    /**
+     * Exchange of a production card with more than one exchange
+     */
+    EXCHANGE;
+
+    /**
+     * Get the bit of the choice
+     * @return bit mask
+     */
+    public int mask(){
+        return 1 << ordinal();
+    }
+}
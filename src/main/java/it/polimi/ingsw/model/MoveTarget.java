@@ -0,0 +1,112 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.GameException;
+
+/**
+ * This enumeration is the action space where a move places a family member.
+ */
+public enum MoveTarget {
+    /**
+     * Cell of a tower, picking up its card
+     */
+    TOWER,
+
+    /**
+     * Council palace
+     */
+    COUNCIL_PALACE,
+
+    /**
+     * Cell of the market
+     */
+    MARKET,
+
+    /**
+     * Simple harvest space
+     */
+    HARVEST_SIMPLE,
+
+    /**
+     * Simple production space
+     */
+    PRODUCTION_SIMPLE,
+
+    /**
+     * Extended harvest space
+     */
+    HARVEST_EXTENDED,
+
+    /**
+     * Extended production space
+     */
+    PRODUCTION_EXTENDED;
+
+    /**
+     * Check a move on this action space without changing the game
+     * @param moveValidator that checks the move
+     * @param game where the move would be performed
+     * @param player the player that is performing the action
+     * @param familyMemberColor of the family member
+     * @param servants to spend
+     * @param space index of the tower or of the market cell
+     * @param cell index of the tower cell
+     * @return the verdict of the validator
+     */
+    public MoveVerdict validate(MoveValidator moveValidator, Game game, Player player, FamilyMemberColor familyMemberColor,
+                                int servants, int space, int cell){
+        switch (this){
+            case TOWER:
+                return moveValidator.validateTower(game, player, familyMemberColor, servants, space, cell);
+            case COUNCIL_PALACE:
+                return moveValidator.validateCouncilPalace(game, player, familyMemberColor, servants);
+            case MARKET:
+                return moveValidator.validateMarket(game, player, familyMemberColor, servants, space);
+            case HARVEST_SIMPLE:
+                return moveValidator.validateHarvestProductionSimple(game, player, ActionType.HARVEST, familyMemberColor, servants);
+            case PRODUCTION_SIMPLE:
+                return moveValidator.validateHarvestProductionSimple(game, player, ActionType.PRODUCTION, familyMemberColor, servants);
+            case HARVEST_EXTENDED:
+                return moveValidator.validateHarvestProductionExtended(game, player, ActionType.HARVEST, familyMemberColor, servants);
+            default:
+                return moveValidator.validateHarvestProductionExtended(game, player, ActionType.PRODUCTION, familyMemberColor, servants);
+        }
+    }
+
+    /**
+     * Perform a move on this action space
+     * @param game where the move is performed
+     * @param player the player that is performing the action
+     * @param familyMemberColor of the family member
+     * @param servants to spend
+     * @param space index of the tower or of the market cell
+     * @param cell index of the tower cell
+     * @param informationCallback interface to manage actions that requires multiple interactions with the user
+     * @throws GameException if the move is not legal
+     */
+    public void perform(Game game, Player player, FamilyMemberColor familyMemberColor, int servants, int space, int cell,
+                        InformationCallback informationCallback) throws GameException{
+        switch (this){
+            case TOWER:
+                game.pickupDevelopmentCardFromTower(player, familyMemberColor, servants, space, cell, informationCallback);
+                break;
+            case COUNCIL_PALACE:
+                game.placeFamilyMemberInsideCouncilPalace(player, familyMemberColor, servants, informationCallback);
+                break;
+            case MARKET:
+                game.placeFamilyMemberInsideMarket(player, familyMemberColor, servants, space, informationCallback);
+                break;
+            case HARVEST_SIMPLE:
+                game.placeFamilyMemberInsideHarvestSimpleSpace(player, familyMemberColor, servants, informationCallback);
+                break;
+            case PRODUCTION_SIMPLE:
+                game.placeFamilyMemberInsideProductionSimpleSpace(player, familyMemberColor, servants, informationCallback);
+                break;
+            case HARVEST_EXTENDED:
+                game.placeFamilyMemberInsideHarvestExtendedSpace(player, familyMemberColor, servants, informationCallback);
+                break;
+            default:
+                game.placeFamilyMemberInsideProductionExtendedSpace(player, familyMemberColor, servants, informationCallback);
+                break;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.GameErrorType;
+import it.polimi.ingsw.model.effects.LEPicoDellaMirandola;
+
+import java.util.List;
+
+/**
+ * This class checks the moves of a player without changing the game.
+ * It runs the checks of the moves of {@link Game} in the same order, on the state before the move, so a client can
+ * refuse a move before asking the choices and sending it, and the server before opening its transaction.
+ * The result is a {@link MoveVerdict} owned by the validator and overwritten by the next check: a check allocates
+ * nothing, so a validator must not be shared between threads.
+ */
+public final class MoveValidator {
+
+    /**
+     * Resource types, in array order.
+     */
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+
+    /**
+     * Coins to pay to place a family member in a tower already occupied.
+     */
+    private static final int OCCUPIED_TOWER_COINS = 3;
+
+    /**
+     * Max number of cards of a color before the personal board is full.
+     */
+    private static final int MAX_CARDS_PER_COLOR = 6;
+
+    /**
+     * Result of the last check.
+     */
+    private final MoveVerdict verdict = new MoveVerdict();
+
+    /**
+     * Check the placement of a family member in a tower cell to pick up its card.
+     * @param game to check.
+     * @param player that is performing the action.
+     * @param familyMemberColor of the family member.
+     * @param servants to spend.
+     * @param indexTower the index of the tower.
+     * @param indexCell the index of the cell.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateTower(Game game, Player player, FamilyMemberColor familyMemberColor, int servants, int indexTower, int indexCell){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        Tower tower = game.getMainBoard().getTower(indexTower);
+        TowerCell cell = tower.getTowerCell(indexCell);
+
+        if (personalBoard.getValuables().get(ResourceType.SERVANT) < servants)
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        int servantsValue = servants / personalBoard.getExcommunicationValues().getNumberOfSlaves();
+
+        if (cell.getPlayerNicknameInTheCell() != null && !personalBoard.getAlwaysPlaceFamilyMemberInsideActionSpace())
+            return this.verdict.reject(GameErrorType.TOWER_CELL_BUSY);
+        if (personalBoard.familyMemberIsUsed(familyMemberColor))
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
+        for (TowerCell towerCell : tower.getTowerCells())
+            if (player.getUsername().equals(towerCell.getPlayerNicknameInTheCell()))
+                return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_PLACED);
+
+        DevelopmentCard card = cell.getDevelopmentCard();
+        this.verdict.setDiceValue(personalBoard.getFamilyMember().get(familyMemberColor) + servantsValue
+                + personalBoard.getDevelopmentCardColorDiceValueBonus().get(card.getColor())
+                - personalBoard.getExcommunicationValues().getDevelopmentCardDiceMalus(card.getColor()));
+        if (this.verdict.getDiceValue() < cell.getMinFamilyMemberValue())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+
+        int coins = 0;
+        if (!tower.isFree() && !personalBoard.hasLeaderAbility(LeaderAbility.FILIPPO_BRUNELLESCHI)){
+            if (personalBoard.getValuables().get(ResourceType.COIN) < OCCUPIED_TOWER_COINS)
+                return this.verdict.reject(GameErrorType.TOWER_COST);
+            coins = OCCUPIED_TOWER_COINS;
+        }
+
+        if (personalBoard.getCards(card.getColor()).size() > MAX_CARDS_PER_COLOR)
+            return this.verdict.reject(GameErrorType.PERSONAL_BOARD_MAX_CARD_LIMIT_REACHED);
+        List<PointsAndResources> discounts = personalBoard.getCostDiscountForDevelopmentCard(card.getColor());
+        PointsAndResources discount = null;
+        for (int i = 0; i < discounts.size() && discount == null; i++)
+            if (canPay(personalBoard, card, discounts.get(i), servantsValue, coins)){
+                discount = discounts.get(i);
+                this.verdict.setDiscountIndex(i);
+            }
+        if (discount == null && (!discounts.isEmpty() || !canPay(personalBoard, card, null, servantsValue, coins)))
+            return this.verdict.reject(GameErrorType.PLAYER_RESOURCES_ERROR);
+        if (card.getColor() == DevelopmentCardColor.GREEN && personalBoard.getValuables().get(PointType.MILITARY)
+                < personalBoard.getGreenCardsMilitaryPointsRequirements(personalBoard.getCards(DevelopmentCardColor.GREEN).size()))
+            return this.verdict.reject(GameErrorType.MILITARY_POINTS_REQUIRED);
+
+        setCost(personalBoard, card, discount);
+        this.verdict.getCost().increase(ResourceType.COIN, coins);
+        return this.verdict;
+    }
+
+    /**
+     * Check the pick up of the card of a tower cell granted by an effect, with its own dice value and discount.
+     * @param player that is performing the action.
+     * @param cell of the card.
+     * @param diceValue granted by the effect.
+     * @param discount granted by the effect.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateCard(Player player, TowerCell cell, int diceValue, PointsAndResources discount){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        DevelopmentCard card = cell.getDevelopmentCard();
+
+        if (cell.getPlayerNicknameInTheCell() != null)
+            return this.verdict.reject(GameErrorType.TOWER_CELL_BUSY);
+        this.verdict.setDiceValue(diceValue + personalBoard.getDevelopmentCardColorDiceValueBonus().get(card.getColor())
+                - personalBoard.getExcommunicationValues().getDevelopmentCardDiceMalus(card.getColor()));
+        if (this.verdict.getDiceValue() < cell.getMinFamilyMemberValue())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        if (!canPay(personalBoard, card, discount, 0, 0))
+            return this.verdict.reject(GameErrorType.PLAYER_RESOURCES_ERROR);
+
+        setCost(personalBoard, card, discount);
+        return this.verdict;
+    }
+
+    /**
+     * Check the placement of a family member in the council palace.
+     * @param game to check.
+     * @param player that is performing the action.
+     * @param familyMemberColor of the family member.
+     * @param servants to spend.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateCouncilPalace(Game game, Player player, FamilyMemberColor familyMemberColor, int servants){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+
+        if (personalBoard.getValuables().get(ResourceType.SERVANT) < servants)
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        int servantsValue = servants / personalBoard.getExcommunicationValues().getNumberOfSlaves();
+
+        if (personalBoard.familyMemberIsUsed(familyMemberColor))
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
+        // The palace adds the servants to the value already increased by them, as in the move.
+        this.verdict.setDiceValue(personalBoard.getFamilyMember().get(familyMemberColor) + servantsValue + servantsValue);
+        if (this.verdict.getDiceValue() < game.getMainBoard().getCouncilPalace().getMinFamilyMemberDiceValue())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        return this.verdict;
+    }
+
+    /**
+     * Check the placement of a family member in a market cell.
+     * @param game to check.
+     * @param player that is performing the action.
+     * @param familyMemberColor of the family member.
+     * @param servants to spend.
+     * @param indexMarket the index of the market cell.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateMarket(Game game, Player player, FamilyMemberColor familyMemberColor, int servants, int indexMarket){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        MarketCell cell = game.getMainBoard().getMarket().getMarketCell(indexMarket);
+
+        if (personalBoard.getValuables().get(ResourceType.SERVANT) < servants)
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        int servantsValue = servants / personalBoard.getExcommunicationValues().getNumberOfSlaves();
+
+        if (!(cell.isEmpty() || personalBoard.getAlwaysPlaceFamilyMemberInsideActionSpace())
+                || !personalBoard.getExcommunicationValues().getMarketIsAvailable())
+            return this.verdict.reject(GameErrorType.MARKET_CELL_BUSY);
+        if (personalBoard.familyMemberIsUsed(familyMemberColor))
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
+        // The cell adds the servants to the value already increased by them, as in the move.
+        this.verdict.setDiceValue(personalBoard.getFamilyMember().get(familyMemberColor) + servantsValue + servantsValue);
+        if (this.verdict.getDiceValue() < cell.getMinFamilyMemberValue())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        return this.verdict;
+    }
+
+    /**
+     * Check the placement of a family member in the simple harvest or production space.
+     * @param game to check.
+     * @param player that is performing the action.
+     * @param actionType harvest or production.
+     * @param familyMemberColor of the family member.
+     * @param servants to spend.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateHarvestProductionSimple(Game game, Player player, ActionType actionType, FamilyMemberColor familyMemberColor, int servants){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        MainBoard mainBoard = game.getMainBoard();
+        ActionSpace actionSpace = actionType == ActionType.HARVEST ? mainBoard.getHarvest() : mainBoard.getProduction();
+
+        if (personalBoard.getValuables().get(ResourceType.SERVANT) < servants)
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        int servantsValue = servants / personalBoard.getExcommunicationValues().getNumberOfSlaves();
+
+        if (!actionSpace.isEmpty() && !personalBoard.getAlwaysPlaceFamilyMemberInsideActionSpace())
+            return this.verdict.reject(GameErrorType.ACTIONS_SPACE_NOT_ACCESSIBLE);
+        // The move checks the extended production space for both actions.
+        FamilyMemberColor other = mainBoard.getProductionExtended().getFamilyMemberColor(player.getUsername());
+        if (familyMemberColor != FamilyMemberColor.NEUTRAL && other != null && other != FamilyMemberColor.NEUTRAL)
+            return this.verdict.reject(GameErrorType.GENERIC_ERROR);
+        if (personalBoard.familyMemberIsUsed(familyMemberColor))
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
+
+        this.verdict.setDiceValue(harvestProductionDiceValue(personalBoard, actionType, familyMemberColor, servantsValue));
+        if (this.verdict.getDiceValue() < actionSpace.getActionSpaceEffect().getDiceActionValue())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        return this.verdict;
+    }
+
+    /**
+     * Check the placement of a family member in the extended harvest or production space.
+     * @param game to check.
+     * @param player that is performing the action.
+     * @param actionType harvest or production.
+     * @param familyMemberColor of the family member.
+     * @param servants to spend.
+     * @return the verdict, valid until the next check.
+     */
+    public MoveVerdict validateHarvestProductionExtended(Game game, Player player, ActionType actionType, FamilyMemberColor familyMemberColor, int servants){
+        this.verdict.reset();
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        MainBoard mainBoard = game.getMainBoard();
+        ActionSpaceExtended actionSpaceExtended = actionType == ActionType.HARVEST ? mainBoard.getHarvestExtended() : mainBoard.getProductionExtended();
+
+        if (personalBoard.getValuables().get(ResourceType.SERVANT) < servants)
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        int servantsValue = servants / personalBoard.getExcommunicationValues().getNumberOfSlaves();
+
+        if (!actionSpaceExtended.isAccessible() && !personalBoard.getAlwaysPlaceFamilyMemberInsideActionSpace())
+            return this.verdict.reject(GameErrorType.ACTIONS_SPACE_NOT_ACCESSIBLE);
+        // The move checks the simple production space for both actions.
+        ActionSpace other = mainBoard.getProduction();
+        if (player.getUsername().equals(other.getUsername()) && familyMemberColor != FamilyMemberColor.NEUTRAL
+                && other.getFamilyMemberColor() != FamilyMemberColor.NEUTRAL)
+            return this.verdict.reject(GameErrorType.GENERIC_ERROR);
+        if (personalBoard.familyMemberIsUsed(familyMemberColor))
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_ALREADY_USED);
+
+        this.verdict.setDiceValue(harvestProductionDiceValue(personalBoard, actionType, familyMemberColor, servantsValue));
+        if (this.verdict.getDiceValue() < actionSpaceExtended.getEffect().getDiceActionValue() + actionSpaceExtended.getDiceValueMalus())
+            return this.verdict.reject(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
+        return this.verdict;
+    }
+
+    /**
+     * Get the value of a family member in a harvest or production space.
+     * @param personalBoard of the player.
+     * @param actionType harvest or production.
+     * @param familyMemberColor of the family member.
+     * @param servantsValue value added by the servants.
+     * @return the value.
+     */
+    private static int harvestProductionDiceValue(PersonalBoard personalBoard, ActionType actionType, FamilyMemberColor familyMemberColor, int servantsValue){
+        return personalBoard.getFamilyMember().get(familyMemberColor) + servantsValue
+                + personalBoard.getHarvestProductionDiceValueBonus().get(actionType)
+                - personalBoard.getExcommunicationValues().getHarvestProductionDiceMalus(actionType);
+    }
+
+    /**
+     * Check if the player has resources enough to buy a card, as the tower cell checks it.
+     * @param personalBoard of the player.
+     * @param card to buy.
+     * @param discount on the cost, null if there is none.
+     * @param servants already spent by the move.
+     * @param coins already spent by the move.
+     * @return true if the card can be bought.
+     */
+    private static boolean canPay(PersonalBoard personalBoard, DevelopmentCard card, PointsAndResources discount, int servants, int coins){
+        PointsAndResources valuables = personalBoard.getValuables();
+        if (card.getMultipleRequisiteSelectionEnabled()){
+            if (valuables.get(PointType.MILITARY) >= card.getMilitaryPointsRequired())
+                return true;
+            if (card.getCost().isEmpty())
+                return false;
+        }
+        for (ResourceType type : RESOURCE_TYPES){
+            int available = valuables.get(type);
+            if (type == ResourceType.SERVANT)
+                available -= servants;
+            else if (type == ResourceType.COIN)
+                available -= coins;
+            if (card.getCost().get(type) - (discount == null ? 0 : discount.get(type)) > available)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Set the cost of the verdict to the resources paid for a card, after the discount of Pico della Mirandola and
+     * the discount of the move.
+     * @param personalBoard of the player.
+     * @param card to buy.
+     * @param discount on the cost, null if there is none.
+     */
+    private void setCost(PersonalBoard personalBoard, DevelopmentCard card, PointsAndResources discount){
+        PointsAndResources cost = this.verdict.getCost();
+        cost.add(card.getCost());
+        LeaderCard leaderCard = personalBoard.getLeaderCardWithAbility(LeaderAbility.PICO_DELLA_MIRANDOLA);
+        if (leaderCard != null){
+            int coins = cost.get(ResourceType.COIN);
+            cost.decrease(ResourceType.COIN, coins >= 3 ? ((LEPicoDellaMirandola) leaderCard.getEffect()).getMoneyDiscount() : coins);
+        }
+        for (ResourceType type : RESOURCE_TYPES){
+            int amount = cost.get(type) - (discount == null ? 0 : discount.get(type));
+            cost.decrease(type, cost.get(type) - Math.max(amount, 0));
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package it.polimi.ingsw.model;
+
+import it.polimi.ingsw.exceptions.GameErrorType;
+
+/**
+ * This class is the result of a check of a {@link MoveValidator}.
+ * It is owned by the validator and overwritten by its next check, so it must be read before checking another move.
+ */
+public final class MoveVerdict {
+
+    /**
+     * Reason of the refusal, null if the move is legal.
+     */
+    private GameErrorType error;
+
+    /**
+     * Value of the family member in the space, with servants, bonuses and malus.
+     */
+    private int diceValue;
+
+    /**
+     * Resources paid for the space after the discounts.
+     */
+    private final PointsAndResources cost = new PointsAndResources();
+
+    /**
+     * Index of the discount of the personal board that makes the card affordable, -1 if there are no discounts.
+     */
+    private int discountIndex;
+
+    /**
+     * Class constructor.
+     */
+    /*package-local*/ MoveVerdict(){
+        reset();
+    }
+
+    /**
+     * Check if the move is legal.
+     * @return true if the move can be performed.
+     */
+    public boolean isLegal(){
+        return this.error == null;
+    }
+
+    /**
+     * Get the reason of the refusal.
+     * @return the error, null if the move is legal.
+     */
+    public GameErrorType getError(){
+        return this.error;
+    }
+
+    /**
+     * Get the value of the family member in the space, with servants, bonuses and malus.
+     * @return the value, 0 if the move was refused before computing it.
+     */
+    public int getDiceValue(){
+        return this.diceValue;
+    }
+
+    /**
+     * Get the resources paid for the space: the cost of the card after the leader and personal board discounts, and
+     * the coins of an occupied tower. A card with an alternative military cost may be paid with points instead.
+     * @return the cost, empty if the space has no cost.
+     */
+    public PointsAndResources getCost(){
+        return this.cost;
+    }
+
+    /**
+     * Get the discount of the personal board to choose to afford the card.
+     * @return the index of the discount, -1 if there are no discounts.
+     */
+    public int getDiscountIndex(){
+        return this.discountIndex;
+    }
+
+    /**
+     * Clear the result of the previous check.
+     */
+    /*package-local*/ void reset(){
+        this.error = null;
+        this.diceValue = 0;
+        this.cost.clear();
+        this.discountIndex = -1;
+    }
+
+    /**
+     * Set the value of the family member in the space.
+     * @param diceValue of the family member.
+     */
+    /*package-local*/ void setDiceValue(int diceValue){
+        this.diceValue = diceValue;
+    }
+
+    /**
+     * Set the discount of the personal board to choose.
+     * @param discountIndex of the discount.
+     */
+    /*package-local*/ void setDiscountIndex(int discountIndex){
+        this.discountIndex = discountIndex;
+    }
+
+    /**
+     * Refuse the move.
+     * @param error reason of the refusal.
+     * @return this verdict.
+     */
+    /*package-local*/ MoveVerdict reject(GameErrorType error){
+        this.error = error;
+        return this;
+    }
+
+}
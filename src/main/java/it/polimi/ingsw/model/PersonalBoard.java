@@ -1,6 +1,5 @@
 package it.polimi.ingsw.model;
 
-import it.polimi.ingsw.model.effects.LELorenzoDeMedici;
 import it.polimi.ingsw.utility.Configuration;
 
 import java.io.Serializable;
@@ -63,6 +62,22 @@ public class PersonalBoard implements Serializable {
     private ArrayList<LeaderCard> leaderCards = new ArrayList<>();
     private ArrayList<ExcommunicationCard> excommunicationCards = new ArrayList<>();
 
+    /**
+     * Names of the leader cards whose effect is active in this turn. Leader cards are shared by all the games,
+     * so their state in a game is kept on the personal board of their owner.
+     */
+    private ArrayList<String> activeLeaderCards = new ArrayList<>();
+
+    /**
+     * Abilities of the active leader cards, a bit per {@link LeaderAbility}.
+     */
+    private int activeAbilities;
+
+    /**
+     * Name of the leader card copied by Lorenzo de' Medici in this turn, null if none.
+     */
+    private String copiedLeaderCard;
+
     /**
      * keeps track of all the excommunication malus the player has
      */
@@ -88,6 +103,7 @@ public class PersonalBoard implements Serializable {
 
         this.familyMembersUsed = new ArrayList<>();
         this.leaderCards = new ArrayList<>();
+        this.activeLeaderCards = new ArrayList<>();
         this.excommunicationCards = new ArrayList<>();
         this.excommunicationValues = new ExcommunicationValues();
     }
@@ -144,14 +160,21 @@ public class PersonalBoard implements Serializable {
         return this.familyMembersUsed;
     }
 
+    /**
+     * Replace the array of family members already used by the player
+     */
+    /*package-local*/ void replaceFamilyMembersUsed(List<FamilyMemberColor> familyMembersUsed) {
+        this.familyMembersUsed = new ArrayList<>(familyMembersUsed);
+    }
+
     /**
      * Return true if a family member is already used.
      * @param familyMemberColor to check.
      * @return boolean.
      */
     public boolean familyMemberIsUsed(FamilyMemberColor familyMemberColor) {
-        for (FamilyMemberColor color : familyMembersUsed)
-            if (familyMemberColor.equals(color))
+        for (int i = 0; i < familyMembersUsed.size(); i++)
+            if (familyMemberColor.equals(familyMembersUsed.get(i)))
                 return true;
         return false;
     }
@@ -221,6 +244,26 @@ public class PersonalBoard implements Serializable {
         return Collections.emptyList();
     }
 
+    /**
+     * Replace the cards owned by the player of a color
+     */
+    /*package-local*/ void replaceCards(DevelopmentCardColor developmentCardColor, List<DevelopmentCard> cards) {
+        switch (developmentCardColor) {
+            case GREEN:
+                this.territoryCards = new ArrayList<>(cards);
+                break;
+            case YELLOW:
+                this.buildingCards = new ArrayList<>(cards);
+                break;
+            case PURPLE:
+                this.ventureCards = new ArrayList<>(cards);
+                break;
+            case BLUE:
+                this.characterCards = new ArrayList<>(cards);
+                break;
+        }
+    }
+
 
     /**
      * Set points and resources
@@ -278,9 +321,9 @@ public class PersonalBoard implements Serializable {
             for (PointsAndResources discountToAdd : valuables) {
                 PointsAndResources newDiscount = oldDiscounts;
                 for (ResourceType resourceType : ResourceType.values())
-                    newDiscount.increase(resourceType, discountToAdd.getResources().get(resourceType));
+                    newDiscount.increase(resourceType, discountToAdd.get(resourceType));
                 for (PointType pointType : PointType.values())
-                    newDiscount.increase(pointType, discountToAdd.getPoints().get(pointType));
+                    newDiscount.increase(pointType, discountToAdd.get(pointType));
                 newDiscounts.add(newDiscount);
             }
         }
@@ -305,9 +348,9 @@ public class PersonalBoard implements Serializable {
      * This method checks if the player has a particular leader card per name and returns it
      */
     public LeaderCard getLeaderCardWithName(String name) {
-        for (LeaderCard card : this.leaderCards) {
-            if (card.getLeaderCardName().equals(name)) {
-                return card;
+        for (int i = 0; i < this.leaderCards.size(); i++) {
+            if (this.leaderCards.get(i).getLeaderCardName().equals(name)) {
+                return this.leaderCards.get(i);
             }
         }
         return null;
@@ -320,6 +363,95 @@ public class PersonalBoard implements Serializable {
         this.leaderCards.add(leaderCard);
     }
 
+    /**
+     * This method replaces the array of leader cards
+     */
+    /*package-local*/ void replaceLeaderCards(List<LeaderCard> leaderCards) {
+        this.leaderCards = new ArrayList<>(leaderCards);
+    }
+
+    /**
+     * Check if the effect of a leader card of the player is active in this turn
+     * @param leaderCardName name of the leader card
+     * @return true if the player has the card and its effect is active
+     */
+    public boolean isLeaderEffectActive(String leaderCardName) {
+        return this.activeLeaderCards.contains(leaderCardName);
+    }
+
+    /**
+     * Set the effect of a leader card of the player as active until the end of the turn
+     * @param leaderCardName name of the leader card
+     */
+    public void setLeaderEffectActive(String leaderCardName) {
+        if (!this.activeLeaderCards.contains(leaderCardName)) {
+            this.activeLeaderCards.add(leaderCardName);
+            LeaderAbility ability = LeaderAbility.of(leaderCardName);
+            if (ability != null)
+                this.activeAbilities |= ability.mask();
+        }
+    }
+
+    /**
+     * Check if a leader card with an ability is active in this turn
+     * @param ability to check
+     * @return true if the ability is active
+     */
+    public boolean hasLeaderAbility(LeaderAbility ability) {
+        return (this.activeAbilities & ability.mask()) != 0;
+    }
+
+    /**
+     * Get the active leader card with an ability
+     * @param ability of the card
+     * @return the card, null if the ability is not active
+     */
+    public LeaderCard getLeaderCardWithAbility(LeaderAbility ability) {
+        return hasLeaderAbility(ability) ? getLeaderCardWithName(ability.getLeaderCardName()) : null;
+    }
+
+    /**
+     * Get the names of the leader cards whose effect is active in this turn
+     * @return names of the active leader cards
+     */
+    public List<String> getActiveLeaderCards() {
+        return this.activeLeaderCards;
+    }
+
+    /**
+     * This method replaces the names of the active leader cards
+     */
+    /*package-local*/ void replaceActiveLeaderCards(List<String> activeLeaderCards) {
+        this.activeLeaderCards = new ArrayList<>();
+        this.activeAbilities = 0;
+        for (String leaderCardName : activeLeaderCards)
+            setLeaderEffectActive(leaderCardName);
+    }
+
+    /**
+     * Add the leader card copied by Lorenzo de' Medici. The copy is removed at the end of the turn
+     * @param leaderCard copied
+     */
+    public void copyLeaderCard(LeaderCard leaderCard) {
+        this.leaderCards.add(leaderCard);
+        this.copiedLeaderCard = leaderCard.getLeaderCardName();
+    }
+
+    /**
+     * Get the name of the leader card copied by Lorenzo de' Medici in this turn
+     * @return name of the copied card, null if none
+     */
+    public String getCopiedLeaderCard() {
+        return this.copiedLeaderCard;
+    }
+
+    /**
+     * This method sets the name of the leader card copied in this turn
+     */
+    /*package-local*/ void setCopiedLeaderCard(String copiedLeaderCard) {
+        this.copiedLeaderCard = copiedLeaderCard;
+    }
+
 
     /**
      * This method add a new excommunication to the player
@@ -335,6 +467,13 @@ public class PersonalBoard implements Serializable {
         return this.excommunicationCards;
     }
 
+    /**
+     * This method replaces the excommunication cards of the player
+     */
+    /*package-local*/ void replaceExcommunicationCards(List<ExcommunicationCard> excommunicationCards) {
+        this.excommunicationCards = new ArrayList<>(excommunicationCards);
+    }
+
 
     /**
      * Get excommunication values
@@ -343,6 +482,13 @@ public class PersonalBoard implements Serializable {
         return this.excommunicationValues;
     }
 
+    /**
+     * Set excommunication values
+     */
+    /*package-local*/ void setExcommunicationValues(ExcommunicationValues excommunicationValues) {
+        this.excommunicationValues = excommunicationValues;
+    }
+
 
     /**
      * Set if the user can always place a family member inside action spaces
@@ -359,24 +505,53 @@ public class PersonalBoard implements Serializable {
     }
 
 
+    /**
+     * This method saves in an undo log all the state of the personal board that a move can change
+     * @param undoLog of the move
+     */
+    /*package-local*/ void save(UndoLog undoLog) {
+        this.valuables.save(undoLog);
+        this.familyMember.save(undoLog);
+        undoLog.saveSize(this.familyMembersUsed);
+        for (DevelopmentCardColor color : DevelopmentCardColor.values()) {
+            undoLog.saveSize(getCards(color));
+            undoLog.saveEntry(this.developmentCardColorDiceValueBonus, color);
+            undoLog.saveEntry(this.costDiscountForDevelopmentCard, color);
+            for (PointsAndResources discount : this.costDiscountForDevelopmentCard.get(color))
+                discount.save(undoLog);
+        }
+        for (ActionType type : ActionType.values())
+            undoLog.saveEntry(this.harvestProductionDiceValueBonus, type);
+        undoLog.saveList(this.leaderCards);
+        undoLog.saveSize(this.activeLeaderCards);
+        int abilities = this.activeAbilities;
+        String copied = this.copiedLeaderCard;
+        int[] requirements = this.greenCardsMilitaryPointsRequirements;
+        boolean alwaysPlace = this.alwaysPlaceFamilyMemberInsideActionSpace;
+        undoLog.save(() -> {
+            this.activeAbilities = abilities;
+            this.copiedLeaderCard = copied;
+            this.greenCardsMilitaryPointsRequirements = requirements;
+            this.alwaysPlaceFamilyMemberInsideActionSpace = alwaysPlace;
+        });
+    }
+
     /**
      * This method resets the personal board for a new turn
      */
     public void turnReset(Configuration configuration) {
-        this.familyMembersUsed = new ArrayList<>();
-        this.familyMember = new FamilyMember();
-        for(LeaderCard leaderCard : leaderCards) {
-            if (leaderCard.getLeaderCardName().equalsIgnoreCase("lorenzo il magnifico")
-                    && leaderCard.getLeaderEffectActive() && leaderCard.getEffect() instanceof LELorenzoDeMedici) {
-                LELorenzoDeMedici effect = (LELorenzoDeMedici)leaderCard.getEffect();
-                LeaderCard leaderCardToDelete = effect.getLeaderCard();
-                for(int j = 0; j < leaderCards.size(); j++)
-                    if(leaderCards.get(j).getLeaderCardName().equals(leaderCardToDelete.getLeaderCardName()))
-                        leaderCards.remove(j);
-            }
-            leaderCard.setLeaderEffectActive(false);
+        this.familyMembersUsed.clear();
+        this.familyMember.reset();
+        if (copiedLeaderCard != null) {
+            for (int j = leaderCards.size() - 1; j >= 0; j--)
+                if (leaderCards.get(j).getLeaderCardName().equals(copiedLeaderCard)) {
+                    leaderCards.remove(j);
+                    break;
+                }
+            copiedLeaderCard = null;
         }
-        this.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.NEUTRAL, 0);
+        this.activeLeaderCards.clear();
+        this.activeAbilities = 0;
         this.setGreenCardsMilitaryPointsRequirements(configuration.getPersonalBoard().getGreenCardsMilitaryPointsRequirements());
         this.alwaysPlaceFamilyMemberInsideActionSpace = false;
     }
@@ -455,7 +630,7 @@ public class PersonalBoard implements Serializable {
         stringBuilder.append("\n-> LEADER CARDS (active): ");
         if (!leaderCards.isEmpty())
             for (LeaderCard leaderCard : leaderCards)
-                if (leaderCard.getLeaderEffectActive()) stringBuilder.append(leaderCard.getLeaderCardName() + ", ");
+                if (isLeaderEffectActive(leaderCard.getLeaderCardName())) stringBuilder.append(leaderCard.getLeaderCardName() + ", ");
         stringBuilder.append("\n");
         return stringBuilder.toString();
     }
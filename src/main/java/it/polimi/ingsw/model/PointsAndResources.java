@@ -1,132 +1,284 @@
 package it.polimi.ingsw.model;
 
-import it.polimi.ingsw.exceptions.GameException;
-
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.EnumMap;
 import java.util.Map;
 
 /**
  * This class is used to manage amounts of resources and points.
+ * Amounts are kept in a single array of ints, resources first and then points, in the order of their types,
+ * so the arithmetic never boxes nor allocates. The maps of resources and points are read-only views of the array.
+ * Amounts are serialized as variable-length ints: an empty instance takes one byte per amount.
  */
 public class PointsAndResources implements Serializable{
 
     /**
-     * Map of resources.
+     * Resource types, in array order.
+     */
+    private static final ResourceType[] RESOURCE_TYPES = ResourceType.values();
+
+    /**
+     * Point types, in array order.
+     */
+    private static final PointType[] POINT_TYPES = PointType.values();
+
+    /**
+     * Index of the first point in the array.
+     */
+    private static final int POINTS_OFFSET = RESOURCE_TYPES.length;
+
+    /**
+     * Number of amounts.
      */
-    private Map<ResourceType, Integer> resources;
+    private static final int SIZE = RESOURCE_TYPES.length + POINT_TYPES.length;
 
     /**
-     * Map of points.
+     * Amounts of resources and then of points.
      */
-    private Map<PointType, Integer> points;
+    private transient int[] values;
+
+    /**
+     * View of the resources, created on first use.
+     */
+    private transient Map<ResourceType, Integer> resources;
+
+    /**
+     * View of the points, created on first use.
+     */
+    private transient Map<PointType, Integer> points;
 
     /**
      * Class constructor.
-     * Initialize resources and points maps.
      * Each record is set to zero value.
      */
     public PointsAndResources(){
-        this.resources = new EnumMap<>(ResourceType.class);
-        this.points = new EnumMap<>(PointType.class);
+        this.values = new int[SIZE];
+    }
 
-        for (ResourceType type : ResourceType.values())
-            this.resources.put(type, 0);
+    /**
+     * Copy constructor.
+     * @param valuables to copy.
+     */
+    public PointsAndResources(PointsAndResources valuables){
+        this.values = valuables.values.clone();
+    }
 
-        for (PointType type : PointType.values())
-            this.points.put(type, 0);
+    /**
+     * Get the amount of a resource.
+     * @param type of the resource.
+     * @return the amount.
+     */
+    public int get(ResourceType type){
+        return this.values[type.ordinal()];
     }
 
     /**
-     * Method to increase a specific resource in resources map.
+     * Get the amount of a point.
+     * @param type of the point.
+     * @return the amount.
+     */
+    public int get(PointType type){
+        return this.values[POINTS_OFFSET + type.ordinal()];
+    }
+
+    /**
+     * Method to increase a specific resource.
      * @param type of the resource to increase.
      * @param value of the resource to increase.
      */
-    public void increase(ResourceType type, Integer value){
-        this.resources.put(type, this.resources.get(type) + value);
+    public void increase(ResourceType type, int value){
+        this.values[type.ordinal()] += value;
     }
 
     /**
-     * Method to increase a specific point in points map.
+     * Method to increase a specific point.
      * @param type of the point to increase.
      * @param value of the point to increase.
      */
-    public void increase(PointType type, Integer value){
-        this.points.put(type, this.points.get(type) + value);
+    public void increase(PointType type, int value){
+        this.values[POINTS_OFFSET + type.ordinal()] += value;
     }
 
     /**
-     * Method to decrease a specific resource in resources map.
+     * Method to decrease a specific resource.
      * @param type of the resource to decrease.
      * @param value of the resource to decrease.
      */
-    public void decrease(ResourceType type, Integer value) {
-        this.resources.put(type, this.resources.get(type) - value);
+    public void decrease(ResourceType type, int value) {
+        this.values[type.ordinal()] -= value;
     }
 
     /**
-     * Method to decrease a specific point in points map.
+     * Method to decrease a specific point.
      * @param type of the point to decrease.
      * @param value of the point to decrease.
      */
-    public void decrease(PointType type, Integer value) {
-        this.points.put(type, this.points.get(type) - value);
+    public void decrease(PointType type, int value) {
+        this.values[POINTS_OFFSET + type.ordinal()] -= value;
     }
 
     /**
-     * Method to check if the player as valuables enough to pay something
-     * @param valuableToDecrease valuables to decrease.
-     * @throws GameException if palyer has not resources enough.
+     * Add all the amounts of other valuables.
+     * @param valuables to add.
      */
-    public boolean checkDecrease(PointsAndResources valuableToDecrease){
-        for (Map.Entry<ResourceType, Integer> entry: valuableToDecrease.getResources().entrySet())
-            if (entry.getValue() > this.resources.get(entry.getKey()))
+    public void add(PointsAndResources valuables){
+        for (int i = 0; i < SIZE; i++)
+            this.values[i] += valuables.values[i];
+    }
+
+    /**
+     * Subtract all the amounts of other valuables.
+     * @param valuables to subtract.
+     */
+    public void subtract(PointsAndResources valuables){
+        for (int i = 0; i < SIZE; i++)
+            this.values[i] -= valuables.values[i];
+    }
+
+    /**
+     * Check if each amount is at least the amount of other valuables.
+     * @param valuables to compare.
+     * @return true if no amount is lower.
+     */
+    public boolean dominates(PointsAndResources valuables){
+        for (int i = 0; i < SIZE; i++)
+            if (valuables.values[i] > this.values[i])
                 return false;
+        return true;
+    }
+
+    /**
+     * Multiply all the amounts.
+     * @param factor of the multiplication.
+     */
+    public void scale(int factor){
+        for (int i = 0; i < SIZE; i++)
+            this.values[i] *= factor;
+    }
+
+    /**
+     * Set all the amounts to zero.
+     */
+    /*package-local*/ void clear(){
+        for (int i = 0; i < SIZE; i++)
+            this.values[i] = 0;
+    }
 
-        for (Map.Entry<PointType, Integer> entry: valuableToDecrease.getPoints().entrySet())
-            if (entry.getValue() > this.points.get(entry.getKey()))
+    /**
+     * Check if all the amounts are zero or less.
+     * @return true if there is nothing greater than 0.
+     */
+    public boolean isEmpty(){
+        for (int value : this.values)
+            if (value > 0)
                 return false;
         return true;
     }
 
+    /**
+     * Method to check if the player as valuables enough to pay something
+     * @param valuableToDecrease valuables to decrease.
+     * @return true if the player has valuables enough.
+     */
+    public boolean checkDecrease(PointsAndResources valuableToDecrease){
+        return dominates(valuableToDecrease);
+    }
+
+    /**
+     * Increase its valuables by all the valuables of something
+     * @param valuableToIncrease valuables to increase.
+     */
+    public void increaseAll(PointsAndResources valuableToIncrease){
+        add(valuableToIncrease);
+    }
+
     /**
      * If the player has valuables enough to pay something, decrease its valuables
      * @param valuableToDecrease valuables to decrease.
      */
     public void decreaseAll(PointsAndResources valuableToDecrease){
-        for (Map.Entry<ResourceType, Integer> entry: valuableToDecrease.getResources().entrySet())
-            this.decrease(entry.getKey(), entry.getValue());
-
-        for (Map.Entry<PointType, Integer> entry: valuableToDecrease.getPoints().entrySet())
-            this.decrease(entry.getKey(), entry.getValue());
+        subtract(valuableToDecrease);
     }
 
     /**
      * Method to get the resources map.
-     * @return the resources map.
+     * @return read-only view of the resources.
      */
     public Map<ResourceType, Integer> getResources(){
+        if (this.resources == null)
+            this.resources = new EnumIntMap<>(this.values, RESOURCE_TYPES, 0);
         return this.resources;
     }
 
     /**
      * Method to get the points map.
-     * @return the points map.
+     * @return read-only view of the points.
      */
     public Map<PointType, Integer> getPoints(){
+        if (this.points == null)
+            this.points = new EnumIntMap<>(this.values, POINT_TYPES, POINTS_OFFSET);
         return this.points;
     }
 
+    /**
+     * Save the amounts in an undo log.
+     * @param undoLog of the move.
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        undoLog.saveInts(this.values);
+    }
+
     @Override
     public String toString(){
         StringBuilder stringBuilder = new StringBuilder("");
-        for(Map.Entry pair : resources.entrySet())
-            if((int)pair.getValue() != 0)
-                stringBuilder.append(pair.getKey().toString().toLowerCase() + "=" + pair.getValue() + " ");
-        for(Map.Entry pair : points.entrySet())
-            if((int)pair.getValue() != 0)
-                stringBuilder.append(pair.getKey().toString().toLowerCase() + "=" + pair.getValue() + " ");
+        for (ResourceType type : RESOURCE_TYPES)
+            if (get(type) != 0)
+                stringBuilder.append(type.toString().toLowerCase() + "=" + get(type) + " ");
+        for (PointType type : POINT_TYPES)
+            if (get(type) != 0)
+                stringBuilder.append(type.toString().toLowerCase() + "=" + get(type) + " ");
         return stringBuilder.toString();
     }
 
+    /**
+     * Write the amounts as variable-length ints.
+     * @param output stream.
+     * @throws IOException if the stream fails.
+     */
+    private void writeObject(ObjectOutputStream output) throws IOException{
+        output.defaultWriteObject();
+        for (int value : this.values){
+            int zigzag = (value << 1) ^ (value >> 31);
+            while ((zigzag & ~0x7F) != 0){
+                output.writeByte((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            output.writeByte(zigzag);
+        }
+    }
+
+    /**
+     * Read the amounts written by {@link #writeObject(ObjectOutputStream)}.
+     * @param input stream.
+     * @throws IOException if the stream fails.
+     * @throws ClassNotFoundException never.
+     */
+    private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException{
+        input.defaultReadObject();
+        this.values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++){
+            int zigzag = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = input.readUnsignedByte();
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            this.values[i] = (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+    }
+
 }
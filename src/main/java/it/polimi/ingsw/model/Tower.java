@@ -43,6 +43,15 @@ public class Tower implements Serializable{
         this.towerCells[index].setDevelopmentCard(card);
     }
 
+    /**
+     * This method replaces a cell of the tower.
+     * @param index of the cell.
+     * @param cell to set.
+     */
+    /*package-local*/ void replaceTowerCell(int index, TowerCell cell){
+        this.towerCells[index] = cell;
+    }
+
     /**
      * This method checks if already exists a cell occupied by the player in the tower and if the family member has been already used
      * @param player is performing the placement.
@@ -5,7 +5,6 @@ import it.polimi.ingsw.exceptions.GameException;
 import it.polimi.ingsw.model.effects.Effect;
 
 import java.io.Serializable;
-import java.util.Map;
 
 /**
  * This class represents tower cell abstraction.
@@ -72,6 +71,15 @@ public class TowerCell implements Serializable{
         this.playerNicknameInTheCell = playerNicknameInTheCell;
     }
 
+    /**
+     * Save the user in the cell in an undo log
+     * @param undoLog of the move.
+     */
+    /*package-local*/ void save(UndoLog undoLog){
+        String nickname = this.playerNicknameInTheCell;
+        undoLog.save(() -> this.playerNicknameInTheCell = nickname);
+    }
+
 
     /**
      * Get the username of the player inside a particular cell
@@ -112,9 +120,9 @@ public class TowerCell implements Serializable{
      * @throws GameException if family member value is wrong to perform the action.
      */
     /*package-local*/ void familyMemberCanBePlaced(Player player, FamilyMemberColor familyMemberColor) throws GameException{
-        int familyMemberRealValue = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor)
+        int familyMemberRealValue = player.getPersonalBoard().getFamilyMember().get(familyMemberColor)
                 + player.getPersonalBoard().getDevelopmentCardColorDiceValueBonus().get(developmentCard.getColor())
-                - player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardDiceMalus().get(developmentCard.getColor());
+                - player.getPersonalBoard().getExcommunicationValues().getDevelopmentCardDiceMalus(developmentCard.getColor());
 
         if (familyMemberRealValue < this.minFamilyMemberValue)
             throw new GameException(GameErrorType.FAMILY_MEMBER_DICE_VALUE);
@@ -172,13 +180,13 @@ public class TowerCell implements Serializable{
     private void checkResourcesToBuyTheCard(Player player, PointsAndResources discount) throws GameException{
         boolean flag  = false;
         if (this.developmentCard.getMultipleRequisiteSelectionEnabled()){
-            if (player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY) >= this.developmentCard.getMilitaryPointsRequired()){
+            if (player.getPersonalBoard().getValuables().get(PointType.MILITARY) >= this.developmentCard.getMilitaryPointsRequired()){
                 flag = true;
             }
             if(!flag) {
                 if(!checkNullResources()) {
-                    for (Map.Entry<ResourceType, Integer> entry : this.developmentCard.getCost().getResources().entrySet()) {
-                        if (this.developmentCard.getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey()) > player.getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
+                    for (ResourceType type : ResourceType.values()) {
+                        if (this.developmentCard.getCost().get(type) - discount.get(type) > player.getPersonalBoard().getValuables().get(type)) {
                             throw new GameException(GameErrorType.PLAYER_RESOURCES_ERROR);
                         }
                     }
@@ -188,9 +196,9 @@ public class TowerCell implements Serializable{
 
             }
         } else {
-            for (Map.Entry<ResourceType, Integer> entry : this.developmentCard.getCost().getResources().entrySet()) {
-                if (this.developmentCard.getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey())
-                        > player.getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
+            for (ResourceType type : ResourceType.values()) {
+                if (this.developmentCard.getCost().get(type) - discount.get(type)
+                        > player.getPersonalBoard().getValuables().get(type)) {
                     throw new GameException(GameErrorType.PLAYER_RESOURCES_ERROR);
                 }
             }
@@ -202,13 +210,7 @@ public class TowerCell implements Serializable{
      * @return
      */
     private boolean checkNullResources(){
-        for(Map.Entry<ResourceType, Integer> entry : this.developmentCard.getCost().getResources().entrySet())
-            if(entry.getValue() > 0)
-                return false;
-        for(Map.Entry<PointType, Integer> entry : this.developmentCard.getCost().getPoints().entrySet())
-            if(entry.getValue() > 0)
-                return false;
-        return true;
+        return this.developmentCard.getCost().isEmpty();
     }
 
     /**
@@ -219,7 +221,7 @@ public class TowerCell implements Serializable{
     private void checkMilitaryPointsToGetTheCard(Player player) throws GameException{
         if (this.developmentCard.getColor().equals(DevelopmentCardColor.GREEN)){
             int amount = player.getPersonalBoard().getCards(DevelopmentCardColor.GREEN).size();
-            int playerMilitaryPoints = player.getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY);
+            int playerMilitaryPoints = player.getPersonalBoard().getValuables().get(PointType.MILITARY);
             int militaryPointsRequired = player.getPersonalBoard().getGreenCardsMilitaryPointsRequirements(amount);
             if (playerMilitaryPoints < militaryPointsRequired)
                 throw new GameException(GameErrorType.MILITARY_POINTS_REQUIRED);
@@ -232,8 +234,8 @@ public class TowerCell implements Serializable{
      * @param discount to apply.
      */
     private void giveDiscountResources(Player player, PointsAndResources discount){
-        for(Map.Entry<ResourceType, Integer> entry : discount.getResources().entrySet())
-            player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
+        for(ResourceType type : ResourceType.values())
+            player.getPersonalBoard().getValuables().increase(type, discount.get(type));
     }
 
     @Override
@@ -0,0 +1,231 @@
+package it.polimi.ingsw.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Undo log of the changes of a game model, used to apply a move as a transaction.
+ * Before changing a part of the model a move saves it here: arrays of ints are copied in a shared buffer, lists by
+ * size or by elements, map entries by key, and any other field by an {@link Undo} that puts it back.
+ * A rejected move rolls the log back to where it began, in reverse order and in time proportional to the saved
+ * values, and a completed move commits it. Transactions can be nested: the log is cleared when the outermost one
+ * is committed, so a simulation can begin a transaction, apply moves and roll all of them back.
+ * Not thread safe: a game uses it from one thread at a time.
+ */
+public final class UndoLog {
+
+    /**
+     * Change that puts back a field of the model.
+     */
+    @FunctionalInterface
+    public interface Undo {
+
+        /**
+         * Put back the field.
+         */
+        void undo();
+    }
+
+    /**
+     * Kinds of saved values.
+     */
+    private static final byte INTS = 0;
+    private static final byte SIZE = 1;
+    private static final byte ELEMENT = 2;
+    private static final byte ENTRY = 3;
+    private static final byte UNDO = 4;
+
+    /**
+     * Kind of each saved value.
+     */
+    private byte[] kinds = new byte[64];
+
+    /**
+     * Array, list, map or undo of each saved value.
+     */
+    private Object[] targets = new Object[64];
+
+    /**
+     * Element, or key of the map, of each saved value.
+     */
+    private Object[] keys = new Object[64];
+
+    /**
+     * Value of each saved map entry, null if the key was missing.
+     */
+    private Object[] values = new Object[64];
+
+    /**
+     * Start in the buffer of the saved arrays, size of the saved lists, index of the saved elements.
+     */
+    private int[] positions = new int[64];
+
+    /**
+     * Number of saved values.
+     */
+    private int size;
+
+    /**
+     * Copies of the saved arrays.
+     */
+    private int[] buffer = new int[256];
+
+    /**
+     * Number of ints used in the buffer.
+     */
+    private int bufferSize;
+
+    /**
+     * Number of transactions begun and not yet committed or rolled back.
+     */
+    private int depth;
+
+    /**
+     * Begin a transaction.
+     * @return savepoint to commit or roll back.
+     */
+    public int begin(){
+        depth++;
+        return size;
+    }
+
+    /**
+     * Commit a transaction. The saved values are kept until the outermost transaction is committed.
+     * @param savepoint returned by {@link #begin()}.
+     */
+    public void commit(int savepoint){
+        if(--depth == 0)
+            clear(0);
+    }
+
+    /**
+     * Roll back a transaction, putting back every value saved since it began.
+     * @param savepoint returned by {@link #begin()}.
+     */
+    @SuppressWarnings("unchecked")
+    public void rollback(int savepoint){
+        for(int i = size - 1; i >= savepoint; i--){
+            switch(kinds[i]){
+                case INTS:
+                    int[] array = (int[]) targets[i];
+                    System.arraycopy(buffer, positions[i], array, 0, array.length);
+                    bufferSize = positions[i];
+                    break;
+                case SIZE:
+                    List<?> list = (List<?>) targets[i];
+                    while(list.size() > positions[i])
+                        list.remove(list.size() - 1);
+                    break;
+                case ELEMENT:
+                    List<Object> elements = (List<Object>) targets[i];
+                    if(positions[i] < elements.size())
+                        elements.set(positions[i], keys[i]);
+                    else
+                        elements.add(keys[i]);
+                    break;
+                case ENTRY:
+                    Map<Object, Object> map = (Map<Object, Object>) targets[i];
+                    if(values[i] == null)
+                        map.remove(keys[i]);
+                    else
+                        map.put(keys[i], values[i]);
+                    break;
+                default:
+                    ((Undo) targets[i]).undo();
+                    break;
+            }
+        }
+        clear(savepoint);
+        depth--;
+    }
+
+    /**
+     * Check if there is a transaction begun and not yet committed or rolled back.
+     * @return true if a transaction is open.
+     */
+    public boolean isOpen(){
+        return depth > 0;
+    }
+
+    /**
+     * Save the values of an array of ints.
+     * @param array to save.
+     */
+    public void saveInts(int[] array){
+        if(bufferSize + array.length > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, bufferSize + array.length));
+        System.arraycopy(array, 0, buffer, bufferSize, array.length);
+        add(INTS, array, null, null, bufferSize);
+        bufferSize += array.length;
+    }
+
+    /**
+     * Save the size of a list that the move can only grow.
+     * @param list to save.
+     */
+    public void saveSize(List<?> list){
+        add(SIZE, list, null, null, list.size());
+    }
+
+    /**
+     * Save the elements of a list that the move can shrink or change.
+     * @param list to save.
+     */
+    public void saveList(List<?> list){
+        saveSize(list);
+        for(int i = list.size() - 1; i >= 0; i--)
+            add(ELEMENT, list, list.get(i), null, i);
+    }
+
+    /**
+     * Save an entry of a map.
+     * @param map to save.
+     * @param key of the entry.
+     */
+    public <K, V> void saveEntry(Map<K, V> map, K key){
+        add(ENTRY, map, key, map.get(key), 0);
+    }
+
+    /**
+     * Save a field, as the change that puts it back.
+     * @param undo of the field.
+     */
+    public void save(Undo undo){
+        add(UNDO, undo, null, null, 0);
+    }
+
+    /**
+     * Add a saved value.
+     */
+    private void add(byte kind, Object target, Object key, Object value, int position){
+        if(size == kinds.length){
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        kinds[size] = kind;
+        targets[size] = target;
+        keys[size] = key;
+        values[size] = value;
+        positions[size] = position;
+        size++;
+    }
+
+    /**
+     * Forget the values saved from an index, so they can be collected.
+     * @param from first index to forget.
+     */
+    private void clear(int from){
+        Arrays.fill(targets, from, size, null);
+        Arrays.fill(keys, from, size, null);
+        Arrays.fill(values, from, size, null);
+        size = from;
+        if(from == 0)
+            bufferSize = 0;
+    }
+
+}
@@ -20,6 +20,14 @@ public abstract class Effect implements Serializable{
      */
     public abstract void runEffect(Player player, InformationCallback informationCallback);
 
+    /**
+     * Get the choices the effect asks to the player when it runs.
+     * @return bitset of the masks of the {@link it.polimi.ingsw.model.MoveChoice}s, 0 if the effect asks nothing.
+     */
+    public int getChoices(){
+        return 0;
+    }
+
     /**
      * Method to set the effect type
      */
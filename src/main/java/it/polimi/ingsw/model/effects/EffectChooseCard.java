@@ -48,8 +48,7 @@ public class EffectChooseCard extends Effect{
      */
     @Override
     public void runEffect(Player player, InformationCallback informationCallback) {
-        LeaderCard leaderCard = player.getPersonalBoard().getLeaderCardWithName("Santa Rita");
-        if (leaderCard != null && leaderCard.getLeaderEffectActive())
+        if (player.getPersonalBoard().hasLeaderAbility(LeaderAbility.SANTA_RITA))
             updateResources(player, 2);
         else
             updateResources(player, 1);
@@ -79,7 +78,7 @@ public class EffectChooseCard extends Effect{
             //normal effect
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue() * multiplicatorValue);
             //excommunication effect
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
         }
     }
 
@@ -92,10 +91,19 @@ public class EffectChooseCard extends Effect{
             //normal effect
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
             //excommunication effect
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
         }
     }
 
+    /**
+     * Get the choices the effect asks: the new card and the council privileges, if any.
+     * @return bitset of the choices.
+     */
+    @Override
+    public int getChoices(){
+        return MoveChoice.NEW_CARD.mask() | (this.numberOfCouncilPrivileges > 0 ? MoveChoice.COUNCIL_PRIVILEGE.mask() : 0);
+    }
+
     @Override
     public String toString() {
         StringBuilder stringBuilder = new StringBuilder();
@@ -49,7 +49,7 @@ public class EffectHarvestProductionBonus extends Effect{
     @Override
     public void runEffect(Player player, InformationCallback informationCallback) {
         int newValue = player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(this.actionType) + this.diceValueBonus
-                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(actionType);
+                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(actionType);
         player.getPersonalBoard().setHarvestProductionDiceValueBonus(this.actionType, newValue);
     }
 
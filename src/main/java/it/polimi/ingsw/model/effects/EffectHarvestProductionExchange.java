@@ -93,9 +93,9 @@ public class EffectHarvestProductionExchange extends Effect{
         List<FamilyMemberColor> familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed();
         FamilyMemberColor familyMemberColor = familyMembersUsed.get(familyMembersUsed.size() - 1);
 
-        int familyMemberValue = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor);
+        int familyMemberValue = player.getPersonalBoard().getFamilyMember().get(familyMemberColor);
         int bonus = player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(this.actionType);
-        int malus = player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(this.actionType);
+        int malus = player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(this.actionType);
         int actionValue = familyMemberValue + bonus - malus;
 
         if (actionValue >= this.diceActionValue) {
@@ -107,12 +107,12 @@ public class EffectHarvestProductionExchange extends Effect{
 
             for (Map.Entry<ResourceType, Integer> entry : this.valuableEarned[choice].getResources().entrySet()) {
                 player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
             }
 
             for (Map.Entry<PointType, Integer> entry : this.valuableEarned[choice].getPoints().entrySet()) {
                 player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
             }
 
             if (this.numberOfCouncilPrivileges > 0){
@@ -123,6 +123,16 @@ public class EffectHarvestProductionExchange extends Effect{
 
     }
 
+    /**
+     * Get the choices the effect asks: the exchange if there is more than one, and the council privileges, if any.
+     * @return bitset of the choices.
+     */
+    @Override
+    public int getChoices(){
+        return (this.valuableToPay.length > 1 ? MoveChoice.EXCHANGE.mask() : 0)
+                | (this.numberOfCouncilPrivileges > 0 ? MoveChoice.COUNCIL_PRIVILEGE.mask() : 0);
+    }
+
     /**
      * Get a description of the current effect.
      */
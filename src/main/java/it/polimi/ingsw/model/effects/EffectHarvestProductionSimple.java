@@ -115,19 +115,19 @@ public class EffectHarvestProductionSimple extends Effect{
         List<FamilyMemberColor> familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed();
         FamilyMemberColor familyMemberColor = familyMembersUsed.get(familyMembersUsed.size() - 1);
 
-        int actionValue = player.getPersonalBoard().getFamilyMember().getMembers().get(familyMemberColor)
+        int actionValue = player.getPersonalBoard().getFamilyMember().get(familyMemberColor)
                 + player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(this.actionType)
-                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(this.actionType);
+                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(this.actionType);
 
         if (actionValue >= this.diceActionValue) {
             for (Map.Entry<ResourceType, Integer> entry : this.valuable.getResources().entrySet()) {
                 player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
             }
 
             for (Map.Entry<PointType, Integer> entry : this.valuable.getPoints().entrySet()) {
                 player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
-                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+                player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
             }
         }
 
@@ -83,18 +83,17 @@ public class EffectMultiplicator extends Effect{
                     multiplicatorValue = entry.getValue();
         }
 
-        LeaderCard leaderCard = player.getPersonalBoard().getLeaderCardWithName("Santa Rita");
-        if (diceActionValue == 0 && leaderCard != null && leaderCard.getLeaderEffectActive())
+        if (diceActionValue == 0 && player.getPersonalBoard().hasLeaderAbility(LeaderAbility.SANTA_RITA))
             multiplicatorValue = multiplicatorValue * 2;
 
         for (Map.Entry<ResourceType, Integer> entry: this.valuable.getResources().entrySet()) {
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue() * multiplicatorValue);
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
         }
 
         for (Map.Entry<PointType, Integer> entry: this.valuable.getPoints().entrySet()){
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue() * multiplicatorValue);
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
         }
     }
 
@@ -48,8 +48,7 @@ public class EffectSimple extends Effect{
     @Override
     public void runEffect(Player player, InformationCallback informationCallback){
 
-        LeaderCard leaderCard = player.getPersonalBoard().getLeaderCardWithName("Santa Rita");
-        if (leaderCard != null && leaderCard.getLeaderEffectActive()){
+        if (player.getPersonalBoard().hasLeaderAbility(LeaderAbility.SANTA_RITA)){
             updateResources(player, 2);
         }else {
             updateResources(player, 1);
@@ -87,7 +86,7 @@ public class EffectSimple extends Effect{
      */
     private void updateFamilyMemberValue(Player player){
         int familyMemberRealValue = diceActionValue + player.getPersonalBoard().getHarvestProductionDiceValueBonus().get(actionType)
-                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus().get(actionType);
+                - player.getPersonalBoard().getExcommunicationValues().getHarvestProductionDiceMalus(actionType);
 
         List<FamilyMemberColor> familyMembersUsed = player.getPersonalBoard().getFamilyMembersUsed();
         FamilyMemberColor familyMemberColor = familyMembersUsed.get(familyMembersUsed.size() - 1);
@@ -102,7 +101,7 @@ public class EffectSimple extends Effect{
 
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue() * multiplicatorValue);
 
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalResourcesMalus(entry.getKey()));
         }
     }
 
@@ -114,10 +113,19 @@ public class EffectSimple extends Effect{
 
             player.getPersonalBoard().getValuables().increase(entry.getKey(), entry.getValue());
 
-            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus().get(entry.getKey()));
+            player.getPersonalBoard().getValuables().decrease(entry.getKey(), player.getPersonalBoard().getExcommunicationValues().getNormalPointsMalus(entry.getKey()));
         }
     }
 
+    /**
+     * Get the choices the effect asks: the council privileges, if any.
+     * @return bitset of the choices.
+     */
+    @Override
+    public int getChoices(){
+        return this.numberOfCouncilPrivileges > 0 ? MoveChoice.COUNCIL_PRIVILEGE.mask() : 0;
+    }
+
     /**
      * Get a description of the current effect.
      */
@@ -9,11 +9,6 @@ import it.polimi.ingsw.model.Player;
  */
 public class LELorenzoDeMedici extends LeaderEffect{
 
-    /**
-     * Leader card replicated by Lorenzo De Medici.
-     */
-    private LeaderCard leaderCard;
-
     /**
      * Class constructor.
      */
@@ -22,29 +17,14 @@ public class LELorenzoDeMedici extends LeaderEffect{
     }
 
     /**
-     * Set leader card to be replicated by Lorenzo De Medici effect.
-     * @param leaderCard to be replicated.
-     */
-    public void setLeaderCard(LeaderCard leaderCard){
-        this.leaderCard = leaderCard;
-    }
-
-    /**
-     * Return replicated leader card.
-     * @return replicated leader card.
-     */
-    public LeaderCard getLeaderCard(){
-        return this.leaderCard;
-    }
-
-    /**
-     * Method to run the effect of the card.
+     * Method to run the effect of the card. The copy is kept on the personal board until the end of the turn.
      * @param player is gaining benefit of the effect.
      */
     @Override
     public void runEffect(Player player, InformationCallback informationCallback) {
-        this.leaderCard = informationCallback.copyAnotherLeaderCard("lorenzo-il-magnifico");
-        player.getPersonalBoard().getLeaderCards().add(leaderCard);
+        LeaderCard leaderCard = informationCallback.copyAnotherLeaderCard("lorenzo-il-magnifico");
+        if (leaderCard != null)
+            player.getPersonalBoard().copyLeaderCard(leaderCard);
     }
 
     /**
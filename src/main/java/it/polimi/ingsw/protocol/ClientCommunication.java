@@ -89,6 +89,8 @@ public class ClientCommunication {
             throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
         if(response == SharedCostants.USER_ALREADY_EXISTS)
             throw new LoginException(LoginErrorType.USER_ALREADY_EXISTS);
+        if(response == SharedCostants.USER_SERVER_BUSY)
+            throw new LoginException(LoginErrorType.SERVER_BUSY);
     }
 
     /**
@@ -112,6 +114,8 @@ public class ClientCommunication {
             throw new LoginException(LoginErrorType.USER_ALREADY_LOGGEDIN);
         if(response == SharedCostants.USER_NOT_EXISTS)
             throw new LoginException(LoginErrorType.USER_NOT_EXISTS);
+        if(response == SharedCostants.USER_SERVER_BUSY)
+            throw new LoginException(LoginErrorType.SERVER_BUSY);
         if(response == SharedCostants.USER_LOGIN_WRONG_PASSWORD || response == SharedCostants.USER_FAIL_GENERIC)
             throw new LoginException(LoginErrorType.USER_WRONG_PASSWORD);
     }
@@ -155,7 +159,7 @@ public class ClientCommunication {
      */
     private void receiveGameInfo() {
         try {
-            Game game = (Game)objectInputStream.readObject();
+            Game game = (Game)((SerializedPacket)objectInputStream.readObject()).decode();
             clientInterface.setGameModel(game);
         } catch (ClassNotFoundException | ClassCastException | IOException e) {
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot handle receive game info request.");
@@ -263,7 +267,7 @@ public class ClientCommunication {
      */
     public void notifyModelUpdate(){
         try{
-            ClientUpdatePacket clientUpdatePacket = (ClientUpdatePacket)objectInputStream.readObject();
+            ClientUpdatePacket clientUpdatePacket = (ClientUpdatePacket)((SerializedPacket)objectInputStream.readObject()).decode();
             clientInterface.notifyModelUpdate(clientUpdatePacket);
         } catch (ClassCastException | ClassNotFoundException | IOException e){
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot handle new model update request.");
@@ -489,6 +493,18 @@ public class ClientCommunication {
         }
     }
 
+    /**
+     * Method to ask the whole game model, when the local one is out of date
+     */
+    public void requestResync() {
+        try{
+            objectOutputStream.writeObject(SharedCostants.RESYNC);
+            objectOutputStream.flush();
+        } catch (IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot request the game model.");
+        }
+    }
+
     /**
      * Handle server response and run the associated method.
      * @param object of the response.
@@ -0,0 +1,105 @@
+package it.polimi.ingsw.protocol;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that strips the frame headers written by {@link FrameOutputStream}
+ * and exposes the payloads as a single continuous stream.
+ */
+public class FrameInputStream extends InputStream {
+
+    /**
+     * Underlying input stream.
+     */
+    private final DataInputStream in;
+
+    /**
+     * Bytes still to read in the current frame.
+     */
+    private int remaining;
+
+    /**
+     * Class constructor.
+     * @param in underlying input stream.
+     */
+    public FrameInputStream(InputStream in){
+        this.in = new DataInputStream(in);
+        this.remaining = 0;
+    }
+
+    /**
+     * Read a single byte of payload.
+     * @return the byte read or -1 at the end of the stream.
+     * @throws IOException if errors occur while reading.
+     */
+    @Override
+    public int read() throws IOException{
+        if(!nextFrame())
+            return -1;
+        int b = in.read();
+        if(b >= 0)
+            remaining--;
+        return b;
+    }
+
+    /**
+     * Read payload bytes, never crossing the frame boundary.
+     * @param b destination array.
+     * @param off start offset.
+     * @param len max number of bytes to read.
+     * @return number of bytes read or -1 at the end of the stream.
+     * @throws IOException if errors occur while reading.
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException{
+        if(len == 0)
+            return 0;
+        if(!nextFrame())
+            return -1;
+        int read = in.read(b, off, Math.min(len, remaining));
+        if(read > 0)
+            remaining -= read;
+        return read;
+    }
+
+    /**
+     * Get payload bytes that can be read without blocking.
+     * @return number of bytes.
+     * @throws IOException if errors occur while reading.
+     */
+    @Override
+    public int available() throws IOException{
+        return Math.min(remaining, in.available());
+    }
+
+    /**
+     * Close the underlying stream.
+     * @throws IOException if errors occur while closing.
+     */
+    @Override
+    public void close() throws IOException{
+        in.close();
+    }
+
+    /**
+     * Read the next frame header if the current frame is over.
+     * @return false if the stream is ended.
+     * @throws IOException if the frame header is not valid.
+     */
+    private boolean nextFrame() throws IOException{
+        while(remaining == 0){
+            try{
+                remaining = in.readInt();
+            }catch(EOFException e){
+                return false;
+            }
+            if(remaining < 0 || remaining > FrameOutputStream.MAX_FRAME_SIZE)
+                throw new IOException("Malformed frame of " + remaining + " bytes.");
+        }
+        return true;
+    }
+
+}
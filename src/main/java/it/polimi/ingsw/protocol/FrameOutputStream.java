@@ -0,0 +1,93 @@
+package it.polimi.ingsw.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that groups everything written between two flushes into a single frame.
+ * Every frame is sent as a 4 bytes big-endian length followed by the payload, so the receiver
+ * (see {@link FrameInputStream} and the non-blocking socket server) always knows when a request is complete.
+ */
+public class FrameOutputStream extends OutputStream {
+
+    /**
+     * Size of the frame header.
+     */
+    public static final int HEADER_SIZE = 4;
+
+    /**
+     * Max payload size accepted for a single frame.
+     */
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Underlying output stream.
+     */
+    private final OutputStream out;
+
+    /**
+     * Bytes of the frame that is being built.
+     */
+    private final ByteArrayOutputStream frame;
+
+    /**
+     * Class constructor.
+     * @param out underlying output stream.
+     */
+    public FrameOutputStream(OutputStream out){
+        this.out = out;
+        this.frame = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Append a byte to the current frame.
+     * @param b byte to write.
+     */
+    @Override
+    public void write(int b){
+        frame.write(b);
+    }
+
+    /**
+     * Append bytes to the current frame.
+     * @param b source array.
+     * @param off start offset.
+     * @param len number of bytes.
+     */
+    @Override
+    public void write(byte[] b, int off, int len){
+        frame.write(b, off, len);
+    }
+
+    /**
+     * Close the current frame, send it and flush the underlying stream.
+     * @throws IOException if the frame is too big or the underlying stream fails.
+     */
+    @Override
+    public void flush() throws IOException{
+        int size = frame.size();
+        if(size > 0){
+            if(size > MAX_FRAME_SIZE)
+                throw new IOException("Frame of " + size + " bytes exceeds the maximum frame size.");
+            out.write(new byte[]{(byte)(size >>> 24), (byte)(size >>> 16), (byte)(size >>> 8), (byte)size});
+            frame.writeTo(out);
+            frame.reset();
+        }
+        out.flush();
+    }
+
+    /**
+     * Send pending bytes and close the underlying stream.
+     * @throws IOException if errors occur while closing.
+     */
+    @Override
+    public void close() throws IOException{
+        try{
+            flush();
+        }finally{
+            out.close();
+        }
+    }
+
+}
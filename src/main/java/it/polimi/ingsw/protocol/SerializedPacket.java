@@ -0,0 +1,64 @@
+package it.polimi.ingsw.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Object serialized once and sent as it is to many clients.
+ * Socket and RMI connections only copy the bytes, so the object graph of a broadcast is walked once
+ * instead of once per player. The bytes are never modified after encoding.
+ */
+public final class SerializedPacket implements Serializable {
+
+    /**
+     * Serialized object.
+     */
+    private final byte[] bytes;
+
+    /**
+     * Class constructor.
+     * @param bytes serialized object.
+     */
+    private SerializedPacket(byte[] bytes){
+        this.bytes = bytes;
+    }
+
+    /**
+     * Serialize an object.
+     * @param object to serialize.
+     * @return packet containing the object.
+     * @throws IOException if the object cannot be serialized.
+     */
+    public static SerializedPacket encode(Serializable object) throws IOException{
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new ObjectOutputStream(buffer)){
+            output.writeObject(object);
+        }
+        return new SerializedPacket(buffer.toByteArray());
+    }
+
+    /**
+     * Deserialize the object.
+     * @return a new copy of the object.
+     * @throws IOException if the bytes cannot be read.
+     * @throws ClassNotFoundException if the class of the object is unknown.
+     */
+    public Object decode() throws IOException, ClassNotFoundException{
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+            return input.readObject();
+        }
+    }
+
+    /**
+     * Get the size of the serialized object.
+     * @return number of bytes.
+     */
+    public int size(){
+        return bytes.length;
+    }
+
+}
@@ -19,11 +19,6 @@ import java.util.HashMap;
  */
 public class ServerCommunication {
 
-    /**
-     * Mutex to synchronized output.
-     */
-    private static final Object OUTPUT_MUTEX = new Object();
-
     /**
      * SocketClient interface to communicate with Abstract SocketServerPlayer.
      */
@@ -45,9 +40,9 @@ public class ServerCommunication {
     private final HashMap<Object, Handler> requestsTable;
 
     /**
-     * Mutex object.
+     * Mutex to synchronize output of this connection, shared between responses and server pushes.
      */
-    private final Object object = new Object();
+    private final Object outputMutex = new Object();
 
     /**
      * Class constructor.
@@ -89,18 +84,30 @@ public class ServerCommunication {
         requestsTable.put(SharedCostants.DISCARD_LEADER_CARD, this::discardLeader);
         requestsTable.put(SharedCostants.SUPPORT_FOR_THE_CHURCH_CHOICE, this::notifySupportForTheChurch);
         requestsTable.put(SharedCostants.END_TURN, this::endTurn);
+        requestsTable.put(SharedCostants.RESYNC, this::requestResync);
     }
 
     /**
-     * Client requests handler.
+     * Client requests handler. Requests of a connection are handled in order by the thread reading them,
+     * so no lock is shared between connections: game actions are serialized by the room they belong to.
      * @param object of the request.
      */
     public void clientRequestHandler(Object object){
         Handler handler = requestsTable.get(object);
-        synchronized (OUTPUT_MUTEX) {
-            if (handler != null) {
-                handler.handle();
-            }
+        if (handler != null) {
+            handler.handle();
+        }
+    }
+
+    /**
+     * Write a response to the client.
+     * @param response to write.
+     * @throws IOException if errors occur during communication.
+     */
+    private void writeResponse(Object response) throws IOException{
+        synchronized (outputMutex){
+            output.writeObject(response);
+            output.flush();
         }
     }
 
@@ -115,8 +122,7 @@ public class ServerCommunication {
             String username = (String)input.readObject();
             String password = (String)input.readObject();
             response = handleSignIn(username, password);
-            output.writeObject(response);
-            output.flush();
+            writeResponse(response);
         } catch(IOException | ClassCastException | ClassNotFoundException e){
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while handling sign in player request.");
         }
@@ -137,6 +143,8 @@ public class ServerCommunication {
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while signing in player request.");
             if(e.getError().equals(LoginErrorType.USER_ALREADY_EXISTS))
                 response = SharedCostants.USER_ALREADY_EXISTS;
+            else if(e.getError().equals(LoginErrorType.SERVER_BUSY))
+                response = SharedCostants.USER_SERVER_BUSY;
             else
                 response = SharedCostants.USER_FAIL_GENERIC;
         }
@@ -154,8 +162,7 @@ public class ServerCommunication {
             String username = (String)input.readObject();
             String password = (String)input.readObject();
             response = handleLogin(username, password);
-            output.writeObject(response);
-            output.flush();
+            writeResponse(response);
         } catch(IOException | ClassCastException | ClassNotFoundException e){
             Printer.printDebugMessage(this.getClass().getSimpleName(),"Error while handling loginPlayer request.");
         }
@@ -180,6 +187,8 @@ public class ServerCommunication {
                 response = SharedCostants.USER_LOGIN_WRONG_PASSWORD;
             else if(e.getError().equals(LoginErrorType.USER_NOT_EXISTS))
                 response = SharedCostants.USER_NOT_EXISTS;
+            else if(e.getError().equals(LoginErrorType.SERVER_BUSY))
+                response = SharedCostants.USER_SERVER_BUSY;
             else
                 response = SharedCostants.USER_FAIL_GENERIC;
         }
@@ -192,8 +201,7 @@ public class ServerCommunication {
      */
     public void joinRoom(){
         try {
-            output.writeObject(handleJoinRoom());
-            output.flush();
+            writeResponse(handleJoinRoom());
         } catch (IOException e){
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while joining room.");
         }
@@ -234,7 +242,20 @@ public class ServerCommunication {
      * @throws NetworkException if errors occur during communication.
      */
     public void sendGameInfo(Game game) throws NetworkException{
-        synchronized (object){
+        try{
+            sendGameInfo(SerializedPacket.encode(game));
+        } catch (IOException e){
+            throw new NetworkException(e);
+        }
+    }
+
+    /**
+     * Send to client the game bundle already serialized.
+     * @param game to send.
+     * @throws NetworkException if errors occur during communication.
+     */
+    public void sendGameInfo(SerializedPacket game) throws NetworkException{
+        synchronized (outputMutex){
             try{
                 output.reset();
                 output.writeObject(SharedCostants.GAME_MODEL);
@@ -254,7 +275,7 @@ public class ServerCommunication {
      */
     @SuppressWarnings("Duplicates")
     public void sendPersonalBoardTile(ArrayList<PersonalBoardTile> personalBoardTileList) throws NetworkException{
-        synchronized (object){
+        synchronized (outputMutex){
             try{
                 output.reset();
                 output.writeObject(SharedCostants.PERSONAL_TILES);
@@ -283,7 +304,7 @@ public class ServerCommunication {
      */
     @SuppressWarnings("Duplicates")
     public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) throws NetworkException{
-        synchronized (object){
+        synchronized (outputMutex){
             try {
                 output.reset();
                 output.writeObject(SharedCostants.LEADER_CARDS);
@@ -301,7 +322,20 @@ public class ServerCommunication {
      * @throws NetworkException
      */
     public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws NetworkException{
-        synchronized (object){
+        try{
+            sendGameModelUpdate(SerializedPacket.encode(clientUpdatePacket));
+        } catch (IOException e){
+            throw new NetworkException(e);
+        }
+    }
+
+    /**
+     * Send to client the game model update already serialized
+     * @param clientUpdatePacket
+     * @throws NetworkException
+     */
+    public void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws NetworkException{
+        synchronized (outputMutex){
             try{
                 output.reset();
                 output.writeObject(SharedCostants.MODEL_UPDATE);
@@ -325,7 +359,7 @@ public class ServerCommunication {
     }
 
     public void notifyTurnStarted(String username, long seconds) throws NetworkException{
-        synchronized (object){
+        synchronized (outputMutex){
             try{
                 output.reset();
                 output.writeObject(SharedCostants.TURN_STARTED);
@@ -339,7 +373,7 @@ public class ServerCommunication {
     }
 
     public void supportForTheChurch(boolean flag) throws NetworkException{
-        synchronized (object){
+        synchronized (outputMutex){
             try{
                 output.reset();
                 output.writeObject(SharedCostants.SUPPORT_FOR_THE_CHURCH);
@@ -471,13 +505,15 @@ public class ServerCommunication {
     }
 
     public void notifyEndGame(ServerPlayer[] ranking){
-        try{
-            output.reset();
-            output.writeObject(SharedCostants.GAME_END);
-            output.writeObject(ranking);
-            output.flush();
-        } catch (IOException e){
-            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while communicating final ranking.");
+        synchronized (outputMutex){
+            try{
+                output.reset();
+                output.writeObject(SharedCostants.GAME_END);
+                output.writeObject(ranking);
+                output.flush();
+            } catch (IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while communicating final ranking.");
+            }
         }
     }
 
@@ -485,4 +521,8 @@ public class ServerCommunication {
         serverCommunicationInterface.endTurn();
     }
 
+    public void requestResync(){
+        serverCommunicationInterface.requestResync();
+    }
+
 }
\ No newline at end of file
@@ -67,4 +67,6 @@ public interface ServerCommunicationInterface {
     void notifySupportForTheChurch(boolean flag);
 
     void endTurn();
+
+    void requestResync();
 }
\ No newline at end of file
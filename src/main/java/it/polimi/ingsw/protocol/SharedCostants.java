@@ -27,6 +27,7 @@ package it.polimi.ingsw.protocol;
     /*package-local*/ static final String DISCARD_LEADER_CARD = "discardLeaderCard";
     /*package-local*/ static final String SUPPORT_FOR_THE_CHURCH_CHOICE = "supportForTheChurchChoice";
     /*package-local*/ static final String END_TURN = "endTurn";
+    /*package-local*/ static final String RESYNC = "resync";
 
     /**
      * Responses from server to client.
@@ -39,6 +40,7 @@ package it.polimi.ingsw.protocol;
     /*package-local*/ static final int USER_FAIL_GENERIC = 6;
     /*package-local*/ static final int ROOM_JOINED = 7;
     /*package-local*/ static final int NO_ROOM_AVAILABLE = 8;
+    /*package-local*/ static final int USER_SERVER_BUSY = 9;
 
 
     /**
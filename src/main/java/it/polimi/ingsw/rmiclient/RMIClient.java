@@ -20,6 +20,7 @@ import it.polimi.ingsw.model.FamilyMemberColor;
 import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.LeaderCard;
 import it.polimi.ingsw.model.PersonalBoardTile;
+import it.polimi.ingsw.protocol.SerializedPacket;
 import it.polimi.ingsw.rmiserver.RMIServerInterface;
 import it.polimi.ingsw.server.ServerPlayer;
 
@@ -261,8 +262,12 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
     }
 
     @Override
-    public void sendGame(Game game) throws RemoteException {
-        getClient().setGameModel(game);
+    public void sendGame(SerializedPacket game) throws RemoteException {
+        try{
+            getClient().setGameModel((Game)game.decode());
+        } catch (IOException | ClassNotFoundException e){
+            throw new RemoteException("Cannot decode the game.", e);
+        }
     }
 
     @Override
@@ -276,8 +281,12 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
     }
 
     @Override
-    public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws RemoteException {
-        getClient().notifyModelUpdate(clientUpdatePacket);
+    public void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws RemoteException {
+        try{
+            getClient().notifyModelUpdate((ClientUpdatePacket)clientUpdatePacket.decode());
+        } catch (IOException | ClassNotFoundException e){
+            throw new RemoteException("Cannot decode the model update.", e);
+        }
     }
 
     @Override
@@ -298,4 +307,13 @@ public class RMIClient extends AbstractClient implements RMIClientInterface {
             throw new NetworkException();
         }
     }
+
+    @Override
+    public void requestResync() throws NetworkException{
+        try {
+            server.requestResync(this.username);
+        } catch (RemoteException e){
+            throw new NetworkException();
+        }
+    }
 }
\ No newline at end of file
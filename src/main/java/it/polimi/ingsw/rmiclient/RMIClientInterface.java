@@ -1,9 +1,8 @@
 package it.polimi.ingsw.rmiclient;
 
-import it.polimi.ingsw.model.ClientUpdatePacket;
-import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.LeaderCard;
 import it.polimi.ingsw.model.PersonalBoardTile;
+import it.polimi.ingsw.protocol.SerializedPacket;
 import it.polimi.ingsw.server.ServerPlayer;
 
 import java.rmi.Remote;
@@ -20,10 +19,10 @@ public interface RMIClientInterface extends Remote{
 
     /**
      * Send from the server to the client the game
-     * @param game the game
+     * @param game the serialized game
      * @throws RemoteException if error occurs during network communication
      */
-    void sendGame(Game game) throws RemoteException;
+    void sendGame(SerializedPacket game) throws RemoteException;
 
     /**
      * Send from the server to the client the personal tiles
@@ -49,9 +48,10 @@ public interface RMIClientInterface extends Remote{
 
     /**
      * Send from the server to the client the game model update
+     * @param clientUpdatePacket the serialized update packet
      * @throws RemoteException if error occurs during network communication
      */
-    void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws RemoteException;
+    void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws RemoteException;
 
     /**
      * Send from the server to the client the support for the church state
@@ -1,5 +1,6 @@
 package it.polimi.ingsw.rmiserver;
 
+import it.polimi.ingsw.gameserver.Room;
 import it.polimi.ingsw.model.FamilyMemberColor;
 import it.polimi.ingsw.model.LeaderCard;
 import it.polimi.ingsw.model.PersonalBoardTile;
@@ -21,6 +22,7 @@ import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * This class extends {@link ServerAbstract} to create an RMI server.
@@ -175,9 +177,11 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      * @param personalBoardTile the personal board tile chosen
      */
     @Override
-    public void notifyPersonalBoardChoice(String username, PersonalBoardTile personalBoardTile) {
-        getPlayer(username).getPersonalBoard().setPersonalBoardTile(personalBoardTile);
-        getPlayer(username).getRoom().onPersonalTilesChosen();
+    public void notifyPersonalBoardChoice(String username, PersonalBoardTile personalBoardTile) throws RemoteException {
+        inRoom(username, (player, room) -> {
+            player.getPersonalBoard().setPersonalBoardTile(personalBoardTile);
+            room.onPersonalTilesChosen();
+        });
     }
 
     /**
@@ -186,9 +190,11 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      * @param leaderCard the leader card chosen
      */
     @Override
-    public void notifyLeaderCardChoice(String username, LeaderCard leaderCard) {
-        getPlayer(username).getPersonalBoard().setLeaderCard(leaderCard);
-        getPlayer(username).getRoom().onLeaderCardChosen();
+    public void notifyLeaderCardChoice(String username, LeaderCard leaderCard) throws RemoteException {
+        inRoom(username, (player, room) -> {
+            player.getPersonalBoard().setLeaderCard(leaderCard);
+            room.onLeaderCardChosen();
+        });
     }
 
     /**
@@ -201,7 +207,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInTower(String username, FamilyMemberColor familyMemberColor, int servants, int towerIndex, int cellIndex, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInTower(getPlayer(username), familyMemberColor, servants, towerIndex, cellIndex, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInTower(player, familyMemberColor, servants, towerIndex, cellIndex, playerChoices));
     }
 
     /**
@@ -212,7 +218,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInCouncil(String username, FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInCouncil(getPlayer(username), familyMemberColor, servants, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInCouncil(player, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -224,7 +230,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInMarket(String username, FamilyMemberColor familyMemberColor, int servants, int marketIndex, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInMarket(getPlayer(username), familyMemberColor, servants, marketIndex, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInMarket(player, familyMemberColor, servants, marketIndex, playerChoices));
     }
 
     /**
@@ -235,7 +241,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInHarvestSimple(String username, FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInHarvestSimple(getPlayer(username), familyMemberColor, servants, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInHarvestSimple(player, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -246,7 +252,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInHarvestExtended(String username, FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInHarvestExtended(getPlayer(username), familyMemberColor, servants, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInHarvestExtended(player, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -257,7 +263,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInProductionSimple(String username, FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInProductionSimple(getPlayer(username), familyMemberColor,servants, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInProductionSimple(player, familyMemberColor,servants, playerChoices));
     }
 
     /**
@@ -268,7 +274,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void setFamilyMemberInProductionExtended(String username, FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().setFamilyMemberInProductionExtended(getPlayer(username), familyMemberColor, servants, playerChoices);
+        inRoom(username, (player, room) -> room.setFamilyMemberInProductionExtended(player, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -279,7 +285,7 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void activateLeaderCard(String username, int leaderCardIndex, int servants, HashMap<String, Object> playerChoices) throws RemoteException {
-        getPlayer(username).getRoom().activateLeader(getPlayer(username), leaderCardIndex, servants, playerChoices);
+        inRoom(username, (player, room) -> room.activateLeader(player, leaderCardIndex, servants, playerChoices));
     }
 
     /**
@@ -288,8 +294,8 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      * @param playerChoices to communicate to the server the player's choices
      */
     @Override
-    public void discardLeader(String username, int leaderCardIndex, HashMap<String, Object> playerChoices) {
-        getPlayer(username).getRoom().discardLeader(getPlayer(username), leaderCardIndex, playerChoices);
+    public void discardLeader(String username, int leaderCardIndex, HashMap<String, Object> playerChoices) throws RemoteException {
+        inRoom(username, (player, room) -> room.discardLeader(player, leaderCardIndex, playerChoices));
     }
 
     /**
@@ -298,11 +304,30 @@ public class RMIServerAbstract extends ServerAbstract implements RMIServerInterf
      */
     @Override
     public void notifySupportForTheChurch(String username, boolean choice) throws RemoteException {
-        getPlayer(username).getRoom().onSupportToTheChurchChoice(getPlayer(username), choice);
+        inRoom(username, (player, room) -> room.onSupportToTheChurchChoice(player, choice));
     }
 
     @Override
-    public void endTurn(String username) {
-        getPlayer(username).getRoom().endTurn(getPlayer(username));
+    public void endTurn(String username) throws RemoteException {
+        inRoom(username, (player, room) -> room.endTurn(player));
+    }
+
+    @Override
+    public void requestResync(String username) throws RemoteException {
+        inRoom(username, (player, room) -> room.resynchronize(player));
+    }
+
+    /**
+     * Forward a game request to the room of the player.
+     * @param username of the player that performs the request.
+     * @param request to perform on the player and its room.
+     * @throws RemoteException if the player is unknown or its room has been evicted.
+     */
+    private void inRoom(String username, BiConsumer<ServerPlayer, Room> request) throws RemoteException {
+        ServerPlayer player = getPlayer(username);
+        Room room = player == null ? null : player.getRoom();
+        if(room == null)
+            throw new RemoteException(username + " is not in a room.");
+        request.accept(player, room);
     }
 }
\ No newline at end of file
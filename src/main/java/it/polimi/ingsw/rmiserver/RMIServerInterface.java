@@ -163,4 +163,11 @@ public interface RMIServerInterface extends Remote{
      * @throws RemoteException if error occurs during network communication
      */
     void endTurn(String username) throws RemoteException;
+
+    /**
+     * Asks the server the whole game model, when the one of the client is out of date
+     * @param username the player that performed the action
+     * @throws RemoteException if error occurs during network communication
+     */
+    void requestResync(String username) throws RemoteException;
 }
\ No newline at end of file
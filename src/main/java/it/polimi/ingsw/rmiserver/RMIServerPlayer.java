@@ -6,8 +6,10 @@ import it.polimi.ingsw.model.Game;
 import it.polimi.ingsw.model.LeaderCard;
 import it.polimi.ingsw.model.PersonalBoardTile;
 import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.protocol.SerializedPacket;
 import it.polimi.ingsw.rmiclient.RMIClientInterface;
 
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +25,11 @@ import java.util.List;
      */
     private transient RMIClientInterface rmiClientInterface;
 
+    /**
+     * Flag that indicates if the player has been disconnected by the server.
+     */
+    private transient volatile boolean disconnected;
+
     /**
      * Class constructor.
      * @param rmiClientInterface remote interface to send information to the client.
@@ -34,9 +41,19 @@ import java.util.List;
 
     @Override
     public void ping() throws RemoteException{
+        if(disconnected)
+            throw new RemoteException("Player disconnected by the server.");
         rmiClientInterface.ping();
     }
 
+    /**
+     * Mark the player as disconnected, the next ping fails and the player is disabled.
+     */
+    @Override
+    public void disconnect(){
+        disconnected = true;
+    }
+
     /**
      * Send to the client the game info
      * @param game game info
@@ -44,6 +61,20 @@ import java.util.List;
      */
     @Override
     public void sendGameInfo(Game game) throws NetworkException {
+        try {
+            sendGameInfo(SerializedPacket.encode(game));
+        } catch(IOException e){
+            throw new NetworkException(e);
+        }
+    }
+
+    /**
+     * Send to the client the game info already serialized
+     * @param game serialized game info
+     * @throws NetworkException if error occurs during network communication
+     */
+    @Override
+    public void sendGameInfo(SerializedPacket game) throws NetworkException {
         try {
             rmiClientInterface.sendGame(game);
         } catch(RemoteException e){
@@ -100,6 +131,19 @@ import java.util.List;
      */
     @Override
     public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws NetworkException {
+        try{
+            sendGameModelUpdate(SerializedPacket.encode(clientUpdatePacket));
+        } catch (IOException e){
+            throw new NetworkException(e);
+        }
+    }
+
+    /**
+     * Send to the client the game model updates already serialized
+     * @throws NetworkException if error occurs during network communication
+     */
+    @Override
+    public void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws NetworkException {
         try{
             rmiClientInterface.sendGameModelUpdate(clientUpdatePacket);
         } catch (RemoteException e){
@@ -0,0 +1,209 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.utility.Metrics;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed pool of connections to a SQLite database in WAL mode.
+ * In WAL mode readers never wait for the writer, so logins run in parallel on different connections,
+ * while writes are serialized by SQLite itself within the busy timeout.
+ * Each connection keeps its prepared statements, so every query is compiled once per connection.
+ */
+/*package-local*/ class ConnectionPool {
+
+    /**
+     * Metric with the time spent waiting for a free connection.
+     */
+    /*package-local*/ static final String WAIT_TIME = "db.pool.wait.micros";
+
+    /**
+     * Pragmas run on every new connection.
+     * Synchronous NORMAL is durable in WAL mode except for the last transactions on power loss.
+     */
+    private static final String[] PRAGMAS = {
+            "PRAGMA journal_mode=WAL;",
+            "PRAGMA synchronous=NORMAL;",
+            "PRAGMA temp_store=MEMORY;",
+            "PRAGMA cache_size=-8000;"
+    };
+
+    /**
+     * Connections not in use.
+     */
+    private final BlockingQueue<PooledConnection> idle;
+
+    /**
+     * All the connections of the pool.
+     */
+    private final PooledConnection[] connections;
+
+    /**
+     * Seconds to wait for a free connection or for a locked database.
+     */
+    private final int timeout;
+
+    /**
+     * Class constructor. Opens all the connections.
+     * @param url of the database.
+     * @param size number of connections.
+     * @param timeout seconds to wait for a free connection or for a locked database.
+     * @throws SQLException if a connection cannot be opened.
+     */
+    /*package-local*/ ConnectionPool(String url, int size, int timeout) throws SQLException{
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.connections = new PooledConnection[size];
+        this.timeout = timeout;
+        try {
+            for(int i = 0; i < size; i++){
+                connections[i] = new PooledConnection(DriverManager.getConnection(url));
+                idle.add(connections[i]);
+            }
+        } catch (SQLException e){
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Take a connection from the pool. It must be given back with {@link #release(PooledConnection)}.
+     * @return a connection used by nobody else.
+     * @throws SQLException if no connection gets free within the timeout.
+     */
+    /*package-local*/ PooledConnection acquire() throws SQLException{
+        long start = System.nanoTime();
+        PooledConnection connection = idle.poll();
+        if(connection == null)
+            try {
+                connection = idle.poll(timeout, TimeUnit.SECONDS);
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection.", e);
+            }
+        if(connection == null)
+            throw new SQLException("No connection available after " + timeout + " seconds.");
+        Metrics.histogram(WAIT_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        return connection;
+    }
+
+    /**
+     * Give a connection back to the pool.
+     * @param connection taken with {@link #acquire()}.
+     */
+    /*package-local*/ void release(PooledConnection connection){
+        idle.add(connection);
+    }
+
+    /**
+     * Close all the connections.
+     */
+    /*package-local*/ void close(){
+        for(PooledConnection connection : connections)
+            if(connection != null)
+                connection.close();
+    }
+
+    /**
+     * Connection with its cache of prepared statements. Used by one thread at a time.
+     */
+    /*package-local*/ class PooledConnection {
+
+        /**
+         * Connection to the database.
+         */
+        private final Connection connection;
+
+        /**
+         * Prepared statements per query.
+         */
+        private final Map<String, PreparedStatement> statements;
+
+        /**
+         * Class constructor.
+         * @param connection to the database.
+         * @throws SQLException if the pragmas cannot be set.
+         */
+        private PooledConnection(Connection connection) throws SQLException{
+            this.connection = connection;
+            this.statements = new HashMap<>();
+            Statement statement = null;
+            try {
+                statement = connection.createStatement();
+                statement.setQueryTimeout(timeout);
+                for(String pragma : PRAGMAS)
+                    statement.execute(pragma);
+                statement.execute("PRAGMA busy_timeout=" + timeout * 1000 + ";");
+            } finally {
+                if(statement != null)
+                    statement.close();
+            }
+        }
+
+        /**
+         * Get the prepared statement of a query, compiling it the first time.
+         * @param query with parameters.
+         * @return the statement, with its parameters cleared.
+         * @throws SQLException if the query is not valid.
+         */
+        /*package-local*/ PreparedStatement prepare(String query) throws SQLException{
+            PreparedStatement statement = statements.get(query);
+            if(statement == null){
+                statement = connection.prepareStatement(query);
+                statement.setQueryTimeout(timeout);
+                statements.put(query, statement);
+            }
+            else
+                statement.clearParameters();
+            return statement;
+        }
+
+        /**
+         * Run a statement without parameters, like the creation of a table.
+         * @param query to run.
+         * @throws SQLException if database errors occur.
+         */
+        /*package-local*/ void execute(String query) throws SQLException{
+            Statement statement = null;
+            try {
+                statement = connection.createStatement();
+                statement.setQueryTimeout(timeout);
+                statement.executeUpdate(query);
+            } finally {
+                if(statement != null)
+                    statement.close();
+            }
+        }
+
+        /**
+         * Get the connection, to manage transactions.
+         * @return the connection.
+         */
+        /*package-local*/ Connection getConnection(){
+            return this.connection;
+        }
+
+        /**
+         * Close the statements and the connection.
+         */
+        private void close(){
+            try {
+                for(PreparedStatement statement : statements.values())
+                    statement.close();
+                statements.clear();
+                connection.close();
+            } catch (SQLException e){
+                // the connection is being discarded
+            }
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.LoginErrorType;
+import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded cache of the credentials of registered users, in front of the database.
+ * Logins of cached users never reach the database, so reconnections after a network failure do not
+ * queue on the connection pool. New users are written to the database and then to the cache.
+ * Passwords are stored as salted hashes. Plaintext passwords, from before hashing, are replaced by their
+ * hash on the next successful login of the user.
+ * When the cache is full the oldest entries are dropped: they are read again from the database on the next login.
+ * Each cached user is one {@link Credential}, queued once when it is cached and evicted only if it is still the
+ * cached one, so the queue never holds the same user twice. Lookups and updates never block each other.
+ */
+/*package-local*/ class CredentialCache {
+
+    /**
+     * Metric with the number of logins checked on the cache.
+     */
+    /*package-local*/ static final String HITS = "credentials.hits";
+
+    /**
+     * Metric with the number of logins checked on the database.
+     */
+    /*package-local*/ static final String MISSES = "credentials.misses";
+
+    /**
+     * Metric with the number of plaintext passwords replaced by their hash.
+     */
+    /*package-local*/ static final String MIGRATED = "credentials.migrated";
+
+    /**
+     * Database of the users.
+     */
+    private final DBServer dbServer;
+
+    /**
+     * Hasher of the passwords.
+     */
+    private final PasswordHasher hasher;
+
+    /**
+     * Maximum number of cached users.
+     */
+    private final int capacity;
+
+    /**
+     * Stored password of each cached user.
+     */
+    private final Map<String, Credential> passwords;
+
+    /**
+     * Cached users, from the oldest.
+     */
+    private final Queue<Credential> insertionOrder;
+
+    /**
+     * Class constructor.
+     * @param dbServer database of the users.
+     * @param hasher of the passwords.
+     * @param capacity maximum number of cached users.
+     */
+    /*package-local*/ CredentialCache(DBServer dbServer, PasswordHasher hasher, int capacity){
+        this.dbServer = dbServer;
+        this.hasher = hasher;
+        this.capacity = capacity;
+        this.passwords = new ConcurrentHashMap<>();
+        this.insertionOrder = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Register a new user on the database and cache its credentials.
+     * @param username of the user.
+     * @param pass of the user.
+     * @throws LoginException if the username is taken or a database error occurs.
+     * @throws SQLException if no connection to the database is available.
+     */
+    /*package-local*/ void signIn(String username, String pass) throws LoginException, SQLException{
+        register(username, hash(pass));
+    }
+
+    /**
+     * Hash the password of a new user, so it can be computed before taking any lock.
+     * @param pass of the user.
+     * @return the hash to register.
+     * @throws LoginException if the hasher is too busy.
+     */
+    /*package-local*/ String hash(String pass) throws LoginException{
+        return hasher.hash(pass);
+    }
+
+    /**
+     * Register a new user on the database with a password already hashed and cache its credentials.
+     * @param username of the user.
+     * @param hash of the password, from {@link #hash(String)}.
+     * @throws LoginException if the username is taken or a database error occurs.
+     * @throws SQLException if no connection to the database is available.
+     */
+    /*package-local*/ void register(String username, String hash) throws LoginException, SQLException{
+        dbServer.signInPlayer(username, hash);
+        put(username, hash);
+    }
+
+    /**
+     * Check the credentials of a user, reading them from the database if they are not cached.
+     * @param username of the user.
+     * @param pass of the user.
+     * @throws LoginException if the user does not exist, the password is wrong or a database error occurs.
+     * @throws SQLException if no connection to the database is available.
+     */
+    /*package-local*/ void login(String username, String pass) throws LoginException, SQLException{
+        Credential cached = passwords.get(username);
+        String registered = cached == null ? null : cached.password;
+        if(registered != null)
+            Metrics.increment(HITS);
+        else{
+            Metrics.increment(MISSES);
+            registered = dbServer.getPassword(username);
+            if(registered == null)
+                throw new LoginException(LoginErrorType.USER_NOT_EXISTS);
+            put(username, registered);
+        }
+        if(!hasher.verify(pass, registered))
+            throw new LoginException(LoginErrorType.USER_WRONG_PASSWORD);
+        if(!PasswordHasher.isHashed(registered))
+            migrate(username, registered);
+    }
+
+    /**
+     * Replace a plaintext password with its hash. If the password changed meanwhile, the new one is kept.
+     * If the hash cannot be computed or saved now, the password stays plaintext until the next login.
+     * @param username of the user.
+     * @param plaintext password, already checked.
+     */
+    private void migrate(String username, String plaintext){
+        try {
+            String hash = hasher.hash(plaintext);
+            Credential cached = passwords.get(username);
+            if(dbServer.updatePassword(username, plaintext, hash)){
+                Metrics.increment(MIGRATED);
+                if(cached != null)
+                    cached.replace(plaintext, hash);
+            }
+            else if(cached != null && plaintext.equals(cached.password) && passwords.remove(username, cached))
+                insertionOrder.remove(cached);
+        } catch (LoginException | SQLException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot hash the password of " + username + ".");
+        }
+    }
+
+    /**
+     * Get the number of cached users.
+     * @return size of the cache.
+     */
+    /*package-local*/ int size(){
+        return passwords.size();
+    }
+
+    /**
+     * Get the number of users queued for eviction.
+     * @return length of the eviction queue.
+     */
+    /*package-local*/ int queued(){
+        return insertionOrder.size();
+    }
+
+    /**
+     * Cache the credentials of a user, dropping the oldest users above the capacity.
+     * @param username of the user.
+     * @param pass of the user.
+     */
+    private void put(String username, String pass){
+        Credential created = new Credential(username, pass);
+        Credential cached = passwords.putIfAbsent(username, created);
+        if(cached == null)
+            insertionOrder.add(created);
+        else
+            cached.password = pass;
+        while(passwords.size() > capacity){
+            Credential oldest = insertionOrder.poll();
+            if(oldest == null)
+                break;
+            passwords.remove(oldest.username, oldest);
+        }
+    }
+
+    /**
+     * Cached credentials of a user. Credentials are compared by identity, so a queued one evicts only itself.
+     */
+    private static class Credential {
+
+        /**
+         * Username of the user.
+         */
+        private final String username;
+
+        /**
+         * Stored password of the user.
+         */
+        private volatile String password;
+
+        /**
+         * Class constructor.
+         * @param username of the user.
+         * @param password stored.
+         */
+        private Credential(String username, String password){
+            this.username = username;
+            this.password = password;
+        }
+
+        /**
+         * Replace the password, if it has not changed meanwhile.
+         * @param expected password.
+         * @param replacement password.
+         */
+        private synchronized void replace(String expected, String replacement){
+            if(expected.equals(password))
+                password = replacement;
+        }
+    }
+
+}
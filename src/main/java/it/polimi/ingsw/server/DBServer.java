@@ -2,16 +2,17 @@ package it.polimi.ingsw.server;
 
 import it.polimi.ingsw.exceptions.LoginErrorType;
 import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.gameserver.GameResult;
+import it.polimi.ingsw.server.ConnectionPool.PooledConnection;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * Class used to manage database server based on SQL Lite.
+ * Queries run on a pool of connections in WAL mode, so logins do not wait for each other.
+ * Passwords are stored as given: hashing is done by {@link PasswordHasher} before reaching the database.
  */
 /*package-local*/ class DBServer {
 
@@ -26,14 +27,65 @@ import java.sql.Statement;
     private static final int TIMEOUT = 60;
 
     /**
-     * Connection object.
+     * Default number of connections.
      */
-    private Connection connection;
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * Query to read the password of a user.
+     */
+    private static final String LOGIN_QUERY = "SELECT pass FROM users WHERE username=?;";
+
+    /**
+     * Query to register a user, ignored if the username is taken.
+     */
+    private static final String SIGN_IN_QUERY = "INSERT OR IGNORE INTO users (username, pass) VALUES(?, ?);";
+
+    /**
+     * Query to replace a password, if it has not changed meanwhile.
+     */
+    private static final String UPDATE_PASSWORD_QUERY = "UPDATE users SET pass=? WHERE username=? AND pass=?;";
+
+    /**
+     * Query to save the position of a player in a game.
+     */
+    private static final String RESULT_QUERY = "INSERT INTO results (room, finished, position, username, points) VALUES(?, ?, ?, ?, ?);";
+
+    /**
+     * Query to read the identifier of the last room with a result.
+     */
+    private static final String LAST_ROOM_QUERY = "SELECT MAX(room) FROM results;";
+
+    /**
+     * Database address.
+     */
+    private final String url;
+
+    /**
+     * Number of connections.
+     */
+    private final int poolSize;
+
+    /**
+     * Pool of connections.
+     */
+    private ConnectionPool pool;
 
     /**
      * Class constructor.
      */
     /*package-local*/DBServer(){
+        this(URL, POOL_SIZE);
+    }
+
+    /**
+     * Class constructor.
+     * @param url of the database.
+     * @param poolSize number of connections.
+     */
+    /*package-local*/ DBServer(String url, int poolSize){
+        this.url = url;
+        this.poolSize = poolSize;
     }
 
     /**
@@ -42,18 +94,26 @@ import java.sql.Statement;
      */
     /*package-local*/ void connectToDatabase() throws SQLException {
         String query = "CREATE TABLE IF NOT EXISTS users (username text PRIMARY KEY, pass text NOT NULL);";
-        this.connection = DriverManager.getConnection(URL);
-        Statement statement = null;
+        String resultsQuery = "CREATE TABLE IF NOT EXISTS results (room integer NOT NULL, finished integer NOT NULL, " +
+                "position integer NOT NULL, username text NOT NULL, points integer NOT NULL);";
+        this.pool = new ConnectionPool(url, poolSize, TIMEOUT);
+        PooledConnection connection = pool.acquire();
         try {
-            statement = connection.createStatement();
-            statement.setQueryTimeout(TIMEOUT);
-            statement.executeUpdate(query);
+            connection.execute(query);
+            connection.execute(resultsQuery);
         } finally {
-            if(statement != null)
-                statement.close();
+            pool.release(connection);
         }
     }
 
+    /**
+     * Close the connections to the database.
+     */
+    /*package-local*/ void close(){
+        if(pool != null)
+            pool.close();
+    }
+
     /**
      * Method to register a new player into the database.
      * @param username passed by client.
@@ -61,86 +121,112 @@ import java.sql.Statement;
      * @throws LoginException if player can't signed in because of some error.
      */
     /*package-local*/ void signInPlayer(String username, String pass) throws LoginException, SQLException{
-        String query = "INSERT INTO users (username, pass) VALUES(?, ?);";
-        if(!isAlreadyRegistered(username)) {
-            PreparedStatement preparedStatement = null;
+        PooledConnection connection = pool.acquire();
+        try {
+            PreparedStatement preparedStatement = connection.prepare(SIGN_IN_QUERY);
+            preparedStatement.setString(1, username);
+            preparedStatement.setString(2, pass);
+            if(preparedStatement.executeUpdate() == 0)
+                throw new LoginException(LoginErrorType.USER_ALREADY_EXISTS);
+        } catch (SQLException e) {
+            throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Method to read the password of a user. A single query tells if the user exists and gets its password,
+     * which is checked by {@link PasswordHasher#verify(String, String)}.
+     * @param username passed by client.
+     * @return the password, or null if the user is not registered.
+     * @throws LoginException if a SQL error occurs.
+     */
+    /*package-local*/ String getPassword(String username) throws LoginException, SQLException{
+        PooledConnection connection = pool.acquire();
+        try {
+            PreparedStatement preparedStatement = connection.prepare(LOGIN_QUERY);
+            preparedStatement.setString(1, username);
+            ResultSet resultSet = preparedStatement.executeQuery();
             try {
-                preparedStatement = connection.prepareStatement(query);
-                preparedStatement.setString(1, username);
-                preparedStatement.setString(2, pass);
-                preparedStatement.executeUpdate();
-                preparedStatement.close();
-            } catch (SQLException e) {
-                throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+                return resultSet.next() ? resultSet.getString("pass") : null;
             } finally {
-                if(preparedStatement != null)
-                    preparedStatement.close();
+                resultSet.close();
             }
-        }
-        else {
-            throw new LoginException(LoginErrorType.USER_ALREADY_EXISTS);
+        } catch (SQLException e) {
+            throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+        } finally {
+            pool.release(connection);
         }
     }
 
     /**
-     * Method to loginPlayer a user.
+     * Method to replace the stored password of a user, like a plaintext password with its hash.
      * @param username passed by client.
-     * @param pass passed by client.
-     * @throws LoginException if some error occurs during loginPlayer.
+     * @param oldPass stored password.
+     * @param newPass to store.
+     * @return false if the stored password is not oldPass anymore.
+     * @throws SQLException if database errors occur.
+     */
+    /*package-local*/ boolean updatePassword(String username, String oldPass, String newPass) throws SQLException{
+        PooledConnection connection = pool.acquire();
+        try {
+            PreparedStatement preparedStatement = connection.prepare(UPDATE_PASSWORD_QUERY);
+            preparedStatement.setString(1, newPass);
+            preparedStatement.setString(2, username);
+            preparedStatement.setString(3, oldPass);
+            return preparedStatement.executeUpdate() == 1;
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    /**
+     * Method to read the identifier of the last room with a saved result, so new rooms never reuse it.
+     * @return identifier of the room, 0 if no result is saved.
+     * @throws SQLException if database errors occur.
      */
-    /*package-local*/ void loginPlayer(String username, String pass) throws LoginException, SQLException{
-        String query = "SELECT COUNT(*) AS number FROM users WHERE username=? AND pass=?;";
-        if(isAlreadyRegistered(username)) {
-            PreparedStatement preparedStatement = null;
-            ResultSet resultSet = null;
+    /*package-local*/ int getLastRoomID() throws SQLException{
+        PooledConnection connection = pool.acquire();
+        try {
+            ResultSet resultSet = connection.prepare(LAST_ROOM_QUERY).executeQuery();
             try {
-                preparedStatement = connection.prepareStatement(query);
-                preparedStatement.setString(1, username);
-                preparedStatement.setString(2, pass);
-                resultSet = preparedStatement.executeQuery();
-                while (resultSet.next())
-                    if (resultSet.getInt("number") == 0)
-                        throw new LoginException(LoginErrorType.USER_WRONG_PASSWORD);
-            } catch (SQLException e) {
-                throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+                return resultSet.next() ? resultSet.getInt(1) : 0;
             } finally {
-                if(preparedStatement != null)
-                    preparedStatement.close();
-                if(resultSet != null)
-                    resultSet.close();
+                resultSet.close();
             }
+        } finally {
+            pool.release(connection);
         }
-        else
-            throw new LoginException(LoginErrorType.USER_NOT_EXISTS);
-
     }
 
     /**
-     * Method that return true if the user is already registered, otherwise false.
-     * @param username passed by client.
-     * @return a boolean.
-     * @throws LoginException if a SQL error occurs.
+     * Method to save the final ranking of a game, one row per player, in a single transaction.
+     * @param result of the game.
+     * @throws SQLException if database errors occur.
      */
-    private boolean isAlreadyRegistered(String username) throws LoginException, SQLException{
-        String query = "SELECT COUNT(*) AS number FROM users WHERE username=?";
-        boolean flag = false;
-        PreparedStatement preparedStatement = null;
-        try{
-            preparedStatement = connection.prepareStatement(query);
-            preparedStatement.setString(1, username);
-            ResultSet resultSet = preparedStatement.executeQuery();
-            while(resultSet.next())
-                if (resultSet.getInt("number") == 1)
-                    flag = true;
-            resultSet.close();
-            preparedStatement.close();
-            return flag;
-        } catch(SQLException e){
-            throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+    /*package-local*/ void saveGameResult(GameResult result) throws SQLException{
+        PooledConnection connection = pool.acquire();
+        try {
+            connection.getConnection().setAutoCommit(false);
+            PreparedStatement preparedStatement = connection.prepare(RESULT_QUERY);
+            for(int i = 0; i < result.getRanking().size(); i++){
+                preparedStatement.setInt(1, result.getRoomID());
+                preparedStatement.setLong(2, result.getFinishedAt());
+                preparedStatement.setInt(3, i + 1);
+                preparedStatement.setString(4, result.getRanking().get(i));
+                preparedStatement.setInt(5, result.getVictoryPoints().get(i));
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.getConnection().commit();
+        } catch (SQLException e) {
+            connection.getConnection().rollback();
+            throw e;
         } finally {
-            if(preparedStatement != null)
-                preparedStatement.close();
+            connection.getConnection().setAutoCommit(true);
+            pool.release(connection);
         }
     }
 
-}
\ No newline at end of file
+}
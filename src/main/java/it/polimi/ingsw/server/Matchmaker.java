@@ -0,0 +1,403 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.RoomException;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.utility.DeadlineScheduler;
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Matchmaking lobby with a queue of waiting players per room size.
+ * Players are batched into rooms: a room is created as soon as a queue holds enough players for it,
+ * so it starts at once. When a queue holds at least two players for the waiting time, the players
+ * waiting are put in a smaller room. When bots are enabled, a player waiting alone for the waiting time of bots,
+ * much longer than the one of the rooms, gets a room filled with bots: a second player arriving in the meantime
+ * still finds him. Each queue has its own lock, so different sizes never contend.
+ */
+/*package-local*/ class Matchmaker {
+
+    /**
+     * Smallest room size.
+     */
+    /*package-local*/ static final int MIN_ROOM_SIZE = 2;
+
+    /**
+     * Biggest room size.
+     */
+    /*package-local*/ static final int MAX_ROOM_SIZE = 4;
+
+    /**
+     * Room size of the players that join when no one is waiting.
+     */
+    /*package-local*/ static final int DEFAULT_ROOM_SIZE = MAX_ROOM_SIZE;
+
+    /**
+     * Prefix of the metrics with the time spent in a queue, followed by the room size.
+     */
+    /*package-local*/ static final String WAIT_TIME = "matchmaking.wait.millis.";
+
+    /**
+     * Metric with the number of rooms created.
+     */
+    /*package-local*/ static final String ROOMS = "matchmaking.rooms";
+
+    /**
+     * Metric with the number of bots added to rooms.
+     */
+    /*package-local*/ static final String BOTS = "matchmaking.bots";
+
+    /**
+     * Default milliseconds a player waits alone before bots fill his room.
+     */
+    /*package-local*/ static final long DEFAULT_BOT_WAITING_TIME = 60 * 1000L;
+
+    /**
+     * Registry of the rooms created.
+     */
+    private final RoomRegistry rooms;
+
+    /**
+     * Configuration of new rooms.
+     */
+    private final Supplier<Configuration> configuration;
+
+    /**
+     * Factory of the bots that fill the rooms, null if bots are disabled.
+     */
+    private final Supplier<ServerPlayer> bots;
+
+    /**
+     * Milliseconds a player waits alone before bots fill his room.
+     */
+    private final long botWaitingTime;
+
+    /**
+     * Queues per room size.
+     */
+    private final Map<Integer, Queue> queues;
+
+    /**
+     * Queue of each waiting player, per username.
+     */
+    private final Map<String, Queue> waitingPlayers;
+
+    /**
+     * Class constructor, without bots.
+     * @param rooms registry of the rooms created.
+     * @param configuration of new rooms.
+     */
+    /*package-local*/ Matchmaker(RoomRegistry rooms, Supplier<Configuration> configuration){
+        this(rooms, configuration, null, DEFAULT_BOT_WAITING_TIME);
+    }
+
+    /**
+     * Class constructor.
+     * @param rooms registry of the rooms created.
+     * @param configuration of new rooms.
+     * @param bots factory of the bots that fill the rooms, null to disable them.
+     * @param botWaitingTime milliseconds a player waits alone before bots fill his room.
+     */
+    /*package-local*/ Matchmaker(RoomRegistry rooms, Supplier<Configuration> configuration, Supplier<ServerPlayer> bots,
+                                 long botWaitingTime){
+        this.rooms = rooms;
+        this.configuration = configuration;
+        this.bots = bots;
+        this.botWaitingTime = botWaitingTime;
+        this.queues = new ConcurrentHashMap<>();
+        this.waitingPlayers = new ConcurrentHashMap<>();
+        for(int size = MIN_ROOM_SIZE; size <= MAX_ROOM_SIZE; size++)
+            queues.put(size, new Queue(size));
+    }
+
+    /**
+     * Put a player in the queue of a room size.
+     * @param player that is waiting.
+     * @param size of the room.
+     * @return the room created if the player completed it, null if the player is waiting.
+     * @throws RoomException if the size is not allowed.
+     */
+    /*package-local*/ Room enqueue(ServerPlayer player, int size) throws RoomException{
+        Queue queue = queues.get(size);
+        if(queue == null)
+            throw new RoomException("Rooms have from " + MIN_ROOM_SIZE + " to " + MAX_ROOM_SIZE + " players.");
+        return queue.add(player);
+    }
+
+    /**
+     * Put a player in the queue closest to create a room, or in the queue of the default size if no one is waiting.
+     * Smaller rooms are still created for him when the waiting time expires.
+     * @param player that is waiting.
+     * @return the room created if the player completed it, null if the player is waiting.
+     */
+    /*package-local*/ Room join(ServerPlayer player){
+        Queue best = null;
+        for(Queue queue : queues.values()){
+            int missing = queue.missing();
+            if(missing < queue.size && (best == null || missing < best.missing()))
+                best = queue;
+        }
+        if(best == null)
+            best = queues.get(DEFAULT_ROOM_SIZE);
+        return best.add(player);
+    }
+
+    /**
+     * Replace the session of a waiting player, when he logs in again.
+     * @param player new session of the player.
+     * @return true if the player is waiting in a queue.
+     */
+    /*package-local*/ boolean requeue(ServerPlayer player){
+        Queue queue = waitingPlayers.get(player.getUsername());
+        return queue != null && queue.replace(player);
+    }
+
+    /**
+     * Remove a player from his queue, when his connection goes down. A newer session of the player stays queued.
+     * @param player session that went down.
+     * @return true if the player was waiting.
+     */
+    /*package-local*/ boolean leave(ServerPlayer player){
+        Queue queue = waitingPlayers.get(player.getUsername());
+        return queue != null && queue.remove(player);
+    }
+
+    /**
+     * Get the number of players waiting for a room size.
+     * @param size of the room.
+     * @return waiting players.
+     */
+    /*package-local*/ int waiting(int size){
+        Queue queue = queues.get(size);
+        return queue == null ? 0 : queue.size - queue.missing();
+    }
+
+    /**
+     * Create a room with a batch of players and record how long they waited. Bots fill the room up to the
+     * smallest room size.
+     * @param batch of players.
+     * @param size requested by the players.
+     * @return the room created.
+     */
+    private Room createRoom(List<Waiting> batch, int size){
+        List<ServerPlayer> players = new ArrayList<>();
+        long now = System.nanoTime();
+        for(Waiting waiting : batch){
+            players.add(waiting.player);
+            Metrics.histogram(WAIT_TIME + size).record(TimeUnit.NANOSECONDS.toMillis(now - waiting.since));
+        }
+        while(players.size() < MIN_ROOM_SIZE){
+            players.add(bots.get());
+            Metrics.increment(BOTS);
+        }
+        try{
+            Room room = rooms.create(players, configuration.get());
+            Metrics.increment(ROOMS);
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Room #" + room.getRoomID() + " created with " + players.size() + " players.");
+            return room;
+        } catch (RoomException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot create a room.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Queue of the players waiting for a room size.
+     */
+    private class Queue {
+
+        /**
+         * Size of the rooms.
+         */
+        private final int size;
+
+        /**
+         * Waiting players, from the first arrived.
+         */
+        private final Deque<Waiting> players;
+
+        /**
+         * Deadline after which the waiting players get a smaller room.
+         */
+        private DeadlineScheduler.Deadline deadline;
+
+        /**
+         * Flag that indicates if the deadline is the one of a player waiting alone for bots.
+         */
+        private boolean botDeadline;
+
+        /**
+         * Number of deadlines cancelled, so that a deadline cancelled while expiring does nothing.
+         */
+        private int generation;
+
+        /**
+         * Class constructor.
+         * @param size of the rooms.
+         */
+        private Queue(int size){
+            this.size = size;
+            this.players = new ArrayDeque<>();
+        }
+
+        /**
+         * Add a player. If the queue holds enough players, a room is created with the first ones.
+         * @param player that is waiting.
+         * @return the room created, or null.
+         */
+        private Room add(ServerPlayer player){
+            List<Waiting> batch = null;
+            synchronized (this){
+                players.add(new Waiting(player));
+                waitingPlayers.put(player.getUsername(), this);
+                if(players.size() >= size){
+                    batch = poll(size);
+                    cancelDeadline();
+                }
+                updateDeadline();
+            }
+            return batch == null ? null : createRoom(batch, size);
+        }
+
+        /**
+         * Replace the session of a waiting player.
+         * @param player new session of the player.
+         * @return true if the player was waiting in this queue.
+         */
+        private synchronized boolean replace(ServerPlayer player){
+            for(Waiting waiting : players)
+                if(waiting.player.getUsername().equals(player.getUsername())){
+                    waiting.player = player;
+                    return true;
+                }
+            return false;
+        }
+
+        /**
+         * Remove a waiting player, and stop or switch the deadline for the players left.
+         * @param player session of the player.
+         * @return true if the session was waiting in this queue.
+         */
+        private synchronized boolean remove(ServerPlayer player){
+            for(Iterator<Waiting> iterator = players.iterator(); iterator.hasNext(); ){
+                Waiting waiting = iterator.next();
+                if(waiting.player == player){
+                    iterator.remove();
+                    waitingPlayers.remove(player.getUsername(), this);
+                    updateDeadline();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Get the number of players missing to create a room.
+         * @return missing players.
+         */
+        private synchronized int missing(){
+            return size - players.size();
+        }
+
+        /**
+         * Deadline expired: the waiting players get a room, if they are at least two or bots fill it.
+         * @param scheduled generation of the deadline.
+         */
+        private void expire(int scheduled){
+            List<Waiting> batch = null;
+            synchronized (this){
+                if(scheduled != generation)
+                    return;
+                deadline = null;
+                if(players.size() >= MIN_ROOM_SIZE || (bots != null && !players.isEmpty()))
+                    batch = poll(players.size());
+                updateDeadline();
+            }
+            if(batch != null)
+                createRoom(batch, size);
+        }
+
+        /**
+         * Remove the first players. Must hold the queue lock.
+         * @param number of players.
+         * @return the players removed.
+         */
+        private List<Waiting> poll(int number){
+            List<Waiting> batch = new ArrayList<>(number);
+            for(int i = 0; i < number; i++){
+                Waiting waiting = players.poll();
+                waitingPlayers.remove(waiting.player.getUsername(), this);
+                batch.add(waiting);
+            }
+            return batch;
+        }
+
+        /**
+         * Start the deadline when enough players wait to get a room, cancel it otherwise. A player waiting alone
+         * gets the deadline of bots, counted from when he started waiting. Must hold the queue lock.
+         */
+        private void updateDeadline(){
+            boolean forBots = players.size() < MIN_ROOM_SIZE;
+            if(players.isEmpty() || (forBots && bots == null)){
+                cancelDeadline();
+                return;
+            }
+            if(deadline != null && botDeadline == forBots)
+                return;
+            cancelDeadline();
+            long delay = configuration.get().getWaitingTime();
+            if(forBots)
+                delay = Math.max(0, botWaitingTime - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - players.peek().since));
+            botDeadline = forBots;
+            int scheduled = generation;
+            deadline = DeadlineScheduler.schedule(delay, () -> expire(scheduled));
+        }
+
+        /**
+         * Cancel the deadline, if any. Must hold the queue lock.
+         */
+        private void cancelDeadline(){
+            if(deadline != null){
+                deadline.cancel();
+                deadline = null;
+                generation++;
+            }
+        }
+    }
+
+    /**
+     * Player waiting in a queue.
+     */
+    private static class Waiting {
+
+        /**
+         * Session of the player.
+         */
+        private ServerPlayer player;
+
+        /**
+         * Time at which the player started waiting, as returned by System.nanoTime().
+         */
+        private final long since;
+
+        /**
+         * Class constructor.
+         * @param player that is waiting.
+         */
+        private Waiting(ServerPlayer player){
+            this.player = player;
+            this.since = System.nanoTime();
+        }
+    }
+
+}
@@ -0,0 +1,385 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.NetworkException;
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded queue of the messages sent to a player. Messages are written by a task on a shared pool of writers,
+ * so the room never waits for a slow client or a hung RMI callback.
+ * Messages can have a key: a newer message with the same key makes the pending one useless (like the latest
+ * model update or turn notification), and takes its place in the queue. When the queue is full the
+ * {@link Policy} decides what to do. Only model updates can be dropped: control messages like the turn
+ * notifications are always delivered or the player is disconnected.
+ */
+public class OutboundQueue {
+
+    /**
+     * Key of model update messages.
+     */
+    public static final String MODEL_UPDATE = "modelUpdate";
+
+    /**
+     * Key of turn started messages.
+     */
+    public static final String TURN_STARTED = "turnStarted";
+
+    /**
+     * Metric with the depth of the queues when a message is added.
+     */
+    public static final String DEPTH = "outbound.depth";
+
+    /**
+     * Metric with the number of pending messages replaced by newer ones.
+     */
+    public static final String COALESCED = "outbound.coalesced";
+
+    /**
+     * Metric with the number of messages dropped.
+     */
+    public static final String DROPPED = "outbound.dropped";
+
+    /**
+     * Metric with the number of players disconnected because too slow.
+     */
+    public static final String DISCONNECTED = "outbound.disconnected";
+
+    /**
+     * Metric with the number of messages that could not be written.
+     */
+    public static final String FAILED = "outbound.failed";
+
+    /**
+     * Default capacity of the queues.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Max number of writer threads.
+     */
+    private static final int WRITER_THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 4);
+
+    /**
+     * Number of the last writer thread created, for the thread names.
+     */
+    private static final AtomicInteger WRITER_COUNT = new AtomicInteger();
+
+    /**
+     * Shared writers. A hung client holds a single writer, other players are served by the others; when all the
+     * writers are busy the queues wait for a free one, so a storm of slow clients does not create a thread each.
+     */
+    private static final ThreadPoolExecutor WRITERS = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+        Thread thread = new Thread(task, "outbound-writer-" + WRITER_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        WRITERS.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Policy used by new queues.
+     */
+    private static volatile Policy defaultPolicy = Policy.COALESCE;
+
+    /**
+     * Capacity of new queues.
+     */
+    private static volatile int defaultCapacity = DEFAULT_CAPACITY;
+
+    /**
+     * Player that receives the messages.
+     */
+    private final ServerPlayer player;
+
+    /**
+     * Policy applied to a slow player.
+     */
+    private final Policy policy;
+
+    /**
+     * Max number of pending messages.
+     */
+    private final int capacity;
+
+    /**
+     * Pending messages.
+     */
+    private final LinkedList<Entry> messages;
+
+    /**
+     * Flag that indicates if a writer is scheduled or running.
+     */
+    private boolean scheduled;
+
+    /**
+     * Flag that indicates if the player has been disconnected by the queue.
+     */
+    private boolean closed;
+
+    /**
+     * Number of messages dropped by this queue.
+     */
+    private long drops;
+
+    /**
+     * Class constructor, with the default policy and capacity.
+     * @param player that receives the messages.
+     */
+    public OutboundQueue(ServerPlayer player){
+        this(player, defaultPolicy, defaultCapacity);
+    }
+
+    /**
+     * Class constructor.
+     * @param player that receives the messages.
+     * @param policy applied when the queue is full.
+     * @param capacity max number of pending messages.
+     */
+    public OutboundQueue(ServerPlayer player, Policy policy, int capacity){
+        this.player = player;
+        this.policy = policy;
+        this.capacity = Math.max(1, capacity);
+        this.messages = new LinkedList<>();
+    }
+
+    /**
+     * Set policy and capacity of the queues created from now on.
+     * @param policy applied when a queue is full.
+     * @param capacity max number of pending messages.
+     */
+    public static void setDefaults(Policy policy, int capacity){
+        defaultPolicy = policy;
+        defaultCapacity = capacity;
+    }
+
+    /**
+     * Queue a message that must be delivered.
+     * @param message to send.
+     */
+    public void send(Message message){
+        send(null, message);
+    }
+
+    /**
+     * Queue a message.
+     * @param key of the message, null if the message must be delivered.
+     * @param message to send.
+     */
+    public void send(String key, Message message){
+        boolean disconnect = false;
+        synchronized (this){
+            if(closed){
+                drop();
+                return;
+            }
+            if(key != null && policy == Policy.COALESCE && replacePending(key, message)){
+                Metrics.increment(COALESCED);
+                return;
+            }
+            if(messages.size() >= capacity && policy == Policy.DROP){
+                if(isDroppable(key)){
+                    drop();
+                    return;
+                }
+                if(removeDroppable())
+                    drop();
+            }
+            if(messages.size() >= capacity){
+                disconnect = true;
+                closed = true;
+                drops += messages.size() + 1L;
+                Metrics.add(DROPPED, messages.size() + 1L);
+                messages.clear();
+            }
+            else{
+                messages.add(new Entry(key, message));
+                Metrics.record(DEPTH, messages.size());
+                schedule();
+            }
+        }
+        if(disconnect){
+            Metrics.increment(DISCONNECTED);
+            Printer.printDebugMessage(this.getClass().getSimpleName(), player.getUsername() + " is too slow, disconnecting.");
+            player.disconnect();
+        }
+    }
+
+    /**
+     * Get the number of pending messages.
+     * @return depth of the queue.
+     */
+    public synchronized int depth(){
+        return messages.size();
+    }
+
+    /**
+     * Get the number of messages dropped by this queue.
+     * @return dropped messages.
+     */
+    public synchronized long drops(){
+        return drops;
+    }
+
+    /**
+     * Replace the pending message with a key, keeping its place in the queue.
+     * @param key of the message.
+     * @param message that replaces the pending one.
+     * @return true if a message has been replaced.
+     */
+    private boolean replacePending(String key, Message message){
+        ListIterator<Entry> iterator = messages.listIterator();
+        while(iterator.hasNext())
+            if(key.equals(iterator.next().key)){
+                iterator.set(new Entry(key, message));
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * Remove the oldest pending message that can be dropped, to make room for a control message.
+     * @return true if a message has been removed.
+     */
+    private boolean removeDroppable(){
+        Iterator<Entry> iterator = messages.iterator();
+        while(iterator.hasNext())
+            if(isDroppable(iterator.next().key)){
+                iterator.remove();
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * Check if the {@link Policy#DROP} policy can discard a message.
+     * @param key of the message.
+     * @return true if the message is a model update.
+     */
+    private static boolean isDroppable(String key){
+        return MODEL_UPDATE.equals(key);
+    }
+
+    /**
+     * Count a dropped message.
+     */
+    private void drop(){
+        drops++;
+        Metrics.increment(DROPPED);
+    }
+
+    /**
+     * Schedule a writer if there are pending messages and no writer is running. Must hold the queue lock.
+     */
+    private void schedule(){
+        if(!scheduled && !messages.isEmpty()){
+            scheduled = true;
+            WRITERS.execute(this::drain);
+        }
+    }
+
+    /**
+     * Write pending messages in order, then release the writer.
+     */
+    private void drain(){
+        while(true){
+            Entry entry;
+            synchronized (this){
+                entry = messages.poll();
+                if(entry == null){
+                    scheduled = false;
+                    return;
+                }
+            }
+            try{
+                entry.message.sendTo(player);
+            } catch (NetworkException | RuntimeException e){
+                Metrics.increment(FAILED);
+                Printer.printDebugMessage(this.getClass().getSimpleName(), player.getUsername() + " won't receive a message.");
+            }
+        }
+    }
+
+    /**
+     * Message waiting to be sent.
+     */
+    @FunctionalInterface
+    public interface Message {
+
+        /**
+         * Send the message.
+         * @param player that receives the message.
+         * @throws NetworkException if errors occur during communication.
+         */
+        void sendTo(ServerPlayer player) throws NetworkException;
+    }
+
+    /**
+     * Pending message with its key.
+     */
+    private static class Entry {
+
+        /**
+         * Key of the message, null if the message must be delivered.
+         */
+        private final String key;
+
+        /**
+         * Message to send.
+         */
+        private final Message message;
+
+        /**
+         * Class constructor.
+         * @param key of the message.
+         * @param message to send.
+         */
+        private Entry(String key, Message message){
+            this.key = key;
+            this.message = message;
+        }
+    }
+
+    /**
+     * What to do with a player whose queue is full.
+     */
+    public enum Policy {
+
+        /**
+         * Keep only the latest message per key, disconnect the player if the queue is still full.
+         */
+        COALESCE,
+
+        /**
+         * Drop model updates, disconnect the player if a control message does not fit.
+         */
+        DROP,
+
+        /**
+         * Disconnect the player.
+         */
+        DISCONNECT;
+
+        /**
+         * Get a policy from its name, ignoring case.
+         * @param name of the policy.
+         * @return policy.
+         * @throws IllegalArgumentException if the name is unknown.
+         */
+        public static Policy fromName(String name){
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+}
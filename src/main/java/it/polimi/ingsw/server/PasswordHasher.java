@@ -0,0 +1,213 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.LoginErrorType;
+import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.utility.Metrics;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.*;
+
+/**
+ * Salted PBKDF2 hashing of passwords, on a bounded pool of workers.
+ * Hashing is slow on purpose, so it never runs on the threads serving the clients: they wait for a worker,
+ * and when the queue of the workers is full the login is rejected instead of piling up.
+ * Hashes are stored as {@code pbkdf2$iterations$salt$hash}, with salt and hash in Base64.
+ * Any other stored value is a plaintext password, from before hashing.
+ */
+/*package-local*/ class PasswordHasher {
+
+    /**
+     * Metric with the time spent computing a hash.
+     */
+    /*package-local*/ static final String HASH_TIME = "password.hash.micros";
+
+    /**
+     * Metric with the time a hash waited for a worker.
+     */
+    /*package-local*/ static final String QUEUE_TIME = "password.queue.micros";
+
+    /**
+     * Metric with the number of hashes rejected because the queue was full.
+     */
+    /*package-local*/ static final String REJECTED = "password.rejected";
+
+    /**
+     * Default number of PBKDF2 iterations.
+     */
+    /*package-local*/ static final int DEFAULT_ITERATIONS = 65536;
+
+    /**
+     * Prefix of hashed passwords.
+     */
+    private static final String PREFIX = "pbkdf2";
+
+    /**
+     * Separator of the fields of a hashed password.
+     */
+    private static final String SEPARATOR = "$";
+
+    /**
+     * PBKDF2 algorithm.
+     */
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+
+    /**
+     * Bytes of the salt.
+     */
+    private static final int SALT_LENGTH = 16;
+
+    /**
+     * Bits of the hash.
+     */
+    private static final int HASH_LENGTH = 256;
+
+    /**
+     * Seconds a client waits for its hash.
+     */
+    private static final int TIMEOUT = 30;
+
+    /**
+     * Source of the salts.
+     */
+    private final SecureRandom random;
+
+    /**
+     * Iterations of new hashes.
+     */
+    private final int iterations;
+
+    /**
+     * Workers that compute the hashes.
+     */
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * Class constructor.
+     * @param threads number of workers.
+     * @param queueLimit maximum number of hashes waiting for a worker.
+     * @param iterations of new hashes.
+     */
+    /*package-local*/ PasswordHasher(int threads, int queueLimit, int iterations){
+        this.random = new SecureRandom();
+        this.iterations = iterations;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), task -> {
+                    Thread thread = new Thread(task, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Hash a password with a new salt.
+     * @param password to hash.
+     * @return the hash to store.
+     * @throws LoginException if the workers are too busy.
+     */
+    /*package-local*/ String hash(String password) throws LoginException{
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = await(() -> pbkdf2(password, salt, iterations));
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + SEPARATOR + iterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Check a password against the stored one, hashed or plaintext.
+     * A malformed hash matches no password.
+     * @param password given by the client.
+     * @param stored password.
+     * @return true if the password matches.
+     * @throws LoginException if the workers are too busy.
+     */
+    /*package-local*/ boolean verify(String password, String stored) throws LoginException{
+        if(!isHashed(stored))
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        String[] fields = stored.split("\\" + SEPARATOR, -1);
+        if(fields.length != 4)
+            return false;
+        int storedIterations;
+        byte[] salt;
+        byte[] expected;
+        try {
+            storedIterations = Integer.parseInt(fields[1]);
+            salt = Base64.getDecoder().decode(fields[2]);
+            expected = Base64.getDecoder().decode(fields[3]);
+        } catch (IllegalArgumentException e){
+            return false;
+        }
+        if(storedIterations <= 0 || salt.length == 0 || expected.length == 0)
+            return false;
+        byte[] hash = await(() -> pbkdf2(password, salt, storedIterations));
+        return MessageDigest.isEqual(expected, hash);
+    }
+
+    /**
+     * Check if a stored password is a hash.
+     * @param stored password.
+     * @return false if it is a plaintext password.
+     */
+    /*package-local*/ static boolean isHashed(String stored){
+        return stored.startsWith(PREFIX + SEPARATOR);
+    }
+
+    /**
+     * Run a hash on a worker and wait for it.
+     * @param task computing the hash.
+     * @return the hash.
+     * @throws LoginException with SERVER_BUSY if the queue is full or the hash cannot be computed in time,
+     * so the client can retry later.
+     */
+    private byte[] await(Callable<byte[]> task) throws LoginException{
+        long queued = System.nanoTime();
+        Future<byte[]> future;
+        try {
+            future = workers.submit(() -> {
+                long start = System.nanoTime();
+                Metrics.histogram(QUEUE_TIME).record(TimeUnit.NANOSECONDS.toMicros(start - queued));
+                byte[] hash = task.call();
+                Metrics.histogram(HASH_TIME).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                return hash;
+            });
+        } catch (RejectedExecutionException e){
+            Metrics.increment(REJECTED);
+            throw new LoginException(LoginErrorType.SERVER_BUSY);
+        }
+        try {
+            return future.get(TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new LoginException(LoginErrorType.SERVER_BUSY);
+        } catch (TimeoutException e){
+            future.cancel(true);
+            throw new LoginException(LoginErrorType.SERVER_BUSY);
+        } catch (ExecutionException e){
+            throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+        }
+    }
+
+    /**
+     * Compute a PBKDF2 hash.
+     * @param password to hash.
+     * @param salt of the hash.
+     * @param iterations of the hash.
+     * @return the hash.
+     * @throws GeneralSecurityException if PBKDF2 is not available.
+     */
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws GeneralSecurityException{
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_LENGTH);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+}
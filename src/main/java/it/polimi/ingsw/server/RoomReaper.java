@@ -0,0 +1,100 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.gameserver.GameResult;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.utility.DeadlineScheduler;
+import it.polimi.ingsw.utility.Metrics;
+import it.polimi.ingsw.utility.Printer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Reclaims finished rooms. After a grace period, in which players can still rejoin and see the final ranking,
+ * the room is archived: its result is handed to persistence and the game is released. Then the room is evicted
+ * from the registry, so nothing keeps it reachable.
+ * Persistence may block, so rooms are reclaimed on a thread of the reaper, never on the scheduler thread.
+ */
+/*package-local*/ class RoomReaper {
+
+    /**
+     * Metric with the number of finished rooms.
+     */
+    /*package-local*/ static final String FINISHED = "rooms.finished";
+
+    /**
+     * Metric with the number of evicted rooms.
+     */
+    /*package-local*/ static final String EVICTED = "rooms.evicted";
+
+    /**
+     * Metric with the number of results that could not be saved.
+     */
+    /*package-local*/ static final String LOST_RESULTS = "rooms.lostResults";
+
+    /**
+     * Registry of the rooms.
+     */
+    private final RoomRegistry rooms;
+
+    /**
+     * Milliseconds between the end of a game and the eviction of its room.
+     */
+    private final long gracePeriod;
+
+    /**
+     * Persistence of the results.
+     */
+    private final Consumer<GameResult> persistence;
+
+    /**
+     * Thread that archives and evicts rooms.
+     */
+    private final ExecutorService reaper;
+
+    /**
+     * Class constructor.
+     * @param rooms registry of the rooms.
+     * @param gracePeriod milliseconds between the end of a game and the eviction of its room.
+     * @param persistence of the results.
+     */
+    /*package-local*/ RoomReaper(RoomRegistry rooms, long gracePeriod, Consumer<GameResult> persistence){
+        this.rooms = rooms;
+        this.gracePeriod = gracePeriod;
+        this.persistence = persistence;
+        this.reaper = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "room-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Notify that the game of a room ended. The room will be reclaimed after the grace period.
+     * @param room finished.
+     */
+    /*package-local*/ void finished(Room room){
+        Metrics.increment(FINISHED);
+        DeadlineScheduler.schedule(gracePeriod, () -> reaper.execute(() -> reclaim(room)));
+    }
+
+    /**
+     * Archive a room, save its result and evict it.
+     * @param room to reclaim.
+     */
+    private void reclaim(Room room){
+        GameResult result = room.archive();
+        if(result == null)
+            return;
+        try{
+            persistence.accept(result);
+        } catch (RuntimeException e){
+            Metrics.increment(LOST_RESULTS);
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot save the result of room #" + result.getRoomID() + ".", e);
+        }
+        rooms.evict(room, result.getRanking());
+        Metrics.increment(EVICTED);
+    }
+
+}
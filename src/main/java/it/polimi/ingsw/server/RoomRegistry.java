@@ -0,0 +1,173 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.RoomException;
+import it.polimi.ingsw.gameserver.CheckpointStore;
+import it.polimi.ingsw.gameserver.EventLog;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.utility.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Concurrent registry of the rooms of the server.
+ * It indexes the room of each player, for rejoins without scanning the rooms.
+ * The registry never takes a global lock: each room serializes its own joins.
+ * Finished rooms are handed to a listener, usually a {@link RoomReaper}, and evicted when it is done with them.
+ * Rooms recovered after a restart are added back with {@link #restore(Room)}. Identifiers are never reused across
+ * restarts: the server seeds them with {@link #seedRoomID(int)} from the saved results and the event log.
+ */
+/*package-local*/ class RoomRegistry {
+
+    /**
+     * Identifier of the next room.
+     */
+    private final AtomicInteger nextRoomID;
+
+    /**
+     * Room of each player, per username.
+     */
+    private final Map<String, Room> roomsByPlayer;
+
+    /**
+     * Rooms not evicted, per identifier.
+     */
+    private final Map<Integer, Room> rooms;
+
+    /**
+     * Listener notified when the game of a room ends.
+     */
+    private final Consumer<Room> finishListener;
+
+    /**
+     * Log of the game events, null if disabled.
+     */
+    private final EventLog eventLog;
+
+    /**
+     * Store of the room checkpoints, null if disabled.
+     */
+    private final CheckpointStore checkpoints;
+
+    /**
+     * Class constructor, for rooms that are never evicted.
+     */
+    /*package-local*/ RoomRegistry(){
+        this(room -> { });
+    }
+
+    /**
+     * Class constructor.
+     * @param finishListener notified when the game of a room ends.
+     */
+    /*package-local*/ RoomRegistry(Consumer<Room> finishListener){
+        this(finishListener, null, null);
+    }
+
+    /**
+     * Class constructor.
+     * @param finishListener notified when the game of a room ends.
+     * @param eventLog where rooms write their game events, null to disable it.
+     * @param checkpoints where rooms save their checkpoints, null to disable them.
+     */
+    /*package-local*/ RoomRegistry(Consumer<Room> finishListener, EventLog eventLog, CheckpointStore checkpoints){
+        this.eventLog = eventLog;
+        this.checkpoints = checkpoints;
+        this.nextRoomID = new AtomicInteger(1);
+        this.roomsByPlayer = new ConcurrentHashMap<>();
+        this.rooms = new ConcurrentHashMap<>();
+        this.finishListener = finishListener;
+    }
+
+    /**
+     * Get the room joined by a player.
+     * @param username of the player.
+     * @return the room, or null if the player has never joined a room.
+     */
+    /*package-local*/ Room roomOf(String username){
+        return roomsByPlayer.get(username);
+    }
+
+    /**
+     * Put a player back in the room he joined before.
+     * @param player that is rejoining.
+     * @return the room, or null if the player has never joined a room.
+     */
+    /*package-local*/ Room rejoin(ServerPlayer player){
+        Room room = roomsByPlayer.get(player.getUsername());
+        if(room != null)
+            room.rejoinRoom(player);
+        return room;
+    }
+
+    /**
+     * Create a room with all its players. The room is full, so the game starts immediately.
+     * Players know their room before the game sends them anything.
+     * @param players of the room, at least two.
+     * @param configuration of the game.
+     * @return the room created.
+     * @throws RoomException if a player cannot join the room.
+     */
+    /*package-local*/ Room create(List<ServerPlayer> players, Configuration configuration) throws RoomException{
+        Room room = new Room(nextRoomID.getAndIncrement(), players.get(0), players.size(), configuration);
+        room.setFinishListener(finishListener);
+        room.setEventLog(eventLog);
+        room.setCheckpoints(checkpoints);
+        rooms.put(room.getRoomID(), room);
+        for(ServerPlayer player : players){
+            roomsByPlayer.put(player.getUsername(), room);
+            player.setRoom(room);
+        }
+        for(ServerPlayer player : players.subList(1, players.size()))
+            room.joinRoom(player);
+        return room;
+    }
+
+    /**
+     * Make new rooms get identifiers after one used before the restart.
+     * @param lastRoomID identifier of a room created before.
+     */
+    /*package-local*/ void seedRoomID(int lastRoomID){
+        nextRoomID.accumulateAndGet(lastRoomID + 1, Math::max);
+    }
+
+    /**
+     * Add a room recovered after a restart and resume its game. Its players find it when they rejoin,
+     * and new rooms get identifiers after it.
+     * @param room recovered.
+     */
+    /*package-local*/ void restore(Room room){
+        room.setFinishListener(finishListener);
+        room.setEventLog(eventLog);
+        room.setCheckpoints(checkpoints);
+        rooms.put(room.getRoomID(), room);
+        nextRoomID.accumulateAndGet(room.getRoomID() + 1, Math::max);
+        for(String username : room.getUsernames())
+            roomsByPlayer.put(username, room);
+        room.resume();
+    }
+
+    /**
+     * Remove an archived room. Its players can join new rooms.
+     * @param room to evict.
+     * @param usernames of the players of the room.
+     */
+    /*package-local*/ void evict(Room room, List<String> usernames){
+        for(String username : usernames)
+            roomsByPlayer.remove(username, room);
+        room.evict();
+        rooms.remove(room.getRoomID(), room);
+    }
+
+    /**
+     * Get the number of rooms not evicted, created or restored.
+     * @return number of rooms.
+     */
+    /*package-local*/ int size(){
+        return rooms.size();
+    }
+
+}
@@ -1,16 +1,26 @@
 package it.polimi.ingsw.server;
 
 import it.polimi.ingsw.exceptions.*;
+import it.polimi.ingsw.gameserver.BotPlayer;
+import it.polimi.ingsw.gameserver.CheckpointStore;
 import it.polimi.ingsw.gameserver.Configurator;
-import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.gameserver.EventLog;
+import it.polimi.ingsw.gameserver.GameResult;
+import it.polimi.ingsw.socketserver.NioSocketServer;
+import it.polimi.ingsw.utility.DeadlineScheduler;
+import it.polimi.ingsw.utility.Metrics;
 import it.polimi.ingsw.utility.Printer;
 import it.polimi.ingsw.socketserver.SocketServerAbstract;
 import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.gameserver.RoomRecovery;
 import it.polimi.ingsw.rmiserver.RMIServerAbstract;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
-import java.util.HashMap;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Main server class that extends {@link ServerInterface}.
@@ -30,14 +40,84 @@ public class Server implements ServerInterface{
     private static final int RMI_PORT = 3032;
 
     /**
-     * Mutex object to handle concurrency between users during loginPlayer.
+     * Directory of the game event log.
      */
-    private static final Object LOGIN_SIGNIN_MUTEX = new Object();
+    private static final String EVENT_LOG_DIRECTORY = "events";
 
     /**
-     * Mutex object to handle concurrency during room create.
+     * Directory of the room checkpoints.
      */
-    private static final Object JOIN_ROOM_MUTEX = new Object();
+    private static final String CHECKPOINT_DIRECTORY = "checkpoints";
+
+    /**
+     * Milliseconds between two trims of the event log.
+     */
+    private static final long EVENT_LOG_TRIM_PERIOD = 60 * 1000L;
+
+    /**
+     * Milliseconds between two reports of the server metrics.
+     */
+    private static final long METRICS_REPORT_PERIOD = 5 * 60 * 1000L;
+
+    /**
+     * Milliseconds between the end of a game and the eviction of its room.
+     */
+    private static final long ROOM_GRACE_PERIOD = 5 * 60 * 1000L;
+
+    /**
+     * Startup option to serve socket clients with the non-blocking server.
+     */
+    private static final String NIO_SOCKET_OPTION = "--nio";
+
+    /**
+     * Startup option to set the number of I/O loops of the non-blocking server.
+     */
+    private static final String IO_THREADS_OPTION = "--io-threads=";
+
+    /**
+     * Startup option to set what to do with players that cannot keep up with the room.
+     */
+    private static final String SLOW_CONSUMER_OPTION = "--slow-consumer=";
+
+    /**
+     * Startup option to set the max number of pending messages per player.
+     */
+    private static final String OUTBOUND_CAPACITY_OPTION = "--outbound-capacity=";
+
+    /**
+     * Startup option to fill with bots the rooms of players waiting alone.
+     */
+    private static final String BOTS_OPTION = "--bots";
+
+    /**
+     * Startup option to set the milliseconds a player waits alone before bots fill his room.
+     */
+    private static final String BOT_WAITING_TIME_OPTION = "--bot-waiting-time=";
+
+    /**
+     * Number of locks shared by the usernames during sign in and login.
+     */
+    private static final int LOGIN_STRIPES = 64;
+
+    /**
+     * Maximum number of users with cached credentials.
+     */
+    private static final int CREDENTIAL_CACHE_SIZE = 10000;
+
+    /**
+     * Number of threads hashing passwords.
+     */
+    private static final int HASH_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Maximum number of passwords waiting to be hashed. Logins beyond it are rejected.
+     */
+    private static final int HASH_QUEUE_LIMIT = 256;
+
+    /**
+     * Locks of sign in and login, per username.
+     */
+    private final StripedLocks loginLocks = new StripedLocks(LOGIN_STRIPES);
 
     /**
      * RMI server.
@@ -45,42 +125,83 @@ public class Server implements ServerInterface{
     private RMIServerAbstract rmiServer;
 
     /**
-     * SocketClient server.
+     * SocketClient server, blocking or non-blocking depending on startup options.
      */
-    private SocketServerAbstract socketServer;
+    private ServerAbstract socketServer;
 
     /**
      * MySQL server.
      */
     private DBServer dbServer;
 
+    /**
+     * Credentials of the users, cached in front of the database.
+     */
+    private CredentialCache credentials;
+
     /**
      * Map of all logged in players.
      */
-    private HashMap<String, ServerPlayer> players;
+    private Map<String, ServerPlayer> players;
 
     /**
      * Map of all logged and active players.
      */
-    private HashMap<String, Boolean> activePlayer;
+    private Map<String, Boolean> activePlayer;
+
+    /**
+     * Rooms indexed by player.
+     */
+    private RoomRegistry rooms;
+
+    /**
+     * Queues of players waiting for a room.
+     */
+    private Matchmaker matchmaker;
+
+    /**
+     * Reaper of finished rooms.
+     */
+    private RoomReaper reaper;
+
+    /**
+     * Log of the game events of all rooms.
+     */
+    private EventLog eventLog;
 
     /**
-     * Room list.
+     * Checkpoints of the running rooms.
      */
-    private ArrayList<Room> rooms;
+    private CheckpointStore checkpoints;
 
 
     /**
      * Class constructor.
+     * @param nioSocket true to use the non-blocking socket server.
+     * @param ioThreads number of I/O loops of the non-blocking socket server.
+     * @param bots true to fill with bots the rooms of players waiting alone.
+     * @param botWaitingTime milliseconds a player waits alone before bots fill his room.
      */
-    private Server() throws ServerException{
+    private Server(boolean nioSocket, int ioThreads, boolean bots, long botWaitingTime) throws ServerException{
         rmiServer = new RMIServerAbstract(this);
-        socketServer = new SocketServerAbstract(this);
-        players = new HashMap<>();
-        activePlayer = new HashMap<>();
-        rooms = new ArrayList<>();
+        if(nioSocket)
+            socketServer = new NioSocketServer(this, ioThreads);
+        else
+            socketServer = new SocketServerAbstract(this);
+        players = new ConcurrentHashMap<>();
+        activePlayer = new ConcurrentHashMap<>();
         dbServer = new DBServer();
+        credentials = new CredentialCache(dbServer, new PasswordHasher(HASH_THREADS, HASH_QUEUE_LIMIT,
+                PasswordHasher.DEFAULT_ITERATIONS), CREDENTIAL_CACHE_SIZE);
+        eventLog = openEventLog();
+        checkpoints = openCheckpoints();
+        rooms = new RoomRegistry(room -> reaper.finished(room), eventLog, checkpoints);
+        reaper = new RoomReaper(rooms, ROOM_GRACE_PERIOD, this::saveGameResult);
+        matchmaker = new Matchmaker(rooms, Configurator::getConfiguration, bots ? BotPlayer::new : null, botWaitingTime);
         configure();
+        recoverRooms();
+        trimEventLog();
+        DeadlineScheduler.schedule(METRICS_REPORT_PERIOD, Server::reportMetrics);
     }
 
     /**
@@ -88,11 +209,32 @@ public class Server implements ServerInterface{
      * @param args passed to server.
      */
     public static void main(String[] args){
+        boolean nioSocket = false;
+        int ioThreads = NioSocketServer.DEFAULT_IO_THREADS;
+        OutboundQueue.Policy slowConsumerPolicy = OutboundQueue.Policy.COALESCE;
+        int outboundCapacity = OutboundQueue.DEFAULT_CAPACITY;
+        boolean bots = false;
+        long botWaitingTime = Matchmaker.DEFAULT_BOT_WAITING_TIME;
+        for(String arg : args){
+            if(NIO_SOCKET_OPTION.equals(arg))
+                nioSocket = true;
+            else if(arg.startsWith(IO_THREADS_OPTION))
+                ioThreads = Integer.parseInt(arg.substring(IO_THREADS_OPTION.length()));
+            else if(arg.startsWith(SLOW_CONSUMER_OPTION))
+                slowConsumerPolicy = OutboundQueue.Policy.fromName(arg.substring(SLOW_CONSUMER_OPTION.length()));
+            else if(arg.startsWith(OUTBOUND_CAPACITY_OPTION))
+                outboundCapacity = Integer.parseInt(arg.substring(OUTBOUND_CAPACITY_OPTION.length()));
+            else if(BOTS_OPTION.equals(arg))
+                bots = true;
+            else if(arg.startsWith(BOT_WAITING_TIME_OPTION))
+                botWaitingTime = Long.parseLong(arg.substring(BOT_WAITING_TIME_OPTION.length()));
+        }
+        OutboundQueue.setDefaults(slowConsumerPolicy, outboundCapacity);
         try {
-            Server server = new Server();
+            Server server = new Server(nioSocket, ioThreads, bots, botWaitingTime);
             server.startSocketRMIServer(SOCKET_PORT, RMI_PORT);
             server.startDatabase();
-            Printer.printStandardMessage("Socket server ready.");
+            Printer.printStandardMessage(nioSocket ? "Socket server ready (non-blocking, " + ioThreads + " I/O threads)." : "Socket server ready.");
             Printer.printStandardMessage("RMI server ready.");
             Printer.printStandardMessage("SQL server ready.");
         } catch(ServerException | SQLException e){
@@ -118,7 +260,11 @@ public class Server implements ServerInterface{
      * @throws ServerException if errors occur during initialization.
      */
     private void startSocketRMIServer(int socketPort, int rmiPort) throws ServerException{
-        socketServer.startServer(socketPort);
+        try{
+            socketServer.startServer(socketPort);
+        }catch(IOException e){
+            throw new ServerException("Error while starting the socket server.", e);
+        }
         rmiServer.startServer(rmiPort);
     }
 
@@ -128,30 +274,114 @@ public class Server implements ServerInterface{
      */
     private void startDatabase() throws SQLException{
         dbServer.connectToDatabase();
+        rooms.seedRoomID(dbServer.getLastRoomID());
+    }
+
+    /**
+     * Open the game event log, after the events of the previous runs.
+     * @return the event log.
+     * @throws ServerException if the log cannot be opened.
+     */
+    private static EventLog openEventLog() throws ServerException{
+        try {
+            return new EventLog(Paths.get(EVENT_LOG_DIRECTORY), EventLog.DEFAULT_SEGMENT_SIZE,
+                    EventLog.DEFAULT_FLUSH_INTERVAL, EventLog.DEFAULT_FLUSH_BYTES);
+        } catch (IOException e){
+            throw new ServerException("Error while opening the event log.", e);
+        }
+    }
+
+    /**
+     * Open the store of the room checkpoints.
+     * @return the checkpoint store.
+     * @throws ServerException if the store cannot be opened.
+     */
+    private static CheckpointStore openCheckpoints() throws ServerException{
+        try {
+            return new CheckpointStore(Paths.get(CHECKPOINT_DIRECTORY));
+        } catch (IOException e){
+            throw new ServerException("Error while opening the checkpoints.", e);
+        }
+    }
+
+    /**
+     * Recover the rooms that were running when the server stopped, from their checkpoints and the event log.
+     * Their players find them when they join again, and new rooms get identifiers after all the rooms in the log.
+     * A failed recovery does not stop the server.
+     */
+    private void recoverRooms(){
+        long start = System.nanoTime();
+        try {
+            List<Room> recovered = RoomRecovery.recover(checkpoints, Paths.get(EVENT_LOG_DIRECTORY));
+            for(Room room : recovered)
+                rooms.restore(room);
+            int[] lastRoomID = new int[1];
+            EventLog.read(Paths.get(EVENT_LOG_DIRECTORY), (sequence, time, roomID, type, payload) ->
+                    lastRoomID[0] = Math.max(lastRoomID[0], roomID));
+            rooms.seedRoomID(lastRoomID[0]);
+            if(!recovered.isEmpty())
+                Printer.printStandardMessage("Recovered " + recovered.size() + " rooms in " + (System.nanoTime() - start) / 1000000 + " ms.");
+        } catch (IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot recover the rooms.", e);
+        }
     }
 
     /**
-     * Sign in the player to server.
+     * Delete the segments of the event log that the checkpoints of the running rooms no longer need,
+     * then schedule the next trim.
+     */
+    private void trimEventLog(){
+        checkpoints.trim(eventLog);
+        DeadlineScheduler.schedule(EVENT_LOG_TRIM_PERIOD, this::trimEventLog);
+    }
+
+    /**
+     * Print the server metrics, then schedule the next report.
+     */
+    private static void reportMetrics(){
+        Printer.printDebugMessage("Server metrics:\n" + Metrics.report());
+        DeadlineScheduler.schedule(METRICS_REPORT_PERIOD, Server::reportMetrics);
+    }
+
+    /**
+     * Save the result of a finished game.
+     * @param result of the game.
+     */
+    private void saveGameResult(GameResult result){
+        try {
+            dbServer.saveGameResult(result);
+        } catch (SQLException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot save the result of room #" + result.getRoomID() + ".", e);
+        }
+    }
+
+    /**
+     * Sign in the player to server. The password is hashed before taking the lock of the username, which only
+     * guards the check and the insert, so sign ins and logins sharing the lock never wait for a hash.
      * @param username of the player is trying to sign in.
      * @param password of the player is trying to sign in.
      * @throws LoginException if errors occur during sign in.
      */
     @Override
     public void signInPlayer(String username, String password) throws LoginException{
-        synchronized (LOGIN_SIGNIN_MUTEX) {
-            if(!players.containsKey(username))
-                try {
-                    dbServer.signInPlayer(username, password);
-                } catch (SQLException e){
-                    throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
-                }
-            else
+        if(BotPlayer.isReserved(username) || players.containsKey(username))
+            throw new LoginException(LoginErrorType.USER_ALREADY_EXISTS);
+        String hash = credentials.hash(password);
+        synchronized (loginLocks.lockFor(username)) {
+            if(players.containsKey(username))
                 throw new LoginException(LoginErrorType.USER_ALREADY_EXISTS);
+            try {
+                credentials.register(username, hash);
+            } catch (SQLException e){
+                throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+            }
         }
     }
 
     /**
      * Login the player to server then put username and remote player reference in the user cache (Hashmap).
+     * Credentials are checked without locks, mostly on the credential cache. The lock of the username only
+     * guards the creation of the session, so logins of different users run in parallel.
      * @param player is trying to login.
      * @param username of the player is trying to login.
      * @param password of the player is trying to login.
@@ -159,89 +389,98 @@ public class Server implements ServerInterface{
      */
     @Override
     public void loginPlayer(ServerPlayer player, String username, String password) throws LoginException{
-        synchronized (LOGIN_SIGNIN_MUTEX) {
-            if(!players.containsKey(username) || (players.containsKey(username) && !activePlayer.get(username))) {
-                try{
-                    dbServer.loginPlayer(username, password);
-                } catch (SQLException e){
-                    throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
-                }
-                player.setUsername(username);
-                players.put(username, player);
-                activePlayer.put(username, true);
-            }
-            else
+        if(BotPlayer.isReserved(username))
+            throw new LoginException(LoginErrorType.USER_NOT_EXISTS);
+        if(isActive(username))
+            throw new LoginException(LoginErrorType.USER_ALREADY_LOGGEDIN);
+        try{
+            credentials.login(username, password);
+        } catch (SQLException e){
+            throw new LoginException(LoginErrorType.GENERIC_SQL_ERROR);
+        }
+        synchronized (loginLocks.lockFor(username)) {
+            if(isActive(username))
                 throw new LoginException(LoginErrorType.USER_ALREADY_LOGGEDIN);
-
+            player.setUsername(username);
+            players.put(username, player);
+            activePlayer.put(username, true);
         }
     }
 
     /**
-     * Method used to join a player into a room.
+     * Check if a user has an active session. It never takes a lock.
+     * @param username of the user.
+     * @return true if the user is logged in and connected.
+     */
+    private boolean isActive(String username){
+        return activePlayer.getOrDefault(username, false);
+    }
+
+    /**
+     * Method used to join a player into a room. The player rejoins his previous room, or waits in the
+     * matchmaking queue closest to create a room. The first player waits for a room of the default size.
      * @param serverPlayer who would join in a room.
-     * @throws RoomException if error occurs.
      */
     @Override
-    public void joinRoom(ServerPlayer serverPlayer) throws RoomException {
-        Room playerRoom = null;
-        for (Room room : rooms)
-            if (room.userAlreadyJoined(serverPlayer))
-                playerRoom = room;
-
-        synchronized (JOIN_ROOM_MUTEX){
-            if (playerRoom != null) {
-                playerRoom.rejoinRoom(serverPlayer);
-                serverPlayer.setRoom(playerRoom);
-                playerRoom.restorePlayerState(serverPlayer);
-                Printer.printDebugMessage(serverPlayer.getUsername() + " rejoined in room #" + playerRoom.getRoomID());
-            } else if (!rooms.isEmpty()) {
-                playerRoom = rooms.get(rooms.size() - 1);
-                playerRoom.joinRoom(serverPlayer);
-                serverPlayer.setRoom(playerRoom);
-                Printer.printDebugMessage(serverPlayer.getUsername() + " joined in room #" + playerRoom.getRoomID());
-            } else
-                throw new RoomException("There are no rooms available!");
+    public void joinRoom(ServerPlayer serverPlayer) {
+        if(!rejoin(serverPlayer)) {
+            Room playerRoom = matchmaker.join(serverPlayer);
+            Printer.printDebugMessage(serverPlayer.getUsername() + (playerRoom != null ? " joined in room #" + playerRoom.getRoomID() : " is waiting for a room."));
         }
     }
 
     /**
-     * Create new room.
+     * Create new room. The player waits in the matchmaking queue of the room size.
      * @param serverPlayer is creating new room.
      * @param maxPlayers allowed in the room.
-     * @throws RoomException if errors occur during creation.
+     * @throws RoomException if the player has been put back in his room or queue, or the size is not allowed.
      */
     @Override
     public void createNewRoom(ServerPlayer serverPlayer, int maxPlayers) throws RoomException{
-        synchronized (JOIN_ROOM_MUTEX){
-            boolean flag = false;
-            try{
-                joinRoom(serverPlayer);
-                flag = true;
-            }
-            catch(RoomException e) {
-                Printer.printStandardMessage(serverPlayer.getUsername() + " is creating a new room.");
-            }
-            if(!flag){
-                Configuration configuration = Configurator.getConfiguration();
-                Room room = new Room(rooms.size() + 1, serverPlayer, maxPlayers, configuration);
-                rooms.add(room);
-                serverPlayer.setRoom(room);
-            }
-            else {
-                throw new RoomException();
-            }
+        if(rejoin(serverPlayer))
+            throw new RoomException();
+        Printer.printStandardMessage(serverPlayer.getUsername() + " is waiting for a room of " + maxPlayers + " players.");
+        Room playerRoom = matchmaker.enqueue(serverPlayer, maxPlayers);
+        if(playerRoom != null)
+            Printer.printDebugMessage(serverPlayer.getUsername() + " joined in room #" + playerRoom.getRoomID());
+    }
+
+    /**
+     * Put a player back in the room he joined before, or in the queue he was waiting in.
+     * @param serverPlayer new session of the player.
+     * @return true if the player had a room or was waiting.
+     */
+    private boolean rejoin(ServerPlayer serverPlayer){
+        Room playerRoom = rooms.rejoin(serverPlayer);
+        if (playerRoom != null) {
+            serverPlayer.setRoom(playerRoom);
+            playerRoom.restorePlayerState(serverPlayer);
+            Printer.printDebugMessage(serverPlayer.getUsername() + " rejoined in room #" + playerRoom.getRoomID());
+            return true;
+        }
+        if (matchmaker.requeue(serverPlayer)) {
+            Printer.printDebugMessage(serverPlayer.getUsername() + " is waiting again for a room.");
+            return true;
         }
+        return false;
     }
 
     /**
-     * This function disable the user when he goes down.
+     * This function disable the user when he goes down. He leaves the matchmaking queue, and his room stops
+     * waiting for his moves.
      * @param player that goes down.
      */
     @Override
     public void disableUser(ServerPlayer player){
+        if(player.getUsername() == null)
+            return;
         Printer.printDebugMessage(this.getClass().getSimpleName(), player.getUsername() + " is disabled.");
-        if(activePlayer.containsKey(player.getUsername()))
-            this.activePlayer.put(player.getUsername(), false);
+        this.activePlayer.replace(player.getUsername(), false);
+        if(matchmaker.leave(player))
+            Printer.printDebugMessage(player.getUsername() + " left the matchmaking queue.");
+        Room playerRoom = rooms.roomOf(player.getUsername());
+        if(playerRoom != null)
+            playerRoom.disconnectPlayer(player);
     }
 
     /**
@@ -3,7 +3,9 @@ package it.polimi.ingsw.server;
 import it.polimi.ingsw.exceptions.NetworkException;
 import it.polimi.ingsw.gameserver.Room;
 import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.protocol.SerializedPacket;
 
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +20,11 @@ public abstract class ServerPlayer extends Player{
      */
     private transient Room room;
 
+    /**
+     * Messages waiting to be sent to the player.
+     */
+    private transient OutboundQueue outbound;
+
     /**
      * Method to get player room.
      * @return player room.
@@ -34,12 +41,43 @@ public abstract class ServerPlayer extends Player{
         this.room = room;
     }
 
+    /**
+     * Method to get the queue of messages sent to the player, the room never writes to the player directly.
+     * @return outbound queue of the player.
+     */
+    public synchronized OutboundQueue getOutbound(){
+        if(outbound == null)
+            outbound = new OutboundQueue(this);
+        return outbound;
+    }
+
+    /**
+     * Method to close the connection with a player that cannot keep up with the room.
+     * The player is disabled by the server when the connection goes down.
+     */
+    public void disconnect(){ }
+
     /**
      * Method to send Game Info
      * @throws NetworkException if error occurs during network communication
      */
     public abstract void sendGameInfo(Game game) throws NetworkException;
 
+    /**
+     * Method to send Game Info already serialized for all the players of the room.
+     * Connections that can write the bytes as they are override this method,
+     * by default the game is decoded and sent with {@link #sendGameInfo(Game)}.
+     * @param game the serialized game
+     * @throws NetworkException if error occurs during network communication
+     */
+    public void sendGameInfo(SerializedPacket game) throws NetworkException{
+        try{
+            sendGameInfo((Game)game.decode());
+        } catch (IOException | ClassNotFoundException e){
+            throw new NetworkException(e);
+        }
+    }
+
     public void ping() throws RemoteException{ }
 
     /**
@@ -69,6 +107,21 @@ public abstract class ServerPlayer extends Player{
      */
     public abstract void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws NetworkException;
 
+    /**
+     * Method to send game model updates already serialized for all the players of the room.
+     * Connections that can write the bytes as they are override this method,
+     * by default the packet is decoded and sent with {@link #sendGameModelUpdate(ClientUpdatePacket)}.
+     * @param clientUpdatePacket the serialized update packet
+     * @throws NetworkException if error occurs during network communication
+     */
+    public void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws NetworkException{
+        try{
+            sendGameModelUpdate((ClientUpdatePacket)clientUpdatePacket.decode());
+        } catch (IOException | ClassNotFoundException e){
+            throw new NetworkException(e);
+        }
+    }
+
     /**
      * Method to manage the support for the church process
      * @param flag this flag is used to check if the player supports the church or not
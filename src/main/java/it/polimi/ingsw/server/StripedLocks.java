@@ -0,0 +1,44 @@
+package it.polimi.ingsw.server;
+
+/**
+ * Fixed set of locks shared by keys. Operations on the same key always take the same lock,
+ * while operations on different keys most likely take different locks and run in parallel.
+ */
+/*package-local*/ class StripedLocks {
+
+    /**
+     * Locks, a power of two.
+     */
+    private final Object[] stripes;
+
+    /**
+     * Class constructor.
+     * @param stripes minimum number of locks, rounded up to a power of two.
+     */
+    /*package-local*/ StripedLocks(int stripes){
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Object[size];
+        for(int i = 0; i < size; i++)
+            this.stripes[i] = new Object();
+    }
+
+    /**
+     * Get the lock of a key.
+     * @param key to lock.
+     * @return the lock, the same for equal keys.
+     */
+    /*package-local*/ Object lockFor(String key){
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    /**
+     * Get the number of locks.
+     * @return number of locks.
+     */
+    /*package-local*/ int size(){
+        return stripes.length;
+    }
+
+}
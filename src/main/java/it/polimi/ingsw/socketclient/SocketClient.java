@@ -10,6 +10,8 @@ import it.polimi.ingsw.client.ClientInterface;
 import it.polimi.ingsw.exceptions.NetworkException;
 import it.polimi.ingsw.exceptions.ConnectionException;
 import it.polimi.ingsw.protocol.ClientCommunication;
+import it.polimi.ingsw.protocol.FrameInputStream;
+import it.polimi.ingsw.protocol.FrameOutputStream;
 
 import java.io.*;
 import java.net.Socket;
@@ -59,8 +61,8 @@ public class SocketClient extends AbstractClient{
     public void connectToServer() throws ConnectionException {
         try{
             socket = new Socket(getAddress(), getPort());
-            objectInputStream = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
-            objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            objectInputStream = new ObjectInputStream(new FrameInputStream(new BufferedInputStream(socket.getInputStream())));
+            objectOutputStream = new ObjectOutputStream(new FrameOutputStream(new BufferedOutputStream(socket.getOutputStream())));
             objectOutputStream.flush();
             clientCommunication = new ClientCommunication(objectInputStream, objectOutputStream, getClient());
         }catch (IOException e){
@@ -267,6 +269,14 @@ public class SocketClient extends AbstractClient{
         clientCommunication.endTurn();
     }
 
+    /**
+     * Method for asking the server the whole game model
+     */
+    @Override
+    public void requestResync() {
+        clientCommunication.requestResync();
+    }
+
     /**
      * Thread of the server response handler.
      */
@@ -0,0 +1,362 @@
+package it.polimi.ingsw.socketserver;
+
+import it.polimi.ingsw.protocol.FrameOutputStream;
+import it.polimi.ingsw.server.ServerInterface;
+import it.polimi.ingsw.utility.Printer;
+import it.polimi.ingsw.utility.SerialExecutor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * State of a single client served by a {@link NioEventLoop}.
+ * Incoming bytes are split in frames by the loop; only complete frames are exposed to the object stream, so decoding
+ * a request never blocks. Requests are decoded and handled in order on the connection pipeline, which runs
+ * on the shared workers. Outgoing frames are queued and written by the loop when the channel is writable.
+ */
+/*package-local*/ class NioConnection implements Closeable {
+
+    /**
+     * Size of the buffer used to read from the channel.
+     */
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Size of the header of a Java serialization stream, its magic number and version, read when the object
+     * stream is created.
+     */
+    private static final int STREAM_HEADER_SIZE = 4;
+
+    /**
+     * Client channel.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * Selection key of the channel.
+     */
+    private final SelectionKey key;
+
+    /**
+     * Loop serving the connection.
+     */
+    private final NioEventLoop eventLoop;
+
+    /**
+     * Server interface allow to access server methods.
+     */
+    private final ServerInterface serverInterface;
+
+    /**
+     * Buffer used to read from the channel.
+     */
+    private final ByteBuffer readBuffer;
+
+    /**
+     * Header of the frame that is being read.
+     */
+    private final ByteBuffer frameHeader;
+
+    /**
+     * Payload of the frame that is being read, null while reading the header.
+     */
+    private byte[] framePayload;
+
+    /**
+     * Bytes of the payload already read.
+     */
+    private int framePosition;
+
+    /**
+     * Payloads of complete frames not yet decoded.
+     */
+    private final InboundBuffer inbound;
+
+    /**
+     * Pipeline handling the requests of this connection one at a time.
+     */
+    private final SerialExecutor requests;
+
+    /**
+     * Frames waiting to be written on the channel.
+     */
+    private final Queue<ByteBuffer> outbound;
+
+    /**
+     * Output stream toward client.
+     */
+    private ObjectOutputStream objectOutputStream;
+
+    /**
+     * Input stream from client, created when the client stream header is received.
+     */
+    private ObjectInputStream objectInputStream;
+
+    /**
+     * Player bound to the connection.
+     */
+    private SocketServerPlayer socketServerPlayer;
+
+    /**
+     * Flag that indicates if the connection is closed.
+     */
+    private final AtomicBoolean closed;
+
+    /**
+     * Class constructor.
+     * @param channel of the client.
+     * @param key of the channel.
+     * @param eventLoop serving the connection.
+     * @param serverInterface to communicate with the server.
+     * @param workers shared workers handling requests.
+     */
+    /*package-local*/ NioConnection(SocketChannel channel, SelectionKey key, NioEventLoop eventLoop, ServerInterface serverInterface, Executor workers){
+        this.channel = channel;
+        this.key = key;
+        this.eventLoop = eventLoop;
+        this.serverInterface = serverInterface;
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        this.frameHeader = ByteBuffer.allocate(FrameOutputStream.HEADER_SIZE);
+        this.inbound = new InboundBuffer();
+        this.requests = new SerialExecutor(workers);
+        this.outbound = new ConcurrentLinkedQueue<>();
+        this.closed = new AtomicBoolean(false);
+    }
+
+    /**
+     * Initialize the output stream. The stream header is sent immediately because the client waits for it.
+     * @throws IOException if the output stream cannot be initialized.
+     */
+    /*package-local*/ void open() throws IOException{
+        objectOutputStream = new ObjectOutputStream(new FrameOutputStream(new OutboundBuffer()));
+        objectOutputStream.flush();
+    }
+
+    /**
+     * Read everything available on the channel and pass complete requests to the pipeline.
+     */
+    /*package-local*/ void readAvailable(){
+        try{
+            int read;
+            int frames = 0;
+            while((read = channel.read(readBuffer)) > 0){
+                readBuffer.flip();
+                frames += decodeFrames();
+                readBuffer.clear();
+            }
+            if(frames > 0)
+                requests.execute(this::dispatchRequests);
+            if(read < 0){
+                key.cancel();
+                requests.execute(this::closeDown);
+            }
+        }catch(IOException e){
+            closeDown();
+        }
+    }
+
+    /**
+     * Close the connection after the client went down.
+     */
+    private void closeDown(){
+        Printer.printDebugMessage(this.getClass().getSimpleName(), "Connection with the client is down.");
+        close();
+    }
+
+    /**
+     * Split read bytes in frames and move complete payloads to the inbound buffer.
+     * @return number of frames completed.
+     * @throws IOException if a frame header is not valid.
+     */
+    private int decodeFrames() throws IOException{
+        int frames = 0;
+        while(readBuffer.hasRemaining()){
+            if(framePayload == null){
+                while(frameHeader.hasRemaining() && readBuffer.hasRemaining())
+                    frameHeader.put(readBuffer.get());
+                if(frameHeader.hasRemaining())
+                    return frames;
+                frameHeader.flip();
+                int size = frameHeader.getInt();
+                frameHeader.clear();
+                if(size < 0 || size > FrameOutputStream.MAX_FRAME_SIZE)
+                    throw new IOException("Malformed frame of " + size + " bytes.");
+                framePayload = new byte[size];
+                framePosition = 0;
+            }
+            int length = Math.min(readBuffer.remaining(), framePayload.length - framePosition);
+            readBuffer.get(framePayload, framePosition, length);
+            framePosition += length;
+            if(framePosition == framePayload.length){
+                inbound.append(framePayload);
+                framePayload = null;
+                frames++;
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * Decode and handle all complete requests. Runs on the connection pipeline.
+     */
+    private void dispatchRequests(){
+        try{
+            if(socketServerPlayer == null){
+                if(inbound.available() < STREAM_HEADER_SIZE)
+                    return;
+                objectInputStream = new ObjectInputStream(inbound);
+                socketServerPlayer = new SocketServerPlayer(this, objectInputStream, objectOutputStream, serverInterface);
+            }
+            while(!closed.get() && inbound.available() > 0)
+                if(!socketServerPlayer.handleNextRequest())
+                    close();
+        }catch(IOException | ClassNotFoundException e){
+            closeDown();
+        }
+    }
+
+    /**
+     * Write queued frames until the channel accepts them, then wait for the next writable event.
+     */
+    /*package-local*/ void writePending(){
+        if(closed.get() || !key.isValid())
+            return;
+        try{
+            ByteBuffer buffer;
+            while((buffer = outbound.peek()) != null){
+                channel.write(buffer);
+                if(buffer.hasRemaining()){
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                outbound.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }catch(IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while writing to the client.");
+            close();
+        }
+    }
+
+    /**
+     * Queue a frame to be written by the loop.
+     * @param frame bytes to send.
+     * @throws IOException if the connection is closed.
+     */
+    private void enqueue(byte[] frame) throws IOException{
+        if(closed.get())
+            throw new IOException("Connection with the client is closed.");
+        outbound.add(ByteBuffer.wrap(frame));
+        eventLoop.requestWrite(this);
+    }
+
+    /**
+     * Close the channel and disable the player.
+     */
+    @Override
+    public void close(){
+        if(!closed.compareAndSet(false, true))
+            return;
+        key.cancel();
+        try{
+            channel.close();
+        }catch(IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while closing connections.");
+        }
+        outbound.clear();
+        if(socketServerPlayer != null)
+            serverInterface.disableUser(socketServerPlayer);
+    }
+
+    /**
+     * Output stream that queues bytes written since the last flush on the connection.
+     */
+    private class OutboundBuffer extends ByteArrayOutputStream {
+
+        /**
+         * Queue buffered bytes.
+         * @throws IOException if the connection is closed.
+         */
+        @Override
+        public void flush() throws IOException{
+            if(size() > 0){
+                byte[] frame = toByteArray();
+                reset();
+                enqueue(frame);
+            }
+        }
+    }
+
+    /**
+     * Input stream over the payloads of complete frames. Reading beyond them returns the end of the stream,
+     * so a truncated request fails instead of blocking. Written by the loop and read by the pipeline.
+     */
+    private static class InboundBuffer extends InputStream {
+
+        /**
+         * Buffered bytes.
+         */
+        private byte[] buffer = new byte[READ_BUFFER_SIZE];
+
+        /**
+         * Index of the next byte to read.
+         */
+        private int start;
+
+        /**
+         * Index after the last byte written.
+         */
+        private int end;
+
+        /**
+         * Append a complete payload.
+         * @param payload to append.
+         */
+        private synchronized void append(byte[] payload){
+            if(end + payload.length > buffer.length){
+                int size = end - start;
+                byte[] target = size + payload.length > buffer.length ? new byte[Math.max(buffer.length * 2, size + payload.length)] : buffer;
+                System.arraycopy(buffer, start, target, 0, size);
+                buffer = target;
+                start = 0;
+                end = size;
+            }
+            System.arraycopy(payload, 0, buffer, end, payload.length);
+            end += payload.length;
+        }
+
+        @Override
+        public synchronized int read(){
+            return start < end ? buffer[start++] & 0xff : -1;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len){
+            if(len == 0)
+                return 0;
+            if(start == end)
+                return -1;
+            int read = Math.min(len, end - start);
+            System.arraycopy(buffer, start, b, off, read);
+            start += read;
+            return read;
+        }
+
+        @Override
+        public synchronized int available(){
+            return end - start;
+        }
+    }
+
+}
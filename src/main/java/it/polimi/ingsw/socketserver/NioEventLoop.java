@@ -0,0 +1,179 @@
+package it.polimi.ingsw.socketserver;
+
+import it.polimi.ingsw.server.ServerInterface;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * I/O loop of the non-blocking server. Each loop owns a selector and serves its connections on a single thread:
+ * it reads frames, hands complete requests to the connection pipeline and drains outbound queues.
+ * Registrations and write requests coming from other threads are handed over through a task queue.
+ */
+/*package-local*/ class NioEventLoop extends Thread {
+
+    /**
+     * Selector of the loop.
+     */
+    private final Selector selector;
+
+    /**
+     * Server interface passed to new connections.
+     */
+    private final ServerInterface serverInterface;
+
+    /**
+     * Shared workers handling requests.
+     */
+    private final Executor workers;
+
+    /**
+     * Tasks submitted by other threads to be run on the loop thread.
+     */
+    private final Queue<Runnable> tasks;
+
+    /**
+     * Class constructor.
+     * @param index of the loop, used to name the thread.
+     * @param serverInterface to communicate with the server.
+     * @param workers shared workers handling requests.
+     * @throws IOException if the selector cannot be opened.
+     */
+    /*package-local*/ NioEventLoop(int index, ServerInterface serverInterface, Executor workers) throws IOException{
+        super("nio-loop-" + index);
+        this.selector = Selector.open();
+        this.serverInterface = serverInterface;
+        this.workers = workers;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        setDaemon(true);
+    }
+
+    /**
+     * Register a new accepted channel on this loop.
+     * @param channel accepted.
+     */
+    /*package-local*/ void register(SocketChannel channel){
+        execute(() -> {
+            try{
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                NioConnection connection = new NioConnection(channel, key, this, serverInterface, workers);
+                key.attach(connection);
+                connection.open();
+            }catch(IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Cannot register the new connection.");
+                closeQuietly(channel);
+            }
+        });
+    }
+
+    /**
+     * Ask the loop to drain the outbound queue of a connection.
+     * @param connection with pending writes.
+     */
+    /*package-local*/ void requestWrite(NioConnection connection){
+        if(Thread.currentThread() == this)
+            connection.writePending();
+        else
+            execute(connection::writePending);
+    }
+
+    /**
+     * Run a task on the loop thread.
+     * @param task to run.
+     */
+    private void execute(Runnable task){
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Loop method.
+     */
+    @Override
+    public void run(){
+        while(selector.isOpen()){
+            try{
+                selector.select();
+                runTasks();
+                Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+                while(iterator.hasNext()){
+                    SelectionKey key = iterator.next();
+                    iterator.remove();
+                    try{
+                        handleKey(key);
+                    }catch(RuntimeException e){
+                        Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while handling a connection, it is closed.", e);
+                        closeQuietly((NioConnection)key.attachment());
+                    }
+                }
+            }catch(IOException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Selector error, I/O loop is down.", e);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Handle a ready key.
+     * @param key selected.
+     */
+    private void handleKey(SelectionKey key){
+        NioConnection connection = (NioConnection)key.attachment();
+        if(connection == null || !key.isValid())
+            return;
+        if(key.isReadable())
+            connection.readAvailable();
+        if(key.isValid() && key.isWritable())
+            connection.writePending();
+    }
+
+    /**
+     * Run all pending tasks.
+     */
+    private void runTasks(){
+        Runnable task;
+        while((task = tasks.poll()) != null){
+            try{
+                task.run();
+            }catch(RuntimeException e){
+                Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while running a task of the I/O loop.", e);
+            }
+        }
+    }
+
+    /**
+     * Close a connection ignoring errors.
+     * @param connection to close, can be null.
+     */
+    private void closeQuietly(NioConnection connection){
+        if(connection == null)
+            return;
+        try{
+            connection.close();
+        }catch(RuntimeException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while closing connections.", e);
+        }
+    }
+
+    /**
+     * Close a channel ignoring errors.
+     * @param channel to close.
+     */
+    private void closeQuietly(SocketChannel channel){
+        try{
+            channel.close();
+        }catch(IOException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while closing connections.");
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package it.polimi.ingsw.socketserver;
+
+import it.polimi.ingsw.exceptions.ServerException;
+import it.polimi.ingsw.server.ServerAbstract;
+import it.polimi.ingsw.server.ServerInterface;
+import it.polimi.ingsw.utility.Printer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class extends {@link ServerAbstract} to implement a non-blocking socket server.
+ * Connections are multiplexed over a fixed number of {@link NioEventLoop}, each one with its own selector,
+ * instead of using a thread per connected client like {@link SocketServerAbstract}.
+ * Requests are handled on a shared pool of workers, in order for each connection, so a slow request
+ * (like a login waiting for the database) never stalls the I/O loops or other connections.
+ * The wire protocol is the same framed protocol used by the blocking server.
+ */
+public class NioSocketServer extends ServerAbstract {
+
+    /**
+     * Default number of I/O loops.
+     */
+    public static final int DEFAULT_IO_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Number of workers handling requests.
+     */
+    private static final int WORKER_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Number of I/O loops.
+     */
+    private final int ioThreads;
+
+    /**
+     * Workers handling requests.
+     */
+    private ExecutorService workers;
+
+    /**
+     * Channel used to accept new clients.
+     */
+    private ServerSocketChannel serverSocketChannel;
+
+    /**
+     * I/O loops serving the connections.
+     */
+    private NioEventLoop[] eventLoops;
+
+    /**
+     * Class constructor.
+     * @param serverInterface to communicate with the server.
+     * @param ioThreads number of I/O loops to start.
+     */
+    public NioSocketServer(ServerInterface serverInterface, int ioThreads){
+        super(serverInterface);
+        this.ioThreads = Math.max(1, ioThreads);
+    }
+
+    /**
+     * Method to bind the server channel and start I/O loops and acceptor.
+     * @param port used to communicate.
+     * @throws ServerException if errors occur during initialization.
+     */
+    @Override
+    public void startServer(int port) throws ServerException{
+        try{
+            serverSocketChannel = ServerSocketChannel.open();
+            serverSocketChannel.socket().setReuseAddress(true);
+            serverSocketChannel.bind(new InetSocketAddress(port));
+            workers = Executors.newFixedThreadPool(WORKER_THREADS);
+            eventLoops = new NioEventLoop[ioThreads];
+            for(int i = 0; i < ioThreads; i++){
+                eventLoops[i] = new NioEventLoop(i, getServer(), workers);
+                eventLoops[i].start();
+            }
+            new Acceptor().start();
+        }catch(IOException e){
+            throw new ServerException("I/O error during non-blocking server initialization.", e);
+        }
+    }
+
+    /**
+     * Thread that accepts new clients and distributes them between I/O loops.
+     */
+    private class Acceptor extends Thread{
+
+        /**
+         * Class constructor.
+         */
+        private Acceptor(){
+            super("nio-acceptor");
+        }
+
+        /**
+         * Listener method.
+         */
+        @Override
+        public void run(){
+            int next = 0;
+            while(serverSocketChannel.isOpen()){
+                try {
+                    SocketChannel channel = serverSocketChannel.accept();
+                    eventLoops[next].register(channel);
+                    next = (next + 1) % eventLoops.length;
+                } catch (IOException e) {
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Problem while socket accepting.");
+                    break;
+                }
+            }
+        }
+    }
+
+}
@@ -1,12 +1,16 @@
 package it.polimi.ingsw.socketserver;
 
 import it.polimi.ingsw.exceptions.NetworkException;
+import it.polimi.ingsw.gameserver.Room;
 import it.polimi.ingsw.model.*;
 import it.polimi.ingsw.utility.Printer;
 import it.polimi.ingsw.exceptions.RoomException;
 import it.polimi.ingsw.server.ServerPlayer;
 import it.polimi.ingsw.exceptions.LoginException;
 import it.polimi.ingsw.server.ServerInterface;
+import it.polimi.ingsw.protocol.FrameInputStream;
+import it.polimi.ingsw.protocol.FrameOutputStream;
+import it.polimi.ingsw.protocol.SerializedPacket;
 import it.polimi.ingsw.protocol.ServerCommunication;
 import it.polimi.ingsw.protocol.ServerCommunicationInterface;
 
@@ -14,6 +18,7 @@ import java.io.*;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 /**
  * This class extends Server player for socket communication.
@@ -21,9 +26,9 @@ import java.util.HashMap;
 public class SocketServerPlayer extends ServerPlayer implements Runnable, ServerCommunicationInterface {
 
     /**
-     * Remote socket client.
+     * Remote socket client (or channel when the player is served by {@link NioSocketServer}).
      */
-    private final transient Socket socketClient;
+    private final transient Closeable socketClient;
 
     /**
      * Server interface allow to access server methods.
@@ -53,9 +58,24 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
     /* package-local */SocketServerPlayer(Socket socketClient, ServerInterface serverInterface) throws IOException{
         this.socketClient = socketClient;
         this.serverInterface = serverInterface;
-        objectOutputStream = new ObjectOutputStream(new BufferedOutputStream(socketClient.getOutputStream()));
+        objectOutputStream = new ObjectOutputStream(new FrameOutputStream(new BufferedOutputStream(socketClient.getOutputStream())));
         objectOutputStream.flush();
-        objectInputStream = new ObjectInputStream(new BufferedInputStream(socketClient.getInputStream()));
+        objectInputStream = new ObjectInputStream(new FrameInputStream(new BufferedInputStream(socketClient.getInputStream())));
+        socketCommunicationProtocol = new ServerCommunication(objectInputStream, objectOutputStream, this);
+    }
+
+    /**
+     * Class constructor used by the non-blocking server, where streams are backed by the channel buffers.
+     * @param connection to close when the player goes down.
+     * @param objectInputStream input stream already initialized.
+     * @param objectOutputStream output stream already initialized.
+     * @param serverInterface to communicate with the server.
+     */
+    /* package-local */SocketServerPlayer(Closeable connection, ObjectInputStream objectInputStream, ObjectOutputStream objectOutputStream, ServerInterface serverInterface){
+        this.socketClient = connection;
+        this.serverInterface = serverInterface;
+        this.objectOutputStream = objectOutputStream;
+        this.objectInputStream = objectInputStream;
         socketCommunicationProtocol = new ServerCommunication(objectInputStream, objectOutputStream, this);
     }
 
@@ -67,20 +87,31 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
     public void run(){
         boolean flag = true;
         try{
-            while(flag) {
-                Object input = objectInputStream.readObject();
-                if(input == null)
-                    flag = false;
-                socketCommunicationProtocol.clientRequestHandler(input);
-            }
+            while(flag)
+                flag = handleNextRequest();
         }catch(IOException | ClassNotFoundException e){
             Printer.printDebugMessage(this.getClass().getSimpleName(), "Connection with the client is down.");
             serverInterface.disableUser(this);
+        }catch(RuntimeException e){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), "Error while handling a request, disconnecting the client.", e);
+            serverInterface.disableUser(this);
         }finally{
             closeConnections(objectInputStream, objectOutputStream, socketClient);
         }
     }
 
+    /**
+     * Read the next request from the input stream and dispatch it to the protocol.
+     * @return false if the client has closed the stream.
+     * @throws IOException if errors occur while reading.
+     * @throws ClassNotFoundException if the request cannot be decoded.
+     */
+    /*package-local*/ boolean handleNextRequest() throws IOException, ClassNotFoundException{
+        Object input = objectInputStream.readObject();
+        socketCommunicationProtocol.clientRequestHandler(input);
+        return input != null;
+    }
+
     /**
      * Method to handle user loginPlayer request.
      * @param username provided by the client.
@@ -129,8 +160,10 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void notifyPlayerPersonalBoardTileChoice(PersonalBoardTile personalBoardTile) {
-        this.getPersonalBoard().setPersonalBoardTile(personalBoardTile);
-        this.getRoom().onPersonalTilesChosen();
+        inRoom(room -> {
+            this.getPersonalBoard().setPersonalBoardTile(personalBoardTile);
+            room.onPersonalTilesChosen();
+        });
     }
 
     /**
@@ -139,8 +172,10 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void notifyPlayerLeaderCardChoice(LeaderCard leaderCard) {
-        this.getPersonalBoard().setLeaderCard(leaderCard);
-        this.getRoom().onLeaderCardChosen();
+        inRoom(room -> {
+            this.getPersonalBoard().setLeaderCard(leaderCard);
+            room.onLeaderCardChosen();
+        });
     }
 
     /**
@@ -153,7 +188,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInTower(FamilyMemberColor familyMemberColor, int servants, int towerIndex, int cellIndex, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInTower(this, familyMemberColor, servants, towerIndex, cellIndex, playerChoices);
+        inRoom(room -> room.setFamilyMemberInTower(this, familyMemberColor, servants, towerIndex, cellIndex, playerChoices));
     }
 
     /**
@@ -164,7 +199,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInCouncil(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInCouncil(this, familyMemberColor, servants, playerChoices);
+        inRoom(room -> room.setFamilyMemberInCouncil(this, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -176,7 +211,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInMarket(FamilyMemberColor familyMemberColor, int servants, int marketIndex, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInMarket(this, familyMemberColor, servants, marketIndex, playerChoices);
+        inRoom(room -> room.setFamilyMemberInMarket(this, familyMemberColor, servants, marketIndex, playerChoices));
     }
 
     /**
@@ -187,7 +222,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInHarvestSimple(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInHarvestSimple(this, familyMemberColor, servants, playerChoices);
+        inRoom(room -> room.setFamilyMemberInHarvestSimple(this, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -198,7 +233,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInHarvestExtended(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInHarvestExtended(this, familyMemberColor, servants, playerChoices);
+        inRoom(room -> room.setFamilyMemberInHarvestExtended(this, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -209,7 +244,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInProductionSimple(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInProductionSimple(this, familyMemberColor, servants, playerChoices);
+        inRoom(room -> room.setFamilyMemberInProductionSimple(this, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -220,7 +255,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void setFamilyMemberInProductionExtended(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().setFamilyMemberInProductionExtended(this, familyMemberColor, servants, playerChoices);
+        inRoom(room -> room.setFamilyMemberInProductionExtended(this, familyMemberColor, servants, playerChoices));
     }
 
     /**
@@ -231,7 +266,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void activateLeaderCard(int leaderCardIndex, int servants, HashMap<String, Object> playerChoices) {
-        this.getRoom().activateLeader(this, leaderCardIndex, servants, playerChoices);
+        inRoom(room -> room.activateLeader(this, leaderCardIndex, servants, playerChoices));
     }
 
     /**
@@ -241,7 +276,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void discardLeader(int leaderCardIndex, HashMap<String, Object> playerChoices) {
-        this.getRoom().discardLeader(this, leaderCardIndex, playerChoices);
+        inRoom(room -> room.discardLeader(this, leaderCardIndex, playerChoices));
     }
 
     /**
@@ -250,7 +285,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      */
     @Override
     public void notifySupportForTheChurch(boolean flag) {
-        this.getRoom().onSupportToTheChurchChoice(this, flag);
+        inRoom(room -> room.onSupportToTheChurchChoice(this, flag));
     }
 
     /**
@@ -263,6 +298,16 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
         socketCommunicationProtocol.sendGameInfo(game);
     }
 
+    /**
+     * Communicates to the server the game info already serialized
+     * @param game the serialized game
+     * @throws NetworkException if error occurs during network communication
+     */
+    @Override
+    public void sendGameInfo(SerializedPacket game) throws NetworkException {
+        socketCommunicationProtocol.sendGameInfo(game);
+    }
+
     /**
      * Communicates to the server the personal board tiles
      * @param personalBoardTiles the personal board tiles
@@ -303,6 +348,15 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
         socketCommunicationProtocol.sendGameModelUpdate(clientUpdatePacket);
     }
 
+    /**
+     * Communicate to the server the game model updates already serialized
+     * @throws NetworkException if error occurs during network communication
+     */
+    @Override
+    public void sendGameModelUpdate(SerializedPacket clientUpdatePacket) throws NetworkException {
+        socketCommunicationProtocol.sendGameModelUpdate(clientUpdatePacket);
+    }
+
     /**
      * Communicate to the server the support for the church
      * @param flag this flag is used to check if the player supports the church or not
@@ -325,7 +379,34 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
 
     @Override
     public void endTurn() {
-        this.getRoom().endTurn(this);
+        inRoom(room -> room.endTurn(this));
+    }
+
+    @Override
+    public void requestResync() {
+        inRoom(room -> room.resynchronize(this));
+    }
+
+    /**
+     * Close the connection, the listener disables the player.
+     */
+    @Override
+    public void disconnect() {
+        closeConnection(socketClient);
+    }
+
+    /**
+     * Forward a game request to the room of the player. A player whose room has been evicted gets no
+     * answer, as game requests are one-way, and the request is only logged.
+     * @param request to perform on the room.
+     */
+    private void inRoom(Consumer<Room> request){
+        Room room = getRoom();
+        if(room == null){
+            Printer.printDebugMessage(this.getClass().getSimpleName(), getUsername() + " sent a request without a room, ignored.");
+            return;
+        }
+        request.accept(room);
     }
 
     /**
@@ -334,7 +415,7 @@ public class SocketServerPlayer extends ServerPlayer implements Runnable, Server
      * @param objectOutputStream output stream.
      * @param socketClient client socket.
      */
-    private void closeConnections(ObjectInputStream objectInputStream, ObjectOutputStream objectOutputStream, Socket socketClient){
+    private void closeConnections(ObjectInputStream objectInputStream, ObjectOutputStream objectOutputStream, Closeable socketClient){
         closeConnection(objectInputStream);
         closeConnection(objectOutputStream);
         closeConnection(socketClient);
@@ -3,7 +3,6 @@ package it.polimi.ingsw.ui.cli;
 import it.polimi.ingsw.exceptions.GameException;
 import it.polimi.ingsw.exceptions.WrongCommandException;
 import it.polimi.ingsw.model.*;
-import it.polimi.ingsw.model.effects.LEPicoDellaMirandola;
 import it.polimi.ingsw.server.ServerPlayer;
 import it.polimi.ingsw.ui.AbstractUserInterface;
 import it.polimi.ingsw.ui.UserInterface;
@@ -349,14 +348,12 @@ public class CommandLineInterface extends AbstractUserInterface implements GameS
 
         int i = 1;
         Printer.printInformationMessage("0 -> to choose no card.");
+        MoveValidator moveValidator = getClient().getGameModel().getMoveValidator();
         for(DevelopmentCardColor developmentCardColor : developmentCardColors) {
-            int newDiceValue = diceValue + getClient().getPlayer().getPersonalBoard().getDevelopmentCardColorDiceValueBonus().get(developmentCardColor)
-                    - getClient().getPlayer().getPersonalBoard().getExcommunicationValues().getDevelopmentCardDiceMalus().get(developmentCardColor);
             for (Tower tower : mainBoard.getTowers())
                 if (tower.getColor().equals(developmentCardColor))
                     for (TowerCell towerCell : tower.getTowerCells())
-                        if (towerCell.getPlayerNicknameInTheCell() == null && towerCell.getMinFamilyMemberValue() <= newDiceValue
-                                && isSelectable(towerCell, discount)) {
+                        if (moveValidator.validateCard(getClient().getPlayer(), towerCell, diceValue, discount).isLegal()) {
                             Printer.printInformationMessage(i + " -> " + towerCell.getDevelopmentCard().toString());
                             selectable.add(towerCell.getDevelopmentCard());
                             i++;
@@ -378,16 +375,7 @@ public class CommandLineInterface extends AbstractUserInterface implements GameS
             for (Tower tower : mainBoard.getTowers())
                 for (TowerCell towerCell : tower.getTowerCells())
                     if (towerCell.getDevelopmentCard().getName().equals(card.getName())) {
-                        LeaderCard leaderCard = getClient().getPlayer().getPersonalBoard().getLeaderCardWithName("Pico della Mirandola");
-                        int devCardCoinsCost = card.getCost().getResources().get(ResourceType.COIN);
-                        if (leaderCard != null && leaderCard.getLeaderEffectActive()) {
-                            //decrease card price
-                            if (devCardCoinsCost >= 3)
-                                card.getCost().decrease(ResourceType.COIN, ((LEPicoDellaMirandola) leaderCard.getEffect()).getMoneyDiscount());
-                            else
-                                card.getCost().decrease(ResourceType.COIN, devCardCoinsCost);
-                        }
-                        card.payCost(getClient().getPlayer(), this);
+                        card.payCost(getClient().getPlayer(), Game.getDevelopmentCardCost(getClient().getPlayer(), card), this);
                         towerCell.setPlayerNicknameInTheCell(getClient().getUsername());
                         if (towerCell.getTowerCellImmediateEffect() != null)
                             towerCell.getTowerCellImmediateEffect().runEffect(getClient().getPlayer(), this);
@@ -707,34 +695,6 @@ public class CommandLineInterface extends AbstractUserInterface implements GameS
         gameScreen = new TurnScreen(this, moveDone);
     }
 
-    /**
-     * Determinates if a card can be taken or not.
-     * @param cell of the tower.
-     * @param discount applied.
-     * @return flag.
-     */
-    private boolean isSelectable(TowerCell cell, PointsAndResources discount){
-        if (cell.getDevelopmentCard().getMultipleRequisiteSelectionEnabled()){
-            if (getClient().getPlayer().getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY) >= cell.getDevelopmentCard().getMilitaryPointsRequired()){
-                return true;
-            }
-            for (Map.Entry<ResourceType, Integer> entry : cell.getDevelopmentCard().getCost().getResources().entrySet()) {
-                if (cell.getDevelopmentCard().getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey())
-                        > getClient().getPlayer().getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
-                    return false;
-                }
-            }
-        } else {
-            for (Map.Entry<ResourceType, Integer> entry : cell.getDevelopmentCard().getCost().getResources().entrySet()) {
-                if (cell.getDevelopmentCard().getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey())
-                        > getClient().getPlayer().getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
     /**
      * Show game exceptions.
      * @param message error to be shown.
@@ -2,7 +2,6 @@ package it.polimi.ingsw.ui.gui;
 
 import it.polimi.ingsw.exceptions.GameException;
 import it.polimi.ingsw.model.*;
-import it.polimi.ingsw.model.effects.LEPicoDellaMirandola;
 import it.polimi.ingsw.ui.AbstractUserInterface;
 import it.polimi.ingsw.ui.UserInterface;
 import it.polimi.ingsw.model.LeaderCard;
@@ -509,12 +508,12 @@ public class GraphicUserInterface extends AbstractUserInterface implements MainB
         MainBoard mainBoard = getClient().getGameModel().getMainBoard();
         ArrayList<DevelopmentCard> selectable = new ArrayList<>();
 
+        MoveValidator moveValidator = getClient().getGameModel().getMoveValidator();
         for (DevelopmentCardColor developmentCardColor : developmentCardColors) {
-            int newDiceValue = diceValue + getClient().getPlayer().getPersonalBoard().getDevelopmentCardColorDiceValueBonus().get(developmentCardColor) - getClient().getPlayer().getPersonalBoard().getExcommunicationValues().getDevelopmentCardDiceMalus().get(developmentCardColor);
             for (Tower tower : mainBoard.getTowers())
                 if (tower.getColor().equals(developmentCardColor))
                     for (TowerCell towerCell : tower.getTowerCells())
-                    if (towerCell.getPlayerNicknameInTheCell() == null && towerCell.getMinFamilyMemberValue() <= newDiceValue && isSelectable(towerCell, discount)) {
+                    if (moveValidator.validateCard(getClient().getPlayer(), towerCell, diceValue, discount).isLegal()) {
                         selectable.add(towerCell.getDevelopmentCard());
                         choices.add(towerCell.getDevelopmentCard().getName());
                     }
@@ -534,16 +533,7 @@ public class GraphicUserInterface extends AbstractUserInterface implements MainB
         for (Tower tower : mainBoard.getTowers())
             for (TowerCell towerCell : tower.getTowerCells())
                 if (towerCell.getDevelopmentCard().getName().equals(choice.getName())) {
-                    LeaderCard leaderCard = getClient().getPlayer().getPersonalBoard().getLeaderCardWithName("Pico della Mirandola");
-                    int devCardCoinsCost = choice.getCost().getResources().get(ResourceType.COIN);
-                    if (leaderCard != null && leaderCard.getLeaderEffectActive()) {
-                        //decrease card price
-                        if (devCardCoinsCost >= 3)
-                            choice.getCost().decrease(ResourceType.COIN, ((LEPicoDellaMirandola) leaderCard.getEffect()).getMoneyDiscount());
-                        else
-                            choice.getCost().decrease(ResourceType.COIN, devCardCoinsCost);
-                    }
-                    choice.payCost(getClient().getPlayer(), this);
+                    choice.payCost(getClient().getPlayer(), Game.getDevelopmentCardCost(getClient().getPlayer(), choice), this);
                     towerCell.setPlayerNicknameInTheCell(getClient().getUsername());
                     if (towerCell.getTowerCellImmediateEffect() != null)
                         towerCell.getTowerCellImmediateEffect().runEffect(getClient().getPlayer(), this);
@@ -603,26 +593,4 @@ public class GraphicUserInterface extends AbstractUserInterface implements MainB
         }
         return choice;
     }
-
-    private boolean isSelectable(TowerCell cell, PointsAndResources discount) {
-        if (cell.getDevelopmentCard().getMultipleRequisiteSelectionEnabled()){
-            if (getClient().getPlayer().getPersonalBoard().getValuables().getPoints().get(PointType.MILITARY) >= cell.getDevelopmentCard().getMilitaryPointsRequired()){
-                return true;
-            }
-            for (Map.Entry<ResourceType, Integer> entry : cell.getDevelopmentCard().getCost().getResources().entrySet()) {
-                if (cell.getDevelopmentCard().getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey())
-                        > getClient().getPlayer().getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
-                    return false;
-                }
-            }
-        } else {
-            for (Map.Entry<ResourceType, Integer> entry : cell.getDevelopmentCard().getCost().getResources().entrySet()) {
-                if (cell.getDevelopmentCard().getCost().getResources().get(entry.getKey()) - discount.getResources().get(entry.getKey())
-                        > getClient().getPlayer().getPersonalBoard().getValuables().getResources().get(entry.getKey())) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
 }
\ No newline at end of file
@@ -109,7 +109,7 @@ import java.util.Optional;
                     }
                 });
             });
-            if(player.getPersonalBoard().getLeaderCards().get(i).getLeaderEffectActive())
+            if(player.getPersonalBoard().isLeaderEffectActive(player.getPersonalBoard().getLeaderCards().get(i).getLeaderCardName()))
                 button.setVisible(false);
             pane.add(button, i, 2);
         }
@@ -0,0 +1,129 @@
+package it.polimi.ingsw.utility;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-wide scheduler of deadlines, like room start timeouts and move timeouts.
+ * A single thread fires all the deadlines of the server with millisecond precision, instead of a timer
+ * thread per room and per turn. Expired tasks run on the scheduler thread, so they must be short and
+ * hand long work to other threads.
+ * Cancelling a deadline only flips a flag and releases the task: the cancelled entry is discarded when it
+ * reaches its time, and meanwhile it does not keep the task and its room reachable.
+ */
+public class DeadlineScheduler {
+
+    /**
+     * Metric with the number of scheduled deadlines.
+     */
+    public static final String SCHEDULED = "deadline.scheduled";
+
+    /**
+     * Metric with the number of cancelled deadlines.
+     */
+    public static final String CANCELLED = "deadline.cancelled";
+
+    /**
+     * Metric with the delay between the time of a deadline and the moment it fires.
+     */
+    public static final String LATENESS = "deadline.lateness.micros";
+
+    /**
+     * Thread that fires the deadlines.
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = new Thread(task, "deadline-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Utility class.
+     */
+    private DeadlineScheduler(){
+    }
+
+    /**
+     * Run a task when a deadline expires.
+     * @param delay in milliseconds before the deadline expires.
+     * @param task to run, unless the deadline is cancelled before.
+     * @return the deadline.
+     */
+    public static Deadline schedule(long delay, Runnable task){
+        Deadline deadline = new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay)), task);
+        Metrics.increment(SCHEDULED);
+        SCHEDULER.schedule(deadline::expire, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    /**
+     * Deadline that runs a task once, unless cancelled.
+     */
+    public static class Deadline {
+
+        /**
+         * Time of the deadline, as returned by System.nanoTime().
+         */
+        private final long time;
+
+        /**
+         * Task to run, released once the deadline expired or has been cancelled.
+         */
+        private volatile Runnable task;
+
+        /**
+         * Flag that indicates if the deadline expired or has been cancelled.
+         */
+        private final AtomicBoolean done;
+
+        /**
+         * Class constructor.
+         * @param time of the deadline.
+         * @param task to run.
+         */
+        private Deadline(long time, Runnable task){
+            this.time = time;
+            this.task = task;
+            this.done = new AtomicBoolean(false);
+        }
+
+        /**
+         * Cancel the deadline.
+         * @return true if the task will never run, false if it already ran or is running.
+         */
+        public boolean cancel(){
+            if(done.compareAndSet(false, true)){
+                task = null;
+                Metrics.increment(CANCELLED);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Get the milliseconds left before the deadline expires.
+         * @return remaining time, 0 if expired.
+         */
+        public long remaining(){
+            return Math.max(0, TimeUnit.NANOSECONDS.toMillis(time - System.nanoTime()));
+        }
+
+        /**
+         * Run the task if the deadline has not been cancelled.
+         */
+        private void expire(){
+            if(done.compareAndSet(false, true)){
+                Metrics.record(LATENESS, TimeUnit.NANOSECONDS.toMicros(Math.max(0, System.nanoTime() - time)));
+                Runnable expired = task;
+                task = null;
+                try{
+                    expired.run();
+                } catch (RuntimeException e){
+                    Printer.printDebugMessage(DeadlineScheduler.class.getSimpleName(), "Deadline task failed.", e);
+                }
+            }
+        }
+    }
+
+}
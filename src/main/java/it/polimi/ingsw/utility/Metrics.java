@@ -0,0 +1,277 @@
+package it.polimi.ingsw.utility;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the server metrics. Counters count events, summaries keep count, total and max of recorded values,
+ * histograms keep the distribution of recorded values to get percentiles.
+ * All methods can be called concurrently and never block the caller.
+ */
+public class Metrics {
+
+    /**
+     * Counters per name.
+     */
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Summaries per name.
+     */
+    private static final Map<String, Summary> SUMMARIES = new ConcurrentHashMap<>();
+
+    /**
+     * Histograms per name.
+     */
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    /**
+     * Utility class.
+     */
+    private Metrics(){
+    }
+
+    /**
+     * Increase a counter by one.
+     * @param name of the counter.
+     */
+    public static void increment(String name){
+        add(name, 1);
+    }
+
+    /**
+     * Increase a counter.
+     * @param name of the counter.
+     * @param value to add.
+     */
+    public static void add(String name, long value){
+        COUNTERS.computeIfAbsent(name, key -> new LongAdder()).add(value);
+    }
+
+    /**
+     * Get the value of a counter.
+     * @param name of the counter.
+     * @return value, 0 if the counter does not exist.
+     */
+    public static long count(String name){
+        LongAdder counter = COUNTERS.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Record a value in a summary.
+     * @param name of the summary.
+     * @param value to record.
+     */
+    public static void record(String name, long value){
+        summary(name).record(value);
+    }
+
+    /**
+     * Get a summary, creating it if it does not exist.
+     * @param name of the summary.
+     * @return summary.
+     */
+    public static Summary summary(String name){
+        return SUMMARIES.computeIfAbsent(name, key -> new Summary());
+    }
+
+    /**
+     * Get a histogram, creating it if it does not exist.
+     * @param name of the histogram.
+     * @return histogram.
+     */
+    public static Histogram histogram(String name){
+        return HISTOGRAMS.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Build a report of all the metrics sorted by name.
+     * @return report, one metric per line.
+     */
+    public static String report(){
+        Map<String, String> lines = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> lines.put(name, name + " = " + counter.sum()));
+        SUMMARIES.forEach((name, summary) -> lines.put(name, name + " = " + summary));
+        HISTOGRAMS.forEach((name, histogram) -> lines.put(name, name + " = " + histogram));
+        StringBuilder stringBuilder = new StringBuilder();
+        for(String line : lines.values())
+            stringBuilder.append(line).append("\n");
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Count, total and max of the values recorded for a metric.
+     */
+    public static class Summary {
+
+        /**
+         * Number of recorded values.
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Sum of recorded values.
+         */
+        private final LongAdder total = new LongAdder();
+
+        /**
+         * Max recorded value.
+         */
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Record a value.
+         * @param value to record.
+         */
+        public void record(long value){
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Get the number of recorded values.
+         * @return count.
+         */
+        public long getCount(){
+            return count.sum();
+        }
+
+        /**
+         * Get the sum of recorded values.
+         * @return total.
+         */
+        public long getTotal(){
+            return total.sum();
+        }
+
+        /**
+         * Get the max recorded value.
+         * @return max.
+         */
+        public long getMax(){
+            return max.get();
+        }
+
+        /**
+         * Get the mean of recorded values.
+         * @return mean, 0 if nothing was recorded.
+         */
+        public double getMean(){
+            long n = getCount();
+            return n == 0 ? 0 : (double)getTotal() / n;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("count %d, mean %.1f, max %d", getCount(), getMean(), getMax());
+        }
+    }
+
+    /**
+     * Distribution of the values recorded for a metric.
+     * Values are counted in buckets with a relative precision of 1/16, so recording never allocates or locks.
+     */
+    public static class Histogram {
+
+        /**
+         * Values below this limit have a bucket each.
+         */
+        private static final int EXACT_VALUES = 32;
+
+        /**
+         * Buckets per power of two above the exact values.
+         */
+        private static final int SUB_BUCKETS = EXACT_VALUES / 2;
+
+        /**
+         * Number of values per bucket.
+         */
+        private final AtomicLongArray counts = new AtomicLongArray(EXACT_VALUES + (Long.SIZE - 6) * SUB_BUCKETS);
+
+        /**
+         * Number of recorded values.
+         */
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Max recorded value.
+         */
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Record a value. Negative values are recorded as 0.
+         * @param value to record.
+         */
+        public void record(long value){
+            long positive = Math.max(0, value);
+            counts.incrementAndGet(index(positive));
+            count.increment();
+            max.accumulate(positive);
+        }
+
+        /**
+         * Get the number of recorded values.
+         * @return count.
+         */
+        public long getCount(){
+            return count.sum();
+        }
+
+        /**
+         * Get a percentile of the recorded values.
+         * @param percentile between 0 and 100.
+         * @return the highest value of the bucket containing the percentile, 0 if nothing was recorded.
+         */
+        public long getPercentile(double percentile){
+            long total = getCount();
+            if(total == 0)
+                return 0;
+            long rank = Math.max(1, (long)Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for(int i = 0; i < counts.length(); i++){
+                seen += counts.get(i);
+                if(seen >= rank)
+                    return Math.min(highestValue(i), max.get());
+            }
+            return max.get();
+        }
+
+        /**
+         * Get the bucket of a value.
+         * @param value not negative.
+         * @return index of the bucket.
+         */
+        private static int index(long value){
+            if(value < EXACT_VALUES)
+                return (int)value;
+            int shift = 63 - Long.numberOfLeadingZeros(value) - 4;
+            return EXACT_VALUES + (shift - 1) * SUB_BUCKETS + (int)(value >> shift) - SUB_BUCKETS;
+        }
+
+        /**
+         * Get the highest value counted in a bucket.
+         * @param index of the bucket.
+         * @return highest value.
+         */
+        private static long highestValue(int index){
+            if(index < EXACT_VALUES)
+                return index;
+            int shift = (index - EXACT_VALUES) / SUB_BUCKETS + 1;
+            long subBucket = (index - EXACT_VALUES) % SUB_BUCKETS + SUB_BUCKETS;
+            return ((subBucket + 1) << shift) - 1;
+        }
+
+        @Override
+        public String toString(){
+            return String.format("count %d, p50 %d, p90 %d, p99 %d, max %d", getCount(),
+                    getPercentile(50), getPercentile(90), getPercentile(99), max.get());
+        }
+    }
+
+}
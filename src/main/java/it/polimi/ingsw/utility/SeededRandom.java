@@ -0,0 +1,119 @@
+package it.polimi.ingsw.utility;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Random generator of a game, created from a seed.
+ * Two generators with the same seed give the same values in the same order, so a game is reproduced by its seed
+ * and the moves of its players. The generator is the SplitMix64 of {@link SplittableRandom}, whose state is a single
+ * long: unlike {@link SplittableRandom} it is serializable, so a saved game goes on with the values it would have had.
+ * Not thread safe: a game uses it from one thread at a time.
+ */
+public final class SeededRandom implements Serializable {
+
+    /**
+     * Increment of the state at each value.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Source of the seeds of new games.
+     */
+    private static final SplittableRandom SEEDS = new SplittableRandom();
+
+    /**
+     * Seed of the generator.
+     */
+    private final long seed;
+
+    /**
+     * State of the generator.
+     */
+    private long state;
+
+    /**
+     * Class constructor.
+     * @param seed of the generator.
+     */
+    public SeededRandom(long seed){
+        this.seed = seed;
+        this.state = seed;
+    }
+
+    /**
+     * Create a seed for a new game.
+     * @return the seed.
+     */
+    public static long newSeed(){
+        synchronized (SEEDS){
+            return SEEDS.nextLong();
+        }
+    }
+
+    /**
+     * Get the seed of the generator.
+     * @return the seed.
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+
+    /**
+     * Get the next random long.
+     * @return the value.
+     */
+    public long nextLong(){
+        long z = state += GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Get the next random int between 0, included, and a bound, excluded. All values are equally likely.
+     * @param bound of the value, positive.
+     * @return the value.
+     */
+    public int nextInt(int bound){
+        if(bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+        if((bound & m) == 0)
+            return (int) ((bound * (long) r) >> 31);
+        for(int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33));
+        return r;
+    }
+
+    /**
+     * Get the next random int between two values, included.
+     * @param min value.
+     * @param max value.
+     * @return the value.
+     */
+    public int nextInt(int min, int max){
+        return min + nextInt(max - min + 1);
+    }
+
+    /**
+     * Shuffle a list in place. All orders are equally likely.
+     * @param list to shuffle.
+     */
+    public void shuffle(List<?> list){
+        for(int i = list.size() - 1; i > 0; i--)
+            swap(list, i, nextInt(i + 1));
+    }
+
+    /**
+     * Swap two elements of a list.
+     * @param list with the elements.
+     * @param i index of the first element.
+     * @param j index of the second element.
+     */
+    private static <T> void swap(List<T> list, int i, int j){
+        list.set(i, list.set(j, list.get(i)));
+    }
+
+}
@@ -0,0 +1,84 @@
+package it.polimi.ingsw.utility;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executor that runs the submitted tasks one at a time, in submission order, on top of a shared executor.
+ * Used to serialize the work of a single connection (or room) without dedicating a thread to it.
+ */
+public class SerialExecutor implements Executor {
+
+    /**
+     * Shared executor that runs the tasks.
+     */
+    private final Executor executor;
+
+    /**
+     * Pending tasks.
+     */
+    private final Queue<Runnable> tasks;
+
+    /**
+     * Flag that indicates if a drain is scheduled or running on the shared executor.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Class constructor.
+     * @param executor shared executor.
+     */
+    public SerialExecutor(Executor executor){
+        this.executor = executor;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Queue a task. It will run after all the tasks previously submitted to this executor.
+     * @param task to run.
+     */
+    @Override
+    public void execute(Runnable task){
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Get the number of tasks waiting to run.
+     * @return number of pending tasks.
+     */
+    public int pendingTasks(){
+        return tasks.size();
+    }
+
+    /**
+     * Schedule a drain on the shared executor if it is not already scheduled.
+     */
+    private void schedule(){
+        if(!tasks.isEmpty() && scheduled.compareAndSet(false, true))
+            executor.execute(this::drain);
+    }
+
+    /**
+     * Run all pending tasks, then release the executor.
+     */
+    private void drain(){
+        try{
+            Runnable task;
+            while((task = tasks.poll()) != null){
+                try{
+                    task.run();
+                }catch(RuntimeException e){
+                    Printer.printDebugMessage(this.getClass().getSimpleName(), "Task failed.", e);
+                }
+            }
+        }finally{
+            scheduled.set(false);
+            schedule();
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.protocol.SerializedPacket;
+import it.polimi.ingsw.utility.Metrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BroadcastTest {
+
+    @Test
+    public void samePacketIsEncodedOnce() throws Exception {
+        AtomicInteger encodings = new AtomicInteger();
+        ArrayList<String> content = new ArrayList<>();
+        content.add("model update");
+        long deliveries = Metrics.count(Broadcast.DELIVERIES);
+        long broadcasts = Metrics.summary(Broadcast.ENCODED_BYTES).getCount();
+
+        Broadcast broadcast = new Broadcast();
+        SerializedPacket first = null;
+        for(int i = 0; i < 4; i++){
+            SerializedPacket packet = broadcast.packet(1L, () -> {
+                encodings.incrementAndGet();
+                return content;
+            });
+            if(first == null)
+                first = packet;
+            assertSame(first, packet);
+            broadcast.sent(packet);
+        }
+        SerializedPacket full = broadcast.packet(null, () -> {
+            encodings.incrementAndGet();
+            return "whole game";
+        });
+        broadcast.sent(full);
+        broadcast.complete();
+
+        assertEquals(2, encodings.get());
+        assertEquals(content, first.decode());
+        assertEquals("whole game", full.decode());
+        assertEquals(deliveries + 5, Metrics.count(Broadcast.DELIVERIES));
+        assertEquals(broadcasts + 1, Metrics.summary(Broadcast.ENCODED_BYTES).getCount());
+        assertTrue(Metrics.summary(Broadcast.SENT_BYTES).getMax() >= 4L * first.size() + full.size());
+    }
+
+}
@@ -0,0 +1,199 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class EventLogTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("events");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        delete(directory);
+    }
+
+    @Test
+    public void recordsAreReadBack() throws Exception {
+        try(EventLog log = new EventLog(directory, 4096, 1, 1024)){
+            assertEquals(1, log.record(3, (byte) 1).putString("alice").putInt(42).append());
+            assertEquals(2, log.record(4, (byte) 2).put((byte) 5).putBytes(new byte[]{1, 2, 3}).append());
+        }
+        List<String> records = new ArrayList<>();
+        long last = EventLog.read(directory, (sequence, time, roomID, type, payload) -> {
+            if(type == 1)
+                records.add(sequence + ":" + roomID + ":" + EventLog.RecordReader.getString(payload) + ":" + payload.getInt());
+            else
+                records.add(sequence + ":" + roomID + ":" + payload.get() + ":" + EventLog.RecordReader.getBytes(payload).length);
+        });
+        assertEquals(2, last);
+        assertEquals("1:3:alice:42", records.get(0));
+        assertEquals("2:4:5:3", records.get(1));
+    }
+
+    @Test
+    public void fullSegmentsAreRotated() throws Exception {
+        try(EventLog log = new EventLog(directory, 256, 1, 1024)){
+            for(int i = 0; i < 100; i++)
+                log.record(0, (byte) 1).putInt(i).append();
+        }
+        assertTrue(segments().size() > 1);
+        List<Integer> values = new ArrayList<>();
+        assertEquals(100, EventLog.read(directory, (sequence, time, roomID, type, payload) -> values.add(payload.getInt())));
+        for(int i = 0; i < 100; i++)
+            assertEquals(i, (int) values.get(i));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordsLargerThanASegmentAreRejected() throws Exception {
+        try(EventLog log = new EventLog(directory, 256, 1, 1024)){
+            log.record(0, (byte) 1).putBytes(new byte[512]).append();
+        }
+    }
+
+    @Test
+    public void reopenedLogContinuesTheSequence() throws Exception {
+        try(EventLog log = new EventLog(directory, 4096, 1, 1024)){
+            for(int i = 0; i < 10; i++)
+                log.record(0, (byte) 1).append();
+        }
+        try(EventLog log = new EventLog(directory, 4096, 1, 1024)){
+            assertEquals(11, log.record(0, (byte) 1).append());
+        }
+        assertEquals(11, EventLog.read(directory, (sequence, time, roomID, type, payload) -> { }));
+    }
+
+    @Test
+    public void corruptedTailIsTruncated() throws Exception {
+        try(EventLog log = new EventLog(directory, 4096, 1, 1024)){
+            for(int i = 0; i < 10; i++)
+                log.record(0, (byte) 1).putInt(i).append();
+        }
+        Path segment = segments().get(0);
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ByteBuffer length = ByteBuffer.allocate(4);
+            long position = 0;
+            for(int i = 0; i < 7; i++){
+                length.clear();
+                channel.read(length, position);
+                position += 8 + length.getInt(0);
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), position + 20);
+        }
+        assertEquals(7, EventLog.read(directory, (sequence, time, roomID, type, payload) -> { }));
+        try(EventLog log = new EventLog(directory, 4096, 1, 1024)){
+            assertEquals(8, log.record(0, (byte) 1).putInt(-1).append());
+        }
+        List<Integer> values = new ArrayList<>();
+        assertEquals(8, EventLog.read(directory, (sequence, time, roomID, type, payload) -> values.add(payload.getInt())));
+        assertEquals(-1, (int) values.get(7));
+    }
+
+    @Test
+    public void appendedRecordsBecomeDurable() throws Exception {
+        try(EventLog log = new EventLog(directory, 4096, 5, 1024 * 1024)){
+            long sequence = log.record(0, (byte) 1).append();
+            assertTrue(log.awaitDurable(sequence, 5000));
+            assertTrue(log.getDurableSequence() >= sequence);
+        }
+    }
+
+    @Test
+    public void segmentsBeforeASequenceAreDeleted() throws Exception {
+        try(EventLog log = new EventLog(directory, 256, 1, 1024)){
+            for(int i = 0; i < 100; i++)
+                log.record(0, (byte) 1).putInt(i).append();
+            assertTrue(log.awaitDurable(100, 5000));
+            int segments = segments().size();
+            assertTrue(log.deleteBefore(50) > 0);
+            long[] first = new long[1];
+            EventLog.read(directory, (sequence, time, roomID, type, payload) -> {
+                if(first[0] == 0)
+                    first[0] = sequence;
+            });
+            assertTrue(first[0] > 1);
+            assertTrue(first[0] <= 50);
+            assertTrue(segments().size() < segments);
+            log.deleteBefore(Long.MAX_VALUE);
+            assertEquals(1, segments().size());
+            assertEquals(101, log.record(0, (byte) 1).putInt(100).append());
+        }
+        assertEquals(101, EventLog.read(directory, (sequence, time, roomID, type, payload) -> { }));
+    }
+
+    @Test
+    public void concurrentAppendsAreAllLogged() throws Exception {
+        appendConcurrently(4, 1000);
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void concurrentAppendsBenchmark() throws Exception {
+        appendConcurrently(8, 20000);
+    }
+
+    private void appendConcurrently(int threads, int records) throws Exception {
+        long appends = Metrics.histogram(EventLog.APPEND_TIME).getCount();
+        try(EventLog log = new EventLog(directory, EventLog.DEFAULT_SEGMENT_SIZE / 16, EventLog.DEFAULT_FLUSH_INTERVAL, EventLog.DEFAULT_FLUSH_BYTES)){
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> results = new ArrayList<>();
+            for(int t = 0; t < threads; t++){
+                int room = t;
+                results.add(executor.submit(() -> {
+                    for(int i = 0; i < records; i++)
+                        log.record(room, GameEventType.TOWER.getCode()).putString("player" + room).put((byte) 1)
+                                .putInt(0).putInt(i % 4).putInt(i % 4).putBytes(new byte[32]).append();
+                    return null;
+                }));
+            }
+            for(Future<?> result : results)
+                result.get(60, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+        int[] counts = new int[threads];
+        assertEquals(threads * records, EventLog.read(directory, (sequence, time, roomID, type, payload) -> counts[roomID]++));
+        for(int count : counts)
+            assertEquals(records, count);
+        assertEquals(appends + threads * records, Metrics.histogram(EventLog.APPEND_TIME).getCount());
+    }
+
+    private List<Path> segments() throws IOException {
+        try(Stream<Path> files = Files.list(directory)){
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    /*package-local*/ static void delete(Path directory) throws IOException {
+        try(Stream<Path> files = Files.list(directory)){
+            for(Path file : files.collect(Collectors.toList()))
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+}
@@ -1,14 +1,20 @@
 package it.polimi.ingsw.gameserver;
 
+import it.polimi.ingsw.exceptions.GameErrorType;
+import it.polimi.ingsw.exceptions.GameException;
 import it.polimi.ingsw.exceptions.NetworkException;
 import it.polimi.ingsw.model.*;
 import it.polimi.ingsw.model.effects.*;
 import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.Benchmark;
 import it.polimi.ingsw.utility.Configuration;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import static org.junit.Assert.*;
 
@@ -458,4 +464,395 @@ public class GameManagerTest {
 
         assertFalse(gameManager.finalControlsForPeriod(1, player));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sameSeedReproducesTheGame() throws Exception {
+        GameManager first = seededGame(42);
+        GameManager second = seededGame(42);
+        for(int i = 0; i < first.getStartOrder().size(); i++)
+            assertEquals(first.getStartOrder().get(i).getUsername(), second.getStartOrder().get(i).getUsername());
+        for(DevelopmentCardColor color : DevelopmentCardColor.values())
+            for(int i = 0; i < first.getDevelopmentDeck(color).size(); i++)
+                assertEquals(first.getDevelopmentDeck(color).get(i).getId(), second.getDevelopmentDeck(color).get(i).getId());
+        for(int period = 0; period < 3; period++)
+            assertEquals(first.getGameModel().getMainBoard().getVatican().getExcommunicationCard(period).getCardID(),
+                    second.getGameModel().getMainBoard().getVatican().getExcommunicationCard(period).getCardID());
+        for(int turn = 0; turn < 6; turn++){
+            assertEquals(first.getGameModel().getDices().getValues(), second.getGameModel().getDices().getValues());
+            first.mainboardTurnReset();
+            second.mainboardTurnReset();
+        }
+        assertEquals(first.getRandom().nextLong(), second.getRandom().nextLong());
+    }
+
+    @Test
+    public void gamesDoNotChangeTheSharedCards() throws Exception {
+        GameManager first = seededGame(1);
+        GameManager second = seededGame(2);
+        CardCatalog catalog = Configurator.getCatalog();
+        LeaderCard pico = catalog.getLeaderCard("Pico della Mirandola");
+        DevelopmentCard card = null;
+        for(DevelopmentCard developmentCard : catalog.getDevelopmentCards())
+            if(developmentCard.getCost().getResources().get(ResourceType.COIN) >= 3)
+                card = developmentCard;
+        int coins = card.getCost().getResources().get(ResourceType.COIN);
+
+        ServerPlayer player = first.getStartOrder().get(0);
+        ServerPlayer other = second.getStartOrder().get(0);
+        player.getPersonalBoard().setLeaderCard(pico);
+        other.getPersonalBoard().setLeaderCard(pico);
+        player.getPersonalBoard().setLeaderEffectActive(pico.getLeaderCardName());
+
+        assertTrue(player.getPersonalBoard().isLeaderEffectActive(pico.getLeaderCardName()));
+        assertFalse(other.getPersonalBoard().isLeaderEffectActive(pico.getLeaderCardName()));
+        PointsAndResources cost = Game.getDevelopmentCardCost(player, card);
+        assertEquals(coins - ((LEPicoDellaMirandola)pico.getEffect()).getMoneyDiscount(), (int)cost.getResources().get(ResourceType.COIN));
+        assertEquals(coins, (int)card.getCost().getResources().get(ResourceType.COIN));
+        assertSame(card.getCost(), Game.getDevelopmentCardCost(other, card));
+        assertSame(card, catalog.getDevelopmentCard(card.getId()));
+
+        player.getPersonalBoard().copyLeaderCard(catalog.getLeaderCard("Santa Rita"));
+        assertEquals(2, player.getPersonalBoard().getLeaderCards().size());
+        first.personalBoardsTurnReset(Configurator.getConfiguration());
+        assertFalse(player.getPersonalBoard().isLeaderEffectActive(pico.getLeaderCardName()));
+        assertEquals(1, player.getPersonalBoard().getLeaderCards().size());
+        assertNull(player.getPersonalBoard().getCopiedLeaderCard());
+    }
+
+    @Test
+    public void leaderAbilitiesFollowTheActiveCards() throws Exception {
+        GameManager gameManager = seededGame(3);
+        PersonalBoard personalBoard = gameManager.getStartOrder().get(0).getPersonalBoard();
+        LeaderCard santaRita = Configurator.getCatalog().getLeaderCard(LeaderAbility.SANTA_RITA.getLeaderCardName());
+        personalBoard.setLeaderCard(santaRita);
+        personalBoard.setLeaderEffectActive("Giovanni delle Bande Nere");
+        assertFalse(personalBoard.hasLeaderAbility(LeaderAbility.SANTA_RITA));
+
+        personalBoard.setLeaderEffectActive(santaRita.getLeaderCardName());
+        assertTrue(personalBoard.hasLeaderAbility(LeaderAbility.SANTA_RITA));
+        assertFalse(personalBoard.hasLeaderAbility(LeaderAbility.SISTO_IV));
+        assertSame(santaRita, personalBoard.getLeaderCardWithAbility(LeaderAbility.SANTA_RITA));
+
+        gameManager.personalBoardsTurnReset(Configurator.getConfiguration());
+        assertFalse(personalBoard.hasLeaderAbility(LeaderAbility.SANTA_RITA));
+        assertNull(personalBoard.getLeaderCardWithAbility(LeaderAbility.SANTA_RITA));
+    }
+
+    @Test
+    public void moveValidatorRefusesWithoutChangingTheGame() throws Exception {
+        GameManager gameManager = seededGame(4);
+        Game game = gameManager.getGameModel();
+        Player player = game.getPlayer("alice");
+        PersonalBoard personalBoard = player.getPersonalBoard();
+        personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.WHITE, 1);
+        personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.BLACK, 7);
+        personalBoard.getValuables().increase(ResourceType.SERVANT, 1);
+        String before = personalBoard.toString();
+        MoveValidator moveValidator = game.getMoveValidator();
+
+        MoveVerdict verdict = moveValidator.validateTower(game, player, FamilyMemberColor.WHITE, 1, 0, 3);
+        assertFalse(verdict.isLegal());
+        assertEquals(GameErrorType.FAMILY_MEMBER_DICE_VALUE, verdict.getError());
+        assertEquals(2, verdict.getDiceValue());
+
+        verdict = moveValidator.validateTower(game, player, FamilyMemberColor.BLACK, 0, 0, 3);
+        assertTrue(verdict.isLegal());
+        assertEquals(7, verdict.getDiceValue());
+        assertEquals(game.getMainBoard().getTower(0).getTowerCell(3).getDevelopmentCard().getCost().toString(),
+                verdict.getCost().toString());
+
+        assertEquals(GameErrorType.FAMILY_MEMBER_DICE_VALUE,
+                moveValidator.validateCouncilPalace(game, player, FamilyMemberColor.NEUTRAL, 0).getError());
+        assertEquals(before, personalBoard.toString());
+        assertNull(game.getMainBoard().getTower(0).getTowerCell(3).getPlayerNicknameInTheCell());
+
+        personalBoard.setFamilyMembersUsed(FamilyMemberColor.BLACK);
+        assertEquals(GameErrorType.FAMILY_MEMBER_ALREADY_USED,
+                moveValidator.validateMarket(game, player, FamilyMemberColor.BLACK, 0, 0).getError());
+        try {
+            game.placeFamilyMemberInsideMarket(player, FamilyMemberColor.BLACK, 0, 0, null);
+            fail("the move is refused before it asks any choice");
+        } catch (GameException e) {
+            assertEquals(GameErrorType.FAMILY_MEMBER_ALREADY_USED, e.getError());
+        }
+    }
+
+    @Test
+    public void movesAcceptedByTheValidatorPassTheChecksOfTheGame() throws Exception {
+        GameManager gameManager = seededGame(5);
+        Game game = gameManager.getGameModel();
+        for(String username : game.getPlayersUsername()){
+            PersonalBoard personalBoard = game.getPlayer(username).getPersonalBoard();
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.ORANGE, 1);
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.WHITE, 3);
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.BLACK, 5);
+            personalBoard.getValuables().increase(ResourceType.COIN, 4);
+            personalBoard.getValuables().increase(ResourceType.SERVANT, 2);
+        }
+        Player bob = game.getPlayer("bob");
+        bob.getPersonalBoard().getFamilyMember().setFamilyMemberValue(FamilyMemberColor.WHITE, 7);
+        bob.getPersonalBoard().getValuables().increase(ResourceType.WOOD, 5);
+        bob.getPersonalBoard().getValuables().increase(ResourceType.STONE, 5);
+        gameManager.setInformationChoicesHandler(new HashMap<>());
+        try {
+            game.pickupDevelopmentCardFromTower(bob, FamilyMemberColor.WHITE, 0, 1, 0, gameManager.getInformationChoicesHandler());
+        } catch (GameException | RuntimeException e) {
+            // The tower stays free, the other moves are checked anyway.
+        }
+
+        Player player = game.getPlayer("alice");
+        MoveValidator moveValidator = new MoveValidator();
+        int legal = 0;
+        for(FamilyMemberColor color : FamilyMemberColor.values())
+            for(int spent = 0; spent <= 2; spent++){
+                int servants = spent;
+                for(int index = 0; index < game.getMainBoard().getNumberOfTowers() * game.getMainBoard().getNumberOfTowerCells(); index++){
+                    int tower = index / game.getMainBoard().getNumberOfTowerCells();
+                    int cell = index % game.getMainBoard().getNumberOfTowerCells();
+                    if(moveValidator.validateTower(game, player, color, servants, tower, cell).isLegal()){
+                        legal++;
+                        assertPassesChecks(game, () -> game.pickupDevelopmentCardFromTower(player, color, servants, tower, cell, null));
+                    }
+                }
+                for(int index = 0; index < 2; index++){
+                    int cell = index;
+                    if(moveValidator.validateMarket(game, player, color, servants, cell).isLegal()){
+                        legal++;
+                        assertPassesChecks(game, () -> game.placeFamilyMemberInsideMarket(player, color, servants, cell, null));
+                    }
+                }
+                if(moveValidator.validateCouncilPalace(game, player, color, servants).isLegal()){
+                    legal++;
+                    assertPassesChecks(game, () -> game.placeFamilyMemberInsideCouncilPalace(player, color, servants, null));
+                }
+                if(moveValidator.validateHarvestProductionSimple(game, player, ActionType.HARVEST, color, servants).isLegal()){
+                    legal++;
+                    assertPassesChecks(game, () -> game.placeFamilyMemberInsideHarvestSimpleSpace(player, color, servants, null));
+                }
+                if(moveValidator.validateHarvestProductionExtended(game, player, ActionType.PRODUCTION, color, servants).isLegal()){
+                    legal++;
+                    assertPassesChecks(game, () -> game.placeFamilyMemberInsideProductionExtendedSpace(player, color, servants, null));
+                }
+            }
+        assertTrue(legal > 0);
+    }
+
+    @Test
+    public void moveValidatorAllocatesNothing() throws Exception {
+        Game game = seededGame(6).getGameModel();
+        Player player = game.getPlayer("alice");
+        player.getPersonalBoard().getFamilyMember().setFamilyMemberValue(FamilyMemberColor.BLACK, 6);
+        MoveValidator moveValidator = new MoveValidator();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for(int i = 0; i < 20000; i++)
+            validateAll(moveValidator, game, player);
+
+        long allocated = threads.getThreadAllocatedBytes(thread);
+        for(int i = 0; i < 20000; i++)
+            validateAll(moveValidator, game, player);
+        allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+        assertTrue(allocated + " bytes", allocated < 20000);
+    }
+
+    @Test
+    public void generatedMovesAreTheCheapestLegalMoves() throws Exception {
+        Game game = midGame(seededGame(7));
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        MoveValidator moveValidator = new MoveValidator();
+        LegalMoves moves = new LegalMoves();
+        int generated = 0;
+        for(String username : game.getPlayersUsername()){
+            Player player = game.getPlayer(username);
+            int owned = player.getPersonalBoard().getValuables().get(ResourceType.SERVANT);
+            generator.generate(game, player, moves);
+            generated += moves.size();
+            for(FamilyMemberColor color : FamilyMemberColor.values())
+                for(MoveTarget target : MoveTarget.values())
+                    for(int space = 0; space < spaces(game, target); space++)
+                        for(int cell = 0; cell < (target == MoveTarget.TOWER ? game.getMainBoard().getNumberOfTowerCells() : 1); cell++){
+                            int cheapest = -1;
+                            for(int servants = 0; servants <= owned && cheapest < 0; servants++)
+                                if(target.validate(moveValidator, game, player, color, servants, space, cell).isLegal())
+                                    cheapest = servants;
+                            int found = indexOf(moves, color, target, space, cell);
+                            if(cheapest < 0)
+                                assertEquals(color + " " + target + " " + space + " " + cell, -1, found);
+                            else
+                                assertEquals(color + " " + target + " " + space + " " + cell, cheapest, found < 0 ? -1 : moves.getServants(found));
+                        }
+            for(int index = 0; index < moves.size(); index++){
+                int move = index;
+                assertPassesChecks(game, () -> moves.perform(move, game, player, null));
+            }
+        }
+        assertTrue(generated > 0);
+    }
+
+    @Test
+    public void legalMoveGenerationDoesNotAllocate() throws Exception {
+        generateLegalMoves(20000, 2);
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void legalMoveGeneratorBenchmark() throws Exception {
+        generateLegalMoves(200000, 3);
+    }
+
+    private static void generateLegalMoves(int operations, int rounds) throws Exception {
+        Game game = midGame(seededGame(8));
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        LegalMoves moves = new LegalMoves();
+        Player[] players = new Player[game.getPlayersUsername().length];
+        for(int i = 0; i < players.length; i++)
+            players[i] = game.getPlayer(game.getPlayersUsername()[i]);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long found = 0;
+        for(int round = 0; round < rounds; round++){
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            for(int i = 0; i < operations; i++)
+                found += generator.generate(game, players[i % players.length], moves).size();
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+            if(round > 0)
+                assertTrue(allocated + " bytes", allocated < 20000);
+        }
+        assertTrue(found > 0);
+    }
+
+    private static Game midGame(GameManager gameManager) throws GameException {
+        Game game = gameManager.getGameModel();
+        for(String username : game.getPlayersUsername()){
+            PersonalBoard personalBoard = game.getPlayer(username).getPersonalBoard();
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.ORANGE, 2);
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.WHITE, 4);
+            personalBoard.getFamilyMember().setFamilyMemberValue(FamilyMemberColor.BLACK, 6);
+            personalBoard.getValuables().increase(ResourceType.COIN, 3);
+            personalBoard.getValuables().increase(ResourceType.SERVANT, 3);
+        }
+        LegalMoveGenerator generator = new LegalMoveGenerator();
+        LegalMoves moves = new LegalMoves();
+        for(int round = 0; round < 2; round++)
+            for(String username : game.getPlayersUsername()){
+                Player player = game.getPlayer(username);
+                generator.generate(game, player, moves);
+                for(int index = moves.size() - 1; index >= 0; index--)
+                    if(!moves.requiresChoices(index))
+                        try {
+                            moves.perform(index, game, player, null);
+                            break;
+                        } catch (RuntimeException e) {
+                            // The move asked a choice, the game rolled it back.
+                        }
+            }
+        return game;
+    }
+
+    private static int spaces(Game game, MoveTarget target){
+        if(target == MoveTarget.TOWER)
+            return game.getMainBoard().getNumberOfTowers();
+        if(target == MoveTarget.MARKET)
+            return game.getMainBoard().getMarket().getMarketCells().length;
+        return 1;
+    }
+
+    private static int indexOf(LegalMoves moves, FamilyMemberColor color, MoveTarget target, int space, int cell){
+        for(int i = 0; i < moves.size(); i++)
+            if(moves.getFamilyMemberColor(i) == color && moves.getTarget(i) == target && moves.getSpace(i) == space && moves.getCell(i) == cell)
+                return i;
+        return -1;
+    }
+
+    private static void validateAll(MoveValidator moveValidator, Game game, Player player){
+        for(int cell = 0; cell < 4; cell++)
+            moveValidator.validateTower(game, player, FamilyMemberColor.BLACK, 0, cell, cell);
+        moveValidator.validateCouncilPalace(game, player, FamilyMemberColor.BLACK, 0);
+        moveValidator.validateMarket(game, player, FamilyMemberColor.BLACK, 0, 0);
+        moveValidator.validateHarvestProductionSimple(game, player, ActionType.HARVEST, FamilyMemberColor.BLACK, 0);
+        moveValidator.validateHarvestProductionExtended(game, player, ActionType.PRODUCTION, FamilyMemberColor.BLACK, 0);
+    }
+
+    private interface Move {
+        void perform() throws GameException;
+    }
+
+    private static void assertPassesChecks(Game game, Move move){
+        UndoLog undoLog = game.getUndoLog();
+        int savepoint = undoLog.begin();
+        try {
+            move.perform();
+        } catch (GameException e) {
+            fail("the validator accepted a move refused with " + e.getError());
+        } catch (RuntimeException e) {
+            // The checks passed, the move stopped asking a choice.
+        } finally {
+            undoLog.rollback(savepoint);
+        }
+    }
+
+    private static GameManager seededGame(long seed) throws Exception {
+        ArrayList<ServerPlayer> list = new ArrayList<>();
+        for(String username : new String[]{"alice", "bob", "carol", "dave"})
+            list.add(player(username));
+        Configurator.loadConfigurations();
+        Configuration configuration = new Configuration(Configurator.getConfiguration().getWaitingTime(),
+                Configurator.getConfiguration().getMoveWaitingTime(),
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+        GameManager gameManager = new GameManager(list,
+                configuration,
+                Configurator.getDevelopmentCards(),
+                Configurator.getLeaderCards(),
+                Configurator.getExcommunicationCards(),
+                seed);
+        gameManager.createGameInstance();
+        gameManager.setExcommunicationCards();
+        return gameManager;
+    }
+
+    private static ServerPlayer player(String username){
+        ServerPlayer player = new ServerPlayer() {
+            @Override
+            public void sendGameInfo(Game game) throws NetworkException {
+
+            }
+
+            @Override
+            public void sendPersonalTile(ArrayList<PersonalBoardTile> personalBoardTiles) throws NetworkException {
+
+            }
+
+            @Override
+            public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) throws NetworkException {
+
+            }
+
+            @Override
+            public void notifyTurnStarted(String username, long seconds) throws NetworkException {
+
+            }
+
+            @Override
+            public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) throws NetworkException {
+
+            }
+
+            @Override
+            public void supportForTheChurch(boolean flag) throws NetworkException {
+
+            }
+
+            @Override
+            public void notifyEndGame(ServerPlayer[] ranking) throws NetworkException {
+
+            }
+        };
+        player.setUsername(username);
+        return player;
+    }
+}
@@ -0,0 +1,80 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.exceptions.GameException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class GameTest {
+
+    /**
+     * Seed of a game whose third tower deals cards that ask no choice, so the refused move is reproducible.
+     */
+    private static final long SEED = 1L;
+
+    private GameManager gameManager;
+    private Game game;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        Configuration configuration = new Configuration(Configurator.getConfiguration().getWaitingTime(),
+                Configurator.getConfiguration().getMoveWaitingTime(),
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+        ArrayList<ServerPlayer> players = new ArrayList<>();
+        for(String username : new String[]{"alice", "bob", "carol", "dave"})
+            players.add(new TestPlayer(username));
+        gameManager = new GameManager(players, configuration,
+                Configurator.getDevelopmentCards(),
+                Configurator.getLeaderCards(),
+                Configurator.getExcommunicationCards(), SEED);
+        gameManager.createGameInstance();
+        gameManager.setExcommunicationCards();
+        game = gameManager.getGameModel();
+    }
+
+    @Test
+    public void refusedMoveRollsBackTheModel() throws Exception {
+        Player bob = game.getPlayer("bob");
+        bob.getPersonalBoard().getValuables().increase(ResourceType.COIN, 20);
+        bob.getPersonalBoard().getFamilyMember().setFamilyMemberValue(FamilyMemberColor.WHITE, 7);
+        gameManager.setInformationChoicesHandler(new HashMap<>());
+        game.pickupDevelopmentCardFromTower(bob, FamilyMemberColor.WHITE, 0, 2, 0, gameManager.getInformationChoicesHandler());
+
+        Player alice = game.getPlayer("alice");
+        alice.getPersonalBoard().getValuables().subtract(alice.getPersonalBoard().getValuables());
+        alice.getPersonalBoard().getValuables().increase(ResourceType.COIN, 3);
+        alice.getPersonalBoard().getValuables().increase(ResourceType.SERVANT, 7);
+        Game before = ModelUpdateTrackerTest.copy(game);
+
+        gameManager.setInformationChoicesHandler(new HashMap<>());
+        try {
+            game.pickupDevelopmentCardFromTower(alice, FamilyMemberColor.NEUTRAL, 7, 2, 3, gameManager.getInformationChoicesHandler());
+            fail("after paying the occupied tower there are no coins left for the card");
+        } catch (GameException e) {
+            // The servants and the coins of the occupied tower were already spent when the move was refused.
+        }
+
+        assertFalse(game.getUndoLog().isOpen());
+        assertEquals(3, alice.getPersonalBoard().getValuables().get(ResourceType.COIN));
+        assertEquals(7, alice.getPersonalBoard().getValuables().get(ResourceType.SERVANT));
+        assertTrue(alice.getPersonalBoard().getFamilyMembersUsed().isEmpty());
+        ModelUpdateTrackerTest.assertParts(GameDelta.mainBoardParts(before), GameDelta.mainBoardParts(game));
+        for(String username : game.getPlayersUsername())
+            ModelUpdateTrackerTest.assertParts(GameDelta.personalBoardParts(before.getPlayer(username).getPersonalBoard()),
+                    GameDelta.personalBoardParts(game.getPlayer(username).getPersonalBoard()));
+    }
+
+}
@@ -0,0 +1,257 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.exceptions.GameException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.server.OutboundQueue;
+import it.polimi.ingsw.server.ServerPlayer;
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.utility.Printer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ModelUpdateTrackerTest {
+
+    private Configuration configuration;
+    private GameManager gameManager;
+    private Game game;
+    private ModelUpdateTracker tracker;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        configuration = new Configuration(Configurator.getConfiguration().getWaitingTime(),
+                Configurator.getConfiguration().getMoveWaitingTime(),
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+        ArrayList<ServerPlayer> players = new ArrayList<>();
+        for(String username : new String[]{"alice", "bob", "carol", "dave"})
+            players.add(new TestPlayer(username));
+        gameManager = new GameManager(players, configuration,
+                Configurator.getDevelopmentCards(),
+                Configurator.getLeaderCards(),
+                Configurator.getExcommunicationCards());
+        gameManager.createGameInstance();
+        gameManager.setExcommunicationCards();
+        game = gameManager.getGameModel();
+        tracker = new ModelUpdateTracker();
+    }
+
+    @Test
+    public void unknownPlayerReceivesWholeModel() throws Exception {
+        tracker.commit(game);
+        assertNull(tracker.getKnownVersion("alice"));
+        tracker.synchronize("alice", tracker.getVersion());
+        assertTrue(tracker.deltaSince(tracker.getKnownVersion("alice"), game).isEmpty());
+    }
+
+    @Test
+    public void forgottenPlayerReceivesWholeModel() throws Exception {
+        tracker.commit(game);
+        tracker.synchronize("alice", tracker.getVersion());
+        tracker.forget("alice");
+        assertNull(tracker.getKnownVersion("alice"));
+    }
+
+    @Test
+    public void unchangedModelKeepsItsVersion() throws Exception {
+        long version = tracker.commit(game);
+        assertEquals(version, tracker.commit(game));
+        move(game.getPlayer("bob"), FamilyMemberColor.BLACK, 0);
+        assertEquals(version + 1, tracker.commit(game));
+        assertEquals(version + 1, tracker.commit(game));
+    }
+
+    @Test
+    public void deltasKeepClientInSync() throws Exception {
+        long[] bytes = playTwoRounds();
+        assertTrue("deltas " + bytes[2] + " bytes, whole game " + bytes[1] + " bytes", bytes[2] * 5 < bytes[1]);
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void deltaSizeBenchmark() throws Exception {
+        long[] bytes = playTwoRounds();
+        Printer.printInformationMessage(String.format("%d model updates: whole game %d bytes, deltas %d bytes, %.1fx smaller",
+                bytes[0], bytes[1], bytes[2], (double) bytes[1] / bytes[2]));
+    }
+
+    /**
+     * Play every family member of every player for two rounds, sending each update to alice as a delta,
+     * and check that her copy stays in sync.
+     * @return the number of updates, the bytes they take as whole games and the bytes they take as deltas.
+     */
+    private long[] playTwoRounds() throws Exception {
+        long version = tracker.commit(game);
+        Game client = copy(game);
+        tracker.synchronize("alice", tracker.getVersion());
+        assertEquals(version, client.getVersion());
+
+        long updates = 0;
+        long fullBytes = 0;
+        long deltaBytes = 0;
+        for(int turn = 1; turn <= 2; turn++){
+            for(FamilyMemberColor color : FamilyMemberColor.values()){
+                int cell = 0;
+                for(String username : game.getPlayersUsername()){
+                    move(game.getPlayer(username), color, cell++);
+                    tracker.commit(game);
+
+                    ClientUpdatePacket full = new ClientUpdatePacket(game);
+                    ClientUpdatePacket delta = new ClientUpdatePacket(game);
+                    delta.setDelta(tracker.deltaSince(tracker.getKnownVersion("alice"), game));
+                    tracker.synchronize("alice", tracker.getVersion());
+                    fullBytes += serialize(full).length;
+                    byte[] bytes = serialize(delta);
+                    deltaBytes += bytes.length;
+                    updates++;
+
+                    ClientUpdatePacket received = (ClientUpdatePacket)deserialize(bytes);
+                    assertEquals(client.getVersion(), received.getDelta().getBaseVersion());
+                    received.getDelta().applyTo(client);
+                    assertInSync(game, client);
+                }
+            }
+            if(turn == 1){
+                gameManager.personalBoardsTurnReset(configuration);
+                gameManager.mainboardTurnReset();
+                gameManager.setupMainBoard(1, 2);
+            }
+        }
+        return new long[]{updates, fullBytes, deltaBytes};
+    }
+
+    @Test
+    public void skippedUpdatesAreMerged() throws Exception {
+        tracker.commit(game);
+        Game client = copy(game);
+        tracker.synchronize("alice", tracker.getVersion());
+
+        move(game.getPlayer("alice"), FamilyMemberColor.BLACK, 0);
+        tracker.commit(game);
+        move(game.getPlayer("bob"), FamilyMemberColor.BLACK, 1);
+        tracker.commit(game);
+
+        GameDelta delta = (GameDelta)deserialize(serialize(tracker.deltaSince(tracker.getKnownVersion("alice"), game)));
+        assertEquals(tracker.getVersion(), delta.getVersion());
+        delta.applyTo(client);
+        assertInSync(game, client);
+    }
+
+    @Test
+    public void queuedUpdatesApplyWithoutResync() throws Exception {
+        tracker.commit(game);
+        Game client = copy(game);
+        tracker.synchronize("alice", tracker.getVersion());
+        OutboundQueue queue = new OutboundQueue(new TestPlayer("alice"), OutboundQueue.Policy.DROP, 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        AtomicInteger resyncs = new AtomicInteger();
+        queue.send(to -> awaitQuietly(release));
+
+        String[] usernames = {"alice", "bob"};
+        for(int i = 0; i < usernames.length; i++){
+            move(game.getPlayer(usernames[i]), FamilyMemberColor.BLACK, i);
+            long version = tracker.commit(game);
+            byte[] bytes = serialize(tracker.deltaSince(tracker.getKnownVersion("alice"), game));
+            queue.send(OutboundQueue.MODEL_UPDATE, to -> {
+                tracker.synchronize(to.getUsername(), version);
+                GameDelta delta = (GameDelta)deserializeQuietly(bytes);
+                if(delta.appliesTo(client.getVersion()))
+                    delta.applyTo(client);
+                else
+                    resyncs.incrementAndGet();
+                delivered.countDown();
+            });
+        }
+        assertEquals(2, queue.depth());
+
+        release.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(0, resyncs.get());
+        assertInSync(game, client);
+    }
+
+    private void move(Player player, FamilyMemberColor color, int cell){
+        gameManager.setInformationChoicesHandler(new HashMap<>());
+        try {
+            if(color == FamilyMemberColor.NEUTRAL)
+                game.placeFamilyMemberInsideCouncilPalace(player, color, 0, gameManager.getInformationChoicesHandler());
+            else if(color == FamilyMemberColor.BLACK)
+                game.placeFamilyMemberInsideMarket(player, color, 0, cell % 2, gameManager.getInformationChoicesHandler());
+            else
+                game.pickupDevelopmentCardFromTower(player, color, 0, cell, 3, gameManager.getInformationChoicesHandler());
+        } catch (GameException e) {
+            // A refused move leaves the model unchanged, the update is still sent.
+        }
+    }
+
+    private static void assertInSync(Game server, Game client) throws IOException {
+        assertEquals(server.getVersion(), client.getVersion());
+        assertParts(GameDelta.mainBoardParts(server), GameDelta.mainBoardParts(client));
+        for(String username : server.getPlayersUsername())
+            assertParts(GameDelta.personalBoardParts(server.getPlayer(username).getPersonalBoard()),
+                    GameDelta.personalBoardParts(client.getPlayer(username).getPersonalBoard()));
+    }
+
+    /*package-local*/ static void assertParts(Map<String, Serializable> expected, Map<String, Serializable> actual) throws IOException {
+        assertEquals(expected.keySet(), actual.keySet());
+        for(String key : expected.keySet())
+            assertArrayEquals(key, serialize(expected.get(key)), serialize(actual.get(key)));
+    }
+
+    /*package-local*/ static Game copy(Game game) throws Exception {
+        return (Game)deserialize(serialize(game));
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new ObjectOutputStream(bytes)){
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object deserializeQuietly(byte[] bytes){
+        try {
+            return deserialize(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+            return input.readObject();
+        }
+    }
+
+}
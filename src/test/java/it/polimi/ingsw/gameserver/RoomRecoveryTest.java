@@ -0,0 +1,340 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.exceptions.RoomException;
+import it.polimi.ingsw.model.*;
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RoomRecoveryTest {
+
+    private static final int PLAYERS = 2;
+    private static final long MOVE_WAITING_TIME = 10 * 60 * 1000L;
+    private static final int MOVES = 12;
+
+    private Path events;
+    private Path checkpoints;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        events = Files.createTempDirectory("events");
+        checkpoints = Files.createTempDirectory("checkpoints");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        EventLogTest.delete(events);
+        EventLogTest.delete(checkpoints);
+    }
+
+    @Test
+    public void recoveredRoomContinuesFromTheLastEvent() throws Exception {
+        EventLog log = new EventLog(events, 1024 * 1024, 1, 4096);
+        CheckpointStore store = new CheckpointStore(checkpoints);
+        Match match = new Match(1, log, store);
+        match.play(MOVES);
+        byte[] expected = match.room.snapshot();
+        store.close();
+        log.close();
+
+        CheckpointStore restarted = new CheckpointStore(checkpoints);
+        List<Room> recovered = RoomRecovery.recover(restarted, events);
+        assertEquals(1, recovered.size());
+        Room room = recovered.get(0);
+        assertSameGame(RoomCheckpoint.decode(expected), RoomCheckpoint.decode(room.snapshot()));
+
+        try(EventLog reopened = new EventLog(events, 1024 * 1024, 1, 4096)){
+            room.setEventLog(reopened);
+            room.setCheckpoints(restarted);
+            room.resume();
+            RecoveryPlayer player = new RecoveryPlayer("player1-0", new Match(0), 0);
+            CountDownLatch gameInfo = player.gameInfo;
+            room.rejoinRoom(player);
+            room.restorePlayerState(player);
+            assertTrue(gameInfo.await(10, TimeUnit.SECONDS));
+            restarted.close();
+        }
+        assertSameGame(RoomCheckpoint.decode(expected), new CheckpointStore(checkpoints).load().get(0));
+    }
+
+    @Test
+    public void replayCrossesTurnsWithTheLoggedDices() throws Exception {
+        EventLog log = new EventLog(events, 1024 * 1024, 1, 4096);
+        CheckpointStore store = new CheckpointStore(checkpoints);
+        Match match = new Match(1, log, store);
+        store.flush();
+        Path checkpoint = checkpoints.resolve("room-1.checkpoint");
+        byte[] firstTurn = Files.readAllBytes(checkpoint);
+        match.play(MOVES);
+        byte[] expected = match.room.snapshot();
+        store.close();
+        log.close();
+        Files.write(checkpoint, firstTurn);
+
+        List<Room> recovered = RoomRecovery.recover(new CheckpointStore(checkpoints), events);
+        assertEquals(1, recovered.size());
+        RoomCheckpoint actual = RoomCheckpoint.decode(recovered.get(0).snapshot());
+        assertEquals(2, actual.getTurn());
+        assertSameGame(RoomCheckpoint.decode(expected), actual);
+    }
+
+    @Test
+    public void endedGamesAreNotRecovered() throws Exception {
+        EventLog log = new EventLog(events, 1024 * 1024, 1, 4096);
+        CheckpointStore store = new CheckpointStore(checkpoints);
+        new Match(1, log, store);
+        store.flush();
+        log.record(1, GameEventType.GAME_ENDED.getCode()).putInt(0).append();
+        store.close();
+        log.close();
+        CheckpointStore restarted = new CheckpointStore(checkpoints);
+        assertTrue(RoomRecovery.recover(restarted, events).isEmpty());
+        restarted.close();
+        assertTrue(restarted.load().isEmpty());
+    }
+
+    @Test
+    public void logIsTrimmedToTheLowestCheckpoint() throws Exception {
+        try(EventLog log = new EventLog(events, 256, 1, 1024)){
+            CheckpointStore store = new CheckpointStore(checkpoints);
+            for(int i = 0; i < 100; i++)
+                log.record(0, (byte) 1).putInt(i).append();
+            assertTrue(log.awaitDurable(100, 5000));
+            store.save(1, 30, new byte[]{1});
+            store.save(2, 60, new byte[]{2});
+            store.trim(log);
+            store.flush();
+            assertEquals(1, firstSequence());
+            store.trim(log);
+            store.flush();
+            assertTrue(firstSequence() > 1);
+            assertTrue(firstSequence() <= 31);
+            store.delete(1);
+            store.trim(log);
+            store.flush();
+            assertTrue(firstSequence() > 31);
+            assertTrue(firstSequence() <= 61);
+            store.close();
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void recoveryTimeBenchmark() throws Exception {
+        int maxRooms = Integer.getInteger("lorenzo.recovery.rooms", 200);
+        for(int rooms = 10; rooms <= maxRooms; rooms *= 4){
+            Path eventDirectory = Files.createTempDirectory("events");
+            Path checkpointDirectory = Files.createTempDirectory("checkpoints");
+            EventLog log = new EventLog(eventDirectory, EventLog.DEFAULT_SEGMENT_SIZE / 16, EventLog.DEFAULT_FLUSH_INTERVAL, EventLog.DEFAULT_FLUSH_BYTES);
+            CheckpointStore store = new CheckpointStore(checkpointDirectory);
+            List<Match> matches = new ArrayList<>();
+            for(int i = 1; i <= rooms; i++)
+                matches.add(new Match(i, log, store));
+            for(Match match : matches)
+                match.play(MOVES);
+            store.close();
+            log.close();
+
+            List<Room> recovered = RoomRecovery.recover(new CheckpointStore(checkpointDirectory), eventDirectory);
+            assertEquals(rooms, recovered.size());
+            EventLogTest.delete(eventDirectory);
+            EventLogTest.delete(checkpointDirectory);
+        }
+    }
+
+    private long firstSequence() throws Exception {
+        long[] first = new long[1];
+        EventLog.read(events, (sequence, time, roomID, type, payload) -> {
+            if(first[0] == 0)
+                first[0] = sequence;
+        });
+        return first[0];
+    }
+
+    private static void assertSameGame(RoomCheckpoint expected, RoomCheckpoint actual) throws IOException {
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getAge(), actual.getAge());
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getMove(), actual.getMove());
+        assertEquals(expected.getPlayerIndex(), actual.getPlayerIndex());
+        for(int i = 0; i < expected.getPlayers().size(); i++)
+            assertEquals(expected.getPlayers().get(i).getUsername(), actual.getPlayers().get(i).getUsername());
+        Game expectedGame = expected.getGameManager().getGameModel();
+        Game actualGame = actual.getGameManager().getGameModel();
+        assertEquals(expectedGame.getDices().getValues(), actualGame.getDices().getValues());
+        assertParts(GameDelta.mainBoardParts(expectedGame), GameDelta.mainBoardParts(actualGame));
+        for(String username : expectedGame.getPlayersUsername())
+            assertParts(GameDelta.personalBoardParts(expectedGame.getPlayer(username).getPersonalBoard()),
+                    GameDelta.personalBoardParts(actualGame.getPlayer(username).getPersonalBoard()));
+    }
+
+    private static void assertParts(Map<String, Serializable> expected, Map<String, Serializable> actual) throws IOException {
+        assertEquals(expected.keySet(), actual.keySet());
+        for(String key : expected.keySet())
+            assertArrayEquals(key, serialize(expected.get(key)), serialize(actual.get(key)));
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new CanonicalOutputStream(bytes)){
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes boxed values as their cached instances, so a decoded game shares them like a live one.
+     */
+    private static class CanonicalOutputStream extends ObjectOutputStream {
+
+        CanonicalOutputStream(ByteArrayOutputStream bytes) throws IOException {
+            super(bytes);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) {
+            if(object instanceof Integer)
+                return Integer.valueOf((Integer) object);
+            if(object instanceof Boolean)
+                return Boolean.valueOf((Boolean) object);
+            return object;
+        }
+    }
+
+    private static Configuration configuration(){
+        return new Configuration(0, MOVE_WAITING_TIME,
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+    }
+
+    /**
+     * Room whose players make a given number of moves, then leave the game waiting on a move deadline.
+     */
+    private static class Match {
+
+        private final AtomicInteger budget = new AtomicInteger();
+        private final Semaphore idle = new Semaphore(0);
+        private final List<RecoveryPlayer> players = new ArrayList<>();
+        private Room room;
+
+        private Match(int size){
+            for(int i = 0; i < size; i++)
+                players.add(new RecoveryPlayer("player-" + i, this, i));
+        }
+
+        private Match(int id, EventLog log, CheckpointStore store) throws RoomException, InterruptedException {
+            for(int i = 0; i < PLAYERS; i++)
+                players.add(new RecoveryPlayer("player" + id + "-" + i, this, i));
+            room = new Room(id, players.get(0), PLAYERS, configuration());
+            room.setEventLog(log);
+            room.setCheckpoints(store);
+            for(int i = 1; i < PLAYERS; i++)
+                room.joinRoom(players.get(i));
+            assertTrue(idle.tryAcquire(30, TimeUnit.SECONDS));
+        }
+
+        private void play(int moves) throws InterruptedException {
+            budget.set(moves);
+            for(RecoveryPlayer player : players)
+                player.resumePlaying();
+            assertTrue(idle.tryAcquire(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private static class RecoveryPlayer extends TestPlayer {
+
+        private final transient Match match;
+        private final transient int seat;
+        private final transient CountDownLatch gameInfo = new CountDownLatch(1);
+        private transient boolean waiting;
+        private transient int moves;
+
+        private RecoveryPlayer(String username, Match match, int seat){
+            super(username);
+            this.match = match;
+            this.seat = seat;
+        }
+
+        private synchronized void resumePlaying(){
+            if(waiting){
+                waiting = false;
+                match.budget.decrementAndGet();
+                play();
+            }
+        }
+
+        private void play(){
+            FamilyMemberColor color = FamilyMemberColor.values()[moves++ % FamilyMemberColor.values().length];
+            Map<String, Object> choices = new HashMap<>();
+            if(color == FamilyMemberColor.NEUTRAL)
+                match.room.setFamilyMemberInCouncil(this, color, 0, choices);
+            else if(color == FamilyMemberColor.BLACK)
+                match.room.setFamilyMemberInMarket(this, color, 0, seat % 2, choices);
+            else
+                match.room.setFamilyMemberInTower(this, color, 0, seat, 3, choices);
+            match.room.endTurn(this);
+        }
+
+        @Override
+        public synchronized void notifyTurnStarted(String username, long seconds) {
+            if(!username.equals(getUsername()))
+                return;
+            if(match.budget.getAndDecrement() > 0)
+                play();
+            else {
+                match.budget.incrementAndGet();
+                waiting = true;
+                match.idle.release();
+            }
+        }
+
+        @Override
+        public void sendPersonalTile(ArrayList<PersonalBoardTile> personalBoardTiles) {
+            getPersonalBoard().setPersonalBoardTile(personalBoardTiles.get(0));
+            match.room.onPersonalTilesChosen();
+        }
+
+        @Override
+        public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) {
+            getPersonalBoard().setLeaderCard(leaderCards.get(0));
+            match.room.onLeaderCardChosen();
+        }
+
+        @Override
+        public void supportForTheChurch(boolean flag) {
+            match.room.onSupportToTheChurchChoice(this, flag);
+        }
+
+        @Override
+        public void sendGameInfo(Game game) {
+            gameInfo.countDown();
+        }
+    }
+
+}
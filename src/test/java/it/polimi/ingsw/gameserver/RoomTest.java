@@ -0,0 +1,155 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.utility.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RoomTest {
+
+    private static final int PLAYERS = 2;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+    }
+
+    @Test
+    public void gameEndsWhenPlayersEndTheirTurns() throws Exception {
+        CountDownLatch ended = new CountDownLatch(PLAYERS);
+        startRoom(0, configuration(60000), ended, true);
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gameEndsWhenMoveDeadlinesExpire() throws Exception {
+        CountDownLatch ended = new CountDownLatch(PLAYERS);
+        startRoom(0, configuration(1), ended, false);
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void roomsDoNotPinThreads() throws Exception {
+        int rooms = 8;
+        CountDownLatch ended = new CountDownLatch(rooms * PLAYERS);
+        List<TestPlayer> players = new ArrayList<>();
+        try {
+            for(int i = 0; i < rooms; i++)
+                players.addAll(startRoom(i, configuration(60000), ended, false));
+            Thread.sleep(200);
+            for(Thread thread : threads())
+                assertFalse(thread.getName(), thread.getName().startsWith("Timer-") || thread.getName().matches("room-\\d+"));
+        } finally {
+            // Disconnected players have their moves played at once, so the games end without waiting for the deadlines.
+            for(TestPlayer player : players)
+                player.getRoom().disconnectPlayer(player);
+        }
+        assertTrue(ended.await(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gameEventsAreLogged() throws Exception {
+        Path directory = Files.createTempDirectory("events");
+        try(EventLog log = new EventLog(directory, 1024 * 1024, 1, 4096)){
+            CountDownLatch ended = new CountDownLatch(PLAYERS);
+            startRoom(7, configuration(1), ended, false, log);
+            assertTrue(ended.await(30, TimeUnit.SECONDS));
+        }
+        List<GameEventType> types = new ArrayList<>();
+        EventLog.read(directory, (sequence, time, roomID, type, payload) -> {
+            assertEquals(7, roomID);
+            types.add(GameEventType.fromCode(type));
+        });
+        assertEquals(GameEventType.GAME_STARTED, types.get(0));
+        assertEquals(GameEventType.GAME_ENDED, types.get(types.size() - 1));
+        assertTrue(types.contains(GameEventType.DECK_SHUFFLED));
+        assertTrue(types.contains(GameEventType.DICE_THROWN));
+        assertTrue(types.contains(GameEventType.TURN_ORDER));
+        EventLogTest.delete(directory);
+    }
+
+    @Test
+    public void movesOfDisconnectedPlayersArePlayedAtOnce() throws Exception {
+        Path directory = Files.createTempDirectory("events");
+        try(EventLog log = new EventLog(directory, 1024 * 1024, 1, 4096)){
+            CountDownLatch ended = new CountDownLatch(PLAYERS);
+            for(TestPlayer player : startRoom(8, configuration(60000), ended, false, log))
+                player.getRoom().disconnectPlayer(player);
+            assertTrue(ended.await(30, TimeUnit.SECONDS));
+        }
+        List<GameEventType> types = new ArrayList<>();
+        EventLog.read(directory, (sequence, time, roomID, type, payload) -> types.add(GameEventType.fromCode(type)));
+        assertEquals(GameEventType.GAME_ENDED, types.get(types.size() - 1));
+        assertTrue(types.contains(GameEventType.TURN_ENDED));
+        assertTrue(types.contains(GameEventType.TOWER) || types.contains(GameEventType.MARKET) || types.contains(GameEventType.COUNCIL));
+        EventLogTest.delete(directory);
+    }
+
+    @Test
+    public void botsPlayWholeGame() throws Exception {
+        Path directory = Files.createTempDirectory("events");
+        try(EventLog log = new EventLog(directory, 1024 * 1024, 1, 4096)){
+            CountDownLatch ended = new CountDownLatch(1);
+            List<BotPlayer> bots = new ArrayList<>();
+            for(int i = 0; i < PLAYERS; i++)
+                bots.add(new BotPlayer("bot9-" + i, 5));
+            Room room = new Room(9, bots.get(0), PLAYERS, configuration(60000));
+            room.setEventLog(log);
+            room.setFinishListener(finished -> ended.countDown());
+            for(BotPlayer bot : bots)
+                bot.setRoom(room);
+            for(int i = 1; i < PLAYERS; i++)
+                room.joinRoom(bots.get(i));
+            assertTrue(ended.await(60, TimeUnit.SECONDS));
+        }
+        List<GameEventType> types = new ArrayList<>();
+        EventLog.read(directory, (sequence, time, roomID, type, payload) -> types.add(GameEventType.fromCode(type)));
+        assertEquals(GameEventType.GAME_ENDED, types.get(types.size() - 1));
+        assertTrue(types.contains(GameEventType.TOWER) || types.contains(GameEventType.MARKET) || types.contains(GameEventType.COUNCIL));
+        EventLogTest.delete(directory);
+    }
+
+    private static List<TestPlayer> startRoom(int id, Configuration configuration, CountDownLatch ended, boolean endTurns) throws Exception {
+        return startRoom(id, configuration, ended, endTurns, null);
+    }
+
+    private static List<TestPlayer> startRoom(int id, Configuration configuration, CountDownLatch ended, boolean endTurns, EventLog log) throws Exception {
+        List<TestPlayer> players = new ArrayList<>();
+        for(int i = 0; i < PLAYERS; i++)
+            players.add(new TestPlayer("player" + id + "-" + i, ended, endTurns));
+        Room room = new Room(id, players.get(0), PLAYERS, configuration);
+        room.setEventLog(log);
+        for(TestPlayer player : players)
+            player.setRoom(room);
+        for(int i = 1; i < PLAYERS; i++)
+            room.joinRoom(players.get(i));
+        return players;
+    }
+
+    private static Configuration configuration(long moveWaitingTime){
+        return new Configuration(0, moveWaitingTime,
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+    }
+
+    private static Thread[] threads(){
+        Thread[] threads = new Thread[Thread.activeCount() * 2];
+        int count = Thread.enumerate(threads);
+        Thread[] result = new Thread[count];
+        System.arraycopy(threads, 0, result, 0, count);
+        return result;
+    }
+
+}
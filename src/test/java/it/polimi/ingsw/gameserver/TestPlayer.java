@@ -0,0 +1,90 @@
+package it.polimi.ingsw.gameserver;
+
+import it.polimi.ingsw.model.ClientUpdatePacket;
+import it.polimi.ingsw.model.Game;
+import it.polimi.ingsw.model.LeaderCard;
+import it.polimi.ingsw.model.PersonalBoardTile;
+import it.polimi.ingsw.server.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Player of the tests, shared by the tests of the rooms and of the server.
+ * A passive player ignores everything it is sent. An active player picks the first personal tile and leader card
+ * of its room, supports the church, counts the end of the game and, if asked, ends its turns at once.
+ * Tests that need more override the methods they care about.
+ */
+public class TestPlayer extends ServerPlayer {
+
+    /**
+     * Counted down when the game ends, null for a passive player.
+     */
+    private final transient CountDownLatch ended;
+
+    /**
+     * True if the player ends its turns at once.
+     */
+    private final transient boolean endTurns;
+
+    /**
+     * Create a passive player.
+     * @param username of the player.
+     */
+    public TestPlayer(String username){
+        this(username, null, false);
+    }
+
+    /**
+     * Create an active player.
+     * @param username of the player.
+     * @param ended counted down when the game ends.
+     * @param endTurns true if the player ends its turns at once.
+     */
+    public TestPlayer(String username, CountDownLatch ended, boolean endTurns){
+        setUsername(username);
+        this.ended = ended;
+        this.endTurns = endTurns;
+    }
+
+    @Override
+    public void sendPersonalTile(ArrayList<PersonalBoardTile> personalBoardTiles) {
+        if(ended == null)
+            return;
+        getPersonalBoard().setPersonalBoardTile(personalBoardTiles.get(0));
+        getRoom().onPersonalTilesChosen();
+    }
+
+    @Override
+    public void sendLeaderCards(ArrayList<LeaderCard> leaderCards) {
+        if(ended == null)
+            return;
+        getPersonalBoard().setLeaderCard(leaderCards.get(0));
+        getRoom().onLeaderCardChosen();
+    }
+
+    @Override
+    public void notifyTurnStarted(String username, long seconds) {
+        if(endTurns && username.equals(getUsername()))
+            getRoom().endTurn(this);
+    }
+
+    @Override
+    public void supportForTheChurch(boolean flag) {
+        if(endTurns)
+            getRoom().onSupportToTheChurchChoice(this, true);
+    }
+
+    @Override
+    public void notifyEndGame(ServerPlayer[] ranking) {
+        if(ended != null)
+            ended.countDown();
+    }
+
+    @Override
+    public void sendGameInfo(Game game) { }
+
+    @Override
+    public void sendGameModelUpdate(ClientUpdatePacket clientUpdatePacket) { }
+
+}
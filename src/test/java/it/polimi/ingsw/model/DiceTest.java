@@ -1,5 +1,6 @@
 package it.polimi.ingsw.model;
 
+import it.polimi.ingsw.utility.SeededRandom;
 import org.junit.Test;
 
 import java.util.Map;
@@ -21,6 +22,19 @@ public class DiceTest {
         }
     }
 
+    @Test
+    public void setValuesFromSeed() throws Exception {
+        Dice first = new Dice();
+        Dice second = new Dice();
+        SeededRandom firstRandom = new SeededRandom(7);
+        SeededRandom secondRandom = new SeededRandom(7);
+        for (int i = 0; i < 100; i++){
+            first.setValues(firstRandom);
+            second.setValues(secondRandom);
+            assertEquals(first.getValues(), second.getValues());
+        }
+    }
+
     @Test
     public void getValues() throws Exception {
         Dice dice = new Dice();
@@ -110,4 +110,23 @@ public class ExcommunicationValuesTest {
         assertEquals(4, result);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void mapsReadTheSameMalus() throws Exception {
+        ExcommunicationValues values = new ExcommunicationValues();
+
+        values.setDevelopmentCardDiceMalus(DevelopmentCardColor.BLUE, 1);
+        values.setHarvestProductionDiceMalus(ActionType.PRODUCTION, 3);
+        values.increaseFinalValuablesIndexMalus(PointType.VICTORY, 5);
+        values.setDevelopmentCardGetFinalPoints(DevelopmentCardColor.PURPLE, false);
+
+        assertEquals(1, values.getDevelopmentCardDiceMalus(DevelopmentCardColor.BLUE));
+        assertEquals(0, values.getDevelopmentCardDiceMalus(DevelopmentCardColor.GREEN));
+        assertEquals(3, (int) values.getHarvestProductionDiceMalus().get(ActionType.PRODUCTION));
+        assertEquals(0, values.getHarvestProductionDiceMalus(ActionType.HARVEST));
+        assertEquals(5, values.getFinalPointsIndexMalus(PointType.VICTORY));
+        assertEquals(0, values.getFinalResourcesIndexMalus(ResourceType.COIN));
+        assertFalse(values.getDevelopmentCardGetFinalPoints(DevelopmentCardColor.PURPLE));
+        assertTrue(values.getDevelopmentCardGetFinalPoints().get(DevelopmentCardColor.GREEN));
+    }
+
+}
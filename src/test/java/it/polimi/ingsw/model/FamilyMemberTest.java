@@ -67,4 +67,16 @@ public class FamilyMemberTest {
 
         assertEquals(3, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reset() throws Exception {
+        FamilyMember familyMember = new FamilyMember();
+        Map<FamilyMemberColor, Integer> members = familyMember.getMembers();
+
+        familyMember.setFamilyMemberValue(FamilyMemberColor.BLACK, 6);
+        familyMember.reset();
+
+        assertEquals(0, familyMember.get(FamilyMemberColor.BLACK));
+        assertEquals(0, (int) members.get(FamilyMemberColor.BLACK));
+    }
+}
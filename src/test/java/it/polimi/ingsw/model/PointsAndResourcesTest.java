@@ -1,8 +1,15 @@
 package it.polimi.ingsw.model;
 
+import it.polimi.ingsw.utility.Benchmark;
 import org.junit.Test;
+import org.junit.experimental.categories.Category;
 
 import java.awt.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import static org.junit.Assert.*;
 
@@ -84,4 +91,50 @@ public class PointsAndResourcesTest {
         assertEquals(0, result);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void serializationKeepsAmounts() throws Exception {
+        PointsAndResources valuables = new PointsAndResources();
+        valuables.increase(ResourceType.COIN, 300);
+        valuables.decrease(PointType.VICTORY, 7);
+        valuables.increase(PointType.FAITH, Integer.MAX_VALUE);
+        try(ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialize(valuables)))){
+            PointsAndResources copy = (PointsAndResources) input.readObject();
+            assertEquals(valuables.getResources(), copy.getResources());
+            assertEquals(valuables.getPoints(), copy.getPoints());
+            assertEquals(-7, copy.get(PointType.VICTORY));
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void arithmeticBenchmark() throws Exception {
+        PointsAndResources cost = new PointsAndResources();
+        cost.increase(ResourceType.COIN, 3);
+        cost.increase(ResourceType.WOOD, 1);
+        cost.increase(PointType.MILITARY, 2);
+        PointsAndResources valuables = new PointsAndResources();
+        int operations = 2000000;
+        long checksum = 0;
+        for(int i = 0; i < operations; i++){
+            valuables.increase(ResourceType.COIN, 5);
+            valuables.increase(ResourceType.WOOD, 1);
+            valuables.increase(PointType.MILITARY, 2);
+            if(valuables.checkDecrease(cost))
+                valuables.decreaseAll(cost);
+            checksum += valuables.getResources().get(ResourceType.COIN) + valuables.getPoints().get(PointType.MILITARY);
+            PointsAndResources created = new PointsAndResources();
+            created.increase(ResourceType.SERVANT, i & 3);
+            checksum += created.getResources().get(ResourceType.SERVANT);
+        }
+        assertTrue(checksum > 0);
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream output = new ObjectOutputStream(bytes)){
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+}
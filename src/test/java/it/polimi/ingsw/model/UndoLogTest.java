@@ -0,0 +1,86 @@
+package it.polimi.ingsw.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+public class UndoLogTest {
+    @Test
+    public void rollbackPutsBackSavedValues() throws Exception {
+        UndoLog undoLog = new UndoLog();
+        PointsAndResources valuables = new PointsAndResources();
+        valuables.increase(ResourceType.COIN, 5);
+        List<String> grown = new ArrayList<>(Arrays.asList("a", "b"));
+        List<String> changed = new ArrayList<>(Arrays.asList("x", "y", "z"));
+        Map<String, Integer> map = new HashMap<>();
+        map.put("kept", 1);
+        String[] field = {"before"};
+
+        int savepoint = undoLog.begin();
+        valuables.save(undoLog);
+        undoLog.saveSize(grown);
+        undoLog.saveList(changed);
+        undoLog.saveEntry(map, "kept");
+        undoLog.saveEntry(map, "added");
+        String old = field[0];
+        undoLog.save(() -> field[0] = old);
+
+        valuables.decrease(ResourceType.COIN, 3);
+        grown.add("c");
+        changed.remove(1);
+        changed.set(0, "w");
+        map.put("kept", 2);
+        map.put("added", 3);
+        field[0] = "after";
+        undoLog.rollback(savepoint);
+
+        assertEquals(5, valuables.get(ResourceType.COIN));
+        assertEquals(Arrays.asList("a", "b"), grown);
+        assertEquals(Arrays.asList("x", "y", "z"), changed);
+        assertEquals(1, map.size());
+        assertEquals(1, (int) map.get("kept"));
+        assertEquals("before", field[0]);
+        assertFalse(undoLog.isOpen());
+    }
+
+    @Test
+    public void nestedTransactions() throws Exception {
+        UndoLog undoLog = new UndoLog();
+        FamilyMember familyMember = new FamilyMember();
+
+        int outer = undoLog.begin();
+        familyMember.save(undoLog);
+        familyMember.setFamilyMemberValue(FamilyMemberColor.WHITE, 4);
+        int inner = undoLog.begin();
+        familyMember.save(undoLog);
+        familyMember.setFamilyMemberValue(FamilyMemberColor.WHITE, 6);
+        undoLog.commit(inner);
+        assertTrue(undoLog.isOpen());
+
+        undoLog.rollback(outer);
+        assertEquals(0, familyMember.get(FamilyMemberColor.WHITE));
+        assertFalse(undoLog.isOpen());
+    }
+
+    @Test
+    public void commitKeepsChanges() throws Exception {
+        UndoLog undoLog = new UndoLog();
+        FamilyMember familyMember = new FamilyMember();
+
+        int savepoint = undoLog.begin();
+        familyMember.save(undoLog);
+        familyMember.setFamilyMemberValue(FamilyMemberColor.BLACK, 3);
+        undoLog.commit(savepoint);
+
+        assertEquals(3, familyMember.get(FamilyMemberColor.BLACK));
+        assertFalse(undoLog.isOpen());
+    }
+
+}
@@ -0,0 +1,195 @@
+package it.polimi.ingsw.protocol;
+
+import it.polimi.ingsw.model.FamilyMemberColor;
+import it.polimi.ingsw.model.LeaderCard;
+import it.polimi.ingsw.model.PersonalBoardTile;
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Printer;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ServerCommunicationTest {
+
+    private static final int CONNECTIONS = 2;
+    private static final int REQUESTS_PER_ROOM = 20000;
+    private static final int REQUEST_WORK = 20000;
+
+    private static ServerCommunication createConnection(ServerCommunicationInterface room) throws IOException{
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        new ObjectOutputStream(header).flush();
+        ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(header.toByteArray()));
+        ObjectOutputStream output = new ObjectOutputStream(new ByteArrayOutputStream());
+        return new ServerCommunication(input, output, room);
+    }
+
+    @Test
+    public void handlersOfDifferentConnectionsOverlap() throws Exception {
+        CountDownLatch inside = new CountDownLatch(CONNECTIONS);
+        AtomicInteger overlapped = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for(int i = 0; i < CONNECTIONS; i++){
+            ServerCommunication communication = createConnection(new OverlappingRoomInterface(inside, overlapped));
+            Thread thread = new Thread(() -> communication.clientRequestHandler(SharedCostants.END_TURN));
+            thread.start();
+            threads.add(thread);
+        }
+        for(Thread thread : threads)
+            thread.join(10000);
+
+        // With a lock shared by all connections the first handler would wait alone and time out.
+        assertEquals(CONNECTIONS, overlapped.get());
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void roomScalingBenchmark() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double single = 0;
+        for(int rooms = 1; rooms <= 2 * cores; rooms *= 2){
+            double throughput = runRooms(rooms);
+            if(rooms == 1)
+                single = throughput;
+            Printer.printInformationMessage(String.format("%d rooms: %.0f requests/s, %.2fx one room",
+                    rooms, throughput, throughput / single));
+        }
+    }
+
+    /**
+     * Run a connection per room on its own thread, each handling the same number of requests.
+     * @param rooms number of connections.
+     * @return requests handled per second by all the connections together.
+     */
+    private static double runRooms(int rooms) throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+        List<ServerCommunication> communications = new ArrayList<>();
+        for(int i = 0; i < rooms; i++)
+            communications.add(createConnection(new BusyRoomInterface(handled)));
+        CountDownLatch done = new CountDownLatch(rooms);
+        long start = System.nanoTime();
+        for(ServerCommunication communication : communications)
+            new Thread(() -> {
+                for(int i = 0; i < REQUESTS_PER_ROOM; i++)
+                    communication.clientRequestHandler(SharedCostants.END_TURN);
+                done.countDown();
+            }).start();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        assertEquals(rooms * REQUESTS_PER_ROOM, handled.get());
+        return handled.get() * 1e9 / elapsed;
+    }
+
+    private static class OverlappingRoomInterface extends IdleRoomInterface {
+
+        private final CountDownLatch inside;
+        private final AtomicInteger overlapped;
+
+        private OverlappingRoomInterface(CountDownLatch inside, AtomicInteger overlapped){
+            this.inside = inside;
+            this.overlapped = overlapped;
+        }
+
+        @Override
+        public void endTurn() {
+            inside.countDown();
+            try {
+                if(inside.await(5, TimeUnit.SECONDS))
+                    overlapped.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Room that spends some CPU time on every request, as a move does.
+     */
+    private static class BusyRoomInterface extends IdleRoomInterface {
+
+        private final AtomicInteger handled;
+        private long state = 1;
+
+        private BusyRoomInterface(AtomicInteger handled){
+            this.handled = handled;
+        }
+
+        @Override
+        public void endTurn() {
+            for(int i = 0; i < REQUEST_WORK; i++)
+                state = state * 6364136223846793005L + 1442695040888963407L;
+            if(state != 0)
+                handled.incrementAndGet();
+        }
+    }
+
+    private static class IdleRoomInterface implements ServerCommunicationInterface {
+
+        @Override
+        public void requestResync() { }
+
+        @Override
+        public void endTurn() { }
+
+        @Override
+        public void loginPlayer(String username, String password) { }
+
+        @Override
+        public void signInPlayer(String username, String password) { }
+
+        @Override
+        public void joinRoom() { }
+
+        @Override
+        public void createNewRoom(int maxPlayersNumber) { }
+
+        @Override
+        public void notifyPlayerPersonalBoardTileChoice(PersonalBoardTile personalBoardTile) { }
+
+        @Override
+        public void notifyPlayerLeaderCardChoice(LeaderCard leaderCard) { }
+
+        @Override
+        public void setFamilyMemberInTower(FamilyMemberColor familyMemberColor, int servants, int towerIndex, int cellIndex, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInCouncil(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInMarket(FamilyMemberColor familyMemberColor, int servants, int marketIndex, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInHarvestSimple(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInHarvestExtended(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInProductionSimple(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void setFamilyMemberInProductionExtended(FamilyMemberColor familyMemberColor, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void activateLeaderCard(int leaderCardIndex, int servants, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void discardLeader(int leaderCardIndex, HashMap<String, Object> playerChoices) { }
+
+        @Override
+        public void notifySupportForTheChurch(boolean flag) { }
+    }
+
+}
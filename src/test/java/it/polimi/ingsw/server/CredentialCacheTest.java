@@ -0,0 +1,156 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.LoginErrorType;
+import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.utility.Metrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CredentialCacheTest {
+
+    private File file;
+    private DBServer dbServer;
+    private CredentialCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("lorenzo", ".db");
+        dbServer = new DBServer("jdbc:sqlite:" + file.getPath(), 4);
+        dbServer.connectToDatabase();
+        cache = new CredentialCache(dbServer, new PasswordHasher(2, 64, 1000), 100);
+    }
+
+    @After
+    public void tearDown() {
+        dbServer.close();
+        for(String suffix : new String[]{"", "-wal", "-shm"})
+            new File(file.getPath() + suffix).delete();
+    }
+
+    @Test
+    public void signInWritesThrough() throws Exception {
+        long misses = Metrics.count(CredentialCache.MISSES);
+        cache.signIn("alice", "secret");
+        cache.login("alice", "secret");
+        assertEquals(misses, Metrics.count(CredentialCache.MISSES));
+        assertTrue(PasswordHasher.isHashed(dbServer.getPassword("alice")));
+    }
+
+    @Test
+    public void registerStoresTheGivenHash() throws Exception {
+        String hash = cache.hash("secret");
+        cache.register("alice", hash);
+        assertEquals(hash, dbServer.getPassword("alice"));
+        cache.login("alice", "secret");
+        assertEquals(LoginErrorType.USER_WRONG_PASSWORD, loginError("alice", "wrong"));
+    }
+
+    @Test
+    public void plaintextPasswordIsHashedOnLogin() throws Exception {
+        dbServer.signInPlayer("alice", "secret");
+        long migrated = Metrics.count(CredentialCache.MIGRATED);
+        assertEquals(LoginErrorType.USER_WRONG_PASSWORD, loginError("alice", "wrong"));
+        assertEquals("secret", dbServer.getPassword("alice"));
+        cache.login("alice", "secret");
+        String hash = dbServer.getPassword("alice");
+        assertTrue(PasswordHasher.isHashed(hash));
+        assertEquals(migrated + 1, Metrics.count(CredentialCache.MIGRATED));
+        cache.login("alice", "secret");
+        assertEquals(hash, dbServer.getPassword("alice"));
+        assertEquals(LoginErrorType.USER_WRONG_PASSWORD, loginError("alice", "wrong"));
+    }
+
+    @Test
+    public void missReadsDatabaseOnce() throws Exception {
+        dbServer.signInPlayer("alice", "secret");
+        long misses = Metrics.count(CredentialCache.MISSES);
+        long hits = Metrics.count(CredentialCache.HITS);
+        cache.login("alice", "secret");
+        cache.login("alice", "secret");
+        assertEquals(misses + 1, Metrics.count(CredentialCache.MISSES));
+        assertEquals(hits + 1, Metrics.count(CredentialCache.HITS));
+    }
+
+    @Test
+    public void wrongCredentialsAreRejected() throws Exception {
+        cache.signIn("alice", "secret");
+        assertEquals(LoginErrorType.USER_WRONG_PASSWORD, loginError("alice", "wrong"));
+        assertEquals(LoginErrorType.USER_NOT_EXISTS, loginError("bob", "secret"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void cacheIsBounded() throws Exception {
+        for(int i = 0; i < 250; i++)
+            cache.signIn("player" + i, "pass" + i);
+        assertEquals(100, cache.size());
+        cache.login("player0", "pass0");
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void droppedUsersLeaveTheEvictionQueue() throws Exception {
+        DBServer changing = new DBServer("jdbc:sqlite:" + file.getPath(), 4){
+            @Override
+            boolean updatePassword(String username, String oldPass, String newPass) {
+                return false;
+            }
+        };
+        changing.connectToDatabase();
+        try {
+            cache = new CredentialCache(changing, new PasswordHasher(2, 64, 1000), 100);
+            changing.signInPlayer("alice", "secret");
+            for(int i = 0; i < 10; i++)
+                cache.login("alice", "secret");
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.queued());
+            for(int i = 0; i < 150; i++)
+                cache.signIn("player" + i, "pass" + i);
+            assertEquals(100, cache.size());
+            assertEquals(100, cache.queued());
+        } finally {
+            changing.close();
+        }
+    }
+
+    @Test
+    public void concurrentLoginsOfManyUsers() throws Exception {
+        for(int i = 0; i < 500; i++)
+            dbServer.signInPlayer("player" + i, "pass" + i);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for(int t = 0; t < 16; t++){
+            int thread = t;
+            results.add(executor.submit(() -> {
+                for(int i = thread; i < 5000; i += 16)
+                    cache.login("player" + i % 500, "pass" + i % 500);
+                return null;
+            }));
+        }
+        for(Future<?> result : results)
+            result.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(100, cache.size());
+    }
+
+    private LoginErrorType loginError(String username, String password) throws Exception {
+        try {
+            cache.login(username, password);
+            return null;
+        } catch (LoginException e){
+            return e.getError();
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.LoginErrorType;
+import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Printer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class DBServerTest {
+
+    private static final int USERS = 200;
+    private static final int THREADS = 16;
+    private static final int LOGINS = 20000;
+
+    private File file;
+    private DBServer dbServer;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("lorenzo", ".db");
+        dbServer = new DBServer(url(), 4);
+        dbServer.connectToDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        dbServer.close();
+        for(String suffix : new String[]{"", "-wal", "-shm"})
+            new File(file.getPath() + suffix).delete();
+    }
+
+    @Test
+    public void passwordIsReadByUsername() throws Exception {
+        dbServer.signInPlayer("alice", "secret");
+        assertEquals("secret", dbServer.getPassword("alice"));
+        assertNull(dbServer.getPassword("bob"));
+    }
+
+    @Test
+    public void signInRejectsTakenUsername() throws Exception {
+        dbServer.signInPlayer("alice", "secret");
+        try {
+            dbServer.signInPlayer("alice", "other");
+            fail();
+        } catch (LoginException e){
+            assertEquals(LoginErrorType.USER_ALREADY_EXISTS, e.getError());
+        }
+        assertEquals("secret", dbServer.getPassword("alice"));
+    }
+
+    @Test
+    public void lastRoomIDComesFromResults() throws Exception {
+        assertEquals(0, dbServer.getLastRoomID());
+        try (Connection connection = DriverManager.getConnection(url());
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO results (room, finished, position, username, points) VALUES(7, 0, 1, 'alice', 10);");
+            statement.execute("INSERT INTO results (room, finished, position, username, points) VALUES(3, 0, 1, 'bob', 10);");
+        }
+        assertEquals(7, dbServer.getLastRoomID());
+    }
+
+    @Test
+    public void databaseRunsInWalMode() throws Exception {
+        try (Connection connection = DriverManager.getConnection(url());
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode;")) {
+            assertTrue(resultSet.next());
+            assertEquals("wal", resultSet.getString(1).toLowerCase());
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void loginBenchmark() throws Exception {
+        signInUsers();
+        double legacy;
+        SingleConnectionLogin singleConnection = new SingleConnectionLogin(url());
+        try {
+            legacy = run(singleConnection::loginPlayer);
+        } finally {
+            singleConnection.close();
+        }
+        double pooled = run((username, password) -> assertNotNull(dbServer.getPassword(username)));
+        Printer.printInformationMessage(String.format("%d threads: single connection %.0f logins/s, pool %.0f logins/s, %.2fx",
+                THREADS, legacy, pooled, pooled / legacy));
+    }
+
+    private void signInUsers() throws Exception {
+        for(int i = 0; i < USERS; i++)
+            dbServer.signInPlayer("player" + i, "pass" + i);
+    }
+
+    /**
+     * Run the logins of all the users on a pool of threads.
+     * @param login to run.
+     * @return logins per second.
+     */
+    private static double run(Login login) throws Exception {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for(int t = 0; t < THREADS; t++){
+            int thread = t;
+            results.add(executor.submit(() -> {
+                for(int i = thread; i < LOGINS; i += THREADS)
+                    login.loginPlayer("player" + i % USERS, "pass" + i % USERS);
+                return null;
+            }));
+        }
+        for(Future<?> result : results)
+            result.get(120, TimeUnit.SECONDS);
+        executor.shutdown();
+        return LOGINS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private String url(){
+        return "jdbc:sqlite:" + file.getPath();
+    }
+
+    @FunctionalInterface
+    private interface Login {
+        void loginPlayer(String username, String password) throws LoginException, SQLException;
+    }
+
+    /**
+     * Login as it was before the pool: one shared connection, two queries prepared on every call,
+     * serialized by a global lock.
+     */
+    private static class SingleConnectionLogin {
+
+        private static final Object MUTEX = new Object();
+        private final Connection connection;
+
+        private SingleConnectionLogin(String url) throws SQLException {
+            connection = DriverManager.getConnection(url);
+        }
+
+        private void loginPlayer(String username, String pass) throws LoginException, SQLException {
+            synchronized (MUTEX){
+                if(!count("SELECT COUNT(*) AS number FROM users WHERE username=?", username))
+                    throw new LoginException(LoginErrorType.USER_NOT_EXISTS);
+                if(!count("SELECT COUNT(*) AS number FROM users WHERE username=? AND pass=?;", username, pass))
+                    throw new LoginException(LoginErrorType.USER_WRONG_PASSWORD);
+            }
+        }
+
+        private boolean count(String query, String... parameters) throws SQLException {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                for(int i = 0; i < parameters.length; i++)
+                    preparedStatement.setString(i + 1, parameters[i]);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    return resultSet.next() && resultSet.getInt("number") == 1;
+                }
+            }
+        }
+
+        private void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.RoomException;
+import it.polimi.ingsw.gameserver.Configurator;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.gameserver.TestPlayer;
+import it.polimi.ingsw.utility.Configuration;
+import it.polimi.ingsw.utility.Metrics;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class MatchmakerTest {
+
+    private RoomRegistry registry;
+    private Matchmaker matchmaker;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        Configuration configuration = RoomRegistryTest.configuration();
+        registry = new RoomRegistry();
+        matchmaker = new Matchmaker(registry, () -> configuration);
+    }
+
+    @Test
+    public void fullQueueCreatesRoom() throws Exception {
+        assertNull(matchmaker.enqueue(new TestPlayer("alice"), 3));
+        assertNull(matchmaker.enqueue(new TestPlayer("bob"), 3));
+        assertEquals(2, matchmaker.waiting(3));
+        Room room = matchmaker.enqueue(new TestPlayer("carol"), 3);
+        assertNotNull(room);
+        assertEquals(3, room.getPlayersNumber());
+        assertFalse(room.isOpen());
+        assertSame(room, registry.roomOf("alice"));
+        assertEquals(0, matchmaker.waiting(3));
+    }
+
+    @Test
+    public void joinPicksQueueClosestToRoom() throws Exception {
+        for(String username : new String[]{"alice", "bob", "carol"})
+            matchmaker.enqueue(new TestPlayer(username), 4);
+        matchmaker.enqueue(new TestPlayer("dave"), 3);
+        Room room = matchmaker.join(new TestPlayer("eve"));
+        assertNotNull(room);
+        assertEquals(4, room.getMaxPlayerNumber());
+        assertEquals(1, matchmaker.waiting(3));
+    }
+
+    @Test
+    public void joinWithoutWaitingPlayersStartsDefaultQueue() throws Exception {
+        assertNull(matchmaker.join(new TestPlayer("alice")));
+        assertEquals(1, matchmaker.waiting(Matchmaker.DEFAULT_ROOM_SIZE));
+        assertNull(matchmaker.join(new TestPlayer("bob")));
+        assertEquals(2, matchmaker.waiting(Matchmaker.DEFAULT_ROOM_SIZE));
+    }
+
+    @Test(expected = RoomException.class)
+    public void sizeOutOfRangeFails() throws Exception {
+        matchmaker.enqueue(new TestPlayer("alice"), Matchmaker.MAX_ROOM_SIZE + 1);
+    }
+
+    @Test
+    public void requeueKeepsPlace() throws Exception {
+        matchmaker.enqueue(new TestPlayer("alice"), 2);
+        TestPlayer session = new TestPlayer("alice");
+        assertTrue(matchmaker.requeue(session));
+        assertFalse(matchmaker.requeue(new TestPlayer("bob")));
+        assertEquals(1, matchmaker.waiting(2));
+        matchmaker.enqueue(new TestPlayer("bob"), 2);
+        assertSame(registry.roomOf("alice"), session.getRoom());
+    }
+
+    @Test
+    public void disconnectedPlayerLeavesQueue() throws Exception {
+        TestPlayer alice = new TestPlayer("alice");
+        matchmaker.enqueue(alice, 3);
+        matchmaker.enqueue(new TestPlayer("bob"), 3);
+        assertFalse(matchmaker.leave(new TestPlayer("alice")));
+        assertTrue(matchmaker.leave(alice));
+        assertFalse(matchmaker.leave(alice));
+        assertEquals(1, matchmaker.waiting(3));
+        assertFalse(matchmaker.requeue(new TestPlayer("alice")));
+        matchmaker.enqueue(new TestPlayer("carol"), 3);
+        Room room = matchmaker.enqueue(new TestPlayer("dave"), 3);
+        assertNotNull(room);
+        assertNull(registry.roomOf("alice"));
+        assertNull(alice.getRoom());
+    }
+
+    @Test
+    public void waitingPlayersGetSmallerRoomAfterWaitingTime() throws Exception {
+        Configuration configuration = new Configuration(50, 1000,
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+        matchmaker = new Matchmaker(registry, () -> configuration);
+        matchmaker.enqueue(new TestPlayer("alice"), 4);
+        matchmaker.enqueue(new TestPlayer("bob"), 4);
+        long deadline = System.currentTimeMillis() + 5000;
+        while(registry.roomOf("alice") == null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        Room room = registry.roomOf("alice");
+        assertNotNull(room);
+        assertEquals(2, room.getMaxPlayerNumber());
+        assertEquals(0, matchmaker.waiting(4));
+    }
+
+    @Test
+    public void lonePlayerGetsBotsAfterBotWaitingTime() throws Exception {
+        matchmaker = new Matchmaker(registry, () -> configuration(50), () -> new TestPlayer("@bot-1"), 300);
+        matchmaker.enqueue(new TestPlayer("alice"), 4);
+        Thread.sleep(100);
+        assertNull(registry.roomOf("alice"));
+        assertEquals(1, matchmaker.waiting(4));
+        Room room = awaitRoom("alice");
+        assertNotNull(room);
+        assertEquals(Matchmaker.MIN_ROOM_SIZE, room.getMaxPlayerNumber());
+        assertSame(room, registry.roomOf("@bot-1"));
+        assertEquals(0, matchmaker.waiting(4));
+    }
+
+    @Test
+    public void secondPlayerIsPreferredToBots() throws Exception {
+        matchmaker = new Matchmaker(registry, () -> configuration(50), () -> new TestPlayer("@bot-1"), 5000);
+        matchmaker.enqueue(new TestPlayer("alice"), 4);
+        Thread.sleep(100);
+        matchmaker.enqueue(new TestPlayer("bob"), 4);
+        Room room = awaitRoom("alice");
+        assertNotNull(room);
+        assertSame(room, registry.roomOf("bob"));
+        assertNull(registry.roomOf("@bot-1"));
+    }
+
+    @Test
+    public void burstOfJoinsFillsRooms() throws Exception {
+        int players = 4000;
+        long recorded = waitTimeCount();
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for(int i = 0; i < players; i++){
+            String username = "player" + i;
+            int size = Matchmaker.MIN_ROOM_SIZE + i % 3;
+            boolean join = i % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                if(join)
+                    matchmaker.join(new TestPlayer(username));
+                else
+                    matchmaker.enqueue(new TestPlayer(username), size);
+                if(registry.roomOf(username) == null)
+                    matchmaker.requeue(new TestPlayer(username));
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> result : results)
+            result.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        Set<Room> rooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        int inRooms = 0;
+        for(int i = 0; i < players; i++){
+            Room room = registry.roomOf("player" + i);
+            if(room != null){
+                inRooms++;
+                rooms.add(room);
+            }
+        }
+        int joined = 0;
+        for(Room room : rooms){
+            assertEquals(room.getMaxPlayerNumber(), room.getPlayersNumber());
+            joined += room.getPlayersNumber();
+        }
+        int waiting = 0;
+        for(int size = Matchmaker.MIN_ROOM_SIZE; size <= Matchmaker.MAX_ROOM_SIZE; size++){
+            assertTrue(matchmaker.waiting(size) < size);
+            waiting += matchmaker.waiting(size);
+        }
+        assertEquals(inRooms, joined);
+        assertEquals(players, inRooms + waiting);
+        assertEquals(rooms.size(), registry.size());
+        assertEquals(inRooms, waitTimeCount() - recorded);
+    }
+
+    private Room awaitRoom(String username) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while(registry.roomOf(username) == null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        return registry.roomOf(username);
+    }
+
+    private static Configuration configuration(long waitingTime){
+        return new Configuration(waitingTime, 1000,
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+    }
+
+    private static long waitTimeCount(){
+        long count = 0;
+        for(int size = Matchmaker.MIN_ROOM_SIZE; size <= Matchmaker.MAX_ROOM_SIZE; size++)
+            count += Metrics.histogram(Matchmaker.WAIT_TIME + size).getCount();
+        return count;
+    }
+
+}
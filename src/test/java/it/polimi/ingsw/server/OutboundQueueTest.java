@@ -0,0 +1,148 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.gameserver.TestPlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OutboundQueueTest {
+
+    private SlowPlayer player;
+
+    @Before
+    public void setUp() {
+        player = new SlowPlayer();
+    }
+
+    @After
+    public void tearDown() {
+        player.release.countDown();
+    }
+
+    @Test
+    public void slowPlayerDoesNotBlockSender() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.COALESCE, 8);
+        long start = System.nanoTime();
+        for(int i = 0; i < 8; i++)
+            queue.send(to -> to.notifyTurnStarted("alice", 10));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void coalesceKeepsLatestMessage() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.COALESCE, 4);
+        queue.send(to -> to.notifyTurnStarted("first", 10));
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+        for(String username : new String[]{"alice", "bob", "carol", "dave", "eve"})
+            queue.send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted(username, 10));
+        assertEquals(1, queue.depth());
+        assertEquals(0, queue.drops());
+
+        player.release.countDown();
+        assertTrue(player.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "eve"), player.received);
+    }
+
+    @Test
+    public void dropDiscardsKeyedMessagesWhenFull() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.DROP, 2);
+        queue.send(to -> to.notifyTurnStarted("first", 10));
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("alice", 10));
+        queue.send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted("bob", 10));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("carol", 10));
+        assertEquals(2, queue.depth());
+        assertEquals(1, queue.drops());
+        assertFalse(player.disconnected);
+    }
+
+    @Test
+    public void coalesceKeepsPlaceOfPendingMessage() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.COALESCE, 4);
+        queue.send(to -> to.notifyTurnStarted("first", 10));
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("old", 10));
+        queue.send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted("turn", 10));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("new", 10));
+        assertEquals(2, queue.depth());
+
+        player.delivered = new CountDownLatch(3);
+        player.release.countDown();
+        assertTrue(player.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "new", "turn"), player.received);
+    }
+
+    @Test
+    public void dropKeepsControlMessages() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.DROP, 2);
+        queue.send(to -> to.notifyTurnStarted("first", 10));
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("alice", 10));
+        queue.send(OutboundQueue.MODEL_UPDATE, to -> to.notifyTurnStarted("bob", 10));
+        queue.send(OutboundQueue.TURN_STARTED, to -> to.notifyTurnStarted("carol", 10));
+        assertEquals(2, queue.depth());
+        assertEquals(1, queue.drops());
+        assertFalse(player.disconnected);
+
+        player.delivered = new CountDownLatch(3);
+        player.release.countDown();
+        assertTrue(player.delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "bob", "carol"), player.received);
+    }
+
+    @Test
+    public void disconnectClosesQueueWhenFull() throws Exception {
+        OutboundQueue queue = new OutboundQueue(player, OutboundQueue.Policy.DISCONNECT, 2);
+        queue.send(to -> to.notifyTurnStarted("first", 10));
+        assertTrue(player.started.await(5, TimeUnit.SECONDS));
+        queue.send(to -> to.notifyTurnStarted("alice", 10));
+        queue.send(to -> to.notifyTurnStarted("bob", 10));
+        assertFalse(player.disconnected);
+        queue.send(to -> to.notifyTurnStarted("carol", 10));
+        assertTrue(player.disconnected);
+        assertEquals(0, queue.depth());
+        queue.send(to -> to.notifyTurnStarted("dave", 10));
+        assertEquals(4, queue.drops());
+    }
+
+    private static class SlowPlayer extends TestPlayer {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile CountDownLatch delivered = new CountDownLatch(2);
+        private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean disconnected;
+
+        private SlowPlayer(){
+            super("slow");
+        }
+
+        @Override
+        public void notifyTurnStarted(String username, long seconds) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(username);
+            delivered.countDown();
+        }
+
+        @Override
+        public void disconnect() {
+            disconnected = true;
+        }
+    }
+
+}
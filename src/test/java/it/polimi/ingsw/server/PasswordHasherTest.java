@@ -0,0 +1,84 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.exceptions.LoginErrorType;
+import it.polimi.ingsw.exceptions.LoginException;
+import it.polimi.ingsw.utility.Metrics;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class PasswordHasherTest {
+
+    @Test
+    public void hashIsSaltedAndVerifiable() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 8, 1000);
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+        assertTrue(PasswordHasher.isHashed(first));
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+        assertFalse(hasher.verify("wrong", first));
+    }
+
+    @Test
+    public void hashKeepsItsIterations() throws Exception {
+        String hash = new PasswordHasher(1, 8, 500).hash("secret");
+        assertTrue(hash.startsWith("pbkdf2$500$"));
+        assertTrue(new PasswordHasher(1, 8, 2000).verify("secret", hash));
+    }
+
+    @Test
+    public void plaintextIsComparedAsIs() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 8, 1000);
+        assertFalse(PasswordHasher.isHashed("secret"));
+        assertTrue(hasher.verify("secret", "secret"));
+        assertFalse(hasher.verify("secret", "other"));
+    }
+
+    @Test
+    public void malformedHashMatchesNoPassword() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 8, 1000);
+        String hash = hasher.hash("secret");
+        String salt = hash.split("\\$")[2];
+        for(String stored : new String[]{"pbkdf2$", "pbkdf2$1000", "pbkdf2$many$" + salt + "$" + salt,
+                "pbkdf2$1000$%%$" + salt, "pbkdf2$0$" + salt + "$" + salt, "pbkdf2$1000$$" + salt, hash + "$extra"})
+            assertFalse(stored, hasher.verify("secret", stored));
+    }
+
+    @Test
+    public void fullQueueRejectsHashes() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(1, 1, 200000);
+        long rejected = Metrics.count(PasswordHasher.REJECTED);
+        long hashed = Metrics.histogram(PasswordHasher.HASH_TIME).getCount();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for(int i = 0; i < 6; i++)
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    hasher.hash("secret");
+                    return true;
+                } catch (LoginException e){
+                    assertEquals(LoginErrorType.SERVER_BUSY, e.getError());
+                    return false;
+                }
+            }));
+        start.countDown();
+        int accepted = 0;
+        for(Future<Boolean> result : results)
+            if(result.get(60, TimeUnit.SECONDS))
+                accepted++;
+        executor.shutdown();
+        assertTrue(accepted >= 1);
+        assertTrue(accepted < 6);
+        assertEquals(6 - accepted, Metrics.count(PasswordHasher.REJECTED) - rejected);
+        assertEquals(accepted, Metrics.histogram(PasswordHasher.HASH_TIME).getCount() - hashed);
+    }
+
+}
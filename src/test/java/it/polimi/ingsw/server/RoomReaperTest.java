@@ -0,0 +1,139 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.gameserver.Configurator;
+import it.polimi.ingsw.gameserver.GameResult;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.gameserver.TestPlayer;
+import it.polimi.ingsw.utility.Benchmark;
+import it.polimi.ingsw.utility.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class RoomReaperTest {
+
+    private static final int PLAYERS = 2;
+    private static final int BATCH = 10;
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+    private RoomRegistry registry;
+    private RoomReaper reaper;
+    private Queue<GameResult> saved;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        saved = new ConcurrentLinkedQueue<>();
+        registry = new RoomRegistry(room -> reaper.finished(room));
+        reaper = new RoomReaper(registry, 10, saved::add);
+    }
+
+    @Test
+    public void finishedRoomIsArchivedAndEvicted() throws Exception {
+        Room room = startRoom(0);
+        awaitEvicted(1);
+        assertEquals(Room.Lifecycle.EVICTED, room.getLifecycle());
+        for(int i = 0; i < PLAYERS; i++)
+            assertNull(registry.roomOf("player0-" + i));
+        assertEquals(1, saved.size());
+        GameResult result = saved.peek();
+        assertEquals(PLAYERS, result.getRanking().size());
+        assertEquals(PLAYERS, result.getVictoryPoints().size());
+    }
+
+    @Test
+    public void failedPersistenceStillEvictsRoom() throws Exception {
+        reaper = new RoomReaper(registry, 10, result -> { throw new IllegalStateException("database down"); });
+        startRoom(0);
+        awaitEvicted(0);
+        assertNull(registry.roomOf("player0-0"));
+    }
+
+    @Test
+    public void registryForgetsEveryFinishedRoom() throws Exception {
+        List<Room> rooms = new ArrayList<>();
+        for(int i = 0; i < BATCH; i++)
+            rooms.add(startRoom(i));
+        awaitEvicted(BATCH);
+        assertEquals(BATCH, saved.size());
+        assertEquals(0, registry.size());
+        for(Room room : rooms){
+            assertEquals(Room.Lifecycle.EVICTED, room.getLifecycle());
+            for(String username : room.getUsernames())
+                assertNull(registry.roomOf(username));
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void heapStaysFlatOverManyGames() throws Exception {
+        int games = Integer.getInteger("lorenzo.heapTest.games", 100);
+        int warmup = games / 4;
+        List<WeakReference<Room>> references = new ArrayList<>();
+        long baseline = 0;
+        for(int started = 0; started < games; started += BATCH){
+            for(int i = started; i < Math.min(games, started + BATCH); i++)
+                references.add(new WeakReference<>(startRoom(i)));
+            awaitEvicted(Math.min(games, started + BATCH));
+            if(baseline == 0 && started + BATCH >= warmup)
+                baseline = usedHeap();
+        }
+        long growth = usedHeap() - baseline;
+        assertEquals(games, saved.size());
+        assertEquals(0, registry.size());
+        assertTrue("heap grew by " + growth + " bytes", growth < MAX_HEAP_GROWTH);
+        for(WeakReference<Room> reference : references)
+            assertTrue(collected(reference));
+    }
+
+    private Room startRoom(int id) throws Exception {
+        List<ServerPlayer> players = new ArrayList<>();
+        for(int i = 0; i < PLAYERS; i++)
+            players.add(new TestPlayer("player" + id + "-" + i, new CountDownLatch(1), true));
+        return registry.create(players, configuration());
+    }
+
+    private void awaitEvicted(int rooms) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60000;
+        while((saved.size() < rooms || registry.size() > 0) && System.currentTimeMillis() < deadline)
+            Thread.sleep(5);
+        assertEquals(0, registry.size());
+    }
+
+    private static boolean collected(WeakReference<?> reference) throws InterruptedException {
+        for(int i = 0; i < 10 && reference.get() != null; i++){
+            System.gc();
+            Thread.sleep(10);
+        }
+        return reference.get() == null;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++){
+            System.gc();
+            Thread.sleep(20);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Configuration configuration(){
+        return new Configuration(0, 60000,
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+    }
+
+}
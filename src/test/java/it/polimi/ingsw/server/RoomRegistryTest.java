@@ -0,0 +1,108 @@
+package it.polimi.ingsw.server;
+
+import it.polimi.ingsw.gameserver.Configurator;
+import it.polimi.ingsw.gameserver.Room;
+import it.polimi.ingsw.gameserver.TestPlayer;
+import it.polimi.ingsw.utility.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class RoomRegistryTest {
+
+    private Configuration configuration;
+    private RoomRegistry registry;
+
+    @Before
+    public void setUp() throws Exception {
+        Configurator.loadConfigurations();
+        configuration = configuration();
+        registry = new RoomRegistry();
+    }
+
+    @Test
+    public void createdRoomIsFull() throws Exception {
+        TestPlayer alice = new TestPlayer("alice");
+        TestPlayer bob = new TestPlayer("bob");
+        Room room = registry.create(Arrays.asList(alice, bob), configuration);
+        assertFalse(room.isOpen());
+        assertEquals(2, room.getPlayersNumber());
+        assertSame(room, alice.getRoom());
+        assertSame(room, bob.getRoom());
+        assertSame(room, registry.roomOf("bob"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void seededRoomIDsAreNotReused() throws Exception {
+        registry.seedRoomID(41);
+        registry.seedRoomID(7);
+        Room room = registry.create(Arrays.asList(new TestPlayer("alice"), new TestPlayer("bob")), configuration);
+        assertEquals(42, room.getRoomID());
+    }
+
+    @Test
+    public void sizeCountsRoomsNotEvicted() throws Exception {
+        registry.seedRoomID(41);
+        Room first = registry.create(Arrays.asList(new TestPlayer("alice"), new TestPlayer("bob")), configuration);
+        registry.create(Arrays.asList(new TestPlayer("carol"), new TestPlayer("dave")), configuration);
+        assertEquals(2, registry.size());
+        registry.evict(first, first.getUsernames());
+        assertEquals(1, registry.size());
+        assertNull(registry.roomOf("alice"));
+    }
+
+    @Test
+    public void rejoinFindsPreviousRoom() throws Exception {
+        Room room = registry.create(Arrays.asList(new TestPlayer("alice"), new TestPlayer("bob")), configuration);
+        assertNull(registry.rejoin(new TestPlayer("carol")));
+        assertSame(room, registry.rejoin(new TestPlayer("alice")));
+        assertEquals(2, room.getPlayersNumber());
+    }
+
+    @Test
+    public void concurrentCreateAndRejoin() throws Exception {
+        int rooms = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Room>> results = new ArrayList<>();
+        for(int i = 0; i < rooms; i++){
+            String first = "player" + i + "a";
+            String second = "player" + i + "b";
+            results.add(executor.submit(() -> {
+                start.await();
+                Room room = registry.create(Arrays.asList(new TestPlayer(first), new TestPlayer(second)), configuration);
+                assertSame(room, registry.rejoin(new TestPlayer(first)));
+                return room;
+            }));
+        }
+        start.countDown();
+        boolean[] ids = new boolean[rooms + 1];
+        for(int i = 0; i < rooms; i++){
+            Room room = results.get(i).get(60, TimeUnit.SECONDS);
+            assertSame(room, registry.roomOf("player" + i + "b"));
+            assertFalse(ids[room.getRoomID()]);
+            ids[room.getRoomID()] = true;
+        }
+        executor.shutdown();
+        assertEquals(rooms, registry.size());
+    }
+
+    /*package-local*/ static Configuration configuration(){
+        return new Configuration(TimeUnit.HOURS.toMillis(1),
+                Configurator.getConfiguration().getMoveWaitingTime(),
+                Configurator.getConfiguration().getVictoryPointsForGreenCards(),
+                Configurator.getConfiguration().getVictoryPointsForBlueCards(),
+                Configurator.getConfiguration().getVictoryPointsBonusForFaith(),
+                Configurator.getConfiguration().getMainBoard(),
+                Configurator.getConfiguration().getPersonalBoard(),
+                Configurator.getConfiguration().getPersonalBoardTiles());
+    }
+
+}
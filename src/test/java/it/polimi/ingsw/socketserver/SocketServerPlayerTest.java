@@ -0,0 +1,84 @@
+package it.polimi.ingsw.socketserver;
+
+import it.polimi.ingsw.server.ServerInterface;
+import it.polimi.ingsw.server.ServerPlayer;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SocketServerPlayerTest {
+
+    /**
+     * Request names as written by the client protocol.
+     */
+    private static final String END_TURN = "endTurn";
+    private static final String RESYNC = "resync";
+
+    private static ObjectInputStream requests(Object... objects) throws IOException{
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        for(Object object : objects)
+            output.writeObject(object);
+        output.flush();
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void requestAfterEvictionIsIgnored() throws Exception {
+        CountingServer server = new CountingServer();
+        SocketServerPlayer player = new SocketServerPlayer(() -> { }, requests(END_TURN, RESYNC),
+                new ObjectOutputStream(new ByteArrayOutputStream()), server);
+        player.setUsername("alice");
+        // An evicted room clears the room of its players.
+        player.setRoom(null);
+
+        assertTrue(player.handleNextRequest());
+        assertTrue(player.handleNextRequest());
+        assertEquals(0, server.disabled.get());
+    }
+
+    @Test
+    public void failingRequestDisablesThePlayer() throws Exception {
+        CountingServer server = new CountingServer();
+        SocketServerPlayer player = new SocketServerPlayer(() -> { }, requests(RESYNC, END_TURN),
+                new ObjectOutputStream(new ByteArrayOutputStream()), server){
+            @Override
+            public void requestResync() {
+                throw new IllegalStateException("broken room");
+            }
+        };
+
+        player.run();
+        assertEquals(1, server.disabled.get());
+    }
+
+    private static class CountingServer implements ServerInterface {
+
+        private final AtomicInteger disabled = new AtomicInteger();
+
+        @Override
+        public void loginPlayer(ServerPlayer player, String username, String password) { }
+
+        @Override
+        public void signInPlayer(String username, String password) { }
+
+        @Override
+        public ServerPlayer getUser(String username) {
+            return null;
+        }
+
+        @Override
+        public void joinRoom(ServerPlayer serverPlayer) { }
+
+        @Override
+        public void createNewRoom(ServerPlayer serverPlayer, int maxPlayers) { }
+
+        @Override
+        public void disableUser(ServerPlayer player) {
+            disabled.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package it.polimi.ingsw.utility;
+
+/**
+ * Category of the tests that measure performance. They are slow and their time depends on the machine,
+ * so they are excluded from the default test run and only run with the benchmark profile:
+ * mvn test -Pbenchmark
+ */
+public interface Benchmark {
+}
@@ -0,0 +1,61 @@
+package it.polimi.ingsw.utility;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class DeadlineSchedulerTest {
+
+    @Test
+    public void deadlineFiresAfterDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        DeadlineScheduler.schedule(50, fired::countDown);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+    }
+
+    @Test
+    public void cancelledDeadlineNeverFires() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        DeadlineScheduler.Deadline deadline = DeadlineScheduler.schedule(20, runs::incrementAndGet);
+        assertTrue(deadline.cancel());
+        assertFalse(deadline.cancel());
+        CountDownLatch after = new CountDownLatch(1);
+        DeadlineScheduler.schedule(60, after::countDown);
+        assertTrue(after.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void expiredDeadlineCannotBeCancelled() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        DeadlineScheduler.Deadline deadline = DeadlineScheduler.schedule(0, fired::countDown);
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertFalse(deadline.cancel());
+        assertEquals(0, deadline.remaining());
+    }
+
+    @Test
+    public void manyDeadlinesShareOneThread() throws Exception {
+        int deadlines = 1000;
+        CountDownLatch fired = new CountDownLatch(deadlines / 2);
+        for(int i = 0; i < deadlines; i++){
+            DeadlineScheduler.Deadline deadline = DeadlineScheduler.schedule(10 + i % 20, fired::countDown);
+            if(i % 2 == 1)
+                deadline.cancel();
+        }
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        Thread[] threads = new Thread[Thread.activeCount() * 2];
+        int schedulers = 0;
+        for(int i = Thread.enumerate(threads) - 1; i >= 0; i--)
+            if(threads[i].getName().equals("deadline-scheduler"))
+                schedulers++;
+        assertEquals(1, schedulers);
+    }
+
+}